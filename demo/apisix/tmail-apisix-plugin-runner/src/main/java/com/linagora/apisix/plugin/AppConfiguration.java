@@ -1,5 +1,6 @@
 package com.linagora.apisix.plugin;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -16,6 +17,7 @@ import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.api.sync.RedisStringCommands;
 import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 
 @Configuration
 public class AppConfiguration {
@@ -30,13 +32,35 @@ public class AppConfiguration {
     @Value("${redis.cluster.enable}")
     private Boolean redisClusterEnable;
 
+    @Value("${revoked_token.cache.enable}")
+    private Boolean cacheEnable;
+
+    @Value("${revoked_token.cache.revoked_ttl}")
+    private Duration cacheRevokedTtl;
+
+    @Value("${revoked_token.cache.valid_ttl}")
+    private Duration cacheValidTtl;
+
+    @Value("${revoked_token.cache.capacity}")
+    private Long cacheCapacity;
+
     @Primary
     @Bean
     public IRevokedTokenRepository revokedTokenRepository() {
         if (StringUtils.hasText(redisUrl)) {
             logger.info("The plugin using redis for storage revoked tokens. \nURI = {}\nCluster.enable = {}",
                 redisUrl, redisClusterEnable);
-            return new RedisRevokedTokenRepository(initRedisCommand(redisUrl, redisPassword, redisClusterEnable));
+            RedisRevokedTokenRepository redisRepository = new RedisRevokedTokenRepository(initRedisCommand(redisUrl, redisPassword, redisClusterEnable));
+            if (!cacheEnable) {
+                return redisRepository;
+            }
+
+            logger.info("The plugin caching revoked tokens locally. \nRevoked TTL = {}\nValid TTL = {}\nCapacity = {}",
+                cacheRevokedTtl, cacheValidTtl, cacheCapacity);
+            RedisRevokedTokenNotifier notifier = new RedisRevokedTokenNotifier(
+                initRedisPubSubConnection(redisUrl, redisPassword, redisClusterEnable),
+                initRedisPubSubConnection(redisUrl, redisPassword, redisClusterEnable));
+            return new CachingRevokedTokenRepository(redisRepository, notifier, cacheRevokedTtl, cacheValidTtl, cacheCapacity);
         }
 
         logger.info("The plugin using local memory for storage revoked tokens");
@@ -44,6 +68,24 @@ public class AppConfiguration {
     }
 
     public static RedisStringCommands<String, String> initRedisCommand(String redisUrl, String redisPassword, boolean redisClusterEnable) {
+        List<RedisURI> redisURIList = buildRedisUriList(redisUrl, redisPassword, redisClusterEnable);
+
+        if (!redisClusterEnable) {
+            return RedisClient.create(redisURIList.get(0)).connect().sync();
+        }
+        return RedisClusterClient.create(redisURIList).connect().sync();
+    }
+
+    public static StatefulRedisPubSubConnection<String, String> initRedisPubSubConnection(String redisUrl, String redisPassword, boolean redisClusterEnable) {
+        List<RedisURI> redisURIList = buildRedisUriList(redisUrl, redisPassword, redisClusterEnable);
+
+        if (!redisClusterEnable) {
+            return RedisClient.create(redisURIList.get(0)).connectPubSub();
+        }
+        return RedisClusterClient.create(redisURIList).connectPubSub();
+    }
+
+    private static List<RedisURI> buildRedisUriList(String redisUrl, String redisPassword, boolean redisClusterEnable) {
         List<RedisURI> redisURIList = Arrays.stream(redisUrl.split(","))
             .map(url -> buildRedisUri(url, redisPassword))
             .map(RedisURI::create)
@@ -51,11 +93,7 @@ public class AppConfiguration {
         if (redisURIList.size() > 1 && !redisClusterEnable) {
             throw new IllegalArgumentException("Can not provide multi Redis URI when cluster.enable=false");
         }
-
-        if (!redisClusterEnable) {
-            return RedisClient.create(redisURIList.get(0)).connect().sync();
-        }
-        return RedisClusterClient.create(redisURIList).connect().sync();
+        return redisURIList;
     }
 
     private static String buildRedisUri(String redisUrl, String redisPassword) {
@@ -0,0 +1,81 @@
+package com.linagora.apisix.plugin;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Keeps the outcome of the revoked token lookups in memory so that the gateway does not pay a Redis round trip per request.
+ *
+ * Revoked sids are remembered for a long TTL: a revocation is final. Sids checked valid are remembered for a short TTL,
+ * and dropped as soon as a revocation is received from the {@link RevokedTokenNotifier}. A missed notification thus
+ * lets a revoked token through for at most the valid TTL.
+ */
+public class CachingRevokedTokenRepository implements IRevokedTokenRepository {
+    private final Logger logger = LoggerFactory.getLogger("RevokedTokenPlugin");
+
+    private final IRevokedTokenRepository delegate;
+    private final RevokedTokenNotifier notifier;
+    private final Cache<String, Boolean> revokedSids;
+    private final Cache<String, Boolean> validSids;
+
+    public CachingRevokedTokenRepository(IRevokedTokenRepository delegate, RevokedTokenNotifier notifier,
+                                         Duration revokedTtl, Duration validTtl, long maxSize) {
+        this(delegate, notifier, revokedTtl, validTtl, maxSize, Ticker.systemTicker());
+    }
+
+    CachingRevokedTokenRepository(IRevokedTokenRepository delegate, RevokedTokenNotifier notifier,
+                                  Duration revokedTtl, Duration validTtl, long maxSize, Ticker ticker) {
+        this.delegate = delegate;
+        this.notifier = notifier;
+        this.revokedSids = Caffeine.newBuilder()
+            .expireAfterWrite(revokedTtl.toMillis(), TimeUnit.MILLISECONDS)
+            .maximumSize(maxSize)
+            .ticker(ticker)
+            .build();
+        this.validSids = Caffeine.newBuilder()
+            .expireAfterWrite(validTtl.toMillis(), TimeUnit.MILLISECONDS)
+            .maximumSize(maxSize)
+            .ticker(ticker)
+            .build();
+
+        notifier.register(this::onRevoked);
+    }
+
+    @Override
+    public void add(String sid) {
+        delegate.add(sid);
+        onRevoked(sid);
+        notifier.notifyRevoked(sid);
+    }
+
+    @Override
+    public boolean exist(String sid) {
+        if (revokedSids.getIfPresent(sid) != null) {
+            return true;
+        }
+        if (validSids.getIfPresent(sid) != null) {
+            return false;
+        }
+
+        boolean revoked = delegate.exist(sid);
+        if (revoked) {
+            revokedSids.put(sid, true);
+        } else {
+            validSids.put(sid, true);
+        }
+        return revoked;
+    }
+
+    void onRevoked(String sid) {
+        logger.debug("Caching revoked token, Sid: " + sid);
+        revokedSids.put(sid, true);
+        validSids.invalidate(sid);
+    }
+}
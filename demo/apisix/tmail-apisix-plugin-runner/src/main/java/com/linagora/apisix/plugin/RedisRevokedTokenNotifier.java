@@ -0,0 +1,51 @@
+package com.linagora.apisix.plugin;
+
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+/**
+ * Propagates revocations to every plugin runner through a Redis pub/sub channel.
+ *
+ * Pub/sub delivery is at most once: the short TTL of the valid sids cached by {@link CachingRevokedTokenRepository}
+ * bounds the impact of a lost message.
+ */
+public class RedisRevokedTokenNotifier implements RevokedTokenNotifier {
+    public static final String CHANNEL = "tmail-apisix-revoked-sid";
+
+    private final Logger logger = LoggerFactory.getLogger("RevokedTokenPlugin");
+    private final StatefulRedisPubSubConnection<String, String> publishConnection;
+    private final StatefulRedisPubSubConnection<String, String> subscribeConnection;
+
+    public RedisRevokedTokenNotifier(StatefulRedisPubSubConnection<String, String> publishConnection,
+                                     StatefulRedisPubSubConnection<String, String> subscribeConnection) {
+        this.publishConnection = publishConnection;
+        this.subscribeConnection = subscribeConnection;
+    }
+
+    @Override
+    public void notifyRevoked(String sid) {
+        try {
+            publishConnection.sync().publish(CHANNEL, sid);
+        } catch (Exception e) {
+            logger.warn("Could not notify the revocation of Sid: " + sid, e);
+        }
+    }
+
+    @Override
+    public void register(Consumer<String> listener) {
+        subscribeConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String sid) {
+                if (CHANNEL.equals(channel)) {
+                    listener.accept(sid);
+                }
+            }
+        });
+        subscribeConnection.sync().subscribe(CHANNEL);
+    }
+}
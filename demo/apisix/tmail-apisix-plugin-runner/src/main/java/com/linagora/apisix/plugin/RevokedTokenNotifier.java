@@ -0,0 +1,22 @@
+package com.linagora.apisix.plugin;
+
+import java.util.function.Consumer;
+
+public interface RevokedTokenNotifier {
+
+    RevokedTokenNotifier NOOP = new RevokedTokenNotifier() {
+        @Override
+        public void notifyRevoked(String sid) {
+
+        }
+
+        @Override
+        public void register(Consumer<String> listener) {
+
+        }
+    };
+
+    void notifyRevoked(String sid);
+
+    void register(Consumer<String> listener);
+}
@@ -0,0 +1,113 @@
+package com.linagora.apisix.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingRevokedTokenRepositoryTest implements RevokedTokenRepositoryContract {
+    private static final Duration REVOKED_TTL = Duration.ofHours(1);
+    private static final Duration VALID_TTL = Duration.ofSeconds(10);
+
+    static class MemoryRevokedTokenNotifier implements RevokedTokenNotifier {
+        private final List<Consumer<String>> listeners = new ArrayList<>();
+
+        @Override
+        public void notifyRevoked(String sid) {
+            listeners.forEach(listener -> listener.accept(sid));
+        }
+
+        @Override
+        public void register(Consumer<String> listener) {
+            listeners.add(listener);
+        }
+    }
+
+    IRevokedTokenRepository backend;
+    MemoryRevokedTokenNotifier notifier;
+    AtomicLong nanos;
+    CachingRevokedTokenRepository testee;
+
+    @BeforeEach
+    void setup() {
+        backend = spy(new IRevokedTokenRepository.MemoryRevokedTokenRepository());
+        notifier = new MemoryRevokedTokenNotifier();
+        nanos = new AtomicLong();
+        testee = newRunner();
+    }
+
+    private CachingRevokedTokenRepository newRunner() {
+        return new CachingRevokedTokenRepository(backend, notifier, REVOKED_TTL, VALID_TTL, 1000, nanos::get);
+    }
+
+    @Override
+    public IRevokedTokenRepository testee() {
+        return testee;
+    }
+
+    @Test
+    void validSidShouldBeCached() {
+        testee.exist("sid1");
+        testee.exist("sid1");
+        testee.exist("sid1");
+
+        verify(backend, times(1)).exist("sid1");
+    }
+
+    @Test
+    void revokedSidShouldBeCached() {
+        backend.add("sid1");
+
+        testee.exist("sid1");
+        testee.exist("sid1");
+
+        verify(backend, times(1)).exist("sid1");
+    }
+
+    @Test
+    void validSidShouldBeCheckedAgainOnceTheTtlElapsed() {
+        testee.exist("sid1");
+        backend.add("sid1");
+
+        nanos.addAndGet(VALID_TTL.plusSeconds(1).toNanos());
+
+        assertThat(testee.exist("sid1")).isTrue();
+    }
+
+    @Test
+    void addShouldInvalidateTheCachedValidSid() {
+        testee.exist("sid1");
+
+        testee.add("sid1");
+
+        assertThat(testee.exist("sid1")).isTrue();
+    }
+
+    @Test
+    void revocationShouldBePropagatedToTheOtherRunners() {
+        CachingRevokedTokenRepository otherRunner = newRunner();
+        assertThat(otherRunner.exist("sid1")).isFalse();
+
+        testee.add("sid1");
+
+        assertThat(otherRunner.exist("sid1")).isTrue();
+        verify(backend, times(1)).exist("sid1");
+    }
+
+    @Test
+    void revokedSidShouldBeCachedWithoutLookup() {
+        testee.add("sid1");
+
+        assertThat(testee.exist("sid1")).isTrue();
+        verify(backend, times(0)).exist("sid1");
+    }
+}
@@ -0,0 +1,77 @@
+package com.linagora.apisix.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+class RedisRevokedTokenNotifierTest {
+    static final String REDIS_PASSWORD = "redisSecret1";
+
+    static GenericContainer<?> REDIS_CONTAINER = new GenericContainer<>(DockerImageName.parse("bitnami/redis:7.0.4-debian-11-r25"))
+        .withEnv("REDIS_PASSWORD", REDIS_PASSWORD)
+        .withExposedPorts(6379);
+
+    @BeforeAll
+    static void setup() {
+        REDIS_CONTAINER.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        REDIS_CONTAINER.stop();
+    }
+
+    RedisRevokedTokenNotifier publisher;
+    RedisRevokedTokenNotifier subscriber;
+
+    @BeforeEach
+    void beforeEach() {
+        publisher = newNotifier();
+        subscriber = newNotifier();
+    }
+
+    private RedisRevokedTokenNotifier newNotifier() {
+        String redisUrl = String.format("localhost:%d", REDIS_CONTAINER.getMappedPort(6379));
+        return new RedisRevokedTokenNotifier(
+            AppConfiguration.initRedisPubSubConnection(redisUrl, REDIS_PASSWORD, false),
+            AppConfiguration.initRedisPubSubConnection(redisUrl, REDIS_PASSWORD, false));
+    }
+
+    @Test
+    void registeredListenersShouldReceiveTheRevokedSids() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        subscriber.register(received::add);
+
+        publisher.notifyRevoked("sid1");
+        publisher.notifyRevoked("sid2");
+
+        await().atMost(Duration.ofSeconds(5))
+            .untilAsserted(() -> assertThat(received).containsExactly("sid1", "sid2"));
+    }
+
+    @Test
+    void cachedValidSidShouldBeInvalidatedByARemoteRevocation() {
+        IRevokedTokenRepository redisRepository = new RedisRevokedTokenRepository(AppConfiguration.initRedisCommand(
+            String.format("localhost:%d", REDIS_CONTAINER.getMappedPort(6379)), REDIS_PASSWORD, false));
+        CachingRevokedTokenRepository runner1 = new CachingRevokedTokenRepository(redisRepository, publisher,
+            Duration.ofHours(1), Duration.ofHours(1), 1000);
+        CachingRevokedTokenRepository runner2 = new CachingRevokedTokenRepository(redisRepository, subscriber,
+            Duration.ofHours(1), Duration.ofHours(1), 1000);
+        assertThat(runner2.exist("sid3")).isFalse();
+
+        runner1.add("sid3");
+
+        await().atMost(Duration.ofSeconds(5))
+            .untilAsserted(() -> assertThat(runner2.exist("sid3")).isTrue());
+    }
+}
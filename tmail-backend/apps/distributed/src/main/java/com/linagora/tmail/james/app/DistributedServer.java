@@ -94,6 +94,7 @@ import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.ProvidesIntoSet;
 import com.google.inject.name.Names;
 import com.google.inject.util.Modules;
+import com.linagora.tmail.MonitoredReceiverProvider;
 import com.linagora.tmail.ScheduledReconnectionHandler;
 import com.linagora.tmail.blob.blobid.list.BlobStoreCacheModulesChooser;
 import com.linagora.tmail.blob.blobid.list.BlobStoreConfiguration;
@@ -260,7 +261,7 @@ public class DistributedServer {
             new OSContactAutoCompleteModule(),
             new RabbitMQEmailAddressContactModule(),
             new RabbitMQEventBusModule(),
-            new RabbitMQModule(),
+            Modules.override(new RabbitMQModule()).with(new MonitoredReceiverProvider.Module()),
             new RabbitMQMailQueueModule(),
             new RabbitMailQueueRoutesModule(),
             new ScheduledReconnectionHandler.Module(),
@@ -0,0 +1,68 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.Preconditions;
+
+public record DeleteByQueryConfiguration(int scrollSize,
+                                         int bulkSize,
+                                         int maxRetries,
+                                         Duration minRetryBackoff) {
+    public static final String ELASTICSEARCH_DELETE_BY_QUERY_SCROLL_SIZE = "elasticsearch.deleteByQuery.scrollSize";
+    public static final String ELASTICSEARCH_DELETE_BY_QUERY_BULK_SIZE = "elasticsearch.deleteByQuery.bulkSize";
+    public static final String ELASTICSEARCH_DELETE_BY_QUERY_MAX_RETRIES = "elasticsearch.deleteByQuery.maxRetries";
+    public static final String ELASTICSEARCH_DELETE_BY_QUERY_MIN_RETRY_BACKOFF = "elasticsearch.deleteByQuery.minRetryBackoff";
+
+    public static final int DEFAULT_SCROLL_SIZE = 100;
+    public static final int DEFAULT_BULK_SIZE = 100;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final Duration DEFAULT_MIN_RETRY_BACKOFF = Duration.ofMillis(100);
+
+    public static final DeleteByQueryConfiguration DEFAULT = new DeleteByQueryConfiguration(DEFAULT_SCROLL_SIZE, DEFAULT_BULK_SIZE,
+        DEFAULT_MAX_RETRIES, DEFAULT_MIN_RETRY_BACKOFF);
+
+    public static DeleteByQueryConfiguration withBatchSize(int batchSize) {
+        return new DeleteByQueryConfiguration(batchSize, batchSize, DEFAULT_MAX_RETRIES, DEFAULT_MIN_RETRY_BACKOFF);
+    }
+
+    public static DeleteByQueryConfiguration fromProperties(Configuration configuration) {
+        return new DeleteByQueryConfiguration(
+            configuration.getInt(ELASTICSEARCH_DELETE_BY_QUERY_SCROLL_SIZE, DEFAULT_SCROLL_SIZE),
+            configuration.getInt(ELASTICSEARCH_DELETE_BY_QUERY_BULK_SIZE, DEFAULT_BULK_SIZE),
+            configuration.getInt(ELASTICSEARCH_DELETE_BY_QUERY_MAX_RETRIES, DEFAULT_MAX_RETRIES),
+            Optional.ofNullable(configuration.getString(ELASTICSEARCH_DELETE_BY_QUERY_MIN_RETRY_BACKOFF, null))
+                .map(value -> DurationParser.parse(value, ChronoUnit.MILLIS))
+                .orElse(DEFAULT_MIN_RETRY_BACKOFF));
+    }
+
+    public DeleteByQueryConfiguration {
+        Preconditions.checkArgument(scrollSize > 0, "'%s' must be strictly positive", ELASTICSEARCH_DELETE_BY_QUERY_SCROLL_SIZE);
+        Preconditions.checkArgument(bulkSize > 0, "'%s' must be strictly positive", ELASTICSEARCH_DELETE_BY_QUERY_BULK_SIZE);
+        Preconditions.checkArgument(maxRetries >= 0, "'%s' must be positive", ELASTICSEARCH_DELETE_BY_QUERY_MAX_RETRIES);
+        Preconditions.checkArgument(!minRetryBackoff.isNegative(), "'%s' must be positive", ELASTICSEARCH_DELETE_BY_QUERY_MIN_RETRY_BACKOFF);
+    }
+}
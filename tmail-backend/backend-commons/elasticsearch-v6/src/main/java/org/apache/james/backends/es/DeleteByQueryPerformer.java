@@ -21,43 +21,102 @@ package org.apache.james.backends.es;
 
 import static org.apache.james.util.ReactorUtils.DEFAULT_CONCURRENCY;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.james.backends.es.search.ScrolledSearch;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.search.SearchRequest;
-import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+/**
+ * Deletes the documents matching a query.
+ *
+ * Matching ids are read with a scroll, then deleted with bulk requests sized independently of the scroll pages.
+ * Queries are routed, and thus target a single shard: the scroll is not sliced, as slicing within a shard filters
+ * the _id of each of its documents for every slice, at a memory cost and without any parallelism gain. Items failing within a bulk are retried with an exponential
+ * backoff.
+ *
+ * Deleted, retried and failed items are counted in the es.deleteByQuery.[alias].* metrics, and each deletion is timed
+ * by the es.deleteByQuery.[alias] timer.
+ */
 public class DeleteByQueryPerformer {
+    private static class Progress {
+        private final AtomicLong deleted = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Stopwatch stopwatch = Stopwatch.createStarted();
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeleteByQueryPerformer.class);
     private static final TimeValue TIMEOUT = new TimeValue(60000);
+    private static final int MAX_BACKOFF_EXPONENT = 16;
+    private static final String METRIC_NAME_PREFIX = "es.deleteByQuery.";
 
     private final ReactorElasticSearchClient client;
-    private final int batchSize;
+    private final DeleteByQueryConfiguration configuration;
     private final WriteAliasName aliasName;
+    private final MetricFactory metricFactory;
+    private final Metric deletedMetric;
+    private final Metric retriedMetric;
+    private final Metric failedMetric;
 
     @VisibleForTesting
     DeleteByQueryPerformer(ReactorElasticSearchClient client, int batchSize, WriteAliasName aliasName) {
+        this(client, DeleteByQueryConfiguration.withBatchSize(batchSize), aliasName, new NoopMetricFactory());
+    }
+
+    DeleteByQueryPerformer(ReactorElasticSearchClient client, DeleteByQueryConfiguration configuration, WriteAliasName aliasName,
+                           MetricFactory metricFactory) {
         this.client = client;
-        this.batchSize = batchSize;
+        this.configuration = configuration;
         this.aliasName = aliasName;
+        this.metricFactory = metricFactory;
+        this.deletedMetric = metricFactory.generate(metricName() + ".deleted");
+        this.retriedMetric = metricFactory.generate(metricName() + ".retried");
+        this.failedMetric = metricFactory.generate(metricName() + ".failed");
+    }
+
+    private String metricName() {
+        return METRIC_NAME_PREFIX + aliasName.getValue();
     }
 
     public Mono<Void> perform(QueryBuilder queryBuilder, RoutingKey routingKey) {
-        SearchRequest searchRequest = prepareSearch(queryBuilder, routingKey);
+        Progress progress = new Progress();
+
+        return Mono.from(metricFactory.decoratePublisherWithTimerMetric(metricName(),
+                scroll(prepareSearch(queryBuilder, routingKey))
+                    .buffer(configuration.bulkSize())
+                    .flatMap(ids -> delete(ids, routingKey, progress, 0), DEFAULT_CONCURRENCY)
+                    .then()))
+            .doFinally(signal -> logProgress(progress));
+    }
 
-        return new ScrolledSearch(client, searchRequest).searchResponses()
-            .filter(searchResponse -> searchResponse.getHits().getHits().length > 0)
-            .flatMap(searchResponse -> deleteRetrievedIds(searchResponse, routingKey), DEFAULT_CONCURRENCY)
-            .then();
+    private Flux<String> scroll(SearchRequest searchRequest) {
+        return new ScrolledSearch(client, searchRequest).searchHits()
+            .map(SearchHit::getId);
     }
 
     private SearchRequest prepareSearch(QueryBuilder queryBuilder, RoutingKey routingKey) {
@@ -71,20 +130,62 @@ public class DeleteByQueryPerformer {
     private SearchSourceBuilder searchSourceBuilder(QueryBuilder queryBuilder) {
         return new SearchSourceBuilder()
             .query(queryBuilder)
-            .size(batchSize);
+            .fetchSource(false)
+            .size(configuration.scrollSize());
     }
 
-    private Mono<BulkResponse> deleteRetrievedIds(SearchResponse searchResponse, RoutingKey routingKey) {
+    private Mono<Void> delete(List<String> ids, RoutingKey routingKey, Progress progress, int attempt) {
+        return client.bulk(deleteRequest(ids, routingKey), RequestOptions.DEFAULT)
+            .retryWhen(Retry.backoff(configuration.maxRetries(), configuration.minRetryBackoff()))
+            .flatMap(response -> handleFailures(response, routingKey, progress, attempt));
+    }
+
+    private BulkRequest deleteRequest(List<String> ids, RoutingKey routingKey) {
         BulkRequest request = new BulkRequest();
+        ids.forEach(id -> request.add(
+            new DeleteRequest(aliasName.getValue())
+                .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+                .id(id)
+                .routing(routingKey.asString())));
+        return request;
+    }
 
-        for (SearchHit hit : searchResponse.getHits()) {
-            request.add(
-                new DeleteRequest(aliasName.getValue())
-                    .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
-                    .id(hit.getId())
-                    .routing(routingKey.asString()));
+    private Mono<Void> handleFailures(BulkResponse response, RoutingKey routingKey, Progress progress, int attempt) {
+        List<String> failedIds = Arrays.stream(response.getItems())
+            .filter(BulkItemResponse::isFailed)
+            .map(BulkItemResponse::getId)
+            .collect(ImmutableList.toImmutableList());
+        int deletedCount = response.getItems().length - failedIds.size();
+        progress.deleted.addAndGet(deletedCount);
+        deletedMetric.add(deletedCount);
+
+        if (failedIds.isEmpty()) {
+            return Mono.empty();
+        }
+        if (attempt >= configuration.maxRetries()) {
+            progress.failed.addAndGet(failedIds.size());
+            failedMetric.add(failedIds.size());
+            return Mono.error(new RuntimeException("Failed deleting " + failedIds.size() + " documents after "
+                + attempt + " retries: " + response.buildFailureMessage()));
         }
+        progress.retried.addAndGet(failedIds.size());
+        retriedMetric.add(failedIds.size());
+        return Mono.delay(backoff(attempt))
+            .then(delete(failedIds, routingKey, progress, attempt + 1));
+    }
+
+    private Duration backoff(int attempt) {
+        return configuration.minRetryBackoff().multipliedBy(1L << Math.min(attempt, MAX_BACKOFF_EXPONENT));
+    }
 
-        return client.bulk(request, RequestOptions.DEFAULT);
+    private void logProgress(Progress progress) {
+        if (progress.deleted.get() > 0 || progress.failed.get() > 0) {
+            LOGGER.debug("Deleted {} documents from {} in {} ms ({} retried items, {} failed items)",
+                progress.deleted.get(),
+                aliasName.getValue(),
+                progress.stopwatch.elapsed().toMillis(),
+                progress.retried.get(),
+                progress.failed.get());
+        }
     }
 }
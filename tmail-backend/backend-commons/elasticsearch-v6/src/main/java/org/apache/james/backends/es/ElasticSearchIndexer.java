@@ -21,6 +21,8 @@ package org.apache.james.backends.es;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopMetricFactory;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -43,7 +45,6 @@ import reactor.core.publisher.Mono;
 
 public class ElasticSearchIndexer {
     private static final int DEBUG_MAX_LENGTH_CONTENT = 1000;
-    private static final int DEFAULT_BATCH_SIZE = 100;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchIndexer.class);
 
@@ -53,15 +54,28 @@ public class ElasticSearchIndexer {
 
     public ElasticSearchIndexer(ReactorElasticSearchClient client,
                                 WriteAliasName aliasName) {
-        this(client, aliasName, DEFAULT_BATCH_SIZE);
+        this(client, aliasName, DeleteByQueryConfiguration.DEFAULT);
     }
 
     @VisibleForTesting
     public ElasticSearchIndexer(ReactorElasticSearchClient client,
                                 WriteAliasName aliasName,
                                 int batchSize) {
+        this(client, aliasName, DeleteByQueryConfiguration.withBatchSize(batchSize));
+    }
+
+    public ElasticSearchIndexer(ReactorElasticSearchClient client,
+                                WriteAliasName aliasName,
+                                DeleteByQueryConfiguration deleteByQueryConfiguration) {
+        this(client, aliasName, deleteByQueryConfiguration, new NoopMetricFactory());
+    }
+
+    public ElasticSearchIndexer(ReactorElasticSearchClient client,
+                                WriteAliasName aliasName,
+                                DeleteByQueryConfiguration deleteByQueryConfiguration,
+                                MetricFactory metricFactory) {
         this.client = client;
-        this.deleteByQueryPerformer = new DeleteByQueryPerformer(client, batchSize, aliasName);
+        this.deleteByQueryPerformer = new DeleteByQueryPerformer(client, deleteByQueryConfiguration, aliasName, metricFactory);
         this.aliasName = aliasName;
     }
 
@@ -76,6 +90,21 @@ public class ElasticSearchIndexer {
             RequestOptions.DEFAULT);
     }
 
+    public Mono<BulkResponse> index(List<IndexedRepresentation> documents) {
+        Preconditions.checkNotNull(documents);
+        BulkRequest request = new BulkRequest();
+        documents.forEach(document -> {
+            logContent(document.id(), document.content());
+            request.add(new IndexRequest(aliasName.getValue())
+                .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+                .id(document.id().asString())
+                .source(document.content(), XContentType.JSON)
+                .routing(document.routingKey().asString()));
+        });
+
+        return client.bulk(request, RequestOptions.DEFAULT);
+    }
+
     private void logContent(DocumentId id, String content) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Indexing {}: {}", id.asString(), StringUtils.left(content, DEBUG_MAX_LENGTH_CONTENT));
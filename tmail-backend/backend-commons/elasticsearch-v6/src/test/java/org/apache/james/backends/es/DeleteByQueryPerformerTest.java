@@ -0,0 +1,219 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+class DeleteByQueryPerformerTest {
+    private static final WriteAliasName ALIAS_NAME = new WriteAliasName("alias_name");
+    private static final RoutingKey ROUTING = RoutingKey.fromString("routing");
+    private static final int HITS_PER_PAGE = 10;
+
+    private ReactorElasticSearchClient client;
+    private List<SearchRequest> searchRequests;
+    private List<BulkRequest> bulkRequests;
+    private Set<String> failingIds;
+    private RecordingMetricFactory metricFactory;
+
+    @BeforeEach
+    void setUp() {
+        searchRequests = Collections.synchronizedList(new ArrayList<>());
+        bulkRequests = Collections.synchronizedList(new ArrayList<>());
+        failingIds = ConcurrentHashMap.newKeySet();
+        metricFactory = new RecordingMetricFactory();
+
+        client = mock(ReactorElasticSearchClient.class);
+        when(client.search(any(SearchRequest.class), any(RequestOptions.class)))
+            .thenAnswer(invocation -> {
+                SearchRequest request = invocation.getArgument(0);
+                searchRequests.add(request);
+                return Mono.just(searchResponse(IntStream.range(0, HITS_PER_PAGE)
+                    .mapToObj(i -> "0:" + i)
+                    .collect(ImmutableList.toImmutableList())));
+            });
+        when(client.scroll(any(SearchScrollRequest.class), any(RequestOptions.class)))
+            .thenAnswer(invocation -> Mono.just(searchResponse(ImmutableList.of())));
+        when(client.clearScroll(any(ClearScrollRequest.class), any(RequestOptions.class)))
+            .thenReturn(Mono.empty());
+        when(client.bulk(any(BulkRequest.class), any(RequestOptions.class)))
+            .thenAnswer(invocation -> {
+                BulkRequest request = invocation.getArgument(0);
+                bulkRequests.add(request);
+                return Mono.just(bulkResponse(request));
+            });
+    }
+
+    private SearchResponse searchResponse(List<String> ids) {
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getScrollId()).thenReturn("scrollId");
+        when(response.getHits()).thenReturn(new SearchHits(ids.stream()
+            .map(id -> new SearchHit(0, id, new Text(NodeMappingFactory.DEFAULT_MAPPING_NAME), Collections.emptyMap()))
+            .toArray(SearchHit[]::new), ids.size(), 1f));
+        return response;
+    }
+
+    private BulkResponse bulkResponse(BulkRequest request) {
+        return new BulkResponse(request.requests()
+            .stream()
+            .map(DocWriteRequest::id)
+            .map(id -> {
+                if (failingIds.contains(id)) {
+                    return new BulkItemResponse(0, DocWriteRequest.OpType.DELETE,
+                        new BulkItemResponse.Failure(ALIAS_NAME.getValue(), NodeMappingFactory.DEFAULT_MAPPING_NAME, id, new RuntimeException("boom")));
+                }
+                return mock(BulkItemResponse.class);
+            })
+            .toArray(BulkItemResponse[]::new), 1);
+    }
+
+    private List<String> deletedIds() {
+        return bulkRequests.stream()
+            .flatMap(request -> request.requests().stream())
+            .map(DocWriteRequest::id)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    private DeleteByQueryPerformer performer(int scrollSize, int bulkSize, int maxRetries) {
+        return new DeleteByQueryPerformer(client, new DeleteByQueryConfiguration(scrollSize, bulkSize, maxRetries, Duration.ZERO), ALIAS_NAME,
+            metricFactory);
+    }
+
+    @Test
+    void performShouldNotSlice() {
+        performer(HITS_PER_PAGE, HITS_PER_PAGE, 0)
+            .perform(QueryBuilders.matchAllQuery(), ROUTING)
+            .block();
+
+        assertThat(searchRequests).hasSize(1);
+        assertThat(searchRequests.get(0).source().slice()).isNull();
+        assertThat(deletedIds()).hasSize(HITS_PER_PAGE);
+    }
+
+    @Test
+    void performShouldNotFetchTheDocumentSources() {
+        performer(HITS_PER_PAGE, HITS_PER_PAGE, 0)
+            .perform(QueryBuilders.matchAllQuery(), ROUTING)
+            .block();
+
+        assertThat(searchRequests.get(0).source().fetchSource().fetchSource()).isFalse();
+        assertThat(searchRequests.get(0).source().size()).isEqualTo(HITS_PER_PAGE);
+        assertThat(searchRequests.get(0).routing()).isEqualTo(ROUTING.asString());
+    }
+
+    @Test
+    void bulkSizeShouldBeIndependentOfTheScrollSize() {
+        performer(HITS_PER_PAGE, 4, 0)
+            .perform(QueryBuilders.matchAllQuery(), ROUTING)
+            .block();
+
+        assertThat(bulkRequests)
+            .extracting(BulkRequest::numberOfActions)
+            .containsExactlyInAnyOrder(4, 4, 2);
+    }
+
+    @Test
+    void failedItemsShouldBeRetried() {
+        failingIds.add("0:3");
+        DeleteByQueryPerformer testee = performer(HITS_PER_PAGE, HITS_PER_PAGE, 2);
+        doAnswer(invocation -> {
+            BulkRequest request = invocation.getArgument(0);
+            bulkRequests.add(request);
+            BulkResponse response = bulkResponse(request);
+            failingIds.clear();
+            return Mono.just(response);
+        }).when(client).bulk(any(BulkRequest.class), any(RequestOptions.class));
+
+        testee.perform(QueryBuilders.matchAllQuery(), ROUTING).block();
+
+        assertThat(bulkRequests).hasSize(2);
+        assertThat(bulkRequests.get(1).requests())
+            .extracting(DocWriteRequest::id)
+            .containsExactly("0:3");
+    }
+
+    @Test
+    void performShouldFailWhenRetriesAreExhausted() {
+        failingIds.add("0:3");
+
+        assertThatThrownBy(() -> performer(HITS_PER_PAGE, HITS_PER_PAGE, 2)
+                .perform(QueryBuilders.matchAllQuery(), ROUTING)
+                .block())
+            .hasMessageContaining("Failed deleting 1 documents");
+        assertThat(bulkRequests).hasSize(3);
+    }
+
+    @Test
+    void performShouldRecordTheDeletedItems() {
+        performer(HITS_PER_PAGE, HITS_PER_PAGE, 0)
+            .perform(QueryBuilders.matchAllQuery(), ROUTING)
+            .block();
+
+        assertThat(metricFactory.countFor("es.deleteByQuery.alias_name.deleted")).isEqualTo(HITS_PER_PAGE);
+        assertThat(metricFactory.executionTimesFor("es.deleteByQuery.alias_name")).hasSize(1);
+    }
+
+    @Test
+    void performShouldRecordTheRetriedAndFailedItems() {
+        failingIds.add("0:3");
+
+        assertThatThrownBy(() -> performer(HITS_PER_PAGE, HITS_PER_PAGE, 2)
+                .perform(QueryBuilders.matchAllQuery(), ROUTING)
+                .block())
+            .isInstanceOf(RuntimeException.class);
+
+        assertThat(metricFactory.countFor("es.deleteByQuery.alias_name.deleted")).isEqualTo(HITS_PER_PAGE - 1);
+        assertThat(metricFactory.countFor("es.deleteByQuery.alias_name.retried")).isEqualTo(2);
+        assertThat(metricFactory.countFor("es.deleteByQuery.alias_name.failed")).isEqualTo(1);
+    }
+}
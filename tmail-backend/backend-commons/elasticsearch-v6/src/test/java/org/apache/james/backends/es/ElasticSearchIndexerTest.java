@@ -100,6 +100,23 @@ class ElasticSearchIndexerTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
     
+    @Test
+    void bulkIndexShouldIndexAllDocuments() {
+        DocumentId documentId2 = DocumentId.fromString("2");
+        testee.index(ImmutableList.of(
+                new IndexedRepresentation(DOCUMENT_ID, "{\"message\": \"trying out Elasticsearch\"}", useDocumentId(DOCUMENT_ID)),
+                new IndexedRepresentation(documentId2, "{\"message\": \"trying again\"}", useDocumentId(documentId2))))
+            .block();
+        elasticSearch.awaitForElasticSearch();
+
+        SearchResponse searchResponse = client.search(
+            new SearchRequest(INDEX_NAME.value())
+                .source(new SearchSourceBuilder().query(QueryBuilders.matchQuery("message", "trying"))),
+            RequestOptions.DEFAULT)
+            .block();
+        assertThat(searchResponse.getHits().getTotalHits()).isEqualTo(2);
+    }
+
     @Test
     void updateMessages() {
         String content = "{\"message\": \"trying out Elasticsearch\",\"field\":\"Should be unchanged\"}";
@@ -205,6 +222,27 @@ class ElasticSearchIndexerTest {
                 .getHits().getTotalHits() == 1);
     }
     
+    @Test
+    void deleteByQueryShouldWorkWithSmallPagesAndBulks() {
+        testee = new ElasticSearchIndexer(client, ALIAS_NAME, new DeleteByQueryConfiguration(3, 2, 1, Duration.ofMillis(10)));
+        for (int i = 0; i < 10; i++) {
+            testee.index(DocumentId.fromString("1:" + i), "{\"message\": \"trying out Elasticsearch\", \"property\":\"1\"}", ROUTING).block();
+        }
+        testee.index(DocumentId.fromString("2:1"), "{\"message\": \"trying out Elasticsearch\", \"property\":\"2\"}", ROUTING).block();
+        elasticSearch.awaitForElasticSearch();
+
+        testee.deleteAllMatchingQuery(termQuery("property", "1"), ROUTING).block();
+        elasticSearch.awaitForElasticSearch();
+
+        CALMLY_AWAIT.atMost(Duration.ofSeconds(10))
+            .until(() -> client.search(
+                    new SearchRequest(INDEX_NAME.value())
+                        .source(new SearchSourceBuilder().query(QueryBuilders.matchAllQuery())),
+                    RequestOptions.DEFAULT)
+                .block()
+                .getHits().getTotalHits() == 1);
+    }
+
     @Test
     void deleteMessage() {
         DocumentId documentId = DocumentId.fromString("1:2");
@@ -0,0 +1,121 @@
+package com.linagora.tmail.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.linagora.tmail.james.jmap.model.CalendarEventParsed;
+
+import scala.collection.immutable.List;
+
+/**
+ * ical4j parsing done by CalendarEvent/parse for a weekly recurring invitation: the master event carries one
+ * EXDATE per cancelled occurrence and is followed by one overriding VEVENT per moved occurrence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CalendarEventParseBenchmark {
+    private static final LocalDate FIRST_OCCURRENCE = LocalDate.of(2023, 1, 2);
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Param({"0", "10", "100"})
+    public int exceptionCount;
+
+    @Param({"1", "50"})
+    public int attendeeCount;
+
+    private byte[] ics;
+
+    @Setup
+    public void setup() {
+        ics = recurringInvitation().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<CalendarEventParsed> parse() {
+        return CalendarEventParsed.from(new ByteArrayInputStream(ics));
+    }
+
+    private String recurringInvitation() {
+        StringBuilder builder = new StringBuilder()
+            .append("BEGIN:VCALENDAR\r\n")
+            .append("VERSION:2.0\r\n")
+            .append("PRODID:-//Sabre//Sabre VObject 4.1.3//EN\r\n")
+            .append("CALSCALE:GREGORIAN\r\n")
+            .append("METHOD:REQUEST\r\n")
+            .append("BEGIN:VTIMEZONE\r\n")
+            .append("TZID:Europe/Paris\r\n")
+            .append("BEGIN:DAYLIGHT\r\n")
+            .append("TZOFFSETFROM:+0100\r\n")
+            .append("TZOFFSETTO:+0200\r\n")
+            .append("TZNAME:CEST\r\n")
+            .append("DTSTART:19700329T020000\r\n")
+            .append("RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n")
+            .append("END:DAYLIGHT\r\n")
+            .append("BEGIN:STANDARD\r\n")
+            .append("TZOFFSETFROM:+0200\r\n")
+            .append("TZOFFSETTO:+0100\r\n")
+            .append("TZNAME:CET\r\n")
+            .append("DTSTART:19701025T030000\r\n")
+            .append("RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n")
+            .append("END:STANDARD\r\n")
+            .append("END:VTIMEZONE\r\n");
+
+        builder.append("BEGIN:VEVENT\r\n");
+        event(builder);
+        builder.append("DTSTART;TZID=Europe/Paris:").append(ICS_DATE.format(FIRST_OCCURRENCE)).append("T100000\r\n")
+            .append("DTEND;TZID=Europe/Paris:").append(ICS_DATE.format(FIRST_OCCURRENCE)).append("T110000\r\n")
+            .append("RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;UNTIL=20251231T230000Z\r\n");
+        for (int i = 0; i < exceptionCount; i++) {
+            builder.append("EXDATE;TZID=Europe/Paris:").append(ICS_DATE.format(FIRST_OCCURRENCE.plusWeeks(2L * i))).append("T100000\r\n");
+        }
+        builder.append("END:VEVENT\r\n");
+
+        for (int i = 0; i < exceptionCount; i++) {
+            LocalDate occurrence = FIRST_OCCURRENCE.plusWeeks(2L * i + 1);
+            builder.append("BEGIN:VEVENT\r\n");
+            event(builder);
+            builder.append("RECURRENCE-ID;TZID=Europe/Paris:").append(ICS_DATE.format(occurrence)).append("T100000\r\n")
+                .append("DTSTART;TZID=Europe/Paris:").append(ICS_DATE.format(occurrence)).append("T140000\r\n")
+                .append("DTEND;TZID=Europe/Paris:").append(ICS_DATE.format(occurrence)).append("T150000\r\n")
+                .append("END:VEVENT\r\n");
+        }
+
+        return builder.append("END:VCALENDAR\r\n").toString();
+    }
+
+    private void event(StringBuilder builder) {
+        builder.append("UID:014351ba-ca86-4b0e-bf50-77d2f20afcb3\r\n")
+            .append("DTSTAMP:20230101T090000Z\r\n")
+            .append("SEQUENCE:0\r\n")
+            .append("SUMMARY:Weekly sync\r\n")
+            .append("DESCRIPTION:Weekly synchronisation of the team\r\n")
+            .append("LOCATION:Visio\r\n")
+            .append("CLASS:PUBLIC\r\n")
+            .append("TRANSP:OPAQUE\r\n")
+            .append("STATUS:CONFIRMED\r\n")
+            .append("ORGANIZER;CN=Organizer:mailto:organizer@domain.tld\r\n");
+        for (int i = 0; i < attendeeCount; i++) {
+            builder.append("ATTENDEE;PARTSTAT=NEEDS-ACTION;RSVP=TRUE;ROLE=REQ-PARTICIPANT;CUTYPE=INDIVIDUAL;CN=User ")
+                .append(i).append(":mailto:user").append(i).append("@domain.tld\r\n");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.linagora.tmail.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.events.Event;
+import org.apache.james.events.EventBus;
+import org.apache.james.events.EventListener;
+import org.apache.james.events.Group;
+import org.apache.james.events.InVMEventBus;
+import org.apache.james.events.MemoryEventDeadLetters;
+import org.apache.james.events.RetryBackoffConfiguration;
+import org.apache.james.events.delivery.InVmEventDelivery;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+
+import com.linagora.tmail.mailets.ContactsCollection;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Recipient extraction and contact event dispatching of {@link ContactsCollection}, through an in VM event bus
+ * with a no-op listener standing for the contact indexer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ContactsCollectionBenchmark {
+    public static class NoopContactListener implements EventListener.ReactiveGroupEventListener {
+        public static class NoopContactListenerGroup extends Group {
+
+        }
+
+        @Override
+        public Group getDefaultGroup() {
+            return new NoopContactListenerGroup();
+        }
+
+        @Override
+        public Publisher<Void> reactiveEvent(Event event) {
+            return Mono.empty();
+        }
+    }
+
+    @Param({"1", "10", "100"})
+    public int recipientCount;
+
+    @Param({"1024", "1048576"})
+    public int messageSize;
+
+    private ContactsCollection mailet;
+    private Mail mail;
+
+    @Setup
+    public void setup() throws Exception {
+        EventBus eventBus = new InVMEventBus(new InVmEventDelivery(new NoopMetricFactory()), RetryBackoffConfiguration.DEFAULT, new MemoryEventDeadLetters());
+        eventBus.register(new NoopContactListener());
+
+        mailet = new ContactsCollection(eventBus);
+        mailet.init(FakeMailetConfig.builder()
+            .mailetName("ContactsCollection")
+            .setProperty("attribute", "ExtractedContacts")
+            .build());
+
+        mail = BenchmarkFixtures.mail(BenchmarkFixtures.recipients(recipientCount), messageSize);
+    }
+
+    @Benchmark
+    public Mail service() {
+        mailet.service(mail);
+        return mail;
+    }
+}
@@ -0,0 +1,80 @@
+package com.linagora.tmail.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.linagora.tmail.mailets.EnforceRateLimitingPlan;
+import com.linagora.tmail.rate.limiter.api.InMemoryRateLimitingPlanRepository;
+import com.linagora.tmail.rate.limiter.api.memory.MemoryRateLimitingPlanUserRepository;
+
+/**
+ * Plan resolution of {@link EnforceRateLimitingPlan} for the per recipient (delivery) and per sender (transit)
+ * limitations. The rate limiter itself always accepts, see {@link AcceptingRateLimiterFactory}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class EnforceRateLimitingPlanBenchmark {
+    @Param({"1", "10", "50"})
+    public int recipientCount;
+
+    @Param({"1", "10", "100"})
+    public int planCount;
+
+    @Param({"DeliveryLimitations", "TransitLimitations"})
+    public String operationLimitation;
+
+    @Param({"", "1h"})
+    public String cacheExpiration;
+
+    private EnforceRateLimitingPlan mailet;
+    private Mail mail;
+
+    @Setup
+    public void setup() throws Exception {
+        List<MailAddress> recipients = BenchmarkFixtures.recipients(recipientCount);
+        InMemoryRateLimitingPlanRepository planRepository = new InMemoryRateLimitingPlanRepository();
+        MemoryRateLimitingPlanUserRepository planUserRepository = new MemoryRateLimitingPlanUserRepository();
+        RateLimitingPlanFixtures.applyPlans(planRepository, planUserRepository, planCount, ImmutableList.<MailAddress>builder()
+            .add(BenchmarkFixtures.SENDER())
+            .addAll(recipients)
+            .build());
+
+        FakeMailetConfig.Builder mailetConfig = FakeMailetConfig.builder()
+            .mailetName("EnforceRateLimitingPlan")
+            .setProperty("operationLimitation", operationLimitation);
+        if (!cacheExpiration.isEmpty()) {
+            mailetConfig.setProperty("cacheExpiration", cacheExpiration);
+        }
+        mailet = new EnforceRateLimitingPlan(planRepository, planUserRepository, new AcceptingRateLimiterFactory(), new NoopGaugeRegistry());
+        mailet.init(mailetConfig.build());
+
+        mail = BenchmarkFixtures.mail(recipients, 1024);
+    }
+
+    @Benchmark
+    public Mail service() {
+        mailet.service(mail);
+        return mail;
+    }
+}
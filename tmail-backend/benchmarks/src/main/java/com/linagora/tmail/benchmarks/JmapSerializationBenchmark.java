@@ -0,0 +1,55 @@
+package com.linagora.tmail.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import play.api.libs.json.JsResult;
+import play.api.libs.json.Json;
+
+/**
+ * Request parsing and response serialization of the TMail JMAP extension methods, from and to the bytes exchanged
+ * on the wire. Method processing is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JmapSerializationBenchmark {
+    @Param({"Label/get", "Settings/get", "TMailContact/autocomplete", "EncryptedEmailFastView/get", "FirebaseRegistration/get"})
+    public String method;
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private JmapSerializationScenario scenario;
+    private byte[] request;
+
+    @Setup
+    public void setup() {
+        scenario = JmapSerializationScenarios.of(method, size);
+        request = Json.toBytes(scenario.request());
+    }
+
+    @Benchmark
+    public JsResult<?> parseRequest() {
+        return scenario.deserializeRequest(Json.parse(request));
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() {
+        return Json.toBytes(scenario.serializeResponse());
+    }
+}
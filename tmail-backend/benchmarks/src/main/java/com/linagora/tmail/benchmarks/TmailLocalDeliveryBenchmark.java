@@ -0,0 +1,87 @@
+package com.linagora.tmail.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMailContext;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.linagora.tmail.mailets.TMailMailboxAppender;
+import com.linagora.tmail.mailets.TmailLocalDelivery;
+
+/**
+ * Delivery of {@link TmailLocalDelivery} to user and team mailboxes, thus covering {@link TMailMailboxAppender}.
+ *
+ * The memory mailboxes retain every delivered message: the stack is rebuilt for each iteration and iterations are
+ * kept short to bound the heap usage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TmailLocalDeliveryBenchmark {
+    public enum RecipientType {
+        USER,
+        TEAM_MAILBOX
+    }
+
+    @Param({"1", "10"})
+    public int recipientCount;
+
+    @Param({"1024", "102400"})
+    public int messageSize;
+
+    @Param({"USER", "TEAM_MAILBOX"})
+    public RecipientType recipientType;
+
+    private TmailLocalDelivery mailet;
+    private Mail mail;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        MemoryMailboxStack stack = new MemoryMailboxStack();
+        List<MailAddress> recipients = recipients(stack);
+
+        mailet = new TmailLocalDelivery(stack.usersRepository(), stack.mailboxManager(), stack.teamMailboxRepository(), new NoopMetricFactory());
+        mailet.init(FakeMailetConfig.builder()
+            .mailetName("TmailLocalDelivery")
+            .mailetContext(FakeMailContext.defaultContext())
+            .build());
+
+        mail = BenchmarkFixtures.mail(recipients, messageSize);
+    }
+
+    private List<MailAddress> recipients(MemoryMailboxStack stack) {
+        if (recipientType == RecipientType.TEAM_MAILBOX) {
+            return IntStream.range(0, recipientCount)
+                .mapToObj(i -> stack.createTeamMailbox("team" + i))
+                .collect(Collectors.toList());
+        }
+        return BenchmarkFixtures.recipients(recipientCount);
+    }
+
+    @Benchmark
+    public Mail service() {
+        mailet.service(mail);
+        return mail;
+    }
+}
@@ -0,0 +1,120 @@
+package com.linagora.tmail.benchmarks
+
+import java.time.Duration
+
+import com.google.common.base.Strings
+import com.linagora.tmail.rate.limiter.api.LimitTypes.{COUNT, SIZE}
+import com.linagora.tmail.rate.limiter.api.{DeliveryLimitations, LimitTypes, OperationLimitationsType, RateLimitation, RateLimitingPlan, RateLimitingPlanCreateRequest, RateLimitingPlanName, RateLimitingPlanRepository, RateLimitingPlanUserRepository, RelayLimitations, TransitLimitations}
+import com.linagora.tmail.team.{TeamMailbox, TeamMailboxCallbackNoop, TeamMailboxName, TeamMailboxRepository, TeamMailboxRepositoryImpl}
+import javax.mail.internet.MimeMessage
+import org.apache.james.core.builder.MimeMessageBuilder
+import org.apache.james.core.{Domain, MailAddress, Username}
+import org.apache.james.dnsservice.api.InMemoryDNSService
+import org.apache.james.domainlist.lib.DomainListConfiguration
+import org.apache.james.domainlist.memory.MemoryDomainList
+import org.apache.james.mailbox.MailboxManager
+import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources
+import org.apache.james.mailbox.store.StoreSubscriptionManager
+import org.apache.james.rate.limiter.api.Increment.Increment
+import org.apache.james.rate.limiter.api.{AcceptableRate, RateLimiter, RateLimiterFactory, RateLimitingKey, RateLimitingResult, Rules}
+import org.apache.james.user.api.UsersRepository
+import org.apache.james.user.memory.MemoryUsersRepository
+import org.apache.mailet.Mail
+import org.apache.mailet.base.test.FakeMail
+import org.reactivestreams.Publisher
+import reactor.core.scala.publisher.SMono
+
+import scala.jdk.CollectionConverters._
+
+object BenchmarkFixtures {
+  val DOMAIN: Domain = Domain.of("domain.tld")
+  val SENDER: MailAddress = new MailAddress("sender", DOMAIN)
+
+  def recipients(count: Int): java.util.List[MailAddress] =
+    (0 until count).map(i => new MailAddress(s"user$i", DOMAIN)).asJava
+
+  def mimeMessage(recipients: java.util.List[MailAddress], bodySize: Int): MimeMessage =
+    MimeMessageBuilder.mimeMessageBuilder()
+      .addFrom(SENDER.asString())
+      .addToRecipient(recipients.asScala.map(_.asString()).toSeq: _*)
+      .setSubject("Benchmark")
+      .setText(Strings.repeat("a", bodySize))
+      .build()
+
+  def mail(recipients: java.util.List[MailAddress], bodySize: Int): Mail =
+    FakeMail.builder()
+      .name("benchmark")
+      .sender(SENDER)
+      .recipients(recipients)
+      .mimeMessage(mimeMessage(recipients, bodySize))
+      .state("transport")
+      .build()
+}
+
+/**
+ * Always accepts: the benchmarks measure the plan resolution done by the mailet, not a rate limiter backend.
+ */
+class AcceptingRateLimiterFactory extends RateLimiterFactory {
+  override def withSpecification(rules: Rules, precision: Option[Duration]): RateLimiter = AcceptingRateLimiter
+}
+
+object AcceptingRateLimiter extends RateLimiter {
+  override def rateLimit(key: RateLimitingKey, increaseQuantity: Increment): Publisher[RateLimitingResult] =
+    SMono.just(AcceptableRate)
+}
+
+object RateLimitingPlanFixtures {
+  private def limitations(planIndex: Int): Seq[RateLimitation] = Seq(
+    RateLimitation(name = s"count $planIndex", period = Duration.ofHours(1), limits = LimitTypes.from(Map(COUNT -> 100000L))),
+    RateLimitation(name = s"size $planIndex", period = Duration.ofDays(1), limits = LimitTypes.from(Map(SIZE -> 1000000000L))))
+
+  /**
+   * Creates `planCount` plans and applies them to the users in a round robin manner.
+   */
+  def applyPlans(planRepository: RateLimitingPlanRepository,
+                 planUserRepository: RateLimitingPlanUserRepository,
+                 planCount: Int,
+                 users: java.util.List[MailAddress]): Unit = {
+    val plans: Seq[RateLimitingPlan] = (0 until planCount)
+      .map(i => SMono.fromPublisher(planRepository.create(RateLimitingPlanCreateRequest(
+        name = RateLimitingPlanName.liftOrThrow(s"plan$i"),
+        operationLimitations = OperationLimitationsType.liftOrThrow(Seq(
+          TransitLimitations(limitations(i)),
+          RelayLimitations(limitations(i)),
+          DeliveryLimitations(limitations(i)))))))
+        .block())
+
+    users.asScala.zipWithIndex.foreach {
+      case (user, i) => SMono.fromPublisher(planUserRepository.applyPlan(Username.fromMailAddress(user), plans(i % planCount).id)).block()
+    }
+  }
+}
+
+/**
+ * Memory mailbox, users and team mailbox repositories, as wired by the memory server.
+ */
+class MemoryMailboxStack {
+  private val resources: InMemoryIntegrationResources = InMemoryIntegrationResources.defaultResources()
+
+  val mailboxManager: MailboxManager = resources.getMailboxManager
+
+  val teamMailboxRepository: TeamMailboxRepository = new TeamMailboxRepositoryImpl(resources.getMailboxManager,
+    new StoreSubscriptionManager(resources.getMailboxManager.getMapperFactory,
+      resources.getMailboxManager.getMapperFactory,
+      resources.getMailboxManager.getEventBus),
+    TeamMailboxCallbackNoop.asSet)
+
+  val usersRepository: UsersRepository = {
+    val domainList = new MemoryDomainList(new InMemoryDNSService)
+    domainList.configure(DomainListConfiguration.DEFAULT)
+    domainList.addDomain(BenchmarkFixtures.DOMAIN)
+    MemoryUsersRepository.withVirtualHosting(domainList)
+  }
+
+  def createTeamMailbox(name: String): MailAddress = {
+    val teamMailbox: TeamMailbox = TeamMailbox(BenchmarkFixtures.DOMAIN, TeamMailboxName.fromString(name)
+      .fold(e => throw e, teamMailboxName => teamMailboxName))
+    SMono.fromPublisher(teamMailboxRepository.createTeamMailbox(teamMailbox)).block()
+    teamMailbox.asMailAddress
+  }
+}
@@ -0,0 +1,153 @@
+package com.linagora.tmail.benchmarks
+
+import java.time.ZonedDateTime
+import java.util.UUID
+
+import com.google.common.base.Strings
+import com.linagora.tmail.encrypted.{EncryptedEmailFastView, EncryptedPreview}
+import com.linagora.tmail.james.jmap.json.{ContactSerializer, EncryptedEmailSerializer, FirebaseSubscriptionSerializer, JmapSettingsSerializer, LabelSerializer}
+import com.linagora.tmail.james.jmap.model.{Color, Contact, ContactAutocompleteResponse, ContactFirstname, ContactId, ContactSurname, DeviceClientId, DisplayName, EncryptedEmailGetResponse, FirebaseSubscription, FirebaseSubscriptionExpiredTime, FirebaseSubscriptionGetResponse, FirebaseSubscriptionId, FirebaseToken, JmapSettingsObject, JmapSettingsResponse, KeywordUtil, Label, LabelGetResponse, LabelId}
+import com.linagora.tmail.james.jmap.settings.{JmapSettingsKey, JmapSettingsStateFactory, JmapSettingsValue}
+import org.apache.james.core.MailAddress
+import org.apache.james.jmap.change.{EmailTypeName, MailboxTypeName, TypeName, TypeStateFactory}
+import org.apache.james.jmap.core.{AccountId, Id, UuidState}
+import org.apache.james.jmap.mail.EmailNotFound
+import org.apache.james.mailbox.inmemory.InMemoryMessageId
+import play.api.libs.json.{JsArray, JsNumber, JsResult, JsString, JsValue, Json}
+
+import scala.jdk.CollectionConverters._
+
+/**
+ * A JMAP extension method call: the arguments of a request listing `size` entries, and the matching response.
+ */
+trait JmapSerializationScenario {
+  def request: JsValue
+
+  def deserializeRequest(input: JsValue): JsResult[_]
+
+  def serializeResponse(): JsValue
+}
+
+object JmapSerializationScenarios {
+  val ACCOUNT_ID: AccountId = AccountId(Id.validate("aHR0cHM6Ly93d3cuYmFzZTY0ZW5jb2RlLm9yZy8").toOption.get)
+  val STATE: UuidState = UuidState.fromString("6e0dd59d-660e-4d9b-b22f-0354479f47b4")
+
+  def of(method: String, size: Int): JmapSerializationScenario = method match {
+    case "Label/get" => new LabelGetScenario(size)
+    case "Settings/get" => new JmapSettingsGetScenario(size)
+    case "TMailContact/autocomplete" => new ContactAutocompleteScenario(size)
+    case "EncryptedEmailFastView/get" => new EncryptedEmailFastViewScenario(size)
+    case "FirebaseRegistration/get" => new FirebaseSubscriptionGetScenario(size)
+    case _ => throw new IllegalArgumentException(s"Unknown method $method")
+  }
+
+  private def ids(values: Seq[String]): JsArray = JsArray(values.map(JsString))
+}
+
+class LabelGetScenario(size: Int) extends JmapSerializationScenario {
+  import JmapSerializationScenarios._
+
+  private val labels: Seq[Label] = (0 until size)
+    .map(i => Label(id = LabelId.generate(),
+      displayName = DisplayName(s"Label $i"),
+      keyword = KeywordUtil.generate(),
+      color = Color.validate("#00ccdd").toOption))
+  private val response: LabelGetResponse = LabelGetResponse(ACCOUNT_ID, STATE, labels)
+
+  override val request: JsValue = Json.obj(
+    "accountId" -> ACCOUNT_ID.id.value,
+    "ids" -> ids(labels.map(_.id.serialize)),
+    "properties" -> ids(Seq("id", "displayName", "keyword", "color")))
+
+  override def deserializeRequest(input: JsValue): JsResult[_] = LabelSerializer.deserializeGetRequest(input)
+
+  override def serializeResponse(): JsValue = LabelSerializer.serializeGetResponse(response, Label.allProperties)
+}
+
+class JmapSettingsGetScenario(size: Int) extends JmapSerializationScenario {
+  import JmapSerializationScenarios._
+
+  private val response: JmapSettingsResponse = JmapSettingsResponse(
+    accountId = ACCOUNT_ID,
+    state = JmapSettingsStateFactory.INITIAL,
+    list = Seq(JmapSettingsObject(id = JmapSettingsObject.SETTING_SINGLETON_ID,
+      settings = (0 until size)
+        .map(i => JmapSettingsKey.liftOrThrow(s"tdrive.setting$i") -> JmapSettingsValue(s"value$i"))
+        .toMap)),
+    notFound = Seq())
+
+  override val request: JsValue = Json.obj(
+    "accountId" -> ACCOUNT_ID.id.value,
+    "ids" -> ids(Seq("singleton")))
+
+  override def deserializeRequest(input: JsValue): JsResult[_] = JmapSettingsSerializer.deserializeGetRequest(input)
+
+  override def serializeResponse(): JsValue = JmapSettingsSerializer.serialize(response)
+}
+
+class ContactAutocompleteScenario(size: Int) extends JmapSerializationScenario {
+  import JmapSerializationScenarios._
+
+  private val serializer: ContactSerializer = new ContactSerializer
+  private val response: ContactAutocompleteResponse = ContactAutocompleteResponse(
+    accountId = ACCOUNT_ID,
+    list = (0 until size)
+      .map(i => Contact(id = ContactId(UUID.randomUUID()),
+        emailAddress = new MailAddress(s"user$i@domain.tld"),
+        firstname = ContactFirstname(s"Firstname$i"),
+        surname = ContactSurname(s"Surname$i"))),
+    limit = None)
+
+  override val request: JsValue = Json.obj(
+    "accountId" -> ACCOUNT_ID.id.value,
+    "filter" -> Json.obj("text" -> "user"),
+    "limit" -> JsNumber(size))
+
+  override def deserializeRequest(input: JsValue): JsResult[_] = serializer.deserialize(input)
+
+  override def serializeResponse(): JsValue = serializer.serialize(response)
+}
+
+class EncryptedEmailFastViewScenario(size: Int) extends JmapSerializationScenario {
+  import JmapSerializationScenarios._
+
+  private val PREVIEW_SIZE: Int = 1024
+
+  private val messageIdFactory: InMemoryMessageId.Factory = new InMemoryMessageId.Factory
+  private val fastViews: List[EncryptedEmailFastView] = (0 until size)
+    .map(_ => EncryptedEmailFastView(id = messageIdFactory.generate(),
+      encryptedPreview = EncryptedPreview(Strings.repeat("a", PREVIEW_SIZE)),
+      hasAttachment = false))
+    .toList
+  private val response: EncryptedEmailGetResponse = EncryptedEmailGetResponse(ACCOUNT_ID, STATE, fastViews, EmailNotFound(Set()))
+
+  override val request: JsValue = Json.obj(
+    "accountId" -> ACCOUNT_ID.id.value,
+    "ids" -> ids(fastViews.map(_.id.serialize())))
+
+  override def deserializeRequest(input: JsValue): JsResult[_] = EncryptedEmailSerializer.deserializeEncryptedEmailGetRequest(input)
+
+  override def serializeResponse(): JsValue = EncryptedEmailSerializer.serializeEncryptedEmailGetResponse(response)
+}
+
+class FirebaseSubscriptionGetScenario(size: Int) extends JmapSerializationScenario {
+  import JmapSerializationScenarios._
+
+  private val serializer: FirebaseSubscriptionSerializer = new FirebaseSubscriptionSerializer(
+    new TypeStateFactory(Set[TypeName](EmailTypeName, MailboxTypeName).asJava))
+  private val subscriptions: Seq[FirebaseSubscription] = (0 until size)
+    .map(i => FirebaseSubscription(id = FirebaseSubscriptionId.generate(),
+      deviceClientId = DeviceClientId(s"device$i"),
+      token = FirebaseToken(s"token$i"),
+      expires = FirebaseSubscriptionExpiredTime(ZonedDateTime.parse("2023-10-10T10:10:10Z")),
+      types = Seq(EmailTypeName, MailboxTypeName)))
+  private val response: FirebaseSubscriptionGetResponse = FirebaseSubscriptionGetResponse(subscriptions)
+
+  override val request: JsValue = Json.obj(
+    "ids" -> ids(subscriptions.map(_.id.serialize)),
+    "properties" -> ids(Seq("id", "deviceClientId", "expires", "types")))
+
+  override def deserializeRequest(input: JsValue): JsResult[_] = serializer.deserializeFirebaseSubscriptionGetRequest(input)
+
+  override def serializeResponse(): JsValue = serializer.serialize(response, FirebaseSubscription.allProperties)
+}
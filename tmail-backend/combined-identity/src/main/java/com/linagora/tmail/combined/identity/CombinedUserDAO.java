@@ -1,5 +1,6 @@
 package com.linagora.tmail.combined.identity;
 
+import java.time.Clock;
 import java.util.Iterator;
 import java.util.Optional;
 
@@ -19,17 +20,26 @@ public class CombinedUserDAO implements UsersDAO {
 
     private final ReadOnlyLDAPUsersDAO readOnlyLDAPUsersDAO;
     private final CassandraUsersDAO cassandraUsersDAO;
+    private final LdapAuthenticationCache ldapAuthenticationCache;
 
     @Inject
     public CombinedUserDAO(ReadOnlyLDAPUsersDAO readOnlyLDAPUsersDAO,
-                           CassandraUsersDAO cassandraUsersDAO) {
+                           CassandraUsersDAO cassandraUsersDAO,
+                           LdapAuthenticationCacheConfiguration ldapAuthenticationCacheConfiguration,
+                           Clock clock) {
         this.readOnlyLDAPUsersDAO = readOnlyLDAPUsersDAO;
         this.cassandraUsersDAO = cassandraUsersDAO;
+        this.ldapAuthenticationCache = new LdapAuthenticationCache(readOnlyLDAPUsersDAO, ldapAuthenticationCacheConfiguration, clock);
+    }
+
+    public CombinedUserDAO(ReadOnlyLDAPUsersDAO readOnlyLDAPUsersDAO,
+                           CassandraUsersDAO cassandraUsersDAO) {
+        this(readOnlyLDAPUsersDAO, cassandraUsersDAO, LdapAuthenticationCacheConfiguration.DISABLED, Clock.systemUTC());
     }
 
     @Override
     public void addUser(Username username, String password) throws UsersRepositoryException {
-        if (readOnlyLDAPUsersDAO.contains(username)) {
+        if (ldapAuthenticationCache.contains(username)) {
             cassandraUsersDAO.addUser(username, password);
         } else {
             throw new UsersRepositoryException("Can not add user as it does not exits in LDAP repository. " + username.asString());
@@ -43,7 +53,7 @@ public class CombinedUserDAO implements UsersDAO {
 
     @Override
     public void removeUser(Username name) throws UsersRepositoryException {
-        if (!readOnlyLDAPUsersDAO.contains(name)) {
+        if (!ldapAuthenticationCache.contains(name)) {
             cassandraUsersDAO.removeUser(name);
         } else {
             throw new UsersRepositoryException("Can not remove user as it does still exit in LDAP repository. " + name.asString());
@@ -81,12 +91,14 @@ public class CombinedUserDAO implements UsersDAO {
     }
 
     public Optional<Username> test(Username name, String password) throws UsersRepositoryException {
-        return readOnlyLDAPUsersDAO.getUserByName(name)
-                .filter(user -> user.verifyPassword(password))
-                .map(User::getUserName)
-                .or(() -> {
-                    LOGGER.info("Could not retrieve user {}. Password is unverified.", name);
-                    return Optional.empty();
-                });
+        return ldapAuthenticationCache.test(name, password);
+    }
+
+    public void invalidateLdapCache(Username name) {
+        ldapAuthenticationCache.invalidate(name);
+    }
+
+    public void invalidateLdapCache() {
+        ldapAuthenticationCache.invalidateAll();
     }
 }
@@ -34,6 +34,13 @@ public class CombinedUsersRepositoryModule extends AbstractModule {
             configurationProvider.getConfiguration("usersrepository"));
     }
 
+    @Provides
+    @Singleton
+    public LdapAuthenticationCacheConfiguration provideLdapAuthenticationCacheConfiguration(ConfigurationProvider configurationProvider) throws ConfigurationException {
+        return LdapAuthenticationCacheConfiguration.from(
+            configurationProvider.getConfiguration("usersrepository"));
+    }
+
     @ProvidesIntoSet
     InitializationOperation configureUsersRepository(ConfigurationProvider configurationProvider, CombinedUsersRepository usersRepository) {
         return InitilizationOperationBuilder
@@ -0,0 +1,169 @@
+package com.linagora.tmail.combined.identity;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.core.Username;
+import org.apache.james.user.api.UsersRepositoryException;
+import org.apache.james.user.api.model.User;
+import org.apache.james.user.ldap.ReadOnlyLDAPUsersDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Opt-in cache of the LDAP lookups performed by {@link CombinedUserDAO}.
+ *
+ * Verified credentials are remembered for a short TTL, keyed by the username and a keyed hash of the password: the
+ * password is never kept in memory and the hash key is generated randomly on startup. A password changed in the LDAP
+ * can thus still be used until the TTL expires.
+ *
+ * A failed authentication makes the following attempts of the user fail without reaching the LDAP for an exponentially
+ * growing backoff, whatever the password: this limits both brute force attacks and the load clients retrying a wrong
+ * password put on the directory. Passwords already verified are not subject to the backoff: failed attempts of a third
+ * party never lock an authenticated user out.
+ *
+ * Expirations are driven by the injected {@link Clock}.
+ */
+public class LdapAuthenticationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LdapAuthenticationCache.class);
+    private static final int HASH_KEY_LENGTH = 32;
+    private static final int MAX_BACKOFF_EXPONENT = 30;
+
+    private record Credentials(Username username, HashCode passwordHash) {
+    }
+
+    private record Failures(int count, Instant retryAfter) {
+    }
+
+    private final ReadOnlyLDAPUsersDAO readOnlyLDAPUsersDAO;
+    private final LdapAuthenticationCacheConfiguration configuration;
+    private final Clock clock;
+    private final HashFunction passwordHashFunction;
+    private final Cache<Credentials, Username> verifiedCredentials;
+    private final Cache<Username, Failures> failures;
+    private final Cache<Username, Boolean> existence;
+
+    public LdapAuthenticationCache(ReadOnlyLDAPUsersDAO readOnlyLDAPUsersDAO,
+                                   LdapAuthenticationCacheConfiguration configuration,
+                                   Clock clock) {
+        this.readOnlyLDAPUsersDAO = readOnlyLDAPUsersDAO;
+        this.configuration = configuration;
+        this.clock = clock;
+        this.passwordHashFunction = Hashing.hmacSha256(randomKey());
+        Ticker ticker = () -> TimeUnit.MILLISECONDS.toNanos(clock.millis());
+        this.verifiedCredentials = Caffeine.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(configuration.ttl())
+            .maximumSize(configuration.maxSize())
+            .build();
+        this.failures = Caffeine.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(configuration.maxFailureBackoff())
+            .maximumSize(configuration.maxSize())
+            .build();
+        this.existence = Caffeine.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(configuration.ttl())
+            .maximumSize(configuration.maxSize())
+            .build();
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[HASH_KEY_LENGTH];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    public Optional<Username> test(Username name, String password) throws UsersRepositoryException {
+        if (!configuration.enabled()) {
+            return authenticate(name, password);
+        }
+
+        Credentials credentials = new Credentials(name, passwordHashFunction.hashString(password, UTF_8));
+        Optional<Username> verifiedUsername = Optional.ofNullable(verifiedCredentials.getIfPresent(credentials));
+        if (verifiedUsername.isPresent()) {
+            return verifiedUsername;
+        }
+        if (isBackingOff(name)) {
+            LOGGER.info("Authentication of {} rejected without checking the LDAP as previous attempts failed.", name);
+            return Optional.empty();
+        }
+
+        Optional<Username> result = authenticate(name, password);
+        result.ifPresentOrElse(username -> {
+            verifiedCredentials.put(credentials, username);
+            failures.invalidate(name);
+        }, () -> recordFailure(name));
+        return result;
+    }
+
+    public boolean contains(Username name) throws UsersRepositoryException {
+        if (!configuration.enabled()) {
+            return readOnlyLDAPUsersDAO.contains(name);
+        }
+
+        Boolean cachedResult = existence.getIfPresent(name);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+        boolean result = readOnlyLDAPUsersDAO.contains(name);
+        existence.put(name, result);
+        return result;
+    }
+
+    public void invalidate(Username name) {
+        verifiedCredentials.asMap().keySet().removeIf(credentials -> credentials.username().equals(name));
+        failures.invalidate(name);
+        existence.invalidate(name);
+    }
+
+    public void invalidateAll() {
+        verifiedCredentials.invalidateAll();
+        failures.invalidateAll();
+        existence.invalidateAll();
+    }
+
+    private Optional<Username> authenticate(Username name, String password) throws UsersRepositoryException {
+        return readOnlyLDAPUsersDAO.getUserByName(name)
+            .filter(user -> user.verifyPassword(password))
+            .map(User::getUserName)
+            .or(() -> {
+                LOGGER.info("Could not retrieve user {}. Password is unverified.", name);
+                return Optional.empty();
+            });
+    }
+
+    private boolean isBackingOff(Username name) {
+        return Optional.ofNullable(failures.getIfPresent(name))
+            .map(userFailures -> clock.instant().isBefore(userFailures.retryAfter()))
+            .orElse(false);
+    }
+
+    private void recordFailure(Username name) {
+        failures.asMap().compute(name, (key, previousFailures) -> {
+            int count = Optional.ofNullable(previousFailures).map(Failures::count).orElse(0) + 1;
+            return new Failures(count, clock.instant().plus(backoff(count)));
+        });
+    }
+
+    private Duration backoff(int failureCount) {
+        Duration backoff = configuration.failureBackoff().multipliedBy(1L << Math.min(failureCount - 1, MAX_BACKOFF_EXPONENT));
+        if (backoff.compareTo(configuration.maxFailureBackoff()) > 0) {
+            return configuration.maxFailureBackoff();
+        }
+        return backoff;
+    }
+}
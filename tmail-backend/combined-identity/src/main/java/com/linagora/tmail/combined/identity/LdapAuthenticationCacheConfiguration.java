@@ -0,0 +1,46 @@
+package com.linagora.tmail.combined.identity;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.Preconditions;
+
+public record LdapAuthenticationCacheConfiguration(boolean enabled,
+                                                   Duration ttl,
+                                                   long maxSize,
+                                                   Duration failureBackoff,
+                                                   Duration maxFailureBackoff) {
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    public static final long DEFAULT_MAX_SIZE = 10000;
+    public static final Duration DEFAULT_FAILURE_BACKOFF = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_MAX_FAILURE_BACKOFF = Duration.ofMinutes(1);
+    public static final LdapAuthenticationCacheConfiguration DISABLED = new LdapAuthenticationCacheConfiguration(false,
+        DEFAULT_TTL, DEFAULT_MAX_SIZE, DEFAULT_FAILURE_BACKOFF, DEFAULT_MAX_FAILURE_BACKOFF);
+
+    public static LdapAuthenticationCacheConfiguration from(HierarchicalConfiguration<ImmutableNode> configuration) {
+        return new LdapAuthenticationCacheConfiguration(
+            configuration.getBoolean("authenticationCache[@enabled]", false),
+            parseDuration(configuration, "authenticationCache[@ttl]").orElse(DEFAULT_TTL),
+            configuration.getLong("authenticationCache[@maxSize]", DEFAULT_MAX_SIZE),
+            parseDuration(configuration, "authenticationCache[@failureBackoff]").orElse(DEFAULT_FAILURE_BACKOFF),
+            parseDuration(configuration, "authenticationCache[@maxFailureBackoff]").orElse(DEFAULT_MAX_FAILURE_BACKOFF));
+    }
+
+    private static Optional<Duration> parseDuration(HierarchicalConfiguration<ImmutableNode> configuration, String key) {
+        return Optional.ofNullable(configuration.getString(key, null))
+            .map(rawString -> DurationParser.parse(rawString, ChronoUnit.SECONDS));
+    }
+
+    public LdapAuthenticationCacheConfiguration {
+        Preconditions.checkArgument(!ttl.isNegative() && !ttl.isZero(), "'authenticationCache.ttl' must be strictly positive");
+        Preconditions.checkArgument(maxSize > 0, "'authenticationCache.maxSize' must be strictly positive");
+        Preconditions.checkArgument(!failureBackoff.isNegative(), "'authenticationCache.failureBackoff' must be positive");
+        Preconditions.checkArgument(maxFailureBackoff.compareTo(failureBackoff) >= 0,
+            "'authenticationCache.maxFailureBackoff' must be greater than or equal to 'authenticationCache.failureBackoff'");
+    }
+}
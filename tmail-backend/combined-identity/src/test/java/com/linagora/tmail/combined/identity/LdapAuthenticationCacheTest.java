@@ -0,0 +1,227 @@
+package com.linagora.tmail.combined.identity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.apache.james.core.Username;
+import org.apache.james.user.api.model.User;
+import org.apache.james.user.ldap.ReadOnlyLDAPUsersDAO;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LdapAuthenticationCacheTest {
+    private static final Username BOB = Username.of("bob@james.org");
+    private static final String PASSWORD = "secret";
+    private static final String WRONG_PASSWORD = "wrong";
+    private static final Instant NOW = Instant.parse("2022-10-10T00:00:00Z");
+    private static final LdapAuthenticationCacheConfiguration CONFIGURATION = new LdapAuthenticationCacheConfiguration(true,
+        Duration.ofMinutes(1), 100, Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+    private ReadOnlyLDAPUsersDAO ldap;
+    private UpdatableTickingClock clock;
+    private LdapAuthenticationCache testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User bob = mock(User.class);
+        when(bob.getUserName()).thenReturn(BOB);
+        when(bob.verifyPassword(PASSWORD)).thenReturn(true);
+        ldap = mock(ReadOnlyLDAPUsersDAO.class);
+        doReturn(Optional.empty()).when(ldap).getUserByName(any());
+        doReturn(Optional.of(bob)).when(ldap).getUserByName(BOB);
+        when(ldap.contains(BOB)).thenReturn(true);
+        clock = new UpdatableTickingClock(NOW);
+        testee = new LdapAuthenticationCache(ldap, CONFIGURATION, clock);
+    }
+
+    @Test
+    void testShouldVerifyCredentials() throws Exception {
+        assertThat(testee.test(BOB, PASSWORD)).contains(BOB);
+    }
+
+    @Test
+    void testShouldRejectWrongPassword() throws Exception {
+        assertThat(testee.test(BOB, WRONG_PASSWORD)).isEmpty();
+    }
+
+    @Test
+    void testShouldRejectUnknownUser() throws Exception {
+        assertThat(testee.test(Username.of("alice@james.org"), PASSWORD)).isEmpty();
+    }
+
+    @Test
+    void verifiedCredentialsShouldBeCached() throws Exception {
+        testee.test(BOB, PASSWORD);
+        testee.test(BOB, PASSWORD);
+        testee.test(BOB, PASSWORD);
+
+        verify(ldap, times(1)).getUserByName(BOB);
+    }
+
+    @Test
+    void cachedCredentialsShouldNotMatchAnotherPassword() throws Exception {
+        testee.test(BOB, PASSWORD);
+
+        assertThat(testee.test(BOB, WRONG_PASSWORD)).isEmpty();
+    }
+
+    @Test
+    void failuresShouldNotReachTheLdapDuringTheBackoff() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+        testee.test(BOB, WRONG_PASSWORD);
+        testee.test(BOB, WRONG_PASSWORD);
+
+        verify(ldap, times(1)).getUserByName(BOB);
+    }
+
+    @Test
+    void distinctWrongPasswordsShouldNotReachTheLdapDuringTheBackoff() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            testee.test(BOB, WRONG_PASSWORD + i);
+        }
+
+        verify(ldap, times(1)).getUserByName(BOB);
+    }
+
+    @Test
+    void unverifiedPasswordsShouldBeRejectedDuringTheBackoff() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+
+        assertThat(testee.test(BOB, PASSWORD)).isEmpty();
+    }
+
+    @Test
+    void verifiedPasswordsShouldNotBeSubjectToTheBackoff() throws Exception {
+        testee.test(BOB, PASSWORD);
+        testee.test(BOB, WRONG_PASSWORD);
+
+        assertThat(testee.test(BOB, PASSWORD)).contains(BOB);
+    }
+
+    @Test
+    void successfulAuthenticationShouldResetTheBackoff() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+        clock.setInstant(NOW.plusSeconds(2));
+        testee.test(BOB, PASSWORD);
+
+        testee.test(BOB, WRONG_PASSWORD);
+
+        verify(ldap, times(3)).getUserByName(BOB);
+    }
+
+    @Test
+    void ldapShouldBeCheckedAgainOnceTheBackoffElapsed() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+
+        clock.setInstant(NOW.plusSeconds(2));
+        testee.test(BOB, WRONG_PASSWORD);
+
+        verify(ldap, times(2)).getUserByName(BOB);
+    }
+
+    @Test
+    void backoffShouldGrowWithConsecutiveFailures() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+        clock.setInstant(NOW.plusSeconds(2));
+        testee.test(BOB, WRONG_PASSWORD);
+
+        clock.setInstant(NOW.plusSeconds(3));
+        testee.test(BOB, WRONG_PASSWORD);
+        verify(ldap, times(2)).getUserByName(BOB);
+
+        clock.setInstant(NOW.plusSeconds(5));
+        testee.test(BOB, WRONG_PASSWORD);
+        verify(ldap, times(3)).getUserByName(BOB);
+    }
+
+    @Test
+    void backoffShouldBeCapped() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            clock.setInstant(NOW.plus(Duration.ofSeconds(10).multipliedBy(i)));
+            testee.test(BOB, WRONG_PASSWORD);
+        }
+
+        clock.setInstant(NOW.plus(Duration.ofSeconds(100)));
+        testee.test(BOB, WRONG_PASSWORD);
+
+        verify(ldap, times(11)).getUserByName(BOB);
+    }
+
+    @Test
+    void failuresShouldBeScopedToTheUser() throws Exception {
+        testee.test(Username.of("alice@james.org"), PASSWORD);
+
+        assertThat(testee.test(BOB, PASSWORD)).contains(BOB);
+    }
+
+    @Test
+    void verifiedCredentialsShouldExpireAfterTheTtl() throws Exception {
+        testee.test(BOB, PASSWORD);
+
+        clock.setInstant(NOW.plus(Duration.ofMinutes(2)));
+        testee.test(BOB, PASSWORD);
+
+        verify(ldap, times(2)).getUserByName(BOB);
+    }
+
+    @Test
+    void invalidateShouldDropTheCachedCredentials() throws Exception {
+        testee.test(BOB, PASSWORD);
+
+        testee.invalidate(BOB);
+        testee.test(BOB, PASSWORD);
+
+        verify(ldap, times(2)).getUserByName(BOB);
+    }
+
+    @Test
+    void invalidateShouldResetTheBackoff() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+
+        testee.invalidate(BOB);
+        testee.test(BOB, WRONG_PASSWORD);
+
+        verify(ldap, times(2)).getUserByName(BOB);
+    }
+
+    @Test
+    void invalidateAllShouldDropTheCachedCredentials() throws Exception {
+        testee.test(BOB, PASSWORD);
+
+        testee.invalidateAll();
+        testee.test(BOB, PASSWORD);
+
+        verify(ldap, times(2)).getUserByName(BOB);
+    }
+
+    @Test
+    void containsShouldBeMemoized() throws Exception {
+        assertThat(testee.contains(BOB)).isTrue();
+        assertThat(testee.contains(BOB)).isTrue();
+
+        verify(ldap, times(1)).contains(BOB);
+    }
+
+    @Test
+    void disabledCacheShouldAlwaysQueryTheLdap() throws Exception {
+        testee = new LdapAuthenticationCache(ldap, LdapAuthenticationCacheConfiguration.DISABLED, clock);
+
+        testee.test(BOB, PASSWORD);
+        testee.test(BOB, PASSWORD);
+        testee.contains(BOB);
+        testee.contains(BOB);
+
+        verify(ldap, times(2)).getUserByName(BOB);
+        verify(ldap, times(2)).contains(BOB);
+    }
+}
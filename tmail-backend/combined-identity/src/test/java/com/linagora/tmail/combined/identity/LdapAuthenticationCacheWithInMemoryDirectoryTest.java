@@ -0,0 +1,136 @@
+package com.linagora.tmail.combined.identity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.commons.configuration2.plist.PropertyListConfiguration;
+import org.apache.james.core.Username;
+import org.apache.james.user.ldap.ReadOnlyLDAPUsersDAO;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+
+class LdapAuthenticationCacheWithInMemoryDirectoryTest {
+    private static final String BASE_DN = "dc=james,dc=org";
+    private static final String ADMIN_DN = "cn=admin," + BASE_DN;
+    private static final String ADMIN_PASSWORD = "mysecretpassword";
+    private static final String BOB_DN = "uid=bob,ou=People," + BASE_DN;
+    private static final Username BOB = Username.of("bob@james.org");
+    private static final String PASSWORD = "secret";
+    private static final String NEW_PASSWORD = "newSecret";
+    private static final String WRONG_PASSWORD = "wrong";
+    private static final Instant NOW = Instant.parse("2022-10-10T00:00:00Z");
+    private static final LdapAuthenticationCacheConfiguration CONFIGURATION = new LdapAuthenticationCacheConfiguration(true,
+        Duration.ofMinutes(1), 100, Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+    private InMemoryDirectoryServer directory;
+    private ReadOnlyLDAPUsersDAO ldap;
+    private UpdatableTickingClock clock;
+    private LdapAuthenticationCache testee;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryDirectoryServerConfig directoryConfiguration = new InMemoryDirectoryServerConfig(BASE_DN);
+        directoryConfiguration.addAdditionalBindCredentials(ADMIN_DN, ADMIN_PASSWORD);
+        directoryConfiguration.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+        directory = new InMemoryDirectoryServer(directoryConfiguration);
+        directory.add("dn: " + BASE_DN, "objectClass: top", "objectClass: domain", "dc: james");
+        directory.add("dn: ou=People," + BASE_DN, "objectClass: organizationalUnit", "ou: People");
+        directory.add("dn: " + BOB_DN, "objectClass: inetOrgPerson", "uid: bob", "cn: bob", "sn: bob",
+            "mail: " + BOB.asString(), "userPassword: " + PASSWORD);
+        directory.startListening();
+
+        ReadOnlyLDAPUsersDAO readOnlyLDAPUsersDAO = new ReadOnlyLDAPUsersDAO();
+        readOnlyLDAPUsersDAO.configure(ldapConfiguration(directory.getListenPort()));
+        readOnlyLDAPUsersDAO.init();
+        ldap = spy(readOnlyLDAPUsersDAO);
+
+        clock = new UpdatableTickingClock(NOW);
+        testee = new LdapAuthenticationCache(ldap, CONFIGURATION, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        directory.shutDown(true);
+    }
+
+    private static PropertyListConfiguration ldapConfiguration(int port) {
+        PropertyListConfiguration configuration = new PropertyListConfiguration();
+        configuration.addProperty("[@ldapHost]", "ldap://localhost:" + port);
+        configuration.addProperty("[@principal]", ADMIN_DN);
+        configuration.addProperty("[@credentials]", ADMIN_PASSWORD);
+        configuration.addProperty("[@userBase]", "ou=People," + BASE_DN);
+        configuration.addProperty("[@userObjectClass]", "inetOrgPerson");
+        configuration.addProperty("[@userIdAttribute]", "mail");
+        configuration.addProperty("[@maxRetries]", "1");
+        configuration.addProperty("[@retryStartInterval]", "0");
+        configuration.addProperty("[@retryMaxInterval]", "2");
+        configuration.addProperty("[@retryIntervalScale]", "1000");
+        configuration.addProperty("[@connectionTimeout]", "1000");
+        configuration.addProperty("[@readTimeout]", "1000");
+        configuration.addProperty("supportsVirtualHosting", true);
+        return configuration;
+    }
+
+    @Test
+    void testShouldVerifyDirectoryCredentials() throws Exception {
+        assertThat(testee.test(BOB, PASSWORD)).contains(BOB);
+    }
+
+    @Test
+    void testShouldRejectWrongPassword() throws Exception {
+        assertThat(testee.test(BOB, WRONG_PASSWORD)).isEmpty();
+    }
+
+    @Test
+    void verifiedCredentialsShouldNotReachTheDirectoryAgain() throws Exception {
+        testee.test(BOB, PASSWORD);
+        testee.test(BOB, PASSWORD);
+
+        verify(ldap, times(1)).getUserByName(BOB);
+    }
+
+    @Test
+    void wrongPasswordsOfAThirdPartyShouldNotLockTheUserOut() throws Exception {
+        testee.test(BOB, PASSWORD);
+        testee.test(BOB, WRONG_PASSWORD);
+        testee.test(BOB, WRONG_PASSWORD + "2");
+
+        assertThat(testee.test(BOB, PASSWORD)).contains(BOB);
+    }
+
+    @Test
+    void repeatedWrongPasswordShouldNotReachTheDirectoryDuringTheBackoff() throws Exception {
+        testee.test(BOB, WRONG_PASSWORD);
+        testee.test(BOB, WRONG_PASSWORD);
+
+        verify(ldap, times(1)).getUserByName(BOB);
+    }
+
+    @Test
+    void passwordChangedInTheDirectoryShouldBeEnforcedOnceTheTtlExpired() throws Exception {
+        testee.test(BOB, PASSWORD);
+
+        directory.modify(BOB_DN, new Modification(ModificationType.REPLACE, "userPassword", NEW_PASSWORD));
+
+        assertThat(testee.test(BOB, PASSWORD)).contains(BOB);
+
+        clock.setInstant(NOW.plus(Duration.ofMinutes(2)));
+        assertThat(testee.test(BOB, PASSWORD)).isEmpty();
+
+        clock.setInstant(NOW.plus(Duration.ofMinutes(2)).plusSeconds(2));
+        assertThat(testee.test(BOB, NEW_PASSWORD)).contains(BOB);
+    }
+}
@@ -0,0 +1,80 @@
+package com.linagora.tmail;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tracks the RabbitMQ consumers of this node, as reported by their receivers.
+ *
+ * Unlike the management API, the registry is notified as soon as the broker cancels a consumer or shuts its channel
+ * down, and knows which queue is affected.
+ */
+@Singleton
+public class ConsumerRegistry {
+    public record ConsumerStatus(int activeConsumers, long lostCount, Optional<Instant> lastLostDate) {
+        public static final ConsumerStatus EMPTY = new ConsumerStatus(0, 0, Optional.empty());
+
+        ConsumerStatus started() {
+            return new ConsumerStatus(activeConsumers + 1, lostCount, lastLostDate);
+        }
+
+        ConsumerStatus stopped() {
+            return new ConsumerStatus(Math.max(activeConsumers - 1, 0), lostCount, lastLostDate);
+        }
+
+        ConsumerStatus lost(Instant date) {
+            return new ConsumerStatus(Math.max(activeConsumers - 1, 0), lostCount + 1, Optional.of(date));
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsumerRegistry.class);
+
+    private final Clock clock;
+    private final ConcurrentHashMap<String, ConsumerStatus> statuses;
+
+    @Inject
+    public ConsumerRegistry(Clock clock) {
+        this.clock = clock;
+        this.statuses = new ConcurrentHashMap<>();
+    }
+
+    public Map<String, ConsumerStatus> statuses() {
+        return ImmutableMap.copyOf(statuses);
+    }
+
+    public boolean hasActiveConsumer(String queue) {
+        return Optional.ofNullable(statuses.get(queue))
+            .map(status -> status.activeConsumers() > 0)
+            .orElse(false);
+    }
+
+    void consumerStarted(String queue) {
+        update(queue, ConsumerStatus::started);
+    }
+
+    void consumerStopped(String queue) {
+        update(queue, ConsumerStatus::stopped);
+    }
+
+    void consumerLost(String queue, Throwable cause) {
+        LOGGER.warn("Lost RabbitMQ consumer on queue {}, resubscribing", queue, cause);
+        Instant now = clock.instant();
+        update(queue, status -> status.lost(now));
+    }
+
+    private void update(String queue, UnaryOperator<ConsumerStatus> operation) {
+        statuses.compute(queue, (key, status) -> operation.apply(Optional.ofNullable(status).orElse(ConsumerStatus.EMPTY)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.linagora.tmail;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.rabbitmq.client.Delivery;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.rabbitmq.AcknowledgableDelivery;
+import reactor.rabbitmq.ConsumeOptions;
+import reactor.rabbitmq.Receiver;
+import reactor.rabbitmq.ReceiverOptions;
+import reactor.util.retry.Retry;
+
+/**
+ * Receiver reporting its consumers to the {@link ConsumerRegistry}.
+ *
+ * A consumer cancelled by the broker, or whose channel is shut down, is resubscribed with a jittered exponential
+ * backoff. Only the affected consumer is restarted, and its subscriber is kept: it does not notice the interruption.
+ */
+public class MonitoredReceiver extends Receiver {
+    public static class ConsumerCancelledException extends RuntimeException {
+        public ConsumerCancelledException(String queue) {
+            super("Consumer of queue " + queue + " was cancelled");
+        }
+    }
+
+    private static final double JITTER_FACTOR = 0.5;
+
+    private final Receiver delegate;
+    private final ConsumerRegistry registry;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final Scheduler scheduler;
+    private final AtomicBoolean closed;
+
+    public MonitoredReceiver(Receiver delegate, ConsumerRegistry registry, Duration minBackoff, Duration maxBackoff) {
+        this(delegate, registry, minBackoff, maxBackoff, Schedulers.parallel());
+    }
+
+    @VisibleForTesting
+    MonitoredReceiver(Receiver delegate, ConsumerRegistry registry, Duration minBackoff, Duration maxBackoff, Scheduler scheduler) {
+        super(new ReceiverOptions());
+        this.delegate = delegate;
+        this.registry = registry;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.scheduler = scheduler;
+        this.closed = new AtomicBoolean(false);
+    }
+
+    @Override
+    public Flux<AcknowledgableDelivery> consumeManualAck(String queue) {
+        return consumeManualAck(queue, new ConsumeOptions());
+    }
+
+    @Override
+    public Flux<AcknowledgableDelivery> consumeManualAck(String queue, ConsumeOptions options) {
+        return monitor(queue, () -> delegate.consumeManualAck(queue, options));
+    }
+
+    @Override
+    public Flux<Delivery> consumeAutoAck(String queue) {
+        return consumeAutoAck(queue, new ConsumeOptions());
+    }
+
+    @Override
+    public Flux<Delivery> consumeAutoAck(String queue, ConsumeOptions options) {
+        return monitor(queue, () -> delegate.consumeAutoAck(queue, options));
+    }
+
+    @Override
+    public Flux<Delivery> consumeNoAck(String queue) {
+        return consumeNoAck(queue, new ConsumeOptions());
+    }
+
+    @Override
+    public Flux<Delivery> consumeNoAck(String queue, ConsumeOptions options) {
+        return monitor(queue, () -> delegate.consumeNoAck(queue, options));
+    }
+
+    @Override
+    public void close() {
+        closed.set(true);
+        delegate.close();
+        super.close();
+    }
+
+    private <T> Flux<T> monitor(String queue, Supplier<Flux<T>> consume) {
+        return Flux.defer(consume)
+            .doOnSubscribe(any -> registry.consumerStarted(queue))
+            .concatWith(Mono.error(() -> new ConsumerCancelledException(queue)))
+            .doOnError(e -> onTermination(queue, e))
+            .doOnCancel(() -> registry.consumerStopped(queue))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(JITTER_FACTOR)
+                .transientErrors(true)
+                .scheduler(scheduler)
+                .filter(e -> !closed.get()))
+            .onErrorResume(e -> closed.get(), e -> Mono.empty());
+    }
+
+    private void onTermination(String queue, Throwable cause) {
+        if (closed.get()) {
+            registry.consumerStopped(queue);
+        } else {
+            registry.consumerLost(queue, cause);
+        }
+    }
+}
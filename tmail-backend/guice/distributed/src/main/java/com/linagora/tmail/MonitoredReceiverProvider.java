@@ -0,0 +1,97 @@
+package com.linagora.tmail;
+
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.backends.rabbitmq.ReceiverProvider;
+import org.apache.james.backends.rabbitmq.SimpleConnectionPool;
+import org.apache.james.util.DurationParser;
+import org.apache.james.utils.PropertiesProvider;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+import reactor.rabbitmq.RabbitFlux;
+import reactor.rabbitmq.Receiver;
+import reactor.rabbitmq.ReceiverOptions;
+
+/**
+ * Provides receivers whose consumers are tracked by the {@link ConsumerRegistry} and resubscribed when lost.
+ */
+public class MonitoredReceiverProvider implements ReceiverProvider {
+    public record ConsumerResubscriptionConfiguration(boolean enabled, Duration minBackoff, Duration maxBackoff) {
+        public static final Duration DEFAULT_MIN_BACKOFF = Duration.ofMillis(100);
+        public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(10);
+        public static final ConsumerResubscriptionConfiguration DEFAULT = new ConsumerResubscriptionConfiguration(true, DEFAULT_MIN_BACKOFF, DEFAULT_MAX_BACKOFF);
+
+        public static ConsumerResubscriptionConfiguration parse(PropertiesProvider propertiesProvider) throws ConfigurationException {
+            try {
+                return from(propertiesProvider.getConfiguration("rabbitmq"));
+            } catch (FileNotFoundException e) {
+                return DEFAULT;
+            }
+        }
+
+        public static ConsumerResubscriptionConfiguration from(Configuration configuration) {
+            return new ConsumerResubscriptionConfiguration(
+                configuration.getBoolean("consumer.resubscription.enabled", true),
+                parseDuration(configuration, "consumer.resubscription.minBackoff").orElse(DEFAULT_MIN_BACKOFF),
+                parseDuration(configuration, "consumer.resubscription.maxBackoff").orElse(DEFAULT_MAX_BACKOFF));
+        }
+
+        private static Optional<Duration> parseDuration(Configuration configuration, String key) {
+            return Optional.ofNullable(configuration.getString(key, null))
+                .map(value -> DurationParser.parse(value, ChronoUnit.MILLIS));
+        }
+
+        public ConsumerResubscriptionConfiguration {
+            Preconditions.checkArgument(!minBackoff.isNegative() && !minBackoff.isZero(), "'consumer.resubscription.minBackoff' must be strictly positive");
+            Preconditions.checkArgument(maxBackoff.compareTo(minBackoff) >= 0, "'consumer.resubscription.maxBackoff' must be greater than or equal to 'consumer.resubscription.minBackoff'");
+        }
+    }
+
+    /**
+     * Overrides the {@link ReceiverProvider} of the RabbitMQ module.
+     */
+    public static class Module extends AbstractModule {
+        @Provides
+        @Singleton
+        ConsumerResubscriptionConfiguration configuration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+            return ConsumerResubscriptionConfiguration.parse(propertiesProvider);
+        }
+
+        @Provides
+        @Singleton
+        ReceiverProvider receiverProvider(SimpleConnectionPool simpleConnectionPool, ConsumerRegistry registry,
+                                          ConsumerResubscriptionConfiguration configuration) {
+            return new MonitoredReceiverProvider(
+                () -> RabbitFlux.createReceiver(new ReceiverOptions().connectionMono(simpleConnectionPool.getResilientConnection())),
+                registry, configuration);
+        }
+    }
+
+    private final ReceiverProvider delegate;
+    private final ConsumerRegistry registry;
+    private final ConsumerResubscriptionConfiguration configuration;
+
+    public MonitoredReceiverProvider(ReceiverProvider delegate, ConsumerRegistry registry, ConsumerResubscriptionConfiguration configuration) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public Receiver createReceiver() {
+        if (!configuration.enabled()) {
+            return delegate.createReceiver();
+        }
+        return new MonitoredReceiver(delegate.createReceiver(), registry, configuration.minBackoff(), configuration.maxBackoff());
+    }
+}
@@ -10,6 +10,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,7 @@ import org.apache.http.ssl.TrustStrategy;
 import org.apache.james.backends.rabbitmq.RabbitMQConfiguration;
 import org.apache.james.backends.rabbitmq.SimpleConnectionPool;
 import org.apache.james.lifecycle.api.Startable;
+import org.apache.james.util.DurationParser;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 import org.apache.james.utils.PropertiesProvider;
@@ -59,13 +61,18 @@ import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 public class ScheduledReconnectionHandler implements Startable {
-    public record ScheduledReconnectionHandlerConfiguration(boolean enabled) {
+    public record ScheduledReconnectionHandlerConfiguration(boolean enabled, Duration interval) {
+        public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(5);
+
         public static ScheduledReconnectionHandlerConfiguration parse(PropertiesProvider propertiesProvider) throws ConfigurationException {
             try {
                 Configuration configuration = propertiesProvider.getConfiguration("rabbitmq");
-                return new ScheduledReconnectionHandlerConfiguration(configuration.getBoolean("scheduled.consumer.reconnection.enabled", true));
+                return new ScheduledReconnectionHandlerConfiguration(configuration.getBoolean("scheduled.consumer.reconnection.enabled", true),
+                    Optional.ofNullable(configuration.getString("scheduled.consumer.reconnection.interval", null))
+                        .map(value -> DurationParser.parse(value, ChronoUnit.SECONDS))
+                        .orElse(DEFAULT_INTERVAL));
             } catch (FileNotFoundException e) {
-                return new ScheduledReconnectionHandlerConfiguration(false);
+                return new ScheduledReconnectionHandlerConfiguration(false, DEFAULT_INTERVAL);
             }
         }
     }
@@ -288,23 +295,26 @@ public class ScheduledReconnectionHandler implements Startable {
     private final RabbitMQConfiguration configuration;
     private final SimpleConnectionPool connectionPool;
     private final ScheduledReconnectionHandlerConfiguration scheduledReconnectionHandlerConfiguration;
+    private final ConsumerRegistry consumerRegistry;
     private Disposable disposable;
 
     @Inject
     public ScheduledReconnectionHandler(Set<SimpleConnectionPool.ReconnectionHandler> reconnectionHandlers,
                                         RabbitMQConfiguration configuration,
                                         SimpleConnectionPool connectionPool,
-                                        ScheduledReconnectionHandlerConfiguration scheduledReconnectionHandlerConfiguration) {
+                                        ScheduledReconnectionHandlerConfiguration scheduledReconnectionHandlerConfiguration,
+                                        ConsumerRegistry consumerRegistry) {
         this.reconnectionHandlers = reconnectionHandlers;
         this.mqManagementAPI = RabbitMQManagementAPI.from(configuration);
         this.configuration = configuration;
         this.connectionPool = connectionPool;
         this.scheduledReconnectionHandlerConfiguration = scheduledReconnectionHandlerConfiguration;
+        this.consumerRegistry = consumerRegistry;
     }
     
     public void start() {
         if (scheduledReconnectionHandlerConfiguration.enabled()) {
-            disposable = Flux.interval(Duration.ofMinutes(1))
+            disposable = Flux.interval(scheduledReconnectionHandlerConfiguration.interval())
                 .filter(any -> restartNeeded())
                 .concatMap(any -> restart())
                 .onErrorResume(e -> {
@@ -322,7 +332,7 @@ public class ScheduledReconnectionHandler implements Startable {
     }
     
     private Mono<Void> restart() {
-        LOGGER.warn("One of the queues has no consumer thus restarting all consumers");
+        LOGGER.warn("One of the queues has no consumer thus restarting all consumers. Consumers of this node: {}", consumerRegistry.statuses());
         return connectionPool.getResilientConnection()
             .flatMap(connection -> Flux.fromIterable(reconnectionHandlers)
                 .concatMap(h -> h.handleReconnection(connection))
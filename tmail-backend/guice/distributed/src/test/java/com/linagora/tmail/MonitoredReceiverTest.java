@@ -0,0 +1,192 @@
+package com.linagora.tmail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rabbitmq.client.ShutdownSignalException;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.rabbitmq.AcknowledgableDelivery;
+import reactor.rabbitmq.ConsumeOptions;
+import reactor.rabbitmq.Receiver;
+import reactor.rabbitmq.ReceiverOptions;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class MonitoredReceiverTest {
+    static class FakeBrokerReceiver extends Receiver {
+        private final List<Sinks.Many<AcknowledgableDelivery>> consumers = new CopyOnWriteArrayList<>();
+
+        FakeBrokerReceiver() {
+            super(new ReceiverOptions());
+        }
+
+        @Override
+        public Flux<AcknowledgableDelivery> consumeManualAck(String queue, ConsumeOptions options) {
+            Sinks.Many<AcknowledgableDelivery> consumer = Sinks.many().unicast().onBackpressureBuffer();
+            consumers.add(consumer);
+            return consumer.asFlux();
+        }
+
+        Sinks.Many<AcknowledgableDelivery> lastConsumer() {
+            return consumers.get(consumers.size() - 1);
+        }
+
+        void deliver() {
+            lastConsumer().tryEmitNext(mock(AcknowledgableDelivery.class));
+        }
+
+        void cancelConsumer() {
+            lastConsumer().tryEmitComplete();
+        }
+
+        void shutdownChannel() {
+            lastConsumer().tryEmitError(new ShutdownSignalException(false, false, null, null));
+        }
+
+        int consumeCount() {
+            return consumers.size();
+        }
+    }
+
+    static final String QUEUE = "JamesMailQueue-workqueue-spool";
+    static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+    static final Instant NOW = Instant.parse("2022-10-10T00:00:00Z");
+
+    FakeBrokerReceiver broker;
+    ConsumerRegistry registry;
+    VirtualTimeScheduler scheduler;
+    MonitoredReceiver testee;
+    List<AcknowledgableDelivery> received;
+
+    @BeforeEach
+    void setUp() {
+        broker = new FakeBrokerReceiver();
+        registry = new ConsumerRegistry(Clock.fixed(NOW, ZoneOffset.UTC));
+        scheduler = VirtualTimeScheduler.create();
+        testee = new MonitoredReceiver(broker, registry, MIN_BACKOFF, MAX_BACKOFF, scheduler);
+        received = new CopyOnWriteArrayList<>();
+    }
+
+    private Disposable consume() {
+        return testee.consumeManualAck(QUEUE).subscribe(received::add);
+    }
+
+    @Test
+    void deliveriesShouldBeForwarded() {
+        consume();
+
+        broker.deliver();
+        broker.deliver();
+
+        assertThat(received).hasSize(2);
+    }
+
+    @Test
+    void consumerShouldBeRegistered() {
+        consume();
+
+        assertThat(registry.hasActiveConsumer(QUEUE)).isTrue();
+    }
+
+    @Test
+    void cancelledConsumerShouldBeResubscribed() {
+        consume();
+
+        broker.cancelConsumer();
+        scheduler.advanceTimeBy(MAX_BACKOFF);
+
+        assertThat(broker.consumeCount()).isEqualTo(2);
+        assertThat(registry.hasActiveConsumer(QUEUE)).isTrue();
+    }
+
+    @Test
+    void consumerWithAShutdownChannelShouldBeResubscribed() {
+        consume();
+
+        broker.shutdownChannel();
+        scheduler.advanceTimeBy(MAX_BACKOFF);
+
+        assertThat(broker.consumeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void resubscribedConsumerShouldKeepDelivering() {
+        Disposable subscription = consume();
+
+        broker.shutdownChannel();
+        scheduler.advanceTimeBy(MAX_BACKOFF);
+        broker.deliver();
+
+        assertThat(received).hasSize(1);
+        assertThat(subscription.isDisposed()).isFalse();
+    }
+
+    @Test
+    void resubscriptionShouldWaitForTheBackoff() {
+        consume();
+
+        broker.cancelConsumer();
+
+        assertThat(broker.consumeCount()).isEqualTo(1);
+        assertThat(registry.hasActiveConsumer(QUEUE)).isFalse();
+    }
+
+    @Test
+    void lostConsumersShouldBeRecorded() {
+        consume();
+
+        broker.cancelConsumer();
+
+        assertThat(registry.statuses().get(QUEUE))
+            .isEqualTo(new ConsumerRegistry.ConsumerStatus(0, 1, Optional.of(NOW)));
+    }
+
+    @Test
+    void disposedConsumerShouldNotBeResubscribed() {
+        consume().dispose();
+
+        scheduler.advanceTimeBy(MAX_BACKOFF);
+
+        assertThat(broker.consumeCount()).isEqualTo(1);
+        assertThat(registry.hasActiveConsumer(QUEUE)).isFalse();
+    }
+
+    @Test
+    void closedReceiverShouldNotResubscribe() {
+        consume();
+
+        testee.close();
+        broker.shutdownChannel();
+        scheduler.advanceTimeBy(MAX_BACKOFF);
+
+        assertThat(broker.consumeCount()).isEqualTo(1);
+        assertThat(registry.statuses().get(QUEUE).lostCount()).isZero();
+    }
+
+    @Test
+    void onlyTheAffectedConsumerShouldBeRestarted() {
+        consume();
+        testee.consumeManualAck("other").subscribe();
+
+        broker.consumers.get(0).tryEmitComplete();
+        scheduler.advanceTimeBy(MAX_BACKOFF);
+
+        assertThat(broker.consumeCount()).isEqualTo(3);
+        assertThat(registry.statuses().get("other").lostCount()).isZero();
+        assertThat(registry.statuses().get(QUEUE).lostCount()).isEqualTo(1);
+    }
+}
@@ -50,6 +50,7 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 import org.apache.james.utils.PropertiesProvider;
@@ -116,10 +117,13 @@ public class ElasticSearchMailboxModule extends AbstractModule {
     @Singleton
     @Named(MailboxElasticSearchConstants.InjectionNames.MAILBOX)
     private ElasticSearchIndexer createMailboxElasticSearchIndexer(ReactorElasticSearchClient client,
-                                                                   ElasticSearchMailboxConfiguration configuration) {
+                                                                   ElasticSearchMailboxConfiguration configuration,
+                                                                   MetricFactory metricFactory) {
         return new ElasticSearchIndexer(
             client,
-            configuration.getWriteAliasMailboxName());
+            configuration.getWriteAliasMailboxName(),
+            configuration.getDeleteByQueryConfiguration(),
+            metricFactory);
     }
 
     @Provides
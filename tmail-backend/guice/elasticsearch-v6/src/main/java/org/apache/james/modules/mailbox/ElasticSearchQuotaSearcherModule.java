@@ -25,21 +25,24 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.backends.es.ElasticSearchConfiguration;
 import org.apache.james.backends.es.ElasticSearchIndexer;
 import org.apache.james.backends.es.ReactorElasticSearchClient;
+import org.apache.james.backends.es.RoutingKey;
+import org.apache.james.core.Username;
 import org.apache.james.events.EventListener;
 import org.apache.james.lifecycle.api.Startable;
 import org.apache.james.quota.search.QuotaSearcher;
 import org.apache.james.quota.search.elasticsearch.ElasticSearchQuotaConfiguration;
 import org.apache.james.quota.search.elasticsearch.ElasticSearchQuotaSearcher;
+import org.apache.james.quota.search.elasticsearch.QuotaRatioElasticSearchConstants;
 import org.apache.james.quota.search.elasticsearch.QuotaSearchIndexCreationUtil;
 import org.apache.james.quota.search.elasticsearch.UserRoutingKeyFactory;
 import org.apache.james.quota.search.elasticsearch.events.ElasticSearchQuotaMailboxListener;
-import org.apache.james.quota.search.elasticsearch.json.QuotaRatioToElasticSearchJson;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 import org.apache.james.utils.PropertiesProvider;
@@ -48,7 +51,9 @@ import org.slf4j.LoggerFactory;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.Scopes;
 import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 
@@ -81,6 +86,9 @@ public class ElasticSearchQuotaSearcherModule extends AbstractModule {
 
     @Override
     protected void configure() {
+        bind(ElasticSearchQuotaMailboxListener.class).in(Scopes.SINGLETON);
+        bind(new TypeLiteral<RoutingKey.Factory<Username>>() {}).to(UserRoutingKeyFactory.class);
+
         Multibinder.newSetBinder(binder(), EventListener.ReactiveGroupEventListener.class)
             .addBinding()
             .to(ElasticSearchQuotaMailboxListener.class);
@@ -107,13 +115,11 @@ public class ElasticSearchQuotaSearcherModule extends AbstractModule {
 
     @Provides
     @Singleton
-    public ElasticSearchQuotaMailboxListener provideListener(ReactorElasticSearchClient client,
-                                                             ElasticSearchQuotaConfiguration configuration) {
-        return new ElasticSearchQuotaMailboxListener(
-            new ElasticSearchIndexer(client,
-                configuration.getWriteAliasQuotaRatioName()),
-                new QuotaRatioToElasticSearchJson(),
-            new UserRoutingKeyFactory());
+    @Named(QuotaRatioElasticSearchConstants.InjectionNames.QUOTA_RATIO)
+    public ElasticSearchIndexer provideQuotaRatioIndexer(ReactorElasticSearchClient client,
+                                                         ElasticSearchQuotaConfiguration configuration) {
+        return new ElasticSearchIndexer(client,
+            configuration.getWriteAliasQuotaRatioName());
     }
 
     @ProvidesIntoSet
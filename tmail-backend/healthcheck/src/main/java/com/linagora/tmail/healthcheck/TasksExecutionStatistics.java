@@ -0,0 +1,219 @@
+package com.linagora.tmail.healthcheck;
+
+import static org.apache.james.task.TaskManager.Status.CANCELLED;
+import static org.apache.james.task.TaskManager.Status.COMPLETED;
+import static org.apache.james.task.TaskManager.Status.FAILED;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.james.eventsourcing.Event;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
+import org.apache.james.task.TaskType;
+import org.apache.james.task.eventsourcing.Cancelled;
+import org.apache.james.task.eventsourcing.Completed;
+import org.apache.james.task.eventsourcing.Failed;
+import org.apache.james.task.eventsourcing.TaskEvent;
+import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection;
+import org.apache.james.task.eventsourcing.TerminationSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per task type summary of the finished task executions.
+ *
+ * The summary is built from the task execution details projection, then maintained from the termination events of
+ * the task manager. Reading it thus costs O(task types) rather than O(task history).
+ *
+ * The summary is periodically rebuilt from the projection, so that a missed termination event does not skew it for
+ * good. Termination events received while the projection is read are kept aside, and only applied to the rebuilt
+ * summary when their task was not part of the read: the ids of the finished tasks are only held during the read.
+ */
+@Singleton
+public class TasksExecutionStatistics {
+    public record TaskTypeSummary(Optional<TaskManager.Status> lastStatus,
+                                  Optional<ZonedDateTime> lastTerminationDate,
+                                  Optional<ZonedDateTime> lastCompletedDate,
+                                  Optional<ZonedDateTime> lastFailedDate,
+                                  long completedCount,
+                                  long failedCount,
+                                  long cancelledCount) {
+        public static final TaskTypeSummary EMPTY = new TaskTypeSummary(Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.empty(), 0, 0, 0);
+
+        private static Optional<ZonedDateTime> latest(Optional<ZonedDateTime> current, ZonedDateTime date) {
+            return current.filter(currentDate -> currentDate.isAfter(date))
+                .or(() -> Optional.of(date));
+        }
+
+        public TaskTypeSummary with(TaskManager.Status status, ZonedDateTime date) {
+            boolean isLatest = lastTerminationDate.map(lastDate -> !date.isBefore(lastDate)).orElse(true);
+
+            return new TaskTypeSummary(isLatest ? Optional.of(status) : lastStatus,
+                isLatest ? Optional.of(date) : lastTerminationDate,
+                status == COMPLETED ? latest(lastCompletedDate, date) : lastCompletedDate,
+                status == FAILED ? latest(lastFailedDate, date) : lastFailedDate,
+                status == COMPLETED ? completedCount + 1 : completedCount,
+                status == FAILED ? failedCount + 1 : failedCount,
+                status == CANCELLED ? cancelledCount + 1 : cancelledCount);
+        }
+    }
+
+    private record Termination(TaskId taskId, TaskType type, TaskManager.Status status, ZonedDateTime date) {
+    }
+
+    public static final Duration RECONCILIATION_PERIOD = Duration.ofHours(1);
+    private static final Logger LOGGER = LoggerFactory.getLogger(TasksExecutionStatistics.class);
+
+    private final TaskExecutionDetailsProjection taskExecutionDetailsProjection;
+    private final Clock clock;
+    private final Mono<Void> initialization;
+    private volatile ConcurrentHashMap<TaskType, TaskTypeSummary> summaries;
+    // Terminations received while the projection is read. Null when no read is pending.
+    private Map<TaskId, Termination> terminationsDuringLoad;
+
+    @Inject
+    public TasksExecutionStatistics(TaskExecutionDetailsProjection taskExecutionDetailsProjection,
+                                    TerminationSubscriber terminationSubscriber,
+                                    Clock clock) {
+        this(taskExecutionDetailsProjection, terminationSubscriber, clock, RECONCILIATION_PERIOD);
+    }
+
+    @VisibleForTesting
+    TasksExecutionStatistics(TaskExecutionDetailsProjection taskExecutionDetailsProjection,
+                             TerminationSubscriber terminationSubscriber,
+                             Clock clock,
+                             Duration reconciliationPeriod) {
+        this.taskExecutionDetailsProjection = taskExecutionDetailsProjection;
+        this.clock = clock;
+        this.summaries = new ConcurrentHashMap<>();
+        this.terminationsDuringLoad = new HashMap<>();
+        this.initialization = loadHistory()
+            .cache(any -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ofMillis(Long.MAX_VALUE));
+
+        Flux.from(terminationSubscriber.listenEvents())
+            .concatMap(event -> handle(event)
+                .onErrorResume(e -> {
+                    LOGGER.warn("Could not record task termination event {}", event, e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+
+        Flux.interval(reconciliationPeriod)
+            .concatMap(any -> reconcile()
+                .onErrorResume(e -> {
+                    LOGGER.warn("Could not reconcile the task execution statistics with the task execution details projection", e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    public Mono<Map<TaskType, TaskTypeSummary>> summaries() {
+        return initialization.then(Mono.fromCallable(() -> ImmutableMap.copyOf(summaries)));
+    }
+
+    /**
+     * Rebuilds the summaries from the task execution details projection.
+     */
+    @VisibleForTesting
+    Mono<Void> reconcile() {
+        return initialization.then(loadHistory());
+    }
+
+    private Mono<Void> loadHistory() {
+        ConcurrentHashMap<TaskType, TaskTypeSummary> loadedSummaries = new ConcurrentHashMap<>();
+        Set<TaskId> loadedTasks = new HashSet<>();
+
+        return Mono.fromRunnable(this::startLoad)
+            .thenMany(Flux.from(taskExecutionDetailsProjection.listReactive()))
+            .filter(details -> isTerminal(details.getStatus()))
+            .doOnNext(details -> {
+                loadedTasks.add(details.getTaskId());
+                apply(loadedSummaries, new Termination(details.getTaskId(), details.getType(), details.getStatus(),
+                    terminationDate(details, details.getStatus()).orElse(details.getSubmittedDate())));
+            })
+            .then(Mono.fromRunnable(() -> completeLoad(loadedSummaries, loadedTasks)));
+    }
+
+    private synchronized void startLoad() {
+        if (terminationsDuringLoad == null) {
+            terminationsDuringLoad = new HashMap<>();
+        }
+    }
+
+    private synchronized void completeLoad(ConcurrentHashMap<TaskType, TaskTypeSummary> loadedSummaries, Set<TaskId> loadedTasks) {
+        terminationsDuringLoad.values()
+            .stream()
+            .filter(termination -> !loadedTasks.contains(termination.taskId()))
+            .forEach(termination -> apply(loadedSummaries, termination));
+        terminationsDuringLoad = null;
+        summaries = loadedSummaries;
+    }
+
+    private Optional<ZonedDateTime> terminationDate(TaskExecutionDetails details, TaskManager.Status status) {
+        return switch (status) {
+            case COMPLETED -> details.getCompletedDate();
+            case FAILED -> details.getFailedDate();
+            case CANCELLED -> details.getCanceledDate();
+            default -> Optional.empty();
+        };
+    }
+
+    private boolean isTerminal(TaskManager.Status status) {
+        return status == COMPLETED || status == FAILED || status == CANCELLED;
+    }
+
+    private Mono<Void> handle(Event event) {
+        return terminalStatus(event)
+            .map(status -> Mono.from(taskExecutionDetailsProjection.loadReactive(((TaskEvent) event).getAggregateId().taskId()))
+                // The projection might not be updated with the termination yet
+                .doOnNext(details -> record(new Termination(details.getTaskId(), details.getType(), status,
+                    terminationDate(details, status).orElseGet(() -> ZonedDateTime.now(clock)))))
+                .then())
+            .orElse(Mono.empty());
+    }
+
+    private Optional<TaskManager.Status> terminalStatus(Event event) {
+        if (event instanceof Completed) {
+            return Optional.of(COMPLETED);
+        }
+        if (event instanceof Failed) {
+            return Optional.of(FAILED);
+        }
+        if (event instanceof Cancelled) {
+            return Optional.of(CANCELLED);
+        }
+        return Optional.empty();
+    }
+
+    private synchronized void record(Termination termination) {
+        if (terminationsDuringLoad != null) {
+            terminationsDuringLoad.put(termination.taskId(), termination);
+        }
+        apply(summaries, termination);
+    }
+
+    private void apply(ConcurrentHashMap<TaskType, TaskTypeSummary> summaries, Termination termination) {
+        summaries.compute(termination.type(), (key, summary) -> Optional.ofNullable(summary)
+            .orElse(TaskTypeSummary.EMPTY)
+            .with(termination.status(), termination.date()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.linagora.tmail.healthcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import org.apache.james.eventsourcing.EventId;
+import org.apache.james.task.Hostname;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
+import org.apache.james.task.TaskType;
+import org.apache.james.task.eventsourcing.Cancelled;
+import org.apache.james.task.eventsourcing.Completed;
+import org.apache.james.task.eventsourcing.MemoryTaskExecutionDetailsProjection;
+import org.apache.james.task.eventsourcing.MemoryTerminationSubscriber;
+import org.apache.james.task.eventsourcing.TaskAggregateId;
+import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.linagora.tmail.healthcheck.TasksExecutionStatistics.TaskTypeSummary;
+
+import scala.Option;
+
+class TasksExecutionStatisticsTest {
+    private static final ZonedDateTime NOW = ZonedDateTime.of(LocalDateTime.of(2022, 10, 10, 0, 0), ZoneId.of("Europe/Paris"));
+    private static final ZonedDateTime SUBMITTED_DATE = NOW.minusDays(30);
+    private static final Hostname SUBMITTED_NODE = new Hostname("foo");
+    private static final TaskType TASK_TYPE = TaskType.of("TaskA");
+
+    private TaskExecutionDetailsProjection tasksProjection;
+    private MemoryTerminationSubscriber terminationSubscriber;
+    private TasksExecutionStatistics testee;
+
+    @BeforeEach
+    void setup() {
+        tasksProjection = new MemoryTaskExecutionDetailsProjection();
+        terminationSubscriber = new MemoryTerminationSubscriber();
+        testee = new TasksExecutionStatistics(tasksProjection, terminationSubscriber, new UpdatableTickingClock(NOW.toInstant()));
+    }
+
+    private TaskExecutionDetails task(TaskManager.Status status, Optional<ZonedDateTime> completedDate, Optional<ZonedDateTime> failedDate) {
+        return task(TaskId.generateTaskId(), status, completedDate, failedDate);
+    }
+
+    private TaskExecutionDetails task(TaskId taskId, TaskManager.Status status, Optional<ZonedDateTime> completedDate, Optional<ZonedDateTime> failedDate) {
+        return new TaskExecutionDetails(taskId, TASK_TYPE, status, SUBMITTED_DATE, SUBMITTED_NODE,
+            Optional::empty, Optional.empty(), Optional.empty(), completedDate, Optional.empty(), Optional.empty(), failedDate);
+    }
+
+    @Test
+    void summariesShouldBeEmptyByDefault() {
+        assertThat(testee.summaries().block()).isEmpty();
+    }
+
+    @Test
+    void summariesShouldIgnoreUnfinishedTasks() {
+        tasksProjection.update(task(TaskManager.Status.IN_PROGRESS, Optional.empty(), Optional.empty()));
+
+        assertThat(testee.summaries().block()).isEmpty();
+    }
+
+    @Test
+    void summariesShouldAggregateTheTaskHistory() {
+        tasksProjection.update(task(TaskManager.Status.COMPLETED, Optional.of(NOW.minusDays(3)), Optional.empty()));
+        tasksProjection.update(task(TaskManager.Status.FAILED, Optional.empty(), Optional.of(NOW.minusDays(1))));
+        tasksProjection.update(task(TaskManager.Status.COMPLETED, Optional.of(NOW.minusDays(2)), Optional.empty()));
+
+        assertThat(testee.summaries().block().get(TASK_TYPE))
+            .isEqualTo(new TaskTypeSummary(Optional.of(TaskManager.Status.FAILED),
+                Optional.of(NOW.minusDays(1)),
+                Optional.of(NOW.minusDays(2)),
+                Optional.of(NOW.minusDays(1)),
+                2, 1, 0));
+    }
+
+    @Test
+    void summariesShouldBeUpdatedByTerminationEvents() {
+        tasksProjection.update(task(TaskManager.Status.COMPLETED, Optional.of(NOW.minusDays(3)), Optional.empty()));
+        testee.summaries().block();
+
+        TaskExecutionDetails completedTask = task(TaskManager.Status.IN_PROGRESS, Optional.empty(), Optional.empty());
+        tasksProjection.update(completedTask);
+        terminationSubscriber.addEvent(new Completed(new TaskAggregateId(completedTask.getTaskId()), EventId.first(), Task.Result.COMPLETED, Option.empty()));
+        TaskExecutionDetails cancelledTask = task(TaskManager.Status.IN_PROGRESS, Optional.empty(), Optional.empty());
+        tasksProjection.update(cancelledTask);
+        terminationSubscriber.addEvent(new Cancelled(new TaskAggregateId(cancelledTask.getTaskId()), EventId.first(), Option.empty()));
+
+        TaskTypeSummary summary = testee.summaries().block().get(TASK_TYPE);
+        assertThat(summary.lastStatus()).contains(TaskManager.Status.CANCELLED);
+        assertThat(summary.lastCompletedDate().map(ZonedDateTime::toInstant)).contains(NOW.toInstant());
+        assertThat(summary.lastFailedDate()).isEmpty();
+        assertThat(summary.completedCount()).isEqualTo(2);
+        assertThat(summary.cancelledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tasksTerminatedBeforeTheHistoryIsReadShouldBeCountedOnce() {
+        TaskExecutionDetails completedTask = task(TaskManager.Status.IN_PROGRESS, Optional.empty(), Optional.empty());
+        tasksProjection.update(completedTask);
+        terminationSubscriber.addEvent(new Completed(new TaskAggregateId(completedTask.getTaskId()), EventId.first(), Task.Result.COMPLETED, Option.empty()));
+        tasksProjection.update(task(completedTask.getTaskId(), TaskManager.Status.COMPLETED, Optional.of(NOW), Optional.empty()));
+
+        assertThat(testee.summaries().block().get(TASK_TYPE).completedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void terminationEventsShouldRecordTheTerminationDateOfTheProjection() {
+        testee.summaries().block();
+
+        TaskExecutionDetails completedTask = task(TaskManager.Status.COMPLETED, Optional.of(NOW.minusHours(1)), Optional.empty());
+        tasksProjection.update(completedTask);
+        terminationSubscriber.addEvent(new Completed(new TaskAggregateId(completedTask.getTaskId()), EventId.first(), Task.Result.COMPLETED, Option.empty()));
+
+        assertThat(testee.summaries().block().get(TASK_TYPE).lastCompletedDate()).contains(NOW.minusHours(1));
+    }
+
+    @Test
+    void reconciliationShouldRecordTasksWhoseTerminationEventWasMissed() {
+        testee.summaries().block();
+
+        tasksProjection.update(task(TaskManager.Status.COMPLETED, Optional.of(NOW.minusHours(1)), Optional.empty()));
+        testee.reconcile().block();
+
+        assertThat(testee.summaries().block().get(TASK_TYPE).completedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliationShouldNotCountRecordedTasksTwice() {
+        testee.summaries().block();
+
+        TaskExecutionDetails completedTask = task(TaskManager.Status.COMPLETED, Optional.of(NOW.minusHours(1)), Optional.empty());
+        tasksProjection.update(completedTask);
+        terminationSubscriber.addEvent(new Completed(new TaskAggregateId(completedTask.getTaskId()), EventId.first(), Task.Result.COMPLETED, Option.empty()));
+        testee.reconcile().block();
+
+        assertThat(testee.summaries().block().get(TASK_TYPE).completedCount()).isEqualTo(1);
+    }
+}
@@ -1,19 +1,30 @@
 package com.linagora.tmail.healthcheck;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import org.apache.james.core.healthcheck.ResultStatus;
+import org.apache.james.eventsourcing.EventId;
 import org.apache.james.task.Hostname;
+import org.apache.james.task.Task;
 import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskId;
 import org.apache.james.task.TaskManager;
 import org.apache.james.task.TaskType;
+import org.apache.james.task.eventsourcing.Completed;
+import org.apache.james.task.eventsourcing.Failed;
 import org.apache.james.task.eventsourcing.MemoryTaskExecutionDetailsProjection;
+import org.apache.james.task.eventsourcing.MemoryTerminationSubscriber;
+import org.apache.james.task.eventsourcing.TaskAggregateId;
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection;
 import org.apache.james.utils.UpdatableTickingClock;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +32,7 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
 import reactor.core.publisher.Mono;
+import scala.Option;
 
 class TasksHeathCheckTest {
     private static final ZonedDateTime NOW = ZonedDateTime.of(LocalDateTime.of(2022, 10, 10, 0, 0), ZoneId.of("Europe/Paris"));
@@ -51,37 +63,46 @@ class TasksHeathCheckTest {
         Optional::empty, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
 
     private TaskExecutionDetailsProjection tasksProjection;
+    private MemoryTerminationSubscriber terminationSubscriber;
+    private TasksExecutionStatistics statistics;
     private TasksHeathCheck testee;
 
     @BeforeEach
     void setup() {
-        tasksProjection = new MemoryTaskExecutionDetailsProjection();
+        tasksProjection = spy(new MemoryTaskExecutionDetailsProjection());
+        terminationSubscriber = new MemoryTerminationSubscriber();
+        statistics = new TasksExecutionStatistics(tasksProjection, terminationSubscriber, new UpdatableTickingClock(NOW.toInstant()));
+    }
+
+    private TaskExecutionDetails inProgressTask(TaskType taskType) {
+        return new TaskExecutionDetails(TaskId.generateTaskId(), taskType, TaskManager.Status.IN_PROGRESS, SUBMITTED_DATE, SUBMITTED_NODE,
+            Optional::empty, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
     }
 
     @Test
     void shouldReturnComponentName() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.DEFAULT_CONFIGURATION, new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.DEFAULT_CONFIGURATION, new UpdatableTickingClock(NOW.toInstant()));
 
         assertThat(testee.componentName().getName()).isEqualTo("Tasks execution");
     }
 
     @Test
     void shouldReturnHealthyWhenDefaultConfiguration() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.DEFAULT_CONFIGURATION, new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.DEFAULT_CONFIGURATION, new UpdatableTickingClock(NOW.toInstant()));
 
         assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.HEALTHY);
     }
 
     @Test
     void shouldReturnUnhealthyWhenNoCompletedTasks() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:5day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:5day"), new UpdatableTickingClock(NOW.toInstant()));
 
         assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.UNHEALTHY);
     }
 
     @Test
     void shouldReturnHealthyWhenATaskCompleted() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskA:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_A_COMPLETED_IN_TIME);
 
         assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.HEALTHY);
@@ -89,7 +110,7 @@ class TasksHeathCheckTest {
 
     @Test
     void onlyInProgressTaskShouldReturnUnhealthy() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskC:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskC:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_C_IN_PROGRESS);
 
         assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.UNHEALTHY);
@@ -97,7 +118,7 @@ class TasksHeathCheckTest {
 
     @Test
     void onlyCanceledAndFailedTasksShouldReturnUnhealthy() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskD:2day,TaskE:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskD:2day,TaskE:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_D_CANCELED);
         tasksProjection.update(TASK_E_FAILED);
 
@@ -106,7 +127,7 @@ class TasksHeathCheckTest {
 
     @Test
     void mixCaseWithOnlyOneCompletedTaskShouldReturnDegraded() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:5day,TaskC:2day,TaskD:2day,TaskE:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:5day,TaskC:2day,TaskD:2day,TaskE:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_A_COMPLETED_IN_TIME);
         tasksProjection.update(TASK_B_COMPLETED_NOT_IN_TIME_1);
         tasksProjection.update(TASK_C_IN_PROGRESS);
@@ -118,7 +139,7 @@ class TasksHeathCheckTest {
 
     @RepeatedTest(10)
     void shouldTakeTheLatestFinishedTaskForEachTaskTypeAndReturnHealthyWhenAllTasksFinishedWithinTime() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_1);
         tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_2);
         tasksProjection.update(TASK_A_COMPLETED_IN_TIME);
@@ -130,7 +151,7 @@ class TasksHeathCheckTest {
 
     @RepeatedTest(10)
     void shouldTakeTheLatestFinishedTaskForEachTaskTypeAndReturnDegradedWhenSomeTasksFinishedWithinTime() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_1);
         tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_2);
         tasksProjection.update(TASK_A_COMPLETED_IN_TIME);
@@ -142,7 +163,7 @@ class TasksHeathCheckTest {
 
     @RepeatedTest(10)
     void shouldTakeTheLatestFinishedTaskForEachTaskTypeAndReturnUnhealthyWhenNoTasksFinishedWithinTime() {
-        testee = new TasksHeathCheck(tasksProjection, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
         tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_1);
         tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_2);
         tasksProjection.update(TASK_B_COMPLETED_NOT_IN_TIME_1);
@@ -150,4 +171,50 @@ class TasksHeathCheckTest {
 
         assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.UNHEALTHY);
     }
+
+    @Test
+    void completionEventsShouldBeTakenIntoAccountOnceInitialized() {
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_1);
+        assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.UNHEALTHY);
+
+        TaskExecutionDetails task = inProgressTask(TASK_TYPE_A);
+        tasksProjection.update(task);
+        terminationSubscriber.addEvent(new Completed(new TaskAggregateId(task.getTaskId()), EventId.first(), Task.Result.COMPLETED, Option.empty()));
+
+        assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.HEALTHY);
+    }
+
+    @Test
+    void failureEventsShouldNotBeConsideredAsCompletion() {
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        tasksProjection.update(TASK_A_COMPLETED_NOT_IN_TIME_1);
+        assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.UNHEALTHY);
+
+        TaskExecutionDetails task = inProgressTask(TASK_TYPE_A);
+        tasksProjection.update(task);
+        terminationSubscriber.addEvent(new Failed(new TaskAggregateId(task.getTaskId()), EventId.first(), Option.empty(), Option.empty(), Option.empty()));
+
+        assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.UNHEALTHY);
+    }
+
+    @Test
+    void checkShouldNotDependOnTheTaskHistorySize() {
+        testee = new TasksHeathCheck(statistics, TasksHealthCheckConfiguration.from("TaskA:2day,TaskB:2day"), new UpdatableTickingClock(NOW.toInstant()));
+        IntStream.range(0, 100_000)
+            .mapToObj(i -> new TaskExecutionDetails(TaskId.generateTaskId(), i % 2 == 0 ? TASK_TYPE_A : TASK_TYPE_B, TaskManager.Status.COMPLETED,
+                SUBMITTED_DATE, SUBMITTED_NODE, Optional::empty, Optional.empty(), Optional.empty(), Optional.of(NOW.minusDays(10).plusSeconds(i)),
+                Optional.empty(), Optional.empty(), Optional.empty()))
+            .forEach(tasksProjection::update);
+        tasksProjection.update(TASK_A_COMPLETED_IN_TIME);
+        assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.DEGRADED);
+
+        long start = System.nanoTime();
+        IntStream.range(0, 1000)
+            .forEach(i -> assertThat(Mono.from(testee.check()).block().getStatus()).isEqualTo(ResultStatus.DEGRADED));
+        Duration thousandChecks = Duration.ofNanos(System.nanoTime() - start);
+
+        verify(tasksProjection, times(1)).listReactive();
+        assertThat(thousandChecks).isLessThan(Duration.ofSeconds(10));
+    }
 }
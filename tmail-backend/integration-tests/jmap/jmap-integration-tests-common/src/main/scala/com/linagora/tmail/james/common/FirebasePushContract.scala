@@ -7,7 +7,8 @@ import java.util.concurrent.TimeUnit
 import com.google.firebase.messaging.{FirebaseMessagingException, MessagingErrorCode}
 import com.linagora.tmail.james.common.FirebasePushContract.firebasePushClient
 import com.linagora.tmail.james.common.FirebaseSubscriptionGetMethodContract.TIME_FORMATTER
-import com.linagora.tmail.james.jmap.firebase.{FirebasePushClient, FirebasePushRequest, FirebasePushUrgency}
+import com.linagora.tmail.james.jmap.firebase.{FirebaseMulticastPushRequest, FirebasePushClient, FirebasePushRequest, FirebasePushUrgency}
+import com.linagora.tmail.james.jmap.model.FirebaseToken
 import io.netty.handler.codec.http.HttpHeaderNames.ACCEPT
 import io.restassured.RestAssured.{`given`, requestSpecification}
 import io.restassured.http.ContentType.JSON
@@ -31,7 +32,7 @@ import org.junit.jupiter.api.{AfterEach, BeforeEach, Test}
 import org.mockito.ArgumentCaptor
 import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.{clearInvocations, mock, times, verify, verifyNoMoreInteractions, when}
-import reactor.core.publisher.Mono
+import reactor.core.publisher.{Flux, Mono}
 
 object FirebasePushContract {
   val firebasePushClient: FirebasePushClient = mock(classOf[FirebasePushClient])
@@ -63,6 +64,7 @@ trait FirebasePushContract {
 
     when(firebasePushClient.validateToken(any())).thenReturn(Mono.just(true))
     when(firebasePushClient.push(any())).thenReturn(Mono.empty())
+    when(firebasePushClient.pushMulticast(any())).thenReturn(Flux.empty())
   }
 
   @AfterEach
@@ -250,8 +252,13 @@ trait FirebasePushContract {
     // WHEN bob receives a mail
     sendEmailToBob(server)
 
-    // THEN bob should receive state change notifications for both clients
-    awaitAtMostTenSeconds.untilAsserted(() => verify(firebasePushClient, times(2)).push(any()))
+    // THEN bob should receive state change notifications for both clients at once
+    awaitAtMostTenSeconds.untilAsserted(() => {
+      val argumentCaptor: ArgumentCaptor[FirebaseMulticastPushRequest] = ArgumentCaptor.forClass(classOf[FirebaseMulticastPushRequest])
+      verify(firebasePushClient).pushMulticast(argumentCaptor.capture())
+      assertThat(argumentCaptor.getValue.tokens())
+        .containsExactlyInAnyOrder(FirebaseToken("tokenA"), FirebaseToken("tokenB"))
+    })
   }
 
   @Test
@@ -25,6 +25,7 @@ import org.apache.james.modules.{ACLProbeImpl, MailboxProbeImpl}
 import org.apache.james.util.ClassLoaderUtils
 import org.apache.james.utils.DataProbeImpl
 import org.assertj.core.api.Assertions.assertThat
+import org.hamcrest.Matchers.hasKey
 import org.junit.jupiter.api.{BeforeEach, Test}
 import play.api.libs.json.Json
 
@@ -838,6 +839,69 @@ trait LinagoraCalendarEventParseMethodContract {
            |]""".stripMargin)
   }
 
+  @Test
+  def parseShouldNotParseBlobEntryWhenDoesNotHavePermissionAndParsedByItsOwner(server: GuiceJamesServer): Unit = {
+    val blobId: String = uploadAndGetBlobId(ClassLoader.getSystemResourceAsStream("ics/meeting.ics"))
+
+    `given`
+      .body(
+        s"""{
+           |  "using": [
+           |    "urn:ietf:params:jmap:core",
+           |    "com:linagora:params:calendar:event"],
+           |  "methodCalls": [[
+           |    "CalendarEvent/parse",
+           |    {
+           |      "accountId": "$ACCOUNT_ID",
+           |      "blobIds": [ "$blobId" ]
+           |    },
+           |    "c1"]]
+           |}""".stripMargin)
+    .when
+      .post
+    .`then`
+      .statusCode(SC_OK)
+      .body("methodResponses[0][1].parsed", hasKey(blobId))
+
+    val response = `given`(baseRequestSpecBuilder(server)
+      .setAuth(authScheme(UserCredential(ANDRE, ANDRE_PASSWORD)))
+      .addHeader(ACCEPT.toString, ACCEPT_RFC8621_VERSION_HEADER)
+      .build)
+      .body(
+        s"""{
+           |  "using": [
+           |    "urn:ietf:params:jmap:core",
+           |    "com:linagora:params:calendar:event"],
+           |  "methodCalls": [[
+           |    "CalendarEvent/parse",
+           |    {
+           |      "accountId": "$ANDRE_ACCOUNT_ID",
+           |      "blobIds": [ "$blobId" ]
+           |    },
+           |    "c1"]]
+           |}""".stripMargin)
+    .when
+      .post
+    .`then`
+      .statusCode(SC_OK)
+      .contentType(JSON)
+      .extract
+      .body
+      .asString
+
+    assertThatJson(response)
+      .inPath("methodResponses[0]")
+      .isEqualTo(
+        s"""[
+           |    "CalendarEvent/parse",
+           |    {
+           |        "accountId": "$ANDRE_ACCOUNT_ID",
+           |        "notFound": [ "$blobId" ]
+           |    },
+           |    "c1"
+           |]""".stripMargin)
+  }
+
   @Test
   def parseShouldSucceedWhenDelegated(server: GuiceJamesServer): Unit = {
     val blobId: String = uploadAndGetBlobId(ClassLoader.getSystemResourceAsStream("ics/meeting.ics"))
@@ -1605,6 +1669,47 @@ trait LinagoraCalendarEventParseMethodContract {
            |]""".stripMargin)
   }
 
+  @Test
+  def parsingAgainWithOtherPropertiesShouldFilterThem(): Unit = {
+    val blobId: String = uploadAndGetBlobId(ClassLoader.getSystemResourceAsStream("ics/meeting.ics"))
+
+    def parse(properties: String): String =
+      `given`
+        .body(
+          s"""{
+             |  "using": [
+             |    "urn:ietf:params:jmap:core",
+             |    "com:linagora:params:calendar:event"],
+             |  "methodCalls": [[
+             |    "CalendarEvent/parse",
+             |    {
+             |      "accountId": "$ACCOUNT_ID",
+             |      "blobIds": [ "$blobId" ],
+             |      "properties": $properties
+             |    },
+             |    "c1"]]
+             |}""".stripMargin)
+      .when
+        .post
+      .`then`
+        .statusCode(SC_OK)
+        .contentType(JSON)
+        .extract
+        .body
+        .asString
+
+    parse("""["uid", "title", "description"]""")
+    val response: String = parse("""["uid", "location"]""")
+
+    assertThatJson(response)
+      .inPath(s"methodResponses[0][1].parsed.$blobId")
+      .isEqualTo(
+        s"""[{
+           |	"uid": "ea127690-0440-404b-af98-9823c855a283",
+           |	"location": "Hangout"
+           |}]""".stripMargin)
+  }
+
   private def uploadAndGetBlobId(payload: InputStream): String =
     `given`
       .basePath("")
@@ -31,7 +31,7 @@ import org.awaitility.Awaitility
 import org.awaitility.Durations.ONE_HUNDRED_MILLISECONDS
 import org.awaitility.core.ConditionFactory
 import org.junit.jupiter.api.{BeforeEach, Test}
-import play.api.libs.json.{JsString, JsValue, Json}
+import play.api.libs.json.{JsObject, JsString, JsValue, Json}
 
 import scala.jdk.CollectionConverters._
 
@@ -1705,6 +1705,97 @@ trait LinagoraEmailSendMethodContract {
       .isAbsent()
   }
 
+  @Test
+  def emailSendShouldSupportManyCreates(server: GuiceJamesServer): Unit = {
+    server.getProbe(classOf[MailboxProbeImpl]).createMailbox(MailboxPath.inbox(ANDRE))
+    val creationIds: Seq[String] = (0 until 50).map(i => s"K$i")
+
+    val creates: String = creationIds.map(creationId =>
+      s"""
+         |"$creationId": {
+         |  "email/create": {
+         |    "mailboxIds": {
+         |      "${getBobInboxId(server).serialize}": true
+         |    },
+         |    "subject": "World domination $creationId",
+         |    "htmlBody": [
+         |      {
+         |        "partId": "a49d",
+         |        "type": "text/html"
+         |      }
+         |    ],
+         |    "bodyValues": {
+         |      "a49d": {
+         |        "value": "$HTML_BODY",
+         |        "isTruncated": false,
+         |        "isEncodingProblem": false
+         |      }
+         |    }
+         |  },
+         |  "emailSubmission/set": {
+         |    "envelope": {
+         |      "mailFrom": {
+         |        "email": "${BOB.asString}"
+         |      },
+         |      "rcptTo": [
+         |        {
+         |          "email": "${ANDRE.asString}"
+         |        }
+         |      ]
+         |    }
+         |  }
+         |}""".stripMargin)
+      .mkString(",")
+    val updates: String = creationIds.map(creationId => s""""#$creationId": {"keywords": {"$$sent": true}}""")
+      .mkString(",")
+
+    val request: String =
+      s"""
+         |{
+         |  "using": [
+         |    "urn:ietf:params:jmap:core",
+         |    "urn:ietf:params:jmap:mail",
+         |    "urn:ietf:params:jmap:submission",
+         |    "com:linagora:params:jmap:pgp"
+         |  ],
+         |  "methodCalls": [
+         |    [
+         |      "Email/send",
+         |      {
+         |        "accountId": "$ACCOUNT_ID",
+         |        "create": {$creates},
+         |        "onSuccessUpdateEmail": {$updates}
+         |      },
+         |      "c1"
+         |    ]
+         |  ]
+         |}""".stripMargin
+
+    val response: JsValue = Json.parse(`given`
+      .body(request)
+    .when()
+      .post()
+    .`then`
+      .statusCode(HttpStatus.SC_OK)
+      .contentType(JSON)
+      .extract()
+      .body()
+      .asString())
+
+    val created: collection.Map[String, JsValue] = (response \ "methodResponses" \ 0 \ 1 \ "created").as[JsObject].value
+    val createdEmailIds: Seq[String] = created.values.map(entry => (entry \ "emailId").as[String]).toSeq
+    val updatedEmailIds: collection.Set[String] = (response \ "methodResponses" \ 1 \ 1 \ "updated").as[JsObject].keys
+
+    assertSoftly(softly => {
+      softly.assertThat(created.keySet.asJava).containsExactlyInAnyOrderElementsOf(creationIds.asJava)
+      softly.assertThat(createdEmailIds.distinct.size).isEqualTo(creationIds.size)
+      softly.assertThat(updatedEmailIds.asJava).containsExactlyInAnyOrderElementsOf(createdEmailIds.asJava)
+    })
+    awaitAtMostTenSeconds.untilAsserted { () =>
+      assertThat(listAllMessageResult(server, ANDRE).size).isEqualTo(creationIds.size)
+    }
+  }
+
   @Test
   def tooBigEmailsShouldBeRejected(server: GuiceJamesServer): Unit = {
     val request: String =
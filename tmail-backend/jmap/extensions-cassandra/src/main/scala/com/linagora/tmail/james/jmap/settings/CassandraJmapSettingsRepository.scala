@@ -2,13 +2,15 @@ package com.linagora.tmail.james.jmap.settings
 
 import com.google.common.base.Preconditions
 import com.google.inject.multibindings.Multibinder
-import com.google.inject.{AbstractModule, Scopes}
+import com.google.inject.{AbstractModule, Provides, Scopes, Singleton}
 import com.linagora.tmail.james.jmap.settings.JmapSettingsStateFactory.INITIAL
 import javax.inject.Inject
 import org.apache.james.backends.cassandra.components.CassandraModule
 import org.apache.james.core.Username
 import org.apache.james.jmap.core.UuidState
+import org.apache.james.metrics.api.GaugeRegistry
 import org.apache.james.user.api.{DeleteUserDataTaskStep, UsernameChangeTaskStep}
+import org.apache.james.utils.PropertiesProvider
 import org.reactivestreams.Publisher
 import reactor.core.scala.publisher.SMono
 
@@ -47,7 +49,6 @@ case class CassandraJmapSettingsRepositoryModule() extends AbstractModule {
       .addBinding().toInstance(CassandraJmapSettingsTable.MODULE)
     bind(classOf[CassandraJmapSettingsDAO]).in(Scopes.SINGLETON)
 
-    bind(classOf[JmapSettingsRepository]).to(classOf[CassandraJmapSettingsRepository])
     bind(classOf[CassandraJmapSettingsRepository]).in(Scopes.SINGLETON)
 
     Multibinder.newSetBinder(binder(), classOf[UsernameChangeTaskStep])
@@ -58,4 +59,11 @@ case class CassandraJmapSettingsRepositoryModule() extends AbstractModule {
       .addBinding()
       .to(classOf[JmapSettingsUserDeletionTaskStep])
   }
-}
\ No newline at end of file
+
+  @Provides
+  @Singleton
+  def provideJmapSettingsRepository(repository: CassandraJmapSettingsRepository,
+                                    propertiesProvider: PropertiesProvider,
+                                    gaugeRegistry: GaugeRegistry): JmapSettingsRepository =
+    CachingJmapSettingsRepository.wrap(repository, JmapSettingsCacheConfiguration.from(propertiesProvider), gaugeRegistry)
+}
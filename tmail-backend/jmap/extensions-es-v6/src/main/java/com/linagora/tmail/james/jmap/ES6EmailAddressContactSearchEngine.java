@@ -41,6 +41,7 @@ import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableList;
+import com.linagora.tmail.james.jmap.contact.AutoCompleteResult;
 import com.linagora.tmail.james.jmap.contact.ContactFields;
 import com.linagora.tmail.james.jmap.contact.ContactNotFoundException;
 import com.linagora.tmail.james.jmap.contact.EmailAddressContact;
@@ -48,6 +49,7 @@ import com.linagora.tmail.james.jmap.contact.EmailAddressContactSearchEngine;
 import com.linagora.tmail.james.jmap.dto.DomainContactDocument;
 import com.linagora.tmail.james.jmap.dto.UserContactDocument;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class ES6EmailAddressContactSearchEngine implements EmailAddressContactSearchEngine {
@@ -129,17 +131,40 @@ public class ES6EmailAddressContactSearchEngine implements EmailAddressContactSe
 
     @Override
     public Publisher<EmailAddressContact> autoComplete(AccountId accountId, String part, int limit) {
+        return searchAutoComplete(accountId, part, limit)
+            .flatMapMany(this::extractDistinctContacts);
+    }
+
+    @Override
+    public Publisher<AutoCompleteResult> autoCompleteResult(AccountId accountId, String part, int limit) {
+        return searchAutoComplete(accountId, part, limit)
+            .flatMap(hits -> extractDistinctContacts(hits)
+                .collectList()
+                .map(contacts -> AutoCompleteResult.of(contacts, hits.size() < limit && isWithinNgramBounds(part))));
+    }
+
+    private Mono<List<SearchHit>> searchAutoComplete(AccountId accountId, String part, int limit) {
         SearchRequest request = new SearchRequest(configuration.getUserContactReadAliasName().getValue(), configuration.getDomainContactReadAliasName().getValue())
             .source(new SearchSourceBuilder()
                 .size(limit)
                 .query(buildAutoCompleteQuery(accountId, part)));
 
         return client.search(request, RequestOptions.DEFAULT)
-            .flatMapIterable(searchResponse -> ImmutableList.copyOf(searchResponse.getHits().getHits()))
+            .map(searchResponse -> ImmutableList.copyOf(searchResponse.getHits().getHits()));
+    }
+
+    private Flux<EmailAddressContact> extractDistinctContacts(List<SearchHit> hits) {
+        return Flux.fromIterable(hits)
             .map(Throwing.function(this::extractContentFromHit).sneakyThrow())
             .distinct(EmailAddressContact::id);
     }
 
+    // Parts out of the ngram bounds match none of the contacts they are a prefix of
+    private boolean isWithinNgramBounds(String part) {
+        return part.length() >= configuration.getMinNgram()
+            && part.length() <= configuration.getMaxNgram();
+    }
+
     private QueryBuilder buildAutoCompleteQuery(AccountId accountId, String part) {
         QueryBuilder partQuery = Optional.of(part.contains("@"))
             .filter(FunctionalUtils.identityPredicate())
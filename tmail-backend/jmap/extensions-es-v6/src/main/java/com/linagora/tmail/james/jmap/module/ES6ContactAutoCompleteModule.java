@@ -11,6 +11,7 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.backends.es.ElasticSearchConfiguration;
 import org.apache.james.backends.es.ReactorElasticSearchClient;
 import org.apache.james.lifecycle.api.Startable;
+import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.user.api.DeleteUserDataTaskStep;
 import org.apache.james.user.api.UsernameChangeTaskStep;
 import org.apache.james.utils.InitializationOperation;
@@ -26,6 +27,8 @@ import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 import com.linagora.tmail.james.jmap.ES6EmailAddressContactSearchEngine;
 import com.linagora.tmail.james.jmap.ElasticSearchContactConfiguration;
+import com.linagora.tmail.james.jmap.contact.CachingEmailAddressContactSearchEngine;
+import com.linagora.tmail.james.jmap.contact.ContactAutocompleteCacheConfiguration;
 import com.linagora.tmail.james.jmap.contact.ContactUserDeletionTaskStep;
 import com.linagora.tmail.james.jmap.contact.ContactUsernameChangeTaskStep;
 import com.linagora.tmail.james.jmap.contact.EmailAddressContactSearchEngine;
@@ -59,8 +62,6 @@ public class ES6ContactAutoCompleteModule extends AbstractModule {
     protected void configure() {
         bind(ES6EmailAddressContactSearchEngine.class).in(Scopes.SINGLETON);
 
-        bind(EmailAddressContactSearchEngine.class).to(ES6EmailAddressContactSearchEngine.class);
-
         Multibinder.newSetBinder(binder(), UsernameChangeTaskStep.class)
             .addBinding()
             .to(ContactUsernameChangeTaskStep.class);
@@ -69,6 +70,15 @@ public class ES6ContactAutoCompleteModule extends AbstractModule {
             .to(ContactUserDeletionTaskStep.class);
     }
 
+    @Provides
+    @Singleton
+    EmailAddressContactSearchEngine emailAddressContactSearchEngine(ES6EmailAddressContactSearchEngine searchEngine,
+                                                                    PropertiesProvider propertiesProvider,
+                                                                    GaugeRegistry gaugeRegistry) {
+        return CachingEmailAddressContactSearchEngine.wrap(searchEngine,
+            ContactAutocompleteCacheConfiguration.from(propertiesProvider), gaugeRegistry);
+    }
+
     @Provides
     @Singleton
     private ElasticSearchContactConfiguration getElasticSearchContactConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
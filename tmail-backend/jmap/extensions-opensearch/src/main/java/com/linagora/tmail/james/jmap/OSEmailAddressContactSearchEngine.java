@@ -40,6 +40,7 @@ import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableList;
+import com.linagora.tmail.james.jmap.contact.AutoCompleteResult;
 import com.linagora.tmail.james.jmap.contact.ContactFields;
 import com.linagora.tmail.james.jmap.contact.ContactNotFoundException;
 import com.linagora.tmail.james.jmap.contact.EmailAddressContact;
@@ -47,6 +48,7 @@ import com.linagora.tmail.james.jmap.contact.EmailAddressContactSearchEngine;
 import com.linagora.tmail.james.jmap.dto.DomainContactDocument;
 import com.linagora.tmail.james.jmap.dto.UserContactDocument;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class OSEmailAddressContactSearchEngine implements EmailAddressContactSearchEngine {
@@ -131,6 +133,19 @@ public class OSEmailAddressContactSearchEngine implements EmailAddressContactSea
 
     @Override
     public Publisher<EmailAddressContact> autoComplete(AccountId accountId, String part, int limit) {
+        return searchAutoComplete(accountId, part, limit)
+            .flatMapMany(this::extractDistinctContacts);
+    }
+
+    @Override
+    public Publisher<AutoCompleteResult> autoCompleteResult(AccountId accountId, String part, int limit) {
+        return searchAutoComplete(accountId, part, limit)
+            .flatMap(hits -> extractDistinctContacts(hits)
+                .collectList()
+                .map(contacts -> AutoCompleteResult.of(contacts, hits.size() < limit && isWithinNgramBounds(part))));
+    }
+
+    private Mono<List<Hit<ObjectNode>>> searchAutoComplete(AccountId accountId, String part, int limit) {
         SearchRequest request = new SearchRequest.Builder()
             .index(configuration.getUserContactReadAliasName().getValue(), configuration.getDomainContactReadAliasName().getValue())
             .size(limit)
@@ -139,11 +154,21 @@ public class OSEmailAddressContactSearchEngine implements EmailAddressContactSea
 
         return Throwing.supplier(() -> client.search(request)).sneakyThrow()
             .get()
-            .flatMapIterable(searchResponse -> ImmutableList.copyOf(searchResponse.hits().hits()))
+            .map(searchResponse -> ImmutableList.copyOf(searchResponse.hits().hits()));
+    }
+
+    private Flux<EmailAddressContact> extractDistinctContacts(List<Hit<ObjectNode>> hits) {
+        return Flux.fromIterable(hits)
             .map(Throwing.function(this::extractContentFromHit).sneakyThrow())
             .distinct(contact -> contact.fields().address());
     }
 
+    // Parts out of the ngram bounds match none of the contacts they are a prefix of
+    private boolean isWithinNgramBounds(String part) {
+        return part.length() >= configuration.getMinNgram()
+            && part.length() <= configuration.getMinNgram() + configuration.getMaxNgramDiff();
+    }
+
     private Query buildAutoCompleteQuery(AccountId accountId, String part) {
         Query partQuery = Optional.of(part.contains("@"))
             .filter(FunctionalUtils.identityPredicate())
@@ -10,6 +10,7 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.backends.opensearch.OpenSearchConfiguration;
 import org.apache.james.backends.opensearch.ReactorOpenSearchClient;
 import org.apache.james.lifecycle.api.Startable;
+import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.user.api.DeleteUserDataTaskStep;
 import org.apache.james.user.api.UsernameChangeTaskStep;
 import org.apache.james.utils.InitializationOperation;
@@ -25,6 +26,8 @@ import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 import com.linagora.tmail.james.jmap.OSEmailAddressContactSearchEngine;
 import com.linagora.tmail.james.jmap.OpenSearchContactConfiguration;
+import com.linagora.tmail.james.jmap.contact.CachingEmailAddressContactSearchEngine;
+import com.linagora.tmail.james.jmap.contact.ContactAutocompleteCacheConfiguration;
 import com.linagora.tmail.james.jmap.contact.ContactUserDeletionTaskStep;
 import com.linagora.tmail.james.jmap.contact.ContactUsernameChangeTaskStep;
 import com.linagora.tmail.james.jmap.contact.EmailAddressContactSearchEngine;
@@ -58,8 +61,6 @@ public class OSContactAutoCompleteModule extends AbstractModule {
     protected void configure() {
         bind(OSEmailAddressContactSearchEngine.class).in(Scopes.SINGLETON);
 
-        bind(EmailAddressContactSearchEngine.class).to(OSEmailAddressContactSearchEngine.class);
-
         Multibinder.newSetBinder(binder(), UsernameChangeTaskStep.class)
             .addBinding()
             .to(ContactUsernameChangeTaskStep.class);
@@ -68,6 +69,15 @@ public class OSContactAutoCompleteModule extends AbstractModule {
             .to(ContactUserDeletionTaskStep.class);
     }
 
+    @Provides
+    @Singleton
+    EmailAddressContactSearchEngine emailAddressContactSearchEngine(OSEmailAddressContactSearchEngine searchEngine,
+                                                                    PropertiesProvider propertiesProvider,
+                                                                    GaugeRegistry gaugeRegistry) {
+        return CachingEmailAddressContactSearchEngine.wrap(searchEngine,
+            ContactAutocompleteCacheConfiguration.from(propertiesProvider), gaugeRegistry);
+    }
+
     @Provides
     @Singleton
     private OpenSearchContactConfiguration getOpenSearchContactConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
@@ -0,0 +1,137 @@
+package com.linagora.tmail.james.jmap.model;
+
+import static com.linagora.tmail.james.jmap.OpenSearchContactConfiguration.DEFAULT_CONFIGURATION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Durations.ONE_HUNDRED_MILLISECONDS;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.james.backends.opensearch.DockerOpenSearchExtension;
+import org.apache.james.backends.opensearch.IndexCreationFactory;
+import org.apache.james.backends.opensearch.OpenSearchConfiguration;
+import org.apache.james.backends.opensearch.ReactorOpenSearchClient;
+import org.apache.james.core.MailAddress;
+import org.apache.james.core.Username;
+import org.apache.james.jmap.api.model.AccountId;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
+import org.awaitility.Awaitility;
+import org.awaitility.Durations;
+import org.awaitility.core.ConditionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.linagora.tmail.james.jmap.ContactMappingFactory;
+import com.linagora.tmail.james.jmap.OSEmailAddressContactSearchEngine;
+import com.linagora.tmail.james.jmap.contact.AutoCompleteResult;
+import com.linagora.tmail.james.jmap.contact.CachingEmailAddressContactSearchEngine;
+import com.linagora.tmail.james.jmap.contact.ContactAutocompleteCacheConfiguration;
+import com.linagora.tmail.james.jmap.contact.ContactFields;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class OSCachingEmailAddressContactSearchTest {
+    private static final ConditionFactory CALMLY_AWAIT = Awaitility
+        .with().pollInterval(ONE_HUNDRED_MILLISECONDS)
+        .and().pollDelay(ONE_HUNDRED_MILLISECONDS)
+        .await();
+    private static final AccountId ACCOUNT_ID = AccountId.fromUsername(Username.of("bob@domain.tld"));
+
+    @RegisterExtension
+    public final DockerOpenSearchExtension openSearch = new DockerOpenSearchExtension();
+
+    OSEmailAddressContactSearchEngine searchEngine;
+    CachingEmailAddressContactSearchEngine testee;
+
+    @BeforeEach
+    void setUp() {
+        ContactMappingFactory contactMappingFactory = new ContactMappingFactory(OpenSearchConfiguration.DEFAULT_CONFIGURATION, DEFAULT_CONFIGURATION);
+        ReactorOpenSearchClient client = openSearch.getDockerOpenSearch().clientProvider().get();
+
+        new IndexCreationFactory(OpenSearchConfiguration.DEFAULT_CONFIGURATION)
+            .useIndex(DEFAULT_CONFIGURATION.getUserContactIndexName())
+            .addAlias(DEFAULT_CONFIGURATION.getUserContactReadAliasName())
+            .addAlias(DEFAULT_CONFIGURATION.getUserContactWriteAliasName())
+            .createIndexAndAliases(client, Optional.of(contactMappingFactory.generalContactIndicesSetting()), Optional.of(contactMappingFactory.userContactMappingContent()));
+        new IndexCreationFactory(OpenSearchConfiguration.DEFAULT_CONFIGURATION)
+            .useIndex(DEFAULT_CONFIGURATION.getDomainContactIndexName())
+            .addAlias(DEFAULT_CONFIGURATION.getDomainContactReadAliasName())
+            .addAlias(DEFAULT_CONFIGURATION.getDomainContactWriteAliasName())
+            .createIndexAndAliases(client, Optional.of(contactMappingFactory.generalContactIndicesSetting()), Optional.of(contactMappingFactory.domainContactMappingContent()));
+
+        searchEngine = new OSEmailAddressContactSearchEngine(client, DEFAULT_CONFIGURATION);
+        testee = new CachingEmailAddressContactSearchEngine(searchEngine,
+            new ContactAutocompleteCacheConfiguration(true, Duration.ofMinutes(1), 1000L),
+            new NoopGaugeRegistry());
+    }
+
+    private void index(String address, String firstname, String surname) throws Exception {
+        Mono.from(testee.index(ACCOUNT_ID, new ContactFields(new MailAddress(address), firstname, surname))).block();
+    }
+
+    // Waits on the underlying search engine not to populate the cache
+    private void awaitIndexed(String part, int count) {
+        CALMLY_AWAIT.atMost(Durations.TEN_SECONDS)
+            .untilAsserted(() -> assertThat(Flux.from(searchEngine.autoComplete(ACCOUNT_ID, part, 256)).collectList().block())
+                .hasSize(count));
+    }
+
+    private List<MailAddress> autoComplete(String part) {
+        return Flux.from(testee.autoComplete(ACCOUNT_ID, part, 256))
+            .map(contact -> contact.fields().address())
+            .collectList()
+            .block();
+    }
+
+    @Test
+    void typingShouldNotNarrowEmptyResultsOfPartsShorterThanTheMinimumNgram() throws Exception {
+        index("alice@domain.tld", "Alice", "Doe");
+        awaitIndexed("ali", 1);
+
+        assertThat(autoComplete("a")).isEmpty();
+        assertThat(autoComplete("al")).isEmpty();
+        assertThat(autoComplete("ali")).containsExactly(new MailAddress("alice@domain.tld"));
+    }
+
+    @Test
+    void resultsOfPartsShorterThanTheMinimumNgramShouldNotBeComplete() throws Exception {
+        index("alice@domain.tld", "Alice", "Doe");
+        awaitIndexed("ali", 1);
+
+        assertThat(Mono.from(searchEngine.autoCompleteResult(ACCOUNT_ID, "al", 256)).block().complete())
+            .isFalse();
+    }
+
+    @Test
+    void fullPagesShouldNotBeComplete() throws Exception {
+        index("alice@domain.tld", "Alice", "Doe");
+        index("alicia@domain.tld", "Alicia", "Doe");
+        awaitIndexed("ali", 2);
+
+        AutoCompleteResult result = Mono.from(searchEngine.autoCompleteResult(ACCOUNT_ID, "ali", 2)).block();
+
+        assertThat(result.complete()).isFalse();
+    }
+
+    @Test
+    void longerPartsShouldBeNarrowedFromCompleteResults() throws Exception {
+        index("alice@domain.tld", "Alice", "Doe");
+        index("alicia@domain.tld", "Alicia", "Doe");
+        awaitIndexed("ali", 2);
+
+        assertThat(autoComplete("ali")).containsExactlyInAnyOrder(new MailAddress("alice@domain.tld"), new MailAddress("alicia@domain.tld"));
+        assertThat(autoComplete("alice")).containsExactly(new MailAddress("alice@domain.tld"));
+    }
+
+    @Test
+    void narrowingShouldOnlyMatchNamesOnTheStartOfTheirWords() throws Exception {
+        index("ab@domain.tld", "Ana", "Banana");
+        awaitIndexed("ana", 1);
+
+        assertThat(autoComplete("ana")).containsExactly(new MailAddress("ab@domain.tld"));
+        assertThat(autoComplete("anan")).isEmpty();
+    }
+}
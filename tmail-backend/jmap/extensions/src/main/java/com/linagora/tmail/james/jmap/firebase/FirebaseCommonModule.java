@@ -6,7 +6,6 @@ import java.util.Optional;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.events.EventListener;
-import org.apache.james.jmap.method.Method;
 import org.apache.james.utils.PropertiesProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +18,7 @@ import com.google.inject.multibindings.Multibinder;
 import com.linagora.tmail.james.jmap.method.FirebaseCapabilitiesModule;
 import com.linagora.tmail.james.jmap.method.FirebaseSubscriptionGetMethod;
 import com.linagora.tmail.james.jmap.method.FirebaseSubscriptionSetMethod;
+import com.linagora.tmail.james.jmap.method.MethodWithMetrics;
 import com.linagora.tmail.james.jmap.model.MissingOrInvalidFirebaseCredentialException;
 
 public class FirebaseCommonModule extends AbstractModule {
@@ -28,13 +28,9 @@ public class FirebaseCommonModule extends AbstractModule {
     protected void configure() {
         install(new FirebaseCapabilitiesModule());
 
-        Multibinder.newSetBinder(binder(), Method.class)
-            .addBinding()
-            .to(FirebaseSubscriptionGetMethod.class);
+        MethodWithMetrics.bind(binder(), FirebaseSubscriptionGetMethod.class);
 
-        Multibinder.newSetBinder(binder(), Method.class)
-            .addBinding()
-            .to(FirebaseSubscriptionSetMethod.class);
+        MethodWithMetrics.bind(binder(), FirebaseSubscriptionSetMethod.class);
 
         bind(FirebasePushClient.class).in(Scopes.SINGLETON);
 
@@ -53,4 +49,10 @@ public class FirebaseCommonModule extends AbstractModule {
                 return new MissingOrInvalidFirebaseCredentialException("Missing required `privatekey.url` declaration for Firebase configuration.");
             });
     }
+
+    @Provides
+    @Singleton
+    FirebasePushListenerConfiguration firebasePushListenerConfiguration(PropertiesProvider propertiesProvider) {
+        return FirebasePushListenerConfiguration.from(propertiesProvider);
+    }
 }
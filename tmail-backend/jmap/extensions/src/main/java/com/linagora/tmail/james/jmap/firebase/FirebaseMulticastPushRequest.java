@@ -0,0 +1,16 @@
+package com.linagora.tmail.james.jmap.firebase;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+import com.linagora.tmail.james.jmap.model.FirebaseToken;
+
+public record FirebaseMulticastPushRequest(Map<String, String> stateChangesMap, List<FirebaseToken> tokens, FirebasePushUrgency urgency) {
+    public static final int MAX_TOKENS = 500;
+
+    public FirebaseMulticastPushRequest {
+        Preconditions.checkArgument(!tokens.isEmpty(), "A multicast push request needs at least one token");
+        Preconditions.checkArgument(tokens.size() <= MAX_TOKENS, "A multicast push request can not hold more than %s tokens", MAX_TOKENS);
+    }
+}
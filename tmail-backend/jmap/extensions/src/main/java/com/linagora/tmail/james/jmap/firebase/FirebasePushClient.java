@@ -12,20 +12,25 @@ import org.slf4j.LoggerFactory;
 
 import com.google.api.core.ApiFuture;
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.messaging.AndroidConfig;
 import com.google.firebase.messaging.ApnsConfig;
 import com.google.firebase.messaging.Aps;
+import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
 import com.google.firebase.messaging.WebpushConfig;
 import com.linagora.tmail.james.jmap.model.FirebaseToken;
 import com.linagora.tmail.james.jmap.model.MissingOrInvalidFirebaseCredentialException;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class FirebasePushClient {
@@ -56,6 +61,11 @@ public class FirebasePushClient {
         this.firebaseMessaging = FirebaseMessaging.getInstance();
     }
 
+    @VisibleForTesting
+    protected FirebasePushClient(FirebaseMessaging firebaseMessaging) {
+        this.firebaseMessaging = firebaseMessaging;
+    }
+
     public Mono<Void> push(FirebasePushRequest pushRequest) {
         return sendReactive(createFcmMessage(pushRequest), !DRY_RUN);
     }
@@ -72,43 +82,83 @@ public class FirebasePushClient {
             });
     }
 
+    /**
+     * Sends the same message to up to {@link FirebaseMulticastPushRequest#MAX_TOKENS} devices in a single FCM call.
+     *
+     * @return the failed deliveries, one per rejected token
+     */
+    public Flux<FirebasePushFailure> pushMulticast(FirebaseMulticastPushRequest pushRequest) {
+        return Mono.<BatchResponse>create(sink -> {
+                ApiFuture<BatchResponse> apiFuture = firebaseMessaging.sendEachForMulticastAsync(createFcmMulticastMessage(pushRequest), !DRY_RUN);
+                apiFuture.addListener(() -> {
+                    try {
+                        sink.success(apiFuture.get());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    } catch (ExecutionException e) {
+                        sink.error(e.getCause());
+                    }
+                }, MoreExecutors.directExecutor());
+            })
+            .flatMapMany(batchResponse -> Flux.range(0, batchResponse.getResponses().size())
+                .filter(index -> !batchResponse.getResponses().get(index).isSuccessful())
+                .map(index -> new FirebasePushFailure(pushRequest.tokens().get(index), batchResponse.getResponses().get(index).getException())));
+    }
+
     private Message createFcmMessage(FirebasePushRequest pushRequest) {
-        if (pushRequest.urgency().equals(FirebasePushUrgency.NORMAL)) {
-            return Message.builder()
-                .putAllData(pushRequest.stateChangesMap())
-                .setToken(pushRequest.token().value())
-                .setAndroidConfig(AndroidConfig.builder()
-                    .setPriority(AndroidConfig.Priority.NORMAL)
-                    .build())
-                .setApnsConfig(ApnsConfig.builder()
-                    .putHeader(APNS_URGENCY_HEADER, APNS_REQUIRED_NORMAL_PRIORITY)
-                    .setAps(Aps.builder()
-                        .setContentAvailable(true)
-                        .build())
-                    .build())
-                .setWebpushConfig(WebpushConfig.builder()
-                    .putHeader(WEB_PUSH_URGENCY_HEADER, "normal")
-                    .build())
-                .build();
-        }
         return Message.builder()
             .putAllData(pushRequest.stateChangesMap())
             .setToken(pushRequest.token().value())
-            .setAndroidConfig(AndroidConfig.builder()
-                .setPriority(AndroidConfig.Priority.HIGH)
-                .build())
-            .setApnsConfig(ApnsConfig.builder()
-                .putHeader(APNS_URGENCY_HEADER, APNS_REQUIRED_NORMAL_PRIORITY)
-                .setAps(Aps.builder()
-                    .setContentAvailable(true)
-                    .build())
-                .build())
-            .setWebpushConfig(WebpushConfig.builder()
-                .putHeader(WEB_PUSH_URGENCY_HEADER, "high")
+            .setAndroidConfig(androidConfig(pushRequest.urgency()))
+            .setApnsConfig(apnsConfig())
+            .setWebpushConfig(webpushConfig(pushRequest.urgency()))
+            .build();
+    }
+
+    private MulticastMessage createFcmMulticastMessage(FirebaseMulticastPushRequest pushRequest) {
+        return MulticastMessage.builder()
+            .putAllData(pushRequest.stateChangesMap())
+            .addAllTokens(pushRequest.tokens().stream()
+                .map(FirebaseToken::value)
+                .collect(ImmutableList.toImmutableList()))
+            .setAndroidConfig(androidConfig(pushRequest.urgency()))
+            .setApnsConfig(apnsConfig())
+            .setWebpushConfig(webpushConfig(pushRequest.urgency()))
+            .build();
+    }
+
+    private AndroidConfig androidConfig(FirebasePushUrgency urgency) {
+        if (urgency.equals(FirebasePushUrgency.NORMAL)) {
+            return AndroidConfig.builder()
+                .setPriority(AndroidConfig.Priority.NORMAL)
+                .build();
+        }
+        return AndroidConfig.builder()
+            .setPriority(AndroidConfig.Priority.HIGH)
+            .build();
+    }
+
+    private ApnsConfig apnsConfig() {
+        return ApnsConfig.builder()
+            .putHeader(APNS_URGENCY_HEADER, APNS_REQUIRED_NORMAL_PRIORITY)
+            .setAps(Aps.builder()
+                .setContentAvailable(true)
                 .build())
             .build();
     }
 
+    private WebpushConfig webpushConfig(FirebasePushUrgency urgency) {
+        if (urgency.equals(FirebasePushUrgency.NORMAL)) {
+            return WebpushConfig.builder()
+                .putHeader(WEB_PUSH_URGENCY_HEADER, "normal")
+                .build();
+        }
+        return WebpushConfig.builder()
+            .putHeader(WEB_PUSH_URGENCY_HEADER, "high")
+            .build();
+    }
+
     private Message createEmptyMessage(FirebaseToken token) {
         return Message.builder()
             .setToken(token.value())
@@ -0,0 +1,7 @@
+package com.linagora.tmail.james.jmap.firebase;
+
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.linagora.tmail.james.jmap.model.FirebaseToken;
+
+public record FirebasePushFailure(FirebaseToken token, FirebaseMessagingException exception) {
+}
@@ -0,0 +1,171 @@
+package com.linagora.tmail.james.jmap.contact
+
+import java.io.FileNotFoundException
+import java.time.Duration
+import java.time.temporal.ChronoUnit
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import com.google.common.base.Preconditions
+import org.apache.commons.configuration2.Configuration
+import org.apache.james.core.{Domain, MailAddress, Username}
+import org.apache.james.jmap.api.model.AccountId
+import org.apache.james.metrics.api.GaugeRegistry
+import org.apache.james.util.DurationParser
+import org.apache.james.utils.PropertiesProvider
+import org.reactivestreams.Publisher
+import reactor.core.scala.publisher.SMono
+
+import scala.jdk.OptionConverters._
+
+object ContactAutocompleteCacheConfiguration {
+  val DEFAULT_TTL: Duration = Duration.ofSeconds(30)
+  val DEFAULT_MAX_SIZE: Long = 10000
+  val DISABLED: ContactAutocompleteCacheConfiguration = ContactAutocompleteCacheConfiguration(enabled = false)
+
+  def from(propertiesProvider: PropertiesProvider): ContactAutocompleteCacheConfiguration =
+    try {
+      from(propertiesProvider.getConfiguration("jmap"))
+    } catch {
+      case _: FileNotFoundException => DISABLED
+    }
+
+  def from(configuration: Configuration): ContactAutocompleteCacheConfiguration =
+    ContactAutocompleteCacheConfiguration(
+      enabled = configuration.getBoolean("contact.autocomplete.cache.enabled", false),
+      ttl = Option(configuration.getString("contact.autocomplete.cache.ttl", null))
+        .map(DurationParser.parse(_, ChronoUnit.SECONDS))
+        .getOrElse(DEFAULT_TTL),
+      maxSize = configuration.getLong("contact.autocomplete.cache.maxSize", DEFAULT_MAX_SIZE))
+}
+
+case class ContactAutocompleteCacheConfiguration(enabled: Boolean,
+                                                 ttl: Duration = ContactAutocompleteCacheConfiguration.DEFAULT_TTL,
+                                                 maxSize: Long = ContactAutocompleteCacheConfiguration.DEFAULT_MAX_SIZE) {
+  Preconditions.checkArgument(!ttl.isNegative && !ttl.isZero, "'contact.autocomplete.cache.ttl' must be strictly positive".asInstanceOf[Object])
+  Preconditions.checkArgument(maxSize > 0, "'contact.autocomplete.cache.maxSize' must be strictly positive".asInstanceOf[Object])
+}
+
+object CachingEmailAddressContactSearchEngine {
+  def wrap(underlying: EmailAddressContactSearchEngine, configuration: ContactAutocompleteCacheConfiguration,
+           gaugeRegistry: GaugeRegistry): EmailAddressContactSearchEngine =
+    if (configuration.enabled) {
+      new CachingEmailAddressContactSearchEngine(underlying, configuration, gaugeRegistry)
+    } else {
+      underlying
+    }
+
+  private case class CacheKey(accountId: AccountId, prefix: String)
+
+  private case class CachedResult(contacts: Seq[EmailAddressContact], limit: Int, complete: Boolean) {
+    def canServe(requestedLimit: Int): Boolean = complete || requestedLimit <= limit
+
+    def serve(requestedLimit: Int): AutoCompleteResult =
+      AutoCompleteResult(contacts.take(requestedLimit), complete && contacts.size <= requestedLimit)
+  }
+}
+
+/**
+ * Short lived per account cache for `TMailContact/autocomplete`.
+ *
+ * Clients trigger an autocomplete on each keystroke. Once the underlying search engine reported a result as holding
+ * all the matches of a prefix, results for any longer prefix are a subset of it and are computed by filtering the
+ * cached result with the matching rules of the underlying search engine rather than querying it.
+ *
+ * Local writes invalidate the cached entries of the impacted accounts. Writes happening on other nodes are only
+ * visible once the TTL expired.
+ */
+class CachingEmailAddressContactSearchEngine(underlying: EmailAddressContactSearchEngine,
+                                             configuration: ContactAutocompleteCacheConfiguration,
+                                             gaugeRegistry: GaugeRegistry) extends EmailAddressContactSearchEngine {
+  import CachingEmailAddressContactSearchEngine._
+
+  private val cache: Cache[CacheKey, CachedResult] = {
+    val cache: Cache[CacheKey, CachedResult] = Caffeine.newBuilder()
+      .expireAfterWrite(configuration.ttl)
+      .maximumSize(configuration.maxSize)
+      .recordStats()
+      .build[CacheKey, CachedResult]()
+
+    gaugeRegistry.register("contact.autocomplete.cache.hitRate", () => cache.stats().hitRate())
+      .register("contact.autocomplete.cache.missCount", () => cache.stats().missCount())
+      .register("contact.autocomplete.cache.hitCount", () => cache.stats().hitCount())
+      .register("contact.autocomplete.cache.size", () => cache.estimatedSize())
+    cache
+  }
+
+  override def autoComplete(accountId: AccountId, part: String, limit: Int): Publisher[EmailAddressContact] =
+    SMono(autoCompleteResult(accountId, part, limit))
+      .flatMapIterable(_.contacts)
+
+  override def autoCompleteResult(accountId: AccountId, part: String, limit: Int): Publisher[AutoCompleteResult] = {
+    val prefix: String = part.toLowerCase
+
+    SMono.defer(() => lookup(accountId, prefix, limit)
+      .map(result => SMono.just(result))
+      .getOrElse(SMono(underlying.autoCompleteResult(accountId, part, limit))
+        .doOnNext(result => cache.put(CacheKey(accountId, prefix), CachedResult(result.contacts, limit, result.complete)))))
+  }
+
+  private def lookup(accountId: AccountId, prefix: String, limit: Int): Option[AutoCompleteResult] =
+    Option(cache.getIfPresent(CacheKey(accountId, prefix)))
+      .filter(_.canServe(limit))
+      .map(_.serve(limit))
+      .orElse(narrowShorterPrefix(accountId, prefix, limit))
+
+  // Multi-word queries are matched per token by the search engines: filtering on the full string would not be exact
+  private def narrowShorterPrefix(accountId: AccountId, prefix: String, limit: Int): Option[AutoCompleteResult] =
+    if (prefix.exists(Character.isWhitespace)) {
+      None
+    } else {
+      (prefix.length - 1 to 1 by -1).iterator
+        .map(length => Option(cache.getIfPresent(CacheKey(accountId, prefix.substring(0, length)))))
+        .collectFirst {
+          case Some(shorterPrefixResult) if shorterPrefixResult.complete =>
+            val narrowed: CachedResult = CachedResult(shorterPrefixResult.contacts.filter(underlying.matches(_, prefix)), shorterPrefixResult.limit, complete = true)
+            cache.put(CacheKey(accountId, prefix), narrowed)
+            narrowed.serve(limit)
+        }
+    }
+
+  override def matches(contact: EmailAddressContact, part: String): Boolean = underlying.matches(contact, part)
+
+  override def index(accountId: AccountId, fields: ContactFields): Publisher[EmailAddressContact] =
+    SMono.fromPublisher(underlying.index(accountId, fields))
+      .doOnTerminate(() => invalidate(accountId))
+
+  override def index(domain: Domain, fields: ContactFields): Publisher[EmailAddressContact] =
+    SMono.fromPublisher(underlying.index(domain, fields))
+      .doOnTerminate(() => invalidate(domain))
+
+  override def update(accountId: AccountId, updatedFields: ContactFields): Publisher[EmailAddressContact] =
+    SMono.fromPublisher(underlying.update(accountId, updatedFields))
+      .doOnTerminate(() => invalidate(accountId))
+
+  override def update(domain: Domain, updatedFields: ContactFields): Publisher[EmailAddressContact] =
+    SMono.fromPublisher(underlying.update(domain, updatedFields))
+      .doOnTerminate(() => invalidate(domain))
+
+  override def delete(accountId: AccountId, mailAddress: MailAddress): Publisher[Void] =
+    SMono.fromPublisher(underlying.delete(accountId, mailAddress))
+      .doOnTerminate(() => invalidate(accountId))
+
+  override def delete(domain: Domain, mailAddress: MailAddress): Publisher[Void] =
+    SMono.fromPublisher(underlying.delete(domain, mailAddress))
+      .doOnTerminate(() => invalidate(domain))
+
+  override def list(accountId: AccountId): Publisher[EmailAddressContact] = underlying.list(accountId)
+
+  override def list(domain: Domain): Publisher[EmailAddressContact] = underlying.list(domain)
+
+  override def listDomainsContacts(): Publisher[EmailAddressContact] = underlying.listDomainsContacts()
+
+  override def get(accountId: AccountId, mailAddress: MailAddress): Publisher[EmailAddressContact] = underlying.get(accountId, mailAddress)
+
+  override def get(domain: Domain, mailAddress: MailAddress): Publisher[EmailAddressContact] = underlying.get(domain, mailAddress)
+
+  private def invalidate(accountId: AccountId): Unit =
+    cache.asMap().keySet().removeIf(key => key.accountId.equals(accountId))
+
+  private def invalidate(domain: Domain): Unit =
+    cache.asMap().keySet().removeIf(key => Username.of(key.accountId.getIdentifier).getDomainPart.toScala.contains(domain))
+}
@@ -5,24 +5,24 @@ import java.util.UUID
 
 import com.google.common.collect.{HashBasedTable, ImmutableList, Table, Tables}
 import com.google.inject.multibindings.Multibinder
-import com.google.inject.{AbstractModule, Scopes}
+import com.google.inject.{AbstractModule, Provides, Scopes, Singleton}
 import org.apache.james.core.{Domain, MailAddress, Username}
 import org.apache.james.events.Event
 import org.apache.james.events.Event.EventId
 import org.apache.james.jmap.api.model.AccountId
+import org.apache.james.metrics.api.GaugeRegistry
 import org.apache.james.user.api.{DeleteUserDataTaskStep, UsernameChangeTaskStep}
+import org.apache.james.utils.PropertiesProvider
 import org.reactivestreams.Publisher
 import reactor.core.scala.publisher.{SFlux, SMono}
 
-import scala.jdk.CollectionConverters.CollectionHasAsScala
+import scala.jdk.CollectionConverters._
 import scala.jdk.OptionConverters._
 
 case class InMemoryEmailAddressContactSearchEngineModule() extends AbstractModule {
   override def configure(): Unit = {
     bind(classOf[InMemoryEmailAddressContactSearchEngine]).in(Scopes.SINGLETON)
 
-    bind(classOf[EmailAddressContactSearchEngine]).to(classOf[InMemoryEmailAddressContactSearchEngine])
-
     Multibinder.newSetBinder(binder(), classOf[UsernameChangeTaskStep])
       .addBinding()
       .to(classOf[ContactUsernameChangeTaskStep])
@@ -30,6 +30,13 @@ case class InMemoryEmailAddressContactSearchEngineModule() extends AbstractModul
       .addBinding()
       .to(classOf[ContactUserDeletionTaskStep])
   }
+
+  @Provides
+  @Singleton
+  def provideEmailAddressContactSearchEngine(searchEngine: InMemoryEmailAddressContactSearchEngine,
+                                             propertiesProvider: PropertiesProvider,
+                                             gaugeRegistry: GaugeRegistry): EmailAddressContactSearchEngine =
+    CachingEmailAddressContactSearchEngine.wrap(searchEngine, ContactAutocompleteCacheConfiguration.from(propertiesProvider), gaugeRegistry)
 }
 
 object EmailAddressContact {
@@ -45,6 +52,13 @@ case class ContactFields(address: MailAddress, firstname: String = "", surname:
     address.asString().contains(part) || firstname.contains(part) || surname.contains(part)
 }
 
+object AutoCompleteResult {
+  def of(contacts: java.util.List[EmailAddressContact], complete: Boolean): AutoCompleteResult =
+    AutoCompleteResult(contacts.asScala.toSeq, complete)
+}
+
+case class AutoCompleteResult(contacts: Seq[EmailAddressContact], complete: Boolean)
+
 case class ContactNotFoundException(mailAddress: MailAddress) extends RuntimeException {
   override def getMessage: String = s"The contact ${mailAddress.asString()} can not be found"
 }
@@ -64,6 +78,27 @@ trait EmailAddressContactSearchEngine {
 
   def autoComplete(accountId: AccountId, part: String, limit: Int = 256): Publisher[EmailAddressContact]
 
+  /**
+   * Same as autoComplete, telling in addition whether the contacts are all the ones matching `part`.
+   *
+   * The default implementation holds for engines removing duplicates before applying the limit.
+   */
+  def autoCompleteResult(accountId: AccountId, part: String, limit: Int): Publisher[AutoCompleteResult] =
+    SFlux(autoComplete(accountId, part, limit))
+      .collectSeq()
+      .map(contacts => AutoCompleteResult(contacts, complete = contacts.size < limit))
+
+  /**
+   * Whether `contact` is matched by the lower-cased `part` of an autoComplete.
+   *
+   * The default implementation holds for engines matching names on the start of their words, and addresses anywhere.
+   */
+  def matches(contact: EmailAddressContact, part: String): Boolean =
+    contact.fields.address.asString().toLowerCase.contains(part) ||
+      Seq(contact.fields.firstname, contact.fields.surname)
+        .flatMap(_.toLowerCase.split("[^\\p{L}\\p{N}]+"))
+        .exists(_.startsWith(part))
+
   def list(accountId: AccountId): Publisher[EmailAddressContact]
 
   def list(domain: Domain): Publisher[EmailAddressContact]
@@ -134,6 +169,9 @@ class InMemoryEmailAddressContactSearchEngine extends EmailAddressContactSearchE
       .take(limit)
   }
 
+  override def matches(contact: EmailAddressContact, part: String): Boolean =
+    lowerCaseContact(contact).fields.contains(part)
+
   private def lowerCaseContact(contact: EmailAddressContact): EmailAddressContact =
     EmailAddressContact(contact.id, ContactFields(address = new MailAddress(contact.fields.address.asString().toLowerCase),
       firstname = contact.fields.firstname.toLowerCase, surname = contact.fields.surname.toLowerCase))
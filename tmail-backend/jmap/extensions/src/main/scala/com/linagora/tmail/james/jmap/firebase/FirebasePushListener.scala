@@ -1,36 +1,81 @@
 package com.linagora.tmail.james.jmap.firebase
 
+import java.io.FileNotFoundException
+import java.time.Duration
+import java.time.temporal.ChronoUnit
+import java.util.concurrent.ConcurrentHashMap
+
+import com.google.common.base.Preconditions
 import com.google.firebase.messaging.{FirebaseMessagingException, MessagingErrorCode}
-import com.linagora.tmail.james.jmap.firebase.FirebasePushListener.{GROUP, LOGGER}
+import com.linagora.tmail.james.jmap.firebase.FirebasePushListener.{GROUP, LOGGER, OwnedSubscription}
 import com.linagora.tmail.james.jmap.model.FirebaseSubscription
 import com.linagora.tmail.james.jmap.settings.JmapSettingsRepository
 import javax.inject.Inject
+import org.apache.commons.configuration2.Configuration
 import org.apache.james.core.Username
+import org.apache.james.events.Event.EventId
 import org.apache.james.events.EventListener.ReactiveGroupEventListener
 import org.apache.james.events.{Event, Group}
 import org.apache.james.jmap.api.model.TypeName
 import org.apache.james.jmap.change.{EmailDeliveryTypeName, StateChangeEvent}
-import org.apache.james.jmap.core.{AccountId, StateChange}
+import org.apache.james.jmap.core.{AccountId, State, StateChange}
 import org.apache.james.lifecycle.api.Startable
 import org.apache.james.user.api.DelegationStore
-import org.apache.james.util.ReactorUtils
+import org.apache.james.util.{DurationParser, ReactorUtils}
+import org.apache.james.utils.PropertiesProvider
 import org.reactivestreams.Publisher
 import org.slf4j.LoggerFactory
+import reactor.core.publisher.Mono
 import reactor.core.scala.publisher.{SFlux, SMono}
 
 import scala.jdk.javaapi.CollectionConverters
 
+object FirebasePushListenerConfiguration {
+  val DEFAULT_DEBOUNCE_WINDOW: Duration = Duration.ZERO
+  val DEFAULT: FirebasePushListenerConfiguration = FirebasePushListenerConfiguration()
+
+  def from(propertiesProvider: PropertiesProvider): FirebasePushListenerConfiguration =
+    try {
+      from(propertiesProvider.getConfiguration("firebase"))
+    } catch {
+      case _: FileNotFoundException => DEFAULT
+    }
+
+  def from(configuration: Configuration): FirebasePushListenerConfiguration =
+    FirebasePushListenerConfiguration(
+      debounceWindow = Option(configuration.getString("push.debounce.window", null))
+        .map(DurationParser.parse(_, ChronoUnit.MILLIS))
+        .getOrElse(DEFAULT_DEBOUNCE_WINDOW))
+}
+
+case class FirebasePushListenerConfiguration(debounceWindow: Duration = FirebasePushListenerConfiguration.DEFAULT_DEBOUNCE_WINDOW) {
+  Preconditions.checkArgument(!debounceWindow.isNegative, "'push.debounce.window' must not be negative".asInstanceOf[Object])
+}
+
 case class FirebasePushListenerGroup() extends Group {}
 
 object FirebasePushListener {
   val GROUP: FirebasePushListenerGroup = FirebasePushListenerGroup()
   private val LOGGER = LoggerFactory.getLogger(classOf[FirebasePushListener])
+
+  private case class OwnedSubscription(owner: Username, subscription: FirebaseSubscription)
 }
 
+/**
+ * Pushes StateChangeEvent to the FCM subscriptions of the account owner and of its delegatees.
+ *
+ * Devices receiving the same payload are pushed with a single FCM multicast request.
+ *
+ * When a debounce window is configured, the state changes of an account received within that window are merged and
+ * pushed once, at the end of the window. That push is best effort: it is lost if the node stops before the window ends.
+ */
 class FirebasePushListener @Inject()(subscriptionRepository: FirebaseSubscriptionRepository,
                                      delegationStore: DelegationStore,
                                      jmapSettingsRepository: JmapSettingsRepository,
-                                     pushClient: FirebasePushClient) extends ReactiveGroupEventListener {
+                                     pushClient: FirebasePushClient,
+                                     configuration: FirebasePushListenerConfiguration = FirebasePushListenerConfiguration.DEFAULT) extends ReactiveGroupEventListener {
+  private val pendingChanges: ConcurrentHashMap[Username, Map[TypeName, State]] = new ConcurrentHashMap()
+
   override def getDefaultGroup: Group = GROUP
 
   override def isHandling(event: Event): Boolean = event.isInstanceOf[StateChangeEvent]
@@ -38,14 +83,40 @@ class FirebasePushListener @Inject()(subscriptionRepository: FirebaseSubscriptio
   override def reactiveEvent(event: Event): Publisher[Void] =
     event match {
       case event: StateChangeEvent =>
-        firebasePushEnabled(event.username)
-          .flatMap {
-            case true => pushToAccountOwnerAndDelegatees(event)
-            case _ => noPush
-          }
+        if (configuration.debounceWindow.isZero) {
+          push(event)
+        } else {
+          debounce(event)
+        }
       case _ => noPush
     }
 
+  private def push(event: StateChangeEvent): SMono[Void] =
+    firebasePushEnabled(event.username)
+      .flatMap {
+        case true => pushToAccountOwnerAndDelegatees(event)
+        case _ => noPush
+      }
+
+  private def debounce(event: StateChangeEvent): SMono[Void] = {
+    var firstChangeOfTheWindow: Boolean = false
+    pendingChanges.compute(event.username, (_: Username, pending: Map[TypeName, State]) => Option(pending)
+      .map(_ ++ event.map)
+      .getOrElse {
+        firstChangeOfTheWindow = true
+        event.map
+      })
+
+    if (firstChangeOfTheWindow) {
+      SMono.fromPublisher(Mono.delay(configuration.debounceWindow))
+        .flatMap(_ => SMono.justOrEmpty(Option(pendingChanges.remove(event.username))))
+        .flatMap(changes => push(StateChangeEvent(EventId.random(), event.username, changes)))
+        .onErrorResume(e => SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Failed to push debounced state changes of {}", event.username.asString(), e))))
+        .subscribe()
+    }
+    noPush
+  }
+
   private def firebasePushEnabled(username: Username): SMono[Boolean] =
     SMono.fromPublisher(jmapSettingsRepository.get(username))
       .map(_.settings.get(FirebasePushEnableSettingParser.key()))
@@ -57,33 +128,54 @@ class FirebasePushListener @Inject()(subscriptionRepository: FirebaseSubscriptio
     SFlux.fromPublisher(delegationStore.authorizedUsers(event.username))
       .filterWhen(firebasePushEnabled(_))
       .concatWith(SMono.just(event.username))
-      .flatMap(subscriptionRepository.list)
-      .flatMap(sendNotification(_, event), ReactorUtils.DEFAULT_CONCURRENCY)
+      .flatMap(owner => SFlux(subscriptionRepository.list(owner)).map(OwnedSubscription(owner, _)))
+      .flatMapIterable(subscription => event.asStateChange
+        .filter(subscription.subscription.types.toSet)
+        .map(stateChange => asPushPayload(stateChange) -> subscription)
+        .toList)
+      .collectSeq()
+      .flatMapIterable(_.groupMap(_._1)(_._2)
+        .toSeq
+        .flatMap {
+          case (payload, subscriptions) => subscriptions.grouped(FirebaseMulticastPushRequest.MAX_TOKENS).map(payload -> _)
+        })
+      .flatMap({
+        case (payload, subscriptions) => sendNotification(payload, subscriptions)
+      }, ReactorUtils.DEFAULT_CONCURRENCY)
       .`then`()
       .`then`(SMono.empty)
 
   private def noPush: SMono[Void] = SMono.empty
 
-  private def sendNotification(subscription: FirebaseSubscription, stateChangeEvent: StateChangeEvent): Publisher[Unit] =
-    stateChangeEvent
-      .asStateChange
-      .filter(subscription.types.toSet)
-      .fold(SMono.empty[Unit])(stateChange => SMono(pushClient.push(asPushRequest(stateChange, subscription)))
-        .onErrorResume {
-          case e: FirebaseMessagingException => e.getMessagingErrorCode match {
-            case MessagingErrorCode.INVALID_ARGUMENT | MessagingErrorCode.UNREGISTERED => SMono.fromPublisher(subscriptionRepository.revoke(stateChangeEvent.username, subscription.id))
-              .`then`(SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Subscription with invalid FCM token is removed", e))))
-            case _ => SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Unexpected error during push message to Firebase Cloud Messaging", e)))
-          }
-          case e => SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Unexpected error during push message to Firebase Cloud Messaging", e)))
-        }
-        .`then`())
+  private def sendNotification(payload: (Map[String, String], FirebasePushUrgency), subscriptions: Seq[OwnedSubscription]): SMono[Unit] =
+    subscriptions match {
+      case Seq(subscription) => SMono(pushClient.push(new FirebasePushRequest(CollectionConverters.asJava(payload._1), subscription.subscription.token, payload._2)))
+        .`then`()
+        .onErrorResume(handlePushFailure(subscription, _))
+      case _ => SFlux(pushClient.pushMulticast(new FirebaseMulticastPushRequest(CollectionConverters.asJava(payload._1),
+          CollectionConverters.asJava(subscriptions.map(_.subscription.token)), payload._2)))
+        .flatMap(failure => subscriptions.find(_.subscription.token.equals(failure.token()))
+          .map(handlePushFailure(_, failure.exception()))
+          .getOrElse(SMono.empty[Unit]))
+        .`then`()
+        .onErrorResume(e => SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Unexpected error during push message to Firebase Cloud Messaging", e)))
+          .`then`())
+    }
+
+  private def handlePushFailure(subscription: OwnedSubscription, error: Throwable): SMono[Unit] =
+    (error match {
+      case e: FirebaseMessagingException => e.getMessagingErrorCode match {
+        case MessagingErrorCode.INVALID_ARGUMENT | MessagingErrorCode.UNREGISTERED => SMono.fromPublisher(subscriptionRepository.revoke(subscription.owner, subscription.subscription.id))
+          .`then`(SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Subscription with invalid FCM token is removed", e))))
+        case _ => SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Unexpected error during push message to Firebase Cloud Messaging", e)))
+      }
+      case e => SMono.fromPublisher(ReactorUtils.logAsMono(() => LOGGER.warn("Unexpected error during push message to Firebase Cloud Messaging", e)))
+    }).`then`()
 
-  private def asPushRequest(stateChange: StateChange, subscription: FirebaseSubscription): FirebasePushRequest =
-    new FirebasePushRequest(CollectionConverters.asJava(stateChange.changes
+  private def asPushPayload(stateChange: StateChange): (Map[String, String], FirebasePushUrgency) =
+    (stateChange.changes
       .flatMap(accountIdToTypeState => accountIdToTypeState._2.changes
-        .map(typeNameToState => evaluateKey(accountIdToTypeState._1, typeNameToState._1) -> typeNameToState._2.serialize))),
-      subscription.token,
+        .map(typeNameToState => evaluateKey(accountIdToTypeState._1, typeNameToState._1) -> typeNameToState._2.serialize)),
       urgency(stateChange))
 
   private def evaluateKey(accountId: AccountId, typeName: TypeName): String =
@@ -1,16 +1,23 @@
 package com.linagora.tmail.james.jmap.label
 
-import java.time.{Clock, Instant}
+import java.io.FileNotFoundException
+import java.time.temporal.ChronoUnit
+import java.time.{Clock, Duration, Instant}
+import java.util
+import java.util.concurrent.ConcurrentHashMap
 
-import com.google.common.collect.{HashBasedTable, Table, Tables}
+import com.google.common.base.Preconditions
 import com.linagora.tmail.james.jmap.label.LabelChangeRepository.DEFAULT_MAX_IDS_TO_RETURN
 import com.linagora.tmail.james.jmap.model.LabelId
 import javax.inject.Inject
+import org.apache.commons.configuration2.Configuration
 import org.apache.james.jmap.api.change.{JmapChange, Limit, State}
 import org.apache.james.jmap.api.exception.ChangeNotFoundException
 import org.apache.james.jmap.api.model
 import org.apache.james.jmap.api.model.{AccountId, TypeName}
 import org.apache.james.jmap.core.UuidState
+import org.apache.james.util.DurationParser
+import org.apache.james.utils.PropertiesProvider
 import org.reactivestreams.Publisher
 import reactor.core.scala.publisher.{SFlux, SMono}
 
@@ -86,45 +93,144 @@ case class LabelChanges(created: Set[LabelId] = Set(),
   def getAllChanges: Set[LabelId] = created ++ updated ++ destroyed
 }
 
-case class MemoryLabelChangeRepository @Inject()(clock: Clock) extends LabelChangeRepository {
+object MemoryLabelChangesConfiguration {
+  val DEFAULT_TTL: Duration = Duration.ofDays(60)
+  val DEFAULT_MAX_CHANGES_PER_ACCOUNT: Int = 10000
+  val DEFAULT: MemoryLabelChangesConfiguration = MemoryLabelChangesConfiguration(DEFAULT_TTL, DEFAULT_MAX_CHANGES_PER_ACCOUNT)
 
-  import scala.jdk.CollectionConverters._
+  def from(propertiesProvider: PropertiesProvider): MemoryLabelChangesConfiguration =
+    try {
+      from(propertiesProvider.getConfiguration("jmap"))
+    } catch {
+      case _: FileNotFoundException => DEFAULT
+    }
+
+  def from(configuration: Configuration): MemoryLabelChangesConfiguration =
+    MemoryLabelChangesConfiguration(
+      labelChangeTtl = Option(configuration.getString("label.change.retention", null))
+        .map(DurationParser.parse(_, ChronoUnit.SECONDS))
+        .getOrElse(DEFAULT_TTL),
+      maxChangesPerAccount = configuration.getInt("label.change.maxChangesPerAccount", DEFAULT_MAX_CHANGES_PER_ACCOUNT))
+}
+
+/**
+ * @param labelChangeTtl retention of a change, the counterpart of the Cassandra time-to-live. Zero means no expiration.
+ * @param maxChangesPerAccount size of the per account ring buffer: older changes are evicted first.
+ */
+case class MemoryLabelChangesConfiguration(labelChangeTtl: Duration, maxChangesPerAccount: Int) {
+  Preconditions.checkArgument(!labelChangeTtl.isNegative, "'label.change.retention' needs to be positive".asInstanceOf[Object])
+  Preconditions.checkArgument(maxChangesPerAccount > 0, "'label.change.maxChangesPerAccount' needs to be strictly positive".asInstanceOf[Object])
+}
+
+private case class TimestampedLabelChange(position: Long, timestamp: Instant, labelChange: LabelChange)
+
+/**
+ * Bounded change log of an account, stored as a ring buffer in insertion order. Changes are indexed by state so that
+ * resolving the changes following a state does not scan the log.
+ */
+private class AccountLabelChangeLog(configuration: MemoryLabelChangesConfiguration) {
+  private val INITIAL_CAPACITY: Int = 16
+
+  private var buffer: Array[TimestampedLabelChange] = new Array[TimestampedLabelChange](Math.min(INITIAL_CAPACITY, configuration.maxChangesPerAccount))
+  private var head: Int = 0
+  private var size: Int = 0
+  private var nextPosition: Long = 0
+  private val positionByState: util.HashMap[State, java.lang.Long] = new util.HashMap[State, java.lang.Long]()
+
+  def append(labelChange: LabelChange, now: Instant): Unit = synchronized {
+    evictExpired(now)
+    if (size == configuration.maxChangesPerAccount) {
+      evictOldest()
+    }
+    if (size == buffer.length) {
+      grow()
+    }
+    buffer((head + size) % buffer.length) = TimestampedLabelChange(nextPosition, now, labelChange)
+    positionByState.put(labelChange.state, nextPosition)
+    size += 1
+    nextPosition += 1
+  }
+
+  def all(now: Instant): Seq[LabelChange] = synchronized {
+    evictExpired(now)
+    slice(0)
+  }
+
+  def after(state: State, now: Instant): Option[Seq[LabelChange]] = synchronized {
+    evictExpired(now)
+    Option(positionByState.get(state))
+      .map(position => slice(Math.toIntExact(position - get(0).position + 1)))
+  }
 
-  private val orderingNewerFirst: Ordering[(Instant, LabelChange)] = Ordering.by[(Instant, LabelChange), Instant](_._1)
-  private val tableStore: Table[AccountId, Instant, LabelChange] = Tables.synchronizedTable(HashBasedTable.create())
+  def latest(now: Instant): Option[State] = synchronized {
+    evictExpired(now)
+    if (size == 0) {
+      None
+    } else {
+      Some(get(size - 1).labelChange.state)
+    }
+  }
+
+  private def get(offset: Int): TimestampedLabelChange = buffer((head + offset) % buffer.length)
+
+  private def slice(fromOffset: Int): Seq[LabelChange] =
+    (fromOffset until size).map(get(_).labelChange)
+
+  private def grow(): Unit = {
+    val grown: Array[TimestampedLabelChange] = new Array[TimestampedLabelChange](Math.min(buffer.length * 2, configuration.maxChangesPerAccount))
+    (0 until size).foreach(offset => grown(offset) = get(offset))
+    buffer = grown
+    head = 0
+  }
+
+  private def evictExpired(now: Instant): Unit =
+    if (!configuration.labelChangeTtl.isZero) {
+      val expirationThreshold: Instant = now.minus(configuration.labelChangeTtl)
+      while (size > 0 && !get(0).timestamp.isAfter(expirationThreshold)) {
+        evictOldest()
+      }
+    }
+
+  private def evictOldest(): Unit = {
+    positionByState.remove(get(0).labelChange.state)
+    buffer(head) = null
+    head = (head + 1) % buffer.length
+    size -= 1
+  }
+}
+
+case class MemoryLabelChangeRepository @Inject()(clock: Clock,
+                                                 configuration: MemoryLabelChangesConfiguration = MemoryLabelChangesConfiguration.DEFAULT) extends LabelChangeRepository {
+  private val changeLogs: ConcurrentHashMap[AccountId, AccountLabelChangeLog] = new ConcurrentHashMap[AccountId, AccountLabelChangeLog]()
 
   override def save(labelChange: LabelChange): Publisher[Void] =
-    SMono.fromCallable(() => tableStore.put(labelChange.accountId, clock.instant(), labelChange))
+    SMono.fromCallable(() => changeLogs.computeIfAbsent(labelChange.accountId, _ => new AccountLabelChangeLog(configuration))
+        .append(labelChange, clock.instant()))
       .`then`()
 
   override def getSinceState(accountId: AccountId, state: State, maxIdsToReturn: Option[Limit]): SMono[LabelChanges] = {
     val limit: Int = maxIdsToReturn.getOrElse(DEFAULT_MAX_IDS_TO_RETURN).getValue
     getSinceState(accountId, state)
-      .sort(orderingNewerFirst)
-      .map(_._2)
       .switchIfEmpty(SMono.just(LabelChange(accountId = accountId, state = state)))
       .map(LabelChanges.from)
       .reduce(LabelChanges.initial())((change1, change2) => LabelChanges.merge(limit, change1, change2))
   }
 
   override def getLatestState(accountId: AccountId): SMono[State] =
-    findByAccountId(accountId)
-      .max(orderingNewerFirst)
+    SMono.fromCallable(() => changeLog(accountId).flatMap(_.latest(clock.instant())))
       .flatMap(SMono.justOrEmpty)
-      .map(_._2.state)
       .switchIfEmpty(SMono.just(State.INITIAL))
 
-  private def findByAccountId(accountId: AccountId): SFlux[(Instant, LabelChange)] =
-    SFlux.fromIterable(tableStore.row(accountId).asScala)
+  private def changeLog(accountId: AccountId): Option[AccountLabelChangeLog] = Option(changeLogs.get(accountId))
 
-  private def getSinceState(accountId: AccountId, state: State): SFlux[(Instant, LabelChange)] =
+  private def getSinceState(accountId: AccountId, state: State): SFlux[LabelChange] =
     state match {
-      case State.INITIAL => findByAccountId(accountId)
-      case _ => SFlux.fromIterable(tableStore.row(accountId).asScala)
-        .filter(_._2.state.getValue == state.getValue)
-        .next()
-        .switchIfEmpty(SMono.error[(Instant, LabelChange)](new ChangeNotFoundException(state, String.format("State '%s' could not be found", state.getValue))))
-        .flatMapMany(mileStone => findByAccountId(accountId)
-          .filter(_._1.isAfter(mileStone._1)))
+      case State.INITIAL => SFlux.defer(SFlux.fromIterable(changeLog(accountId)
+        .map(_.all(clock.instant()))
+        .getOrElse(Seq())))
+      case _ => SMono.fromCallable(() => changeLog(accountId).flatMap(_.after(state, clock.instant())))
+        .flatMap(SMono.justOrEmpty)
+        .switchIfEmpty(SMono.error(new ChangeNotFoundException(state, String.format("State '%s' could not be found", state.getValue))))
+        .flatMapMany(SFlux.fromIterable)
     }
-}
\ No newline at end of file
+}
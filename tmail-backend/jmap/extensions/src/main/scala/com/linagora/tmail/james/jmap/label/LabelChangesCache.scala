@@ -0,0 +1,125 @@
+package com.linagora.tmail.james.jmap.label
+
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import com.linagora.tmail.james.jmap.label.LabelChangeRepository.DEFAULT_MAX_IDS_TO_RETURN
+import javax.inject.{Inject, Singleton}
+import org.apache.james.jmap.api.change.{Limit, State}
+import org.apache.james.jmap.api.model.AccountId
+import reactor.core.scala.publisher.SMono
+
+object LabelChangesCache {
+  val MAX_CHANGES_PER_ACCOUNT: Int = 128
+  val MAX_ACCOUNTS: Long = 10000
+  val EXPIRE_AFTER_ACCESS: Duration = Duration.ofHours(1)
+}
+
+/**
+ * The latest label changes of an account, following `base`.
+ */
+case class LabelChangeWindow(base: State, changes: Vector[LabelChange] = Vector()) {
+  def latestState: State = changes.lastOption.map(_.state).getOrElse(base)
+
+  def append(change: LabelChange, maxChanges: Int): LabelChangeWindow =
+    if (changes.size >= maxChanges) {
+      LabelChangeWindow(changes.head.state, changes.tail :+ change)
+    } else {
+      copy(changes = changes :+ change)
+    }
+
+  def changesSince(state: State): Option[Seq[LabelChange]] =
+    if (state.equals(base)) {
+      Some(changes)
+    } else {
+      Some(changes.indexWhere(_.state.equals(state)))
+        .filter(_ >= 0)
+        .map(index => changes.drop(index + 1))
+    }
+}
+
+/**
+ * Keeps a window of the latest label changes of each account, fed by [[LabelChangesPopulate]], so that the
+ * `Label/changes` calls following a StateChangeEvent are resolved without reading the change log.
+ *
+ * A window is only used when its latest state is the latest state of the repository: changes written by other
+ * nodes make us fall back to the repository. Requested states predating the window fall back to the repository too.
+ *
+ * The predecessor of a change is read before saving it, and is thus not trusted: once the change is saved, the
+ * repository is asked for the changes following the predecessor, and the change is only appended when it is the only
+ * one. Changes written meanwhile, on this node or on another one, drop the window of the account instead of feeding it.
+ */
+@Singleton
+class LabelChangesCache @Inject()(labelChangeRepository: LabelChangeRepository) {
+  import LabelChangesCache._
+
+  private case class Writes(inFlight: Int, overlapping: Boolean)
+
+  private val windows: Cache[AccountId, LabelChangeWindow] = Caffeine.newBuilder()
+    .maximumSize(MAX_ACCOUNTS)
+    .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+    .build[AccountId, LabelChangeWindow]()
+  private val writes: ConcurrentHashMap[AccountId, Writes] = new ConcurrentHashMap()
+
+  /**
+   * Saves `change` in the repository then appends it to the window of its account.
+   */
+  def save(change: LabelChange): SMono[Unit] =
+    SMono.fromCallable(() => beginWrite(change.accountId))
+      .`then`(SMono(labelChangeRepository.getLatestState(change.accountId)))
+      .flatMap(predecessor => SMono(labelChangeRepository.save(change))
+        .`then`(isOnlyChangeSince(predecessor, change))
+        .map(onlyChange => append(predecessor, change, onlyChange)))
+      .doFinally(_ => endWrite(change.accountId))
+
+  private def beginWrite(accountId: AccountId): Unit =
+    writes.compute(accountId, (_: AccountId, accountWrites: Writes) => Option(accountWrites)
+      .map(current => Writes(current.inFlight + 1, overlapping = true))
+      .getOrElse(Writes(inFlight = 1, overlapping = false)))
+
+  private def endWrite(accountId: AccountId): Unit =
+    writes.computeIfPresent(accountId, (_: AccountId, accountWrites: Writes) => Some(accountWrites.inFlight - 1)
+      .filter(_ > 0)
+      .map(inFlight => accountWrites.copy(inFlight = inFlight))
+      .orNull)
+
+  private def isOnlyChangeSince(predecessor: State, change: LabelChange): SMono[Boolean] =
+    SMono(labelChangeRepository.getSinceState(change.accountId, predecessor))
+      .map(_.equals(LabelChanges.from(change)))
+      .onErrorResume(_ => SMono.just(false))
+
+  private def append(predecessor: State, change: LabelChange, onlyChange: Boolean): Unit =
+    writes.computeIfPresent(change.accountId, (accountId: AccountId, accountWrites: Writes) => {
+      if (accountWrites.overlapping || !onlyChange) {
+        windows.invalidate(accountId)
+      } else {
+        windows.asMap().compute(accountId, (_: AccountId, window: LabelChangeWindow) => Option(window)
+          .filter(_.latestState.equals(predecessor))
+          .getOrElse(LabelChangeWindow(predecessor))
+          .append(change, MAX_CHANGES_PER_ACCOUNT))
+      }
+      accountWrites
+    })
+
+  def getSinceState(accountId: AccountId, state: State, maxIdsToReturn: Option[Limit] = Some(DEFAULT_MAX_IDS_TO_RETURN)): SMono[LabelChanges] = {
+    val limit: Int = maxIdsToReturn.getOrElse(DEFAULT_MAX_IDS_TO_RETURN).getValue
+
+    Option(windows.getIfPresent(accountId))
+      .flatMap(window => window.changesSince(state).map(changes => (window, changes)))
+      .map {
+        case (window, changes) => SMono(labelChangeRepository.getLatestState(accountId))
+          .filter(_.equals(window.latestState))
+          .map(_ => merge(accountId, state, changes, limit))
+          .switchIfEmpty(SMono(labelChangeRepository.getSinceState(accountId, state, maxIdsToReturn)))
+      }
+      .getOrElse(SMono(labelChangeRepository.getSinceState(accountId, state, maxIdsToReturn)))
+  }
+
+  private def merge(accountId: AccountId, state: State, changes: Seq[LabelChange], limit: Int): LabelChanges =
+    Some(changes)
+      .filter(_.nonEmpty)
+      .getOrElse(Seq(LabelChange(accountId = accountId, state = state)))
+      .map(LabelChanges.from)
+      .foldLeft(LabelChanges.initial())((change1, change2) => LabelChanges.merge(limit, change1, change2))
+}
@@ -18,6 +18,7 @@ import reactor.core.scala.publisher.SMono
 
 class LabelChangesPopulate @Inject()(@Named(InjectionKeys.JMAP) eventBus: EventBus,
                                      val labelChangeRepository: LabelChangeRepository,
+                                     val labelChangesCache: LabelChangesCache,
                                      val stateFactory: State.Factory) {
   def populate(username: Username, createdResults: LabelCreationResults, destroyResults: LabelDeletionResults, updatedResults: LabelUpdateResults): SMono[UuidState] = {
     val creationIds: Set[LabelId] = createdResults.retrieveCreated.map(creation => creation._2.id).toSet
@@ -38,7 +39,7 @@ class LabelChangesPopulate @Inject()(@Named(InjectionKeys.JMAP) eventBus: EventB
   }
 
   private def saveChangesAndDispatchEvent(username: Username, change: LabelChange): SMono[Unit] =
-    SMono(labelChangeRepository.save(change))
+    labelChangesCache.save(change)
       .`then`(SMono(eventBus.dispatch(toStateChangeEvent(username, change),
         AccountIdRegistrationKey(change.getAccountId)))).`then`()
 
@@ -1,14 +1,16 @@
 package com.linagora.tmail.james.jmap.label
 
 import java.util
+import java.util.concurrent.ConcurrentHashMap
 
-import com.google.common.collect.{HashBasedTable, ImmutableList, Table, Tables}
+import com.google.common.collect.ImmutableList
 import com.google.inject.multibindings.Multibinder
-import com.google.inject.{AbstractModule, Scopes}
+import com.google.inject.{AbstractModule, Provides, Scopes, Singleton}
 import com.linagora.tmail.james.jmap.model.{Color, DisplayName, Label, LabelCreationRequest, LabelId, LabelNotFoundException}
 import org.apache.james.core.Username
 import org.apache.james.jmap.mail.Keyword
 import org.apache.james.user.api.{DeleteUserDataTaskStep, UsernameChangeTaskStep}
+import org.apache.james.utils.PropertiesProvider
 import org.reactivestreams.Publisher
 import reactor.core.scala.publisher.{SFlux, SMono}
 
@@ -33,17 +35,23 @@ trait LabelRepository {
 }
 
 class MemoryLabelRepository extends LabelRepository {
-  private val labelsTable: Table[Username, Keyword, Label] = Tables.synchronizedTable(HashBasedTable.create())
+  private val labelsByUser: ConcurrentHashMap[Username, ConcurrentHashMap[Keyword, Label]] = new ConcurrentHashMap[Username, ConcurrentHashMap[Keyword, Label]]()
+
+  private def userLabels(username: Username): ConcurrentHashMap[Keyword, Label] =
+    labelsByUser.computeIfAbsent(username, _ => new ConcurrentHashMap[Keyword, Label]())
+
+  private def existingUserLabels(username: Username): Option[ConcurrentHashMap[Keyword, Label]] =
+    Option(labelsByUser.get(username))
 
   override def addLabel(username: Username, labelCreationRequest: LabelCreationRequest): Publisher[Label] =
     SMono.fromCallable(() => {
       val label: Label = labelCreationRequest.toLabel
-      labelsTable.put(username, label.keyword, label)
+      userLabels(username).put(label.keyword, label)
       label
     })
 
   override def addLabel(username: Username, label: Label): Publisher[Void] =
-    SMono.fromCallable(() => labelsTable.put(username, label.keyword, label))
+    SMono.fromCallable(() => userLabels(username).put(label.keyword, label))
       .`then`()
 
   override def addLabels(username: Username, labelCreationRequests: util.Collection[LabelCreationRequest]): Publisher[Label] =
@@ -51,26 +59,28 @@ class MemoryLabelRepository extends LabelRepository {
       .concatMap(creationRequest => addLabel(username, creationRequest))
 
   override def updateLabel(username: Username, labelId: LabelId, newDisplayName: Option[DisplayName] = None, newColor: Option[Color] = None): Publisher[Void] =
-    SMono.justOrEmpty(labelsTable.get(username, labelId.toKeyword))
-      .doOnNext(oldLabel => labelsTable.put(username, labelId.toKeyword, oldLabel.update(newDisplayName, newColor)))
+    SMono.fromCallable(() => existingUserLabels(username)
+        .flatMap(labels => Option(labels.computeIfPresent(labelId.toKeyword, (_: Keyword, oldLabel: Label) => oldLabel.update(newDisplayName, newColor)))))
+      .flatMap(SMono.justOrEmpty)
       .switchIfEmpty(SMono.error(LabelNotFoundException(labelId)))
       .`then`()
 
   override def getLabels(username: Username, ids: util.Collection[LabelId]): Publisher[Label] =
-    SFlux.fromIterable(ImmutableList.copyOf(labelsTable.row(username).entrySet()).asScala)
-      .filter((entry: util.Map.Entry[Keyword, Label]) => ids.contains(LabelId.fromKeyword(entry.getKey)))
-      .map(_.getValue)
+    SFlux.fromIterable(existingUserLabels(username)
+      .map(labels => ids.asScala.toSeq.distinct.flatMap(id => Option(labels.get(id.toKeyword))))
+      .getOrElse(Seq()))
 
   override def listLabels(username: Username): Publisher[Label] =
-    SFlux.fromIterable(ImmutableList.copyOf(labelsTable.row(username).entrySet()).asScala)
-      .map(_.getValue)
+    SFlux.fromIterable(existingUserLabels(username)
+      .map(labels => ImmutableList.copyOf(labels.values()).asScala)
+      .getOrElse(Seq()))
 
   override def deleteLabel(username: Username, labelId: LabelId): Publisher[Void] =
-    SMono.fromCallable(() => labelsTable.remove(username, labelId.toKeyword))
+    SMono.fromCallable(() => existingUserLabels(username).foreach(_.remove(labelId.toKeyword)))
       .`then`()
 
   override def deleteAllLabels(username: Username): Publisher[Void] =
-    SMono.fromCallable(() => labelsTable.row(username).clear())
+    SMono.fromCallable(() => existingUserLabels(username).foreach(_.clear()))
       .`then`()
 }
 
@@ -90,4 +100,9 @@ case class MemoryLabelRepositoryModule() extends AbstractModule {
     bind(classOf[LabelChangeRepository]).to(classOf[MemoryLabelChangeRepository])
     bind(classOf[MemoryLabelChangeRepository]).in(Scopes.SINGLETON)
   }
+
+  @Provides
+  @Singleton
+  def provideMemoryLabelChangesConfiguration(propertiesProvider: PropertiesProvider): MemoryLabelChangesConfiguration =
+    MemoryLabelChangesConfiguration.from(propertiesProvider)
 }
\ No newline at end of file
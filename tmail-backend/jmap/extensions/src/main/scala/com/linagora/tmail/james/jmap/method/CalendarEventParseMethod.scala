@@ -1,7 +1,8 @@
 package com.linagora.tmail.james.jmap.method
 
+import com.google.common.io.CountingInputStream
 import com.google.inject.AbstractModule
-import com.google.inject.multibindings.{Multibinder, ProvidesIntoSet}
+import com.google.inject.multibindings.ProvidesIntoSet
 import com.linagora.tmail.james.jmap.json.CalendarEventSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_CALENDAR
 import com.linagora.tmail.james.jmap.model.{CalendarEventParse, CalendarEventParseRequest, CalendarEventParseResponse, CalendarEventParseResults, CalendarEventParsed, InvalidCalendarFileException}
@@ -13,10 +14,11 @@ import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.{Capability, CapabilityFactory, CapabilityProperties, Invocation, Properties, SessionTranslator, UrlPrefixes}
 import org.apache.james.jmap.json.ResponseSerializer
 import org.apache.james.jmap.mail.{BlobId, BlobUnParsableException, SpecificHeaderRequest}
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
-import org.apache.james.jmap.routes.{BlobNotFoundException, BlobResolvers, SessionSupplier}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
+import org.apache.james.jmap.routes.{Blob, BlobNotFoundException, BlobResolvers, SessionSupplier}
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.metrics.api.MetricFactory
+import org.apache.james.util.ReactorUtils
 import org.reactivestreams.Publisher
 import play.api.libs.json.{JsObject, Json}
 import reactor.core.scala.publisher.{SFlux, SMono}
@@ -46,13 +48,16 @@ class CalendarCapabilitiesModule extends AbstractModule {
 class CalendarEventMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new CalendarCapabilitiesModule())
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[CalendarEventParseMethod])
+    MethodWithMetrics.bind(binder(), classOf[CalendarEventParseMethod])
   }
 }
 
+object CalendarEventParseMethod {
+  val PARSING_CONCURRENCY: Int = 4
+}
+
 class CalendarEventParseMethod @Inject()(val blobResolvers: BlobResolvers,
+                                         val parsedCache: CalendarEventParsedCache,
                                          val metricFactory: MetricFactory,
                                          val sessionTranslator: SessionTranslator,
                                          val sessionSupplier: SessionSupplier) extends MethodRequiringAccountId[CalendarEventParseRequest] {
@@ -111,7 +116,7 @@ class CalendarEventParseMethod @Inject()(val blobResolvers: BlobResolvers,
     val invalid: Seq[CalendarEventParseResults] = validations.map(_.left).flatMap(_.toOption)
 
     val parsed: SFlux[CalendarEventParseResults] = SFlux.fromIterable(parsedIds)
-      .flatMap(blobId => toParseResults(blobId, mailboxSession))
+      .flatMap(blobId => toParseResults(blobId, mailboxSession), CalendarEventParseMethod.PARSING_CONCURRENCY)
 
     SFlux.merge(Seq(parsed, SFlux.fromIterable(invalid)))
       .reduce(CalendarEventParseResults.empty())(CalendarEventParseResults.merge)
@@ -120,12 +125,19 @@ class CalendarEventParseMethod @Inject()(val blobResolvers: BlobResolvers,
 
   private def toParseResults(blobId: BlobId, mailboxSession: MailboxSession): SMono[CalendarEventParseResults] =
     blobResolvers.resolve(blobId, mailboxSession)
-      .flatMap(blob => Using(blob.content)(CalendarEventParsed.from)
-        .fold(_ => SMono.error[List[CalendarEventParsed]](InvalidCalendarFileException(blobId)), result => SMono.just(result)))
-      .map(parsed => CalendarEventParseResults.parse(blobId, parsed))
+      .flatMap(blob => parsedCache.get(blobId)
+        .map(SMono.just(_))
+        .getOrElse(parse(blobId, blob)
+          .doOnNext(parsed => parsedCache.put(blobId, parsed))))
+      .map(parsed => CalendarEventParseResults.parse(blobId, parsed.events))
       .onErrorResume {
         case e: BlobNotFoundException => SMono.just(CalendarEventParseResults.notFound(e.blobId))
         case e: BlobUnParsableException => SMono.just(CalendarEventParseResults.notParse(e.blobId))
         case _ => SMono.just(CalendarEventParseResults.notParse(blobId))
       }
-}
\ No newline at end of file
+
+  private def parse(blobId: BlobId, blob: Blob): SMono[ParsedCalendar] =
+    SMono.defer(() => Using(new CountingInputStream(blob.content))(content => ParsedCalendar(CalendarEventParsed.from(content), content.getCount))
+        .fold(_ => SMono.error[ParsedCalendar](InvalidCalendarFileException(blobId)), result => SMono.just(result)))
+      .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER)
+}
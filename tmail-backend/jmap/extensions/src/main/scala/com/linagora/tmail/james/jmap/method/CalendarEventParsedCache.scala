@@ -0,0 +1,54 @@
+package com.linagora.tmail.james.jmap.method
+
+import java.time.Duration
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine, Weigher}
+import com.google.common.primitives.Ints
+import com.linagora.tmail.james.jmap.model.CalendarEventParsed
+import javax.inject.{Inject, Singleton}
+import org.apache.james.jmap.mail.BlobId
+import org.apache.james.metrics.api.GaugeRegistry
+
+object CalendarEventParsedCache {
+  val MAX_WEIGHT_IN_BYTES: Long = 64L * 1024 * 1024
+  val EXPIRE_AFTER_WRITE: Duration = Duration.ofMinutes(10)
+}
+
+case class ParsedCalendar(events: List[CalendarEventParsed], sourceSize: Long)
+
+/**
+ * Keeps the events parsed out of recently requested calendar blobs, as clients do parse the same invitation again
+ * every time it is displayed.
+ *
+ * Only the parsing is cached: callers resolve the blob for the requesting session beforehand, so that the blob
+ * resolution access checks apply on every call. Entries are keyed by blob id, as blob contents never change, and
+ * weighted by the size of the parsed calendar source. The requested properties are only applied at serialization
+ * time: a single entry serves all of them.
+ */
+@Singleton
+class CalendarEventParsedCache @Inject()(gaugeRegistry: GaugeRegistry) {
+  import CalendarEventParsedCache._
+
+  private val cache: Cache[BlobId, ParsedCalendar] = {
+    val cache: Cache[BlobId, ParsedCalendar] = Caffeine.newBuilder()
+      .maximumWeight(MAX_WEIGHT_IN_BYTES)
+      .weigher[BlobId, ParsedCalendar](new Weigher[BlobId, ParsedCalendar] {
+        override def weigh(key: BlobId, parsed: ParsedCalendar): Int = Ints.saturatedCast(parsed.sourceSize)
+      })
+      .expireAfterWrite(EXPIRE_AFTER_WRITE)
+      .recordStats()
+      .build[BlobId, ParsedCalendar]()
+
+    gaugeRegistry.register("calendar.event.parse.cache.hitRate", () => cache.stats().hitRate())
+      .register("calendar.event.parse.cache.missCount", () => cache.stats().missCount())
+      .register("calendar.event.parse.cache.hitCount", () => cache.stats().hitCount())
+      .register("calendar.event.parse.cache.size", () => cache.estimatedSize())
+    cache
+  }
+
+  def get(blobId: BlobId): Option[ParsedCalendar] =
+    Option(cache.getIfPresent(blobId))
+
+  def put(blobId: BlobId, parsed: ParsedCalendar): Unit =
+    cache.put(blobId, parsed)
+}
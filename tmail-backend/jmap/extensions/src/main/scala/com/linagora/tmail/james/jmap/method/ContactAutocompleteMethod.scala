@@ -1,7 +1,7 @@
 package com.linagora.tmail.james.jmap.method
 
 import com.google.inject.AbstractModule
-import com.google.inject.multibindings.{Multibinder, ProvidesIntoSet}
+import com.google.inject.multibindings.ProvidesIntoSet
 import com.linagora.tmail.james.jmap.contact.EmailAddressContactSearchEngine
 import com.linagora.tmail.james.jmap.json.ContactSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_CONTACT
@@ -12,7 +12,7 @@ import org.apache.james.jmap.api.model.AccountId
 import org.apache.james.jmap.core.CapabilityIdentifier.CapabilityIdentifier
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.{Capability, CapabilityFactory, CapabilityProperties, Invocation, Limit, SessionTranslator, UrlPrefixes}
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.metrics.api.MetricFactory
@@ -43,9 +43,7 @@ case object ContactCapabilityFactory extends CapabilityFactory {
 class ContactAutocompleteMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new ContactCapabilitiesModule())
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[ContactAutocompleteMethod])
+    MethodWithMetrics.bind(binder(), classOf[ContactAutocompleteMethod])
   }
 }
 
@@ -1,7 +1,7 @@
 package com.linagora.tmail.james.jmap.method
 
 import com.google.inject.AbstractModule
-import com.google.inject.multibindings.{Multibinder, ProvidesIntoSet}
+import com.google.inject.multibindings.ProvidesIntoSet
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_ECHO
 import eu.timepit.refined.auto._
 import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JMAP_CORE}
@@ -50,9 +50,7 @@ case object CustomCapabilityFactory extends CapabilityFactory {
 class CustomMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new CustomCapabilitiesModule())
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[CustomMethod])
+    MethodWithMetrics.bind(binder(), classOf[CustomMethod])
   }
 }
 
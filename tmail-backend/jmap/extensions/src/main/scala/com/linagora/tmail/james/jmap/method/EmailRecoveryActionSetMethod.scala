@@ -1,6 +1,5 @@
 package com.linagora.tmail.james.jmap.method
 
-import com.google.inject.multibindings.Multibinder
 import com.google.inject.{AbstractModule, Provides, Singleton}
 import com.linagora.tmail.james.jmap.json.EmailRecoveryActionSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_MESSAGE_VAULT
@@ -14,7 +13,7 @@ import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.SetError.SetErrorDescription
 import org.apache.james.jmap.core.{ClientId, Id, Invocation, ServerId, SetError}
 import org.apache.james.jmap.json.ResponseSerializer
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodWithoutAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodWithoutAccountId}
 import org.apache.james.jmap.routes.{ProcessingContext, SessionSupplier}
 import org.apache.james.lifecycle.api.Startable
 import org.apache.james.mailbox.MailboxSession
@@ -35,12 +34,8 @@ import scala.util.Try
 class EmailRecoveryActionMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new MessageVaultCapabilitiesModule)
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[EmailRecoveryActionSetMethod])
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[EmailRecoveryActionGetMethod])
+    MethodWithMetrics.bind(binder(), classOf[EmailRecoveryActionSetMethod])
+    MethodWithMetrics.bind(binder(), classOf[EmailRecoveryActionGetMethod])
   }
 
   @Singleton
@@ -3,7 +3,7 @@ package com.linagora.tmail.james.jmap.method
 import java.time.ZonedDateTime
 import java.util.Date
 
-import com.google.inject.multibindings.{Multibinder, ProvidesIntoSet}
+import com.google.inject.multibindings.ProvidesIntoSet
 import com.google.inject.{AbstractModule, Scopes}
 import com.linagora.tmail.james.jmap.json.EmailSendSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_PGP
@@ -23,7 +23,7 @@ import org.apache.james.jmap.core.{Invocation, SessionTranslator, UTCDate, UuidS
 import org.apache.james.jmap.json.EmailSetSerializer
 import org.apache.james.jmap.mail.{BlobId, EmailCreationRequest, EmailCreationResponse, EmailSubmissionId, Envelope, ThreadId}
 import org.apache.james.jmap.method.EmailSubmissionSetMethod.{LOGGER, MAIL_METADATA_USERNAME_ATTRIBUTE}
-import org.apache.james.jmap.method.{EmailSetMethod, ForbiddenFromException, ForbiddenMailFromException, InvocationWithContext, Method, MethodRequiringAccountId, NoRecipientException, SizeExceededException}
+import org.apache.james.jmap.method.{EmailSetMethod, ForbiddenFromException, ForbiddenMailFromException, InvocationWithContext, MethodRequiringAccountId, NoRecipientException, SizeExceededException}
 import org.apache.james.jmap.routes.{BlobResolvers, ProcessingContext, SessionSupplier}
 import org.apache.james.lifecycle.api.{LifecycleUtil, Startable}
 import org.apache.james.mailbox.MessageManager.AppendCommand
@@ -54,9 +54,7 @@ class EmailSendMethodModule extends AbstractModule {
   override def configure(): Unit = {
     bind(classOf[EmailSendMethod]).in(Scopes.SINGLETON)
 
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[EmailSendMethod])
+    MethodWithMetrics.bind(binder(), classOf[EmailSendMethod])
   }
 
   @ProvidesIntoSet
@@ -125,33 +123,29 @@ class EmailSendMethod @Inject()(emailSetSerializer: EmailSetSerializer,
         SFlux.concat(SMono.just(explicitInvocation), emailSetCall)
       })
 
+  /**
+   * Creation entries are independent from each other: they are processed concurrently, and their results are merged
+   * following the request order so that the `onSuccess*` creation id references resolve as with a sequential processing.
+   */
   private def create(request: EmailSendRequest,
                      mailboxSession: MailboxSession,
                      processingContext: ProcessingContext): SMono[(EmailSendResults, ProcessingContext)] =
     SFlux.fromIterable(request.create.view)
-      .fold[SMono[(EmailSendResults, ProcessingContext)]](SMono.just(EmailSendResults.empty -> processingContext)) {
-        (acc: SMono[(EmailSendResults, ProcessingContext)], elem: (EmailSendCreationId, JsObject)) => {
-          val (emailSendCreationId, jsObject) = elem
-          acc.flatMap {
-            case (creationResult, processingContext) =>
-              createEach(emailSendCreationId, jsObject, mailboxSession, processingContext)
-                .map(e => EmailSendResults.merge(creationResult, e._1) -> e._2)
-          }
-        }
-      }
-      .flatMap(any => any)
+      .flatMapSequential[EmailSendResults]({
+        case (emailSendCreationId, jsObject) => createEach(emailSendCreationId, jsObject, mailboxSession)
+      }, ReactorUtils.DEFAULT_CONCURRENCY)
+      .fold(EmailSendResults.empty())(EmailSendResults.merge)
+      .map(_ -> processingContext)
       .subscribeOn(ReactorUtils.BLOCKING_CALL_WRAPPER)
 
   private def createEach(clientId: EmailSendCreationId,
                          jsObject: JsObject,
-                         mailboxSession: MailboxSession,
-                         processingContext: ProcessingContext): SMono[(EmailSendResults, ProcessingContext)] = {
+                         mailboxSession: MailboxSession): SMono[EmailSendResults] =
     parseCreationRequest(jsObject)
       .fold(error => SMono.error(error),
         createEmailAndEmailSubmission(clientId, mailboxSession, _))
-      .map(response => EmailSendResults.created(clientId, response) -> processingContext)
-      .onErrorResume(error => SMono.just(EmailSendResults.notCreated(clientId, error) -> processingContext))
-  }
+      .map(response => EmailSendResults.created(clientId, response))
+      .onErrorResume(error => SMono.just(EmailSendResults.notCreated(clientId, error)))
 
   private def createEmailAndEmailSubmission(clientId: EmailSendCreationId,
                                             mailboxSession: MailboxSession,
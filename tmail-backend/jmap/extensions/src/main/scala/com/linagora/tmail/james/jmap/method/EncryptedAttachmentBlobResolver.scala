@@ -1,12 +1,11 @@
 package com.linagora.tmail.james.jmap.method
 
-import java.io.{ByteArrayInputStream, InputStream}
+import java.io.InputStream
 
 import com.linagora.tmail.encrypted.{EncryptedAttachmentBlobId, EncryptedEmailContentStore}
 import javax.inject.Inject
 import org.apache.james.blob.api.BlobStore
 import org.apache.james.blob.api.BlobStore.StoragePolicy
-import org.apache.james.jmap.api.model.Size
 import org.apache.james.jmap.api.model.Size.Size
 import org.apache.james.jmap.mail.BlobId
 import org.apache.james.jmap.routes.{Applicable, Blob, BlobResolutionResult, BlobResolver, NonApplicable}
@@ -14,14 +13,20 @@ import org.apache.james.mailbox.MailboxSession
 import org.apache.james.mailbox.model.{ContentType, MessageId}
 import reactor.core.scala.publisher.SMono
 
-import scala.util.{Success, Try}
+import scala.util.{Failure, Try}
 
-case class EncryptedAttachmentBlob(blobId: BlobId, bytes: Array[Byte]) extends Blob {
+/**
+ * Streams the encrypted attachment from the blob store: its content is never held in memory.
+ *
+ * The ciphertext size is not stored: it is reported as unknown rather than computed by reading the blob, so that
+ * downloads are served without a Content-Length header, using chunked transfer.
+ */
+case class EncryptedAttachmentBlob(blobId: BlobId, blobStore: BlobStore, blobStoreId: org.apache.james.blob.api.BlobId) extends Blob {
   override def contentType: ContentType = ContentType.of("application/pgp")
 
-  override def size: Try[Size] = Success(Size.sanitizeSize(bytes.length))
+  override val size: Try[Size] = Failure(new IllegalStateException(s"The size of encrypted attachment ${blobId.value.value} is not stored"))
 
-  override def content: InputStream = new ByteArrayInputStream(bytes)
+  override def content: InputStream = blobStore.read(blobStore.getDefaultBucketName, blobStoreId, StoragePolicy.LOW_COST)
 }
 
 class EncryptedAttachmentBlobResolver @Inject()(encryptedEmailContentStore: EncryptedEmailContentStore,
@@ -32,7 +37,5 @@ class EncryptedAttachmentBlobResolver @Inject()(encryptedEmailContentStore: Encr
       .fold(_ => NonApplicable,
         encryptedId => Applicable(
           SMono(encryptedEmailContentStore.retrieveAttachmentContent(encryptedId.messageId, encryptedId.position))
-            .flatMap((blobStoreId: org.apache.james.blob.api.BlobId) =>
-              SMono(blobStore.readBytes(blobStore.getDefaultBucketName, blobStoreId, StoragePolicy.LOW_COST)))
-            .map(bytes => EncryptedAttachmentBlob(blobId, bytes))))
+            .map((blobStoreId: org.apache.james.blob.api.BlobId) => EncryptedAttachmentBlob(blobId, blobStore, blobStoreId))))
 }
@@ -1,7 +1,6 @@
 package com.linagora.tmail.james.jmap.method
 
 import com.google.inject.AbstractModule
-import com.google.inject.multibindings.Multibinder
 import com.linagora.tmail.encrypted.{EncryptedEmailContentStore, EncryptedEmailDetailedView, MessageNotFoundException}
 import com.linagora.tmail.james.jmap.json.EncryptedEmailSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_PGP
@@ -12,7 +11,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JM
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.{Invocation, SessionTranslator, UuidState}
 import org.apache.james.jmap.mail.UnparsedEmailId
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.model.MessageId
 import org.apache.james.mailbox.{MailboxSession, MessageIdManager}
@@ -26,9 +25,7 @@ import scala.jdk.CollectionConverters._
 
 class EncryptedEmailDetailedViewGetMethodModule extends AbstractModule {
   override def configure(): Unit = {
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[EncryptedEmailDetailedViewGetMethod])
+    MethodWithMetrics.bind(binder(), classOf[EncryptedEmailDetailedViewGetMethod])
   }
 }
 
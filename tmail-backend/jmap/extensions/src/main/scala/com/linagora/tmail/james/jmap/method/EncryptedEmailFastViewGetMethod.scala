@@ -12,7 +12,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JM
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.{Invocation, SessionTranslator, UuidState}
 import org.apache.james.jmap.mail.UnparsedEmailId
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.{BlobResolver, SessionSupplier}
 import org.apache.james.mailbox.model.MessageId
 import org.apache.james.mailbox.{MailboxSession, MessageIdManager}
@@ -26,9 +26,7 @@ import scala.jdk.CollectionConverters._
 
 class EncryptedEmailFastViewGetMethodModule extends AbstractModule {
   override def configure(): Unit = {
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[EncryptedEmailFastViewGetMethod])
+    MethodWithMetrics.bind(binder(), classOf[EncryptedEmailFastViewGetMethod])
     Multibinder.newSetBinder(binder(), classOf[BlobResolver])
       .addBinding()
       .to(classOf[EncryptedAttachmentBlobResolver])
@@ -21,7 +21,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.CapabilityIdentifier
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.SetError.SetErrorDescription
 import org.apache.james.jmap.core.{Invocation, SessionTranslator}
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.mailbox.model.MailboxId
@@ -36,9 +36,7 @@ import scala.jdk.OptionConverters._
 
 class FilterSetMethodModule extends AbstractModule {
   override def configure(): Unit = {
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[FilterSetMethod])
+    MethodWithMetrics.bind(binder(), classOf[FilterSetMethod])
     Multibinder.newSetBinder(binder(), classOf[TypeName])
       .addBinding()
       .toInstance(FilterTypeName)
@@ -1,7 +1,7 @@
 package com.linagora.tmail.james.jmap.method
 
 import com.google.inject.AbstractModule
-import com.google.inject.multibindings.{Multibinder, ProvidesIntoSet}
+import com.google.inject.multibindings.ProvidesIntoSet
 import com.linagora.tmail.james.jmap.json.ForwardSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_FORWARD
 import com.linagora.tmail.james.jmap.model.Forwards.UNPARSED_SINGLETON
@@ -13,7 +13,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JM
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodCallId, MethodName}
 import org.apache.james.jmap.core.UuidState.INSTANCE
 import org.apache.james.jmap.core.{AccountId, Capability, CapabilityFactory, CapabilityProperties, ErrorCode, Invocation, MissingCapabilityException, Properties, SessionTranslator, UrlPrefixes}
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.metrics.api.MetricFactory
@@ -48,9 +48,7 @@ case object ForwardCapabilityFactory extends CapabilityFactory {
 class ForwardGetMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new ForwardCapabilitiesModule())
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[ForwardGetMethod])
+    MethodWithMetrics.bind(binder(), classOf[ForwardGetMethod])
   }
 }
 
@@ -2,7 +2,6 @@ package com.linagora.tmail.james.jmap.method
 
 import com.google.common.collect.ImmutableMap
 import com.google.inject.AbstractModule
-import com.google.inject.multibindings.Multibinder
 import com.linagora.tmail.james.jmap.json.ForwardSerializer
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_FORWARD
 import com.linagora.tmail.james.jmap.model.{ForwardId, ForwardSetError, ForwardSetRequest, ForwardSetResponse, ForwardSetUpdateFailure, ForwardSetUpdateResult, ForwardSetUpdateResults, ForwardSetUpdateSuccess, ForwardUpdateRequest}
@@ -13,7 +12,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JM
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.SetError.{SetErrorDescription, invalidArgumentValue}
 import org.apache.james.jmap.core.{Invocation, SessionTranslator, UuidState}
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.metrics.api.MetricFactory
@@ -30,9 +29,7 @@ import scala.jdk.StreamConverters.StreamHasToScala
 
 class ForwardSetMethodModule extends AbstractModule {
   override def configure(): Unit = {
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[ForwardSetMethod])
+    MethodWithMetrics.bind(binder(), classOf[ForwardSetMethod])
   }
 }
 
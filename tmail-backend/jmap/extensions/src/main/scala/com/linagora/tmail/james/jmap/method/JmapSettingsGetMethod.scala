@@ -14,7 +14,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JM
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.{Capability, CapabilityFactory, CapabilityProperties, Invocation, SessionTranslator, UrlPrefixes}
 import org.apache.james.jmap.json.ResponseSerializer
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.metrics.api.MetricFactory
@@ -45,13 +45,9 @@ class JmapSettingsCapabilitiesModule extends AbstractModule {
 class JmapSettingsMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new JmapSettingsCapabilitiesModule())
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[JmapSettingsGetMethod])
+    MethodWithMetrics.bind(binder(), classOf[JmapSettingsGetMethod])
 
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[SettingsSetMethod])
+    MethodWithMetrics.bind(binder(), classOf[SettingsSetMethod])
 
     Multibinder.newSetBinder(binder(), classOf[TypeName])
       .addBinding()
@@ -2,7 +2,7 @@ package com.linagora.tmail.james.jmap.method
 
 import com.google.inject.Inject
 import com.linagora.tmail.james.jmap.json.{LabelChangesSerializer => Serializer}
-import com.linagora.tmail.james.jmap.label.{LabelChangeRepository, LabelChanges}
+import com.linagora.tmail.james.jmap.label.{LabelChanges, LabelChangesCache}
 import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_LABEL
 import com.linagora.tmail.james.jmap.model.{LabelChangesRequest => Request, LabelChangesResponse => Response}
 import eu.timepit.refined.auto._
@@ -21,7 +21,7 @@ import reactor.core.scala.publisher.SMono
 class LabelChangesMethod @Inject()(val metricFactory: MetricFactory,
                                    val sessionSupplier: SessionSupplier,
                                    val sessionTranslator: SessionTranslator,
-                                   val labelChangeRepository: LabelChangeRepository) extends MethodRequiringAccountId[Request] {
+                                   val labelChangesCache: LabelChangesCache) extends MethodRequiringAccountId[Request] {
 
   override val methodName: Invocation.MethodName = MethodName("Label/changes")
 
@@ -41,8 +41,8 @@ class LabelChangesMethod @Inject()(val metricFactory: MetricFactory,
     Serializer.deserializeRequest(invocation.arguments.value).asEitherRequest
 
   private def retrieveChanges(mailboxSession: MailboxSession, request: Request): SMono[LabelChanges] =
-    SMono(labelChangeRepository.getSinceState(
+    labelChangesCache.getSinceState(
       accountId = JavaAccountId.fromUsername(mailboxSession.getUser),
       state = JavaState.of(request.sinceState.value),
-      maxIdsToReturn = request.maxChanges))
+      maxIdsToReturn = request.maxChanges)
 }
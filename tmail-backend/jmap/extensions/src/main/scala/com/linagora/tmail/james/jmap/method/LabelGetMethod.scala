@@ -14,7 +14,7 @@ import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JM
 import org.apache.james.jmap.core.Invocation.{Arguments, MethodName}
 import org.apache.james.jmap.core.{Capability, CapabilityFactory, CapabilityProperties, Invocation, SessionTranslator, UrlPrefixes, UuidState}
 import org.apache.james.jmap.json.ResponseSerializer
-import org.apache.james.jmap.method.{InvocationWithContext, Method, MethodRequiringAccountId}
+import org.apache.james.jmap.method.{InvocationWithContext, MethodRequiringAccountId}
 import org.apache.james.jmap.routes.SessionSupplier
 import org.apache.james.mailbox.MailboxSession
 import org.apache.james.metrics.api.MetricFactory
@@ -49,17 +49,11 @@ class LabelMethodModule extends AbstractModule {
   override def configure(): Unit = {
     install(new LabelCapabilitiesModule())
 
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[LabelGetMethod])
+    MethodWithMetrics.bind(binder(), classOf[LabelGetMethod])
 
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[LabelSetMethod])
+    MethodWithMetrics.bind(binder(), classOf[LabelSetMethod])
 
-    Multibinder.newSetBinder(binder(), classOf[Method])
-      .addBinding()
-      .to(classOf[LabelChangesMethod])
+    MethodWithMetrics.bind(binder(), classOf[LabelChangesMethod])
 
     Multibinder.newSetBinder(binder(), classOf[TypeName])
       .addBinding()
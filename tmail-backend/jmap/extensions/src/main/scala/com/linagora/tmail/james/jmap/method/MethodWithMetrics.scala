@@ -0,0 +1,71 @@
+package com.linagora.tmail.james.jmap.method
+
+import com.google.inject.multibindings.Multibinder
+import com.google.inject.{Binder, Provider}
+import eu.timepit.refined.auto._
+import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JMAP_CORE}
+import org.apache.james.jmap.core.Invocation.MethodName
+import org.apache.james.jmap.method.{InvocationWithContext, Method}
+import org.apache.james.mailbox.MailboxSession
+import org.apache.james.metrics.api.{Metric, MetricFactory}
+import org.reactivestreams.Publisher
+import reactor.core.scala.publisher.SFlux
+
+object MethodWithMetrics {
+  val METHOD_PREFIX: String = "TMAIL-JMAP-METHOD-"
+  val METHOD_ERROR_PREFIX: String = "TMAIL-JMAP-METHOD-ERROR-"
+  val CAPABILITY_PREFIX: String = "TMAIL-JMAP-CAPABILITY-"
+  val CAPABILITY_ERROR_PREFIX: String = "TMAIL-JMAP-CAPABILITY-ERROR-"
+
+  private val ERROR_METHOD_NAME: MethodName = MethodName("error")
+
+  def methodTimerName(methodName: MethodName): String = METHOD_PREFIX + methodName.value
+
+  def methodErrorName(methodName: MethodName): String = METHOD_ERROR_PREFIX + methodName.value
+
+  def capabilityTimerName(capability: CapabilityIdentifier): String = CAPABILITY_PREFIX + capability.value
+
+  def capabilityErrorName(capability: CapabilityIdentifier): String = CAPABILITY_ERROR_PREFIX + capability.value
+
+  /**
+   * Binds a TMail JMAP method decorated with its metrics.
+   */
+  def bind[T <: Method](binder: Binder, methodClass: Class[T]): Unit = {
+    val methodProvider: Provider[T] = binder.getProvider(methodClass)
+    val metricFactoryProvider: Provider[MetricFactory] = binder.getProvider(classOf[MetricFactory])
+
+    Multibinder.newSetBinder(binder, classOf[Method])
+      .addBinding()
+      .toProvider(new Provider[Method] {
+        override def get(): Method = new MethodWithMetrics(methodProvider.get(), metricFactoryProvider.get())
+      })
+  }
+}
+
+/**
+ * Times the underlying method and counts its errors, both per method name and per required capability other than
+ * core. Errors are failed publishers as well as `error` responses, which is how JMAP methods usually report them.
+ */
+class MethodWithMetrics(val underlying: Method, metricFactory: MetricFactory) extends Method {
+  import MethodWithMetrics._
+
+  override val methodName: MethodName = underlying.methodName
+  override val requiredCapabilities: Set[CapabilityIdentifier] = underlying.requiredCapabilities
+
+  private val reportedCapabilities: Set[CapabilityIdentifier] = requiredCapabilities - JMAP_CORE
+  private val errorMetrics: Seq[Metric] = (methodErrorName(methodName) +: reportedCapabilities.toSeq.map(capabilityErrorName))
+    .map(metricFactory.generate)
+
+  override def process(capabilities: Set[CapabilityIdentifier], invocation: InvocationWithContext, mailboxSession: MailboxSession): Publisher[InvocationWithContext] = {
+    val processing: Publisher[InvocationWithContext] = SFlux(underlying.process(capabilities, invocation, mailboxSession))
+      .doOnNext(result => if (result.invocation.methodName.equals(ERROR_METHOD_NAME)) {
+        recordError()
+      })
+      .doOnError(_ => recordError())
+
+    reportedCapabilities.foldLeft(metricFactory.decoratePublisherWithTimerMetric(methodTimerName(methodName), processing))(
+      (publisher, capability) => metricFactory.decoratePublisherWithTimerMetric(capabilityTimerName(capability), publisher))
+  }
+
+  private def recordError(): Unit = errorMetrics.foreach(_.increment())
+}
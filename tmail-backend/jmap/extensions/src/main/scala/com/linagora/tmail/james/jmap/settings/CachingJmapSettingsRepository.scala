@@ -0,0 +1,157 @@
+package com.linagora.tmail.james.jmap.settings
+
+import java.io.FileNotFoundException
+import java.time.temporal.ChronoUnit
+import java.time.{Clock, Duration, Instant}
+import java.util.concurrent.atomic.{AtomicLong, AtomicLongArray}
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import com.google.common.base.Preconditions
+import com.linagora.tmail.james.jmap.settings.JmapSettingsStateFactory.INITIAL
+import org.apache.commons.configuration2.Configuration
+import org.apache.james.core.Username
+import org.apache.james.jmap.core.UuidState
+import org.apache.james.metrics.api.GaugeRegistry
+import org.apache.james.util.DurationParser
+import org.apache.james.utils.PropertiesProvider
+import org.reactivestreams.Publisher
+import reactor.core.scala.publisher.SMono
+
+object JmapSettingsCacheConfiguration {
+  val DEFAULT_STALENESS: Duration = Duration.ofSeconds(10)
+  val DEFAULT_MAX_SIZE: Long = 10000
+  val DISABLED: JmapSettingsCacheConfiguration = JmapSettingsCacheConfiguration(enabled = false)
+
+  def from(propertiesProvider: PropertiesProvider): JmapSettingsCacheConfiguration =
+    try {
+      from(propertiesProvider.getConfiguration("jmap"))
+    } catch {
+      case _: FileNotFoundException => DISABLED
+    }
+
+  def from(configuration: Configuration): JmapSettingsCacheConfiguration =
+    JmapSettingsCacheConfiguration(
+      enabled = configuration.getBoolean("settings.cache.enabled", false),
+      staleness = Option(configuration.getString("settings.cache.staleness", null))
+        .map(DurationParser.parse(_, ChronoUnit.SECONDS))
+        .getOrElse(DEFAULT_STALENESS),
+      maxSize = configuration.getLong("settings.cache.maxSize", DEFAULT_MAX_SIZE))
+}
+
+case class JmapSettingsCacheConfiguration(enabled: Boolean,
+                                          staleness: Duration = JmapSettingsCacheConfiguration.DEFAULT_STALENESS,
+                                          maxSize: Long = JmapSettingsCacheConfiguration.DEFAULT_MAX_SIZE) {
+  Preconditions.checkArgument(!staleness.isNegative, "'settings.cache.staleness' must not be negative".asInstanceOf[Object])
+  Preconditions.checkArgument(maxSize > 0, "'settings.cache.maxSize' must be strictly positive".asInstanceOf[Object])
+}
+
+object CachingJmapSettingsRepository {
+  private val GENERATION_STRIPES: Int = 1024
+
+  def wrap(underlying: JmapSettingsRepository, configuration: JmapSettingsCacheConfiguration,
+           gaugeRegistry: GaugeRegistry): JmapSettingsRepository =
+    if (configuration.enabled) {
+      new CachingJmapSettingsRepository(underlying, configuration, gaugeRegistry, Clock.systemUTC())
+    } else {
+      underlying
+    }
+
+  private case class CachedSettings(settings: Option[JmapSettings], validatedAt: Instant) {
+    def state: UuidState = settings.map(_.state).getOrElse(INITIAL)
+  }
+}
+
+/**
+ * Near cache for settings reads.
+ *
+ * Local writes invalidate the cached settings of the user. Cached settings older than the configured staleness are
+ * validated against the latest state of the underlying repository before being served: writes done on other nodes
+ * are thus visible after at most that delay, while only the state is read in the common, unchanged, case.
+ *
+ * Local writes also bump a generation, striped by user: loads that started before a write do not cache what they read,
+ * as it may predate that write.
+ */
+class CachingJmapSettingsRepository(underlying: JmapSettingsRepository,
+                                    configuration: JmapSettingsCacheConfiguration,
+                                    gaugeRegistry: GaugeRegistry,
+                                    clock: Clock) extends JmapSettingsRepository {
+  import CachingJmapSettingsRepository._
+
+  private val revalidationCount: AtomicLong = new AtomicLong()
+  private val staleCount: AtomicLong = new AtomicLong()
+  private val generations: AtomicLongArray = new AtomicLongArray(GENERATION_STRIPES)
+
+  private val cache: Cache[Username, CachedSettings] = {
+    val cache: Cache[Username, CachedSettings] = Caffeine.newBuilder()
+      .maximumSize(configuration.maxSize)
+      .recordStats()
+      .build[Username, CachedSettings]()
+
+    gaugeRegistry.register("jmap.settings.cache.hitRate", () => cache.stats().hitRate())
+      .register("jmap.settings.cache.missCount", () => cache.stats().missCount())
+      .register("jmap.settings.cache.hitCount", () => cache.stats().hitCount())
+      .register("jmap.settings.cache.size", () => cache.estimatedSize())
+      .register("jmap.settings.cache.revalidationCount", () => revalidationCount.get())
+      .register("jmap.settings.cache.staleCount", () => staleCount.get())
+    cache
+  }
+
+  override def get(username: Username): Publisher[JmapSettings] =
+    SMono.defer(() => Option(cache.getIfPresent(username)) match {
+      case Some(cached) if !isStale(cached) => SMono.justOrEmpty(cached.settings)
+      case Some(cached) => revalidate(username, cached)
+      case None => load(username)
+    })
+
+  private def isStale(cached: CachedSettings): Boolean =
+    !cached.validatedAt.plus(configuration.staleness).isAfter(clock.instant())
+
+  private def revalidate(username: Username, cached: CachedSettings): SMono[JmapSettings] = {
+    revalidationCount.incrementAndGet()
+    SMono(underlying.getLatestState(username))
+      .flatMap(latestState => if (latestState.equals(cached.state)) {
+        cache.asMap().replace(username, cached, cached.copy(validatedAt = clock.instant()))
+        SMono.justOrEmpty(cached.settings)
+      } else {
+        staleCount.incrementAndGet()
+        load(username)
+      })
+  }
+
+  private def load(username: Username): SMono[JmapSettings] = {
+    val loadedAt: Instant = clock.instant()
+    val generation: Long = generations.get(stripe(username))
+    SMono(underlying.get(username))
+      .map(Option(_))
+      .defaultIfEmpty(None)
+      .doOnNext(settings => cache.asMap().compute(username, (_: Username, current: CachedSettings) =>
+        if (generations.get(stripe(username)) == generation) {
+          CachedSettings(settings, loadedAt)
+        } else {
+          current
+        }))
+      .flatMap(SMono.justOrEmpty(_))
+  }
+
+  private def stripe(username: Username): Int = Math.floorMod(username.hashCode(), GENERATION_STRIPES)
+
+  // The generation is bumped before invalidating, so that a load either observes it or gets its entry invalidated
+  private def invalidate(username: Username): Unit = {
+    generations.incrementAndGet(stripe(username))
+    cache.invalidate(username)
+  }
+
+  override def getLatestState(username: Username): Publisher[UuidState] = underlying.getLatestState(username)
+
+  override def reset(username: Username, settings: JmapSettingsUpsertRequest): Publisher[SettingsStateUpdate] =
+    SMono(underlying.reset(username, settings))
+      .doOnTerminate(() => invalidate(username))
+
+  override def updatePartial(username: Username, settingsPatch: JmapSettingsPatch): Publisher[SettingsStateUpdate] =
+    SMono(underlying.updatePartial(username, settingsPatch))
+      .doOnTerminate(() => invalidate(username))
+
+  override def delete(username: Username): Publisher[Void] =
+    SMono(underlying.delete(username))
+      .doOnTerminate(() => invalidate(username))
+}
@@ -1,19 +1,20 @@
 package com.linagora.tmail.james.jmap.settings
 
+import java.util.concurrent.ConcurrentHashMap
+
 import com.google.common.base.Preconditions
-import com.google.common.collect.{HashBasedTable, Table, Tables}
 import com.google.inject.multibindings.Multibinder
-import com.google.inject.{AbstractModule, Scopes}
+import com.google.inject.{AbstractModule, Provides, Scopes, Singleton}
 import com.linagora.tmail.james.jmap.settings.JmapSettingsStateFactory.INITIAL
 import javax.inject.Inject
 import org.apache.james.core.Username
 import org.apache.james.jmap.core.UuidState
+import org.apache.james.metrics.api.GaugeRegistry
 import org.apache.james.user.api.{DeleteUserDataTaskStep, UsernameChangeTaskStep}
+import org.apache.james.utils.PropertiesProvider
 import org.reactivestreams.Publisher
 import reactor.core.scala.publisher.SMono
 
-import scala.collection.mutable
-
 trait JmapSettingsRepository {
   def get(username: Username): Publisher[JmapSettings]
 
@@ -26,68 +27,50 @@ trait JmapSettingsRepository {
   def delete(username: Username): Publisher[Void]
 }
 
+/**
+ * Each user settings and state are held by a single immutable [[JmapSettings]] value that is atomically replaced on
+ * updates: concurrent updates of a given user are serialized and readers always see consistent settings and state.
+ */
 case class MemoryJmapSettingsRepository @Inject()() extends JmapSettingsRepository {
-
-  import scala.jdk.CollectionConverters._
-
-  private val settingsStore: Table[Username, JmapSettingsKey, JmapSettingsValue] =
-    Tables.synchronizedTable(HashBasedTable.create())
-
-  private val stateStore: mutable.Map[Username, UuidState] = mutable.Map()
+  private val store: ConcurrentHashMap[Username, JmapSettings] = new ConcurrentHashMap()
 
   override def get(username: Username): SMono[JmapSettings] =
-    SMono.justOrEmpty(stateStore.get(username))
-      .map(state => {
-        val settings: Map[JmapSettingsKey, JmapSettingsValue] = settingsStore.row(username).asScala.toMap
-        JmapSettings(settings, state)
-      })
+    SMono.fromCallable(() => store.get(username))
 
   override def getLatestState(username: Username): Publisher[UuidState] =
-    SMono.justOrEmpty(stateStore.get(username))
+    SMono.fromCallable(() => store.get(username))
+      .map(_.state)
       .defaultIfEmpty(INITIAL)
 
   override def reset(username: Username, settings: JmapSettingsUpsertRequest): SMono[SettingsStateUpdate] =
-    SMono.fromCallable(() => this.settingsStore.row(username).clear())
-      .`then`(SMono.fromCallable(() => {
-        settings.settings.foreach {
-          case (key: JmapSettingsKey, value: JmapSettingsValue) => Option(this.settingsStore.put(username, key, value))
-        }
-        updateState(username)
-      }).`then`(updateState(username)))
+    SMono.fromCallable(() => update(username, _ => settings.settings))
 
   override def updatePartial(username: Username, settingsPatch: JmapSettingsPatch): SMono[SettingsStateUpdate] = {
     Preconditions.checkArgument(!settingsPatch.isEmpty, "Cannot update when upsert and remove is empty".asInstanceOf[Object])
     Preconditions.checkArgument(!settingsPatch.isConflict, "Cannot update and remove the same setting key".asInstanceOf[Object])
 
-    SMono.fromCallable(() => {
-      settingsPatch.toUpsert.settings.foreach {
-        case (key, value) => Option(this.settingsStore.put(username, key, value))
-      }
-      settingsPatch.toRemove.foreach(key => Option(this.settingsStore.remove(username, key)))
-    }).`then`(updateState(username))
+    SMono.fromCallable(() => update(username, settings => settings ++ settingsPatch.toUpsert.settings -- settingsPatch.toRemove))
   }
 
-  private def updateState(username: Username): SMono[SettingsStateUpdate] =
-    SMono.fromCallable(() => {
-      val newState: UuidState = JmapSettingsStateFactory.generateState()
-      val oldState: UuidState = stateStore.getOrElse(username, INITIAL)
-      this.stateStore.put(username, newState)
-      SettingsStateUpdate(oldState, newState)
+  private def update(username: Username, updateSettings: Map[JmapSettingsKey, JmapSettingsValue] => Map[JmapSettingsKey, JmapSettingsValue]): SettingsStateUpdate = {
+    val newState: UuidState = JmapSettingsStateFactory.generateState()
+    var oldState: UuidState = INITIAL
+    store.compute(username, (_: Username, current: JmapSettings) => {
+      val currentSettings: JmapSettings = Option(current).getOrElse(JmapSettings(Map(), INITIAL))
+      oldState = currentSettings.state
+      JmapSettings(updateSettings(currentSettings.settings), newState)
     })
+    SettingsStateUpdate(oldState, newState)
+  }
 
   override def delete(username: Username): Publisher[Void] =
-    SMono.fromCallable(() => {
-      settingsStore.row(username).clear()
-      stateStore.remove(username)
-    })
+    SMono.fromCallable(() => store.remove(username))
       .`then`()
 }
 
 case class MemoryJmapSettingsRepositoryModule() extends AbstractModule {
   override def configure(): Unit = {
     bind(classOf[MemoryJmapSettingsRepository]).in(Scopes.SINGLETON)
-    bind(classOf[JmapSettingsRepository]).to(classOf[MemoryJmapSettingsRepository])
-      .in(Scopes.SINGLETON)
 
     Multibinder.newSetBinder(binder(), classOf[UsernameChangeTaskStep])
       .addBinding()
@@ -97,4 +80,11 @@ case class MemoryJmapSettingsRepositoryModule() extends AbstractModule {
       .addBinding()
       .to(classOf[JmapSettingsUserDeletionTaskStep])
   }
-}
\ No newline at end of file
+
+  @Provides
+  @Singleton
+  def provideJmapSettingsRepository(repository: MemoryJmapSettingsRepository,
+                                    propertiesProvider: PropertiesProvider,
+                                    gaugeRegistry: GaugeRegistry): JmapSettingsRepository =
+    CachingJmapSettingsRepository.wrap(repository, JmapSettingsCacheConfiguration.from(propertiesProvider), gaugeRegistry)
+}
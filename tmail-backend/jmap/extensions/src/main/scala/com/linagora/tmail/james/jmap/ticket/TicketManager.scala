@@ -1,15 +1,16 @@
 package com.linagora.tmail.james.jmap.ticket
 
 import java.net.InetAddress
-import java.time.{Clock, ZonedDateTime}
+import java.time.{Clock, Duration, ZonedDateTime}
 import java.util.UUID
 
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine, RemovalCause, Ticker}
 import javax.inject.Inject
 import org.apache.james.core.Username
 import org.apache.james.jmap.core.UTCDate
+import org.apache.james.metrics.api.{Metric, MetricFactory}
 import reactor.core.scala.publisher.SMono
 
-import scala.collection.mutable
 import scala.util.Try
 
 object TicketValue {
@@ -48,9 +49,7 @@ class TicketManager @Inject() (clock: Clock, ticketStore: TicketStore) {
   }
 
   def validate(ticketValue: TicketValue, ip: InetAddress): SMono[Username] =
-    ticketStore.retrieve(ticketValue)
-      .flatMap(ticket => ticketStore.delete(ticket.value)
-        .`then`(SMono.just(ticket)))
+    ticketStore.retrieveAndDelete(ticketValue)
       .filter(ticket => ticket.clientAddress.equals(ip))
       .filter(ticket => ticket.validUntil.date.isAfter(ZonedDateTime.now(clock)))
       .map(_.username)
@@ -70,20 +69,61 @@ trait TicketStore {
   def retrieve(value: TicketValue): SMono[Ticket]
 
   def delete(ticketValue: TicketValue): SMono[Unit]
+
+  /**
+   * Consumes a ticket: once retrieved, a ticket can not be retrieved again.
+   *
+   * Implementations able to do so should perform this atomically.
+   */
+  def retrieveAndDelete(value: TicketValue): SMono[Ticket] =
+    retrieve(value)
+      .flatMap(ticket => delete(ticket.value)
+        .`then`(SMono.just(ticket)))
+}
+
+object MemoryTicketStore {
+  // Matches the time-to-live of Cassandra tickets
+  val TTL: Duration = Duration.ofSeconds(120)
+
+  val ISSUED_METRIC_NAME: String = "jmap.ticket.issued"
+  // Counts the tickets taken out of the store, whether or not they then pass the address and validity checks
+  val CONSUMED_METRIC_NAME: String = "jmap.ticket.consumed"
+  val EXPIRED_METRIC_NAME: String = "jmap.ticket.expired"
 }
 
-class MemoryTicketStore extends TicketStore {
-  private val map: mutable.Map[TicketValue, Ticket] = mutable.Map()
+class MemoryTicketStore(metricFactory: MetricFactory, ttl: Duration, ticker: Ticker) extends TicketStore {
+  import MemoryTicketStore._
+
+  @Inject()
+  def this(metricFactory: MetricFactory) = this(metricFactory, MemoryTicketStore.TTL, Ticker.systemTicker())
+
+  private val issuedMetric: Metric = metricFactory.generate(ISSUED_METRIC_NAME)
+  private val consumedMetric: Metric = metricFactory.generate(CONSUMED_METRIC_NAME)
+  private val expiredMetric: Metric = metricFactory.generate(EXPIRED_METRIC_NAME)
+
+  private val tickets: Cache[TicketValue, Ticket] = Caffeine.newBuilder()
+    .expireAfterWrite(ttl)
+    .ticker(ticker)
+    .evictionListener((_: TicketValue, _: Ticket, cause: RemovalCause) => if (cause.equals(RemovalCause.EXPIRED)) {
+      expiredMetric.increment()
+    })
+    .build[TicketValue, Ticket]()
 
   override def persist(ticket: Ticket): SMono[Unit] =
-    SMono.fromCallable(() => map.put(ticket.value, ticket))
-      .`then`
+    SMono.fromCallable(() => {
+      tickets.put(ticket.value, ticket)
+      issuedMetric.increment()
+    })
 
-  override def retrieve(value: TicketValue): SMono[Ticket] = map.get(value)
-    .map(SMono.just)
-    .getOrElse(SMono.empty)
+  override def retrieve(value: TicketValue): SMono[Ticket] =
+    SMono.fromCallable(() => tickets.getIfPresent(value))
 
   override def delete(ticketValue: TicketValue): SMono[Unit] =
-    SMono.fromCallable(() => map.remove(ticketValue))
-      .`then`
-}
\ No newline at end of file
+    SMono.fromCallable(() => tickets.invalidate(ticketValue))
+
+  override def retrieveAndDelete(value: TicketValue): SMono[Ticket] =
+    SMono.fromCallable(() => tickets.asMap().remove(value))
+      .doOnNext(_ => consumedMetric.increment())
+
+  private[ticket] def cleanUp(): Unit = tickets.cleanUp()
+}
@@ -0,0 +1,169 @@
+package com.linagora.tmail.james.jmap.contact
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.linagora.tmail.james.jmap.contact.CachingEmailAddressContactSearchEngineTest.{ACCOUNT_ID, DOMAIN, OTHER_ACCOUNT_ID}
+import org.apache.james.core.{Domain, MailAddress, Username}
+import org.apache.james.jmap.api.model.AccountId
+import org.apache.james.metrics.api.NoopGaugeRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.{BeforeEach, Disabled, Test}
+import org.reactivestreams.Publisher
+import reactor.core.scala.publisher.{SFlux, SMono}
+
+import scala.jdk.CollectionConverters._
+
+object CachingEmailAddressContactSearchEngineTest {
+  private val DOMAIN: Domain = Domain.of("linagora.com")
+  private val ACCOUNT_ID: AccountId = AccountId.fromUsername(Username.fromLocalPartWithDomain("bob", DOMAIN))
+  private val OTHER_ACCOUNT_ID: AccountId = AccountId.fromUsername(Username.fromLocalPartWithDomain("alice", DOMAIN))
+}
+
+class CountingEmailAddressContactSearchEngine extends InMemoryEmailAddressContactSearchEngine {
+  val autoCompleteCalls: AtomicInteger = new AtomicInteger()
+
+  override def autoComplete(accountId: AccountId, part: String, limit: Int): Publisher[EmailAddressContact] = {
+    autoCompleteCalls.incrementAndGet()
+    super.autoComplete(accountId, part, limit)
+  }
+}
+
+class CachingEmailAddressContactSearchEngineTest extends EmailAddressContactSearchEngineContract {
+  var underlying: CountingEmailAddressContactSearchEngine = _
+  var cachingSearchEngine: CachingEmailAddressContactSearchEngine = _
+
+  override def testee(): EmailAddressContactSearchEngine = cachingSearchEngine
+
+  @BeforeEach
+  def beforeEach(): Unit = {
+    underlying = new CountingEmailAddressContactSearchEngine()
+    cachingSearchEngine = new CachingEmailAddressContactSearchEngine(underlying,
+      ContactAutocompleteCacheConfiguration(enabled = true, ttl = Duration.ofMinutes(1)),
+      new NoopGaugeRegistry)
+  }
+
+  override def awaitDocumentsIndexed(query: QueryType, documentCount: Long): Unit = {
+  }
+
+  @Test
+  @Disabled("Memory does not need to support language special characters normalization")
+  override def searchASCIICharactersShouldReturnMatchedFrenchName(): Unit = {
+  }
+
+  private def autoComplete(accountId: AccountId, part: String, limit: Int = 256): Seq[MailAddress] =
+    SFlux.fromPublisher(cachingSearchEngine.autoComplete(accountId, part, limit))
+      .map(_.fields.address)
+      .collectSeq()
+      .block()
+
+  private def index(accountId: AccountId, address: String, firstname: String = "", surname: String = ""): Unit =
+    SMono.fromPublisher(cachingSearchEngine.index(accountId, ContactFields(new MailAddress(address), firstname, surname))).block()
+
+  @Test
+  def typingBurstShouldQueryTheUnderlyingEngineOnce(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com", "John", "Doe")
+    index(ACCOUNT_ID, "johnny@linagora.com", "Johnny", "Walker")
+    index(ACCOUNT_ID, "jane@linagora.com", "Jane", "Doe")
+
+    "john.doe".inits.toSeq.reverse.tail
+      .foreach(prefix => autoComplete(ACCOUNT_ID, prefix))
+
+    assertThat(underlying.autoCompleteCalls.get()).isEqualTo(1)
+  }
+
+  @Test
+  def narrowedResultsShouldMatchTheUnderlyingEngine(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com", "John", "Doe")
+    index(ACCOUNT_ID, "johnny@linagora.com", "Johnny", "Walker")
+    index(ACCOUNT_ID, "jane@linagora.com", "Jane", "Doe")
+
+    "john.doe".inits.toSeq.reverse.tail
+      .foreach(prefix => assertThat(autoComplete(ACCOUNT_ID, prefix).asJava)
+        .containsExactlyElementsOf(SFlux.fromPublisher(underlying.autoComplete(ACCOUNT_ID, prefix)).map(_.fields.address).collectSeq().block().asJava))
+  }
+
+  @Test
+  def truncatedResultsShouldNotBeNarrowed(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com")
+    index(ACCOUNT_ID, "johnny@linagora.com")
+    index(ACCOUNT_ID, "jane@linagora.com")
+
+    autoComplete(ACCOUNT_ID, "j", limit = 2)
+
+    assertThat(autoComplete(ACCOUNT_ID, "jo", limit = 2).asJava)
+      .containsExactly(new MailAddress("john.doe@linagora.com"), new MailAddress("johnny@linagora.com"))
+    assertThat(underlying.autoCompleteCalls.get()).isEqualTo(2)
+  }
+
+  @Test
+  def truncatedResultsShouldServeSmallerLimits(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com")
+    index(ACCOUNT_ID, "johnny@linagora.com")
+    index(ACCOUNT_ID, "jane@linagora.com")
+
+    autoComplete(ACCOUNT_ID, "j", limit = 2)
+
+    assertThat(autoComplete(ACCOUNT_ID, "j", limit = 1).asJava)
+      .containsExactly(new MailAddress("jane@linagora.com"))
+    assertThat(underlying.autoCompleteCalls.get()).isEqualTo(1)
+  }
+
+  @Test
+  def indexShouldInvalidateTheAccountEntries(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com")
+    autoComplete(ACCOUNT_ID, "jo")
+
+    index(ACCOUNT_ID, "johnny@linagora.com")
+
+    assertThat(autoComplete(ACCOUNT_ID, "joh").asJava)
+      .containsExactly(new MailAddress("john.doe@linagora.com"), new MailAddress("johnny@linagora.com"))
+  }
+
+  @Test
+  def deleteShouldInvalidateTheAccountEntries(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com")
+    autoComplete(ACCOUNT_ID, "jo")
+
+    SMono.fromPublisher(cachingSearchEngine.delete(ACCOUNT_ID, new MailAddress("john.doe@linagora.com"))).block()
+
+    assertThat(autoComplete(ACCOUNT_ID, "jo").asJava).isEmpty()
+  }
+
+  @Test
+  def domainWritesShouldInvalidateEntriesOfTheDomainAccounts(): Unit = {
+    autoComplete(ACCOUNT_ID, "jo")
+    autoComplete(OTHER_ACCOUNT_ID, "jo")
+
+    SMono.fromPublisher(cachingSearchEngine.index(DOMAIN, ContactFields(new MailAddress("john.doe@linagora.com")))).block()
+
+    assertThat(autoComplete(ACCOUNT_ID, "jo").asJava).containsExactly(new MailAddress("john.doe@linagora.com"))
+    assertThat(autoComplete(OTHER_ACCOUNT_ID, "jo").asJava).containsExactly(new MailAddress("john.doe@linagora.com"))
+  }
+
+  @Test
+  def cachedEntriesShouldBeScopedToTheAccount(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com")
+    autoComplete(ACCOUNT_ID, "jo")
+
+    assertThat(autoComplete(OTHER_ACCOUNT_ID, "jo").asJava).isEmpty()
+  }
+
+  @Test
+  def autoCompleteShouldBeCaseInsensitiveForCachedEntries(): Unit = {
+    index(ACCOUNT_ID, "john.doe@linagora.com")
+    autoComplete(ACCOUNT_ID, "jo")
+
+    assertThat(autoComplete(ACCOUNT_ID, "JOH").asJava).containsExactly(new MailAddress("john.doe@linagora.com"))
+    assertThat(underlying.autoCompleteCalls.get()).isEqualTo(1)
+  }
+
+  @Test
+  def accentedPrefixesShouldNotBeServedFromTheUnaccentedEntries(): Unit = {
+    index(ACCOUNT_ID, "jean@linagora.com", "Jean")
+    index(ACCOUNT_ID, "jerome@linagora.com", "Jérôme")
+    autoComplete(ACCOUNT_ID, "je")
+
+    assertThat(autoComplete(ACCOUNT_ID, "jé").asJava).containsExactly(new MailAddress("jerome@linagora.com"))
+  }
+}
@@ -0,0 +1,52 @@
+package com.linagora.tmail.james.jmap.contact
+
+import java.time.Duration
+
+import org.apache.commons.configuration2.PropertiesConfiguration
+import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
+import org.junit.jupiter.api.Test
+
+class ContactAutocompleteCacheConfigurationTest {
+  @Test
+  def fromShouldBeDisabledByDefault(): Unit =
+    assertThat(ContactAutocompleteCacheConfiguration.from(new PropertiesConfiguration()))
+      .isEqualTo(ContactAutocompleteCacheConfiguration.DISABLED)
+
+  @Test
+  def fromShouldReadTheCacheSettings(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("contact.autocomplete.cache.enabled", "true")
+    configuration.addProperty("contact.autocomplete.cache.ttl", "1m")
+    configuration.addProperty("contact.autocomplete.cache.maxSize", "100")
+
+    assertThat(ContactAutocompleteCacheConfiguration.from(configuration))
+      .isEqualTo(ContactAutocompleteCacheConfiguration(enabled = true, ttl = Duration.ofMinutes(1), maxSize = 100))
+  }
+
+  @Test
+  def fromShouldFailOnMalformedTtl(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("contact.autocomplete.cache.ttl", "thirty seconds")
+
+    assertThatThrownBy(() => ContactAutocompleteCacheConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldFailOnMalformedMaxSize(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("contact.autocomplete.cache.maxSize", "many")
+
+    assertThatThrownBy(() => ContactAutocompleteCacheConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldFailOnNonPositiveMaxSize(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("contact.autocomplete.cache.maxSize", "0")
+
+    assertThatThrownBy(() => ContactAutocompleteCacheConfiguration.from(configuration))
+      .isInstanceOf(classOf[IllegalArgumentException])
+  }
+}
@@ -0,0 +1,41 @@
+package com.linagora.tmail.james.jmap.firebase
+
+import java.time.Duration
+
+import org.apache.commons.configuration2.PropertiesConfiguration
+import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
+import org.junit.jupiter.api.Test
+
+class FirebasePushListenerConfigurationTest {
+  @Test
+  def fromShouldNotDebounceByDefault(): Unit =
+    assertThat(FirebasePushListenerConfiguration.from(new PropertiesConfiguration()))
+      .isEqualTo(FirebasePushListenerConfiguration.DEFAULT)
+
+  @Test
+  def fromShouldReadTheDebounceWindow(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("push.debounce.window", "500")
+
+    assertThat(FirebasePushListenerConfiguration.from(configuration))
+      .isEqualTo(FirebasePushListenerConfiguration(debounceWindow = Duration.ofMillis(500)))
+  }
+
+  @Test
+  def fromShouldFailOnMalformedDebounceWindow(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("push.debounce.window", "half a second")
+
+    assertThatThrownBy(() => FirebasePushListenerConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldFailOnNegativeDebounceWindow(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("push.debounce.window", "-1")
+
+    assertThatThrownBy(() => FirebasePushListenerConfiguration.from(configuration))
+      .isInstanceOf(classOf[IllegalArgumentException])
+  }
+}
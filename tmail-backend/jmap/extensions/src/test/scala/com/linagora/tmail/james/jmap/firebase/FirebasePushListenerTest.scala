@@ -1,27 +1,26 @@
 package com.linagora.tmail.james.jmap.firebase
 
-import java.time.Clock
+import java.time.{Clock, Duration}
 import java.util.UUID
+import java.util.concurrent.TimeUnit
 
-import com.google.common.collect.ImmutableList
-import com.google.firebase.messaging.{FirebaseMessagingException, MessagingErrorCode}
-import com.linagora.tmail.james.jmap.model.{DeviceClientId, FirebaseSubscriptionCreationRequest, FirebaseToken}
-import com.linagora.tmail.james.jmap.settings.{JmapSettingsKey, JmapSettingsRepository, JmapSettingsUpsertRequest, JmapSettingsValue, MemoryJmapSettingsRepository}
+import com.google.firebase.messaging.MessagingErrorCode
+import com.linagora.tmail.james.jmap.model.{DeviceClientId, FirebaseSubscriptionCreationRequest, FirebaseSubscriptionId, FirebaseToken}
+import com.linagora.tmail.james.jmap.settings.{JmapSettingsKey, JmapSettingsRepository, JmapSettingsUpsertRequest, JmapSettingsValue, MemoryJmapSettingsRepository, SettingsTypeName}
 import org.apache.james.core.Username
 import org.apache.james.events.Event.EventId
+import org.apache.james.jmap.api.model.TypeName
 import org.apache.james.jmap.change.{EmailDeliveryTypeName, EmailTypeName, MailboxTypeName, StateChangeEvent}
 import org.apache.james.jmap.core.UuidState
 import org.apache.james.user.api.DelegationStore
 import org.apache.james.user.memory.MemoryDelegationStore
 import org.assertj.core.api.Assertions.assertThat
 import org.assertj.core.api.SoftAssertions
+import org.awaitility.Awaitility.await
 import org.junit.jupiter.api.{BeforeEach, Test}
-import org.mockito.ArgumentCaptor
-import org.mockito.ArgumentMatchers.any
-import org.mockito.Mockito.{mock, times, verify, verifyNoInteractions, when}
-import reactor.core.publisher.Mono
 import reactor.core.scala.publisher.SMono
 
+import scala.jdk.CollectionConverters._
 import scala.language.postfixOps
 
 class FirebasePushListenerTest {
@@ -31,19 +30,17 @@ class FirebasePushListenerTest {
 
   var testee: FirebasePushListener = _
   var subscriptionRepository: FirebaseSubscriptionRepository = _
-  var pushClient: FirebasePushClient = _
+  var pushClient: RecordingFirebasePushClient = _
   var delegationStore: DelegationStore = _
   var jmapSettingsRepository: JmapSettingsRepository = _
 
   @BeforeEach
   def setUp(): Unit = {
     subscriptionRepository = new MemoryFirebaseSubscriptionRepository(Clock.systemUTC())
-    pushClient = mock(classOf[FirebasePushClient])
+    pushClient = new RecordingFirebasePushClient()
     delegationStore = new MemoryDelegationStore()
     jmapSettingsRepository = MemoryJmapSettingsRepository()
     testee = new FirebasePushListener(subscriptionRepository, delegationStore, jmapSettingsRepository, pushClient)
-
-    when(pushClient.push(any())).thenReturn(Mono.empty)
   }
 
   private def setFirebasePushEnabled(username: Username, pushSettingValue: String): Unit =
@@ -51,12 +48,21 @@ class FirebasePushListenerTest {
       JmapSettingsUpsertRequest(Map(JmapSettingsKey.liftOrThrow("firebase.enabled") -> JmapSettingsValue(pushSettingValue)))))
       .block()
 
+  private def subscribe(username: Username, token: String, types: Seq[TypeName] = Seq(EmailTypeName)): FirebaseSubscriptionId =
+    SMono(subscriptionRepository.save(username, FirebaseSubscriptionCreationRequest(
+      deviceClientId = DeviceClientId(token),
+      token = FirebaseToken(token),
+      types = types))).block().id
+
+  private def subscriptionExists(username: Username, subscriptionId: FirebaseSubscriptionId): Boolean =
+    SMono.fromPublisher(subscriptionRepository.get(username, java.util.Set.of(subscriptionId))).blockOption().isDefined
+
   @Test
   def shouldNotPushWhenNoSubscriptions(): Unit = {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
 
-    verifyNoInteractions(pushClient)
+    assertThat(pushClient.calls).isZero
   }
 
   @Test
@@ -69,7 +75,7 @@ class FirebasePushListenerTest {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
 
-    verifyNoInteractions(pushClient)
+    assertThat(pushClient.calls).isZero
   }
 
   @Test
@@ -83,12 +89,12 @@ class FirebasePushListenerTest {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> state1)))).block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient).push(argumentCaptor.capture())
+    assertThat(pushClient.singlePushes.size).isEqualTo(1)
+    val pushRequest: FirebasePushRequest = pushClient.singlePushes.head
 
     SoftAssertions.assertSoftly(softly => {
-      softly.assertThat(argumentCaptor.getValue.token().value).isEqualTo(FirebaseToken("token").value)
-      softly.assertThat(argumentCaptor.getValue.stateChangesMap())
+      softly.assertThat(pushRequest.token().value).isEqualTo(FirebaseToken("token").value)
+      softly.assertThat(pushRequest.stateChangesMap())
         .isEqualTo(java.util.Map.of(s"$bobAccountId:${EmailTypeName.asString}", s"${state1.value.toString}"))
     })
   }
@@ -106,12 +112,12 @@ class FirebasePushListenerTest {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> state1, MailboxTypeName -> state2, EmailDeliveryTypeName -> state3)))).block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient).push(argumentCaptor.capture())
+    assertThat(pushClient.singlePushes.size).isEqualTo(1)
+    val pushRequest: FirebasePushRequest = pushClient.singlePushes.head
 
     SoftAssertions.assertSoftly(softly => {
-      softly.assertThat(argumentCaptor.getValue.token().value).isEqualTo(FirebaseToken("token").value)
-      softly.assertThat(argumentCaptor.getValue.stateChangesMap())
+      softly.assertThat(pushRequest.token().value).isEqualTo(FirebaseToken("token").value)
+      softly.assertThat(pushRequest.stateChangesMap())
         .isEqualTo(java.util.Map.of(s"$bobAccountId:${EmailTypeName.asString}", s"${state1.value.toString}",
           s"$bobAccountId:${MailboxTypeName.asString}", s"${state2.value.toString}"))
     })
@@ -119,9 +125,7 @@ class FirebasePushListenerTest {
 
   @Test
   def shouldRemoveSubscriptionWhenInvalidToken(): Unit = {
-    val firebaseException = mock(classOf[FirebaseMessagingException])
-    when(firebaseException.getMessagingErrorCode).thenReturn(MessagingErrorCode.INVALID_ARGUMENT)
-    when(pushClient.push(any())).thenReturn(Mono.error(firebaseException))
+    pushClient.failFor(FirebaseToken("invalid_token"), MessagingErrorCode.INVALID_ARGUMENT)
 
     val subscriptionId = SMono(subscriptionRepository.save(bob, FirebaseSubscriptionCreationRequest(
       deviceClientId = DeviceClientId("junit"),
@@ -140,9 +144,7 @@ class FirebasePushListenerTest {
 
   @Test
   def shouldRemoveSubscriptionWhenUnregisteredToken(): Unit = {
-    val firebaseException = mock(classOf[FirebaseMessagingException])
-    when(firebaseException.getMessagingErrorCode).thenReturn(MessagingErrorCode.UNREGISTERED)
-    when(pushClient.push(any())).thenReturn(Mono.error(firebaseException))
+    pushClient.failFor(FirebaseToken("token"), MessagingErrorCode.UNREGISTERED)
 
     val subscriptionId = SMono(subscriptionRepository.save(bob, FirebaseSubscriptionCreationRequest(
       deviceClientId = DeviceClientId("junit"),
@@ -161,9 +163,7 @@ class FirebasePushListenerTest {
 
   @Test
   def shouldNotRemoveSubscriptionWhenFcmIsUnavailable(): Unit = {
-    val firebaseException = mock(classOf[FirebaseMessagingException])
-    when(firebaseException.getMessagingErrorCode).thenReturn(MessagingErrorCode.UNAVAILABLE)
-    when(pushClient.push(any())).thenReturn(Mono.error(firebaseException))
+    pushClient.failFor(FirebaseToken("token"), MessagingErrorCode.UNAVAILABLE)
 
     val subscriptionId = SMono(subscriptionRepository.save(bob, FirebaseSubscriptionCreationRequest(
       deviceClientId = DeviceClientId("junit"),
@@ -191,10 +191,8 @@ class FirebasePushListenerTest {
       Map(EmailTypeName -> UuidState(UUID.randomUUID()), MailboxTypeName -> UuidState(UUID.randomUUID()), EmailDeliveryTypeName -> UuidState(UUID.randomUUID())))))
       .block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient).push(argumentCaptor.capture())
-
-    assertThat(argumentCaptor.getValue.urgency().toString).isEqualTo(FirebasePushUrgency.HIGH.toString)
+    assertThat(pushClient.singlePushes.size).isEqualTo(1)
+    assertThat(pushClient.singlePushes.head.urgency().toString).isEqualTo(FirebasePushUrgency.HIGH.toString)
   }
 
   @Test
@@ -208,10 +206,8 @@ class FirebasePushListenerTest {
       Map(EmailTypeName -> UuidState(UUID.randomUUID()), MailboxTypeName -> UuidState(UUID.randomUUID()), EmailDeliveryTypeName -> UuidState(UUID.randomUUID())))))
       .block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient).push(argumentCaptor.capture())
-
-    assertThat(argumentCaptor.getValue.urgency().toString).isEqualTo(FirebasePushUrgency.NORMAL.toString)
+    assertThat(pushClient.singlePushes.size).isEqualTo(1)
+    assertThat(pushClient.singlePushes.head.urgency().toString).isEqualTo(FirebasePushUrgency.NORMAL.toString)
   }
 
   @Test
@@ -224,10 +220,8 @@ class FirebasePushListenerTest {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> UuidState(UUID.randomUUID()), MailboxTypeName -> UuidState(UUID.randomUUID()))))).block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient).push(argumentCaptor.capture())
-
-    assertThat(argumentCaptor.getValue.urgency().toString).isEqualTo(FirebasePushUrgency.NORMAL.toString)
+    assertThat(pushClient.singlePushes.size).isEqualTo(1)
+    assertThat(pushClient.singlePushes.head.urgency().toString).isEqualTo(FirebasePushUrgency.NORMAL.toString)
   }
 
   @Test
@@ -239,7 +233,7 @@ class FirebasePushListenerTest {
 
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), alice, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
 
-    verify(pushClient, times(0)).push(any())
+    assertThat(pushClient.calls).isZero
   }
 
   @Test
@@ -259,14 +253,7 @@ class FirebasePushListenerTest {
     val state1 = UuidState(UUID.randomUUID())
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), alice, Map(EmailTypeName -> state1)))).block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient, times(2)).push(argumentCaptor.capture())
-
-    assertThat(argumentCaptor.getAllValues
-      .stream()
-      .map(_.token().value)
-      .collect(ImmutableList.toImmutableList[String]))
-      .containsExactlyInAnyOrder("token1", "token2")
+    assertThat(pushClient.pushedTokens.asJava).containsExactlyInAnyOrder("token1", "token2")
   }
 
   @Test
@@ -288,14 +275,7 @@ class FirebasePushListenerTest {
     val stateChangeAlice = UuidState(UUID.randomUUID())
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), alice, Map(EmailTypeName -> stateChangeAlice)))).block()
 
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient, times(3)).push(argumentCaptor.capture())
-
-    assertThat(argumentCaptor.getAllValues
-      .stream()
-      .map(_.token().value)
-      .collect(ImmutableList.toImmutableList[String]))
-      .containsExactlyInAnyOrder("token1", "token1", "token2")
+    assertThat(pushClient.pushedTokens.asJava).containsExactlyInAnyOrder("token1", "token1", "token2")
   }
 
   @Test
@@ -309,7 +289,7 @@ class FirebasePushListenerTest {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> state1)))).block()
 
-    verify(pushClient, times(1)).push(any())
+    assertThat(pushClient.pushedTokens.asJava).containsExactly("token")
   }
 
   @Test
@@ -325,7 +305,7 @@ class FirebasePushListenerTest {
     SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
       Map(EmailTypeName -> state1)))).block()
 
-    verify(pushClient, times(1)).push(any())
+    assertThat(pushClient.pushedTokens.asJava).containsExactly("token")
   }
 
   @Test
@@ -351,7 +331,7 @@ class FirebasePushListenerTest {
       Map(EmailTypeName -> state1)))).block()
 
     // Then Bob data should not be pushed via FCM to both Bob and Alice
-    verify(pushClient, times(0)).push(any())
+    assertThat(pushClient.calls).isZero
   }
 
   @Test
@@ -377,7 +357,7 @@ class FirebasePushListenerTest {
       Map(EmailTypeName -> state1)))).block()
 
     // Then both Bob and Alice should receive notification from FCM
-    verify(pushClient, times(2)).push(any())
+    assertThat(pushClient.pushedTokens.asJava).containsExactlyInAnyOrder("token1", "token2")
   }
 
   @Test
@@ -403,9 +383,7 @@ class FirebasePushListenerTest {
       Map(EmailTypeName -> state1)))).block()
 
     // Then Bob should receive notification from FCM
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient, times(1)).push(argumentCaptor.capture())
-    assertThat(argumentCaptor.getValue.token().value).isEqualTo("bobToken")
+    assertThat(pushClient.pushedTokens.asJava).containsExactly("bobToken")
   }
 
   @Test
@@ -431,9 +409,133 @@ class FirebasePushListenerTest {
       Map(EmailTypeName -> state1)))).block()
 
     // Then Alice should not receive notification from FCM
-    val argumentCaptor: ArgumentCaptor[FirebasePushRequest] = ArgumentCaptor.forClass(classOf[FirebasePushRequest])
-    verify(pushClient, times(1)).push(argumentCaptor.capture())
-    assertThat(argumentCaptor.getValue.token().value).isNotEqualTo("aliceToken")
+    assertThat(pushClient.pushedTokens.asJava).doesNotContain("aliceToken")
   }
-}
 
+  @Test
+  def devicesReceivingTheSamePayloadShouldBePushedAtOnce(): Unit = {
+    subscribe(bob, "token1")
+    subscribe(bob, "token2")
+    subscribe(bob, "token3")
+
+    val state1 = UuidState(UUID.randomUUID())
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> state1)))).block()
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(pushClient.calls).isEqualTo(1)
+      softly.assertThat(pushClient.multicastPushes.head.tokens().asScala.map(_.value).asJava)
+        .containsExactlyInAnyOrder("token1", "token2", "token3")
+      softly.assertThat(pushClient.multicastPushes.head.stateChangesMap())
+        .isEqualTo(java.util.Map.of(s"$bobAccountId:${EmailTypeName.asString}", s"${state1.value.toString}"))
+    })
+  }
+
+  @Test
+  def devicesReceivingDifferentPayloadsShouldBePushedSeparately(): Unit = {
+    subscribe(bob, "token1", Seq(EmailTypeName))
+    subscribe(bob, "token2", Seq(EmailTypeName))
+    subscribe(bob, "token3", Seq(MailboxTypeName))
+
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob,
+      Map(EmailTypeName -> UuidState(UUID.randomUUID()), MailboxTypeName -> UuidState(UUID.randomUUID()))))).block()
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(pushClient.calls).isEqualTo(2)
+      softly.assertThat(pushClient.singlePushes.map(_.token().value).asJava).containsExactly("token3")
+      softly.assertThat(pushClient.multicastPushes.flatMap(_.tokens().asScala.map(_.value)).asJava)
+        .containsExactlyInAnyOrder("token1", "token2")
+    })
+  }
+
+  @Test
+  def multicastPushesShouldBeBatched(): Unit = {
+    (1 to 1200).foreach(i => subscribe(bob, s"token$i"))
+
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(pushClient.multicastPushes.map(_.tokens().size()).asJava).containsExactlyInAnyOrder(500, 500, 200)
+      softly.assertThat(pushClient.pushedTokens.distinct.size).isEqualTo(1200)
+    })
+  }
+
+  @Test
+  def multicastPushShouldOnlyRemoveSubscriptionsWithInvalidTokens(): Unit = {
+    val validSubscriptionId = subscribe(bob, "token1")
+    val invalidSubscriptionId = subscribe(bob, "token2")
+    val unregisteredSubscriptionId = subscribe(bob, "token3")
+    val unavailableSubscriptionId = subscribe(bob, "token4")
+    pushClient.failFor(FirebaseToken("token2"), MessagingErrorCode.INVALID_ARGUMENT)
+    pushClient.failFor(FirebaseToken("token3"), MessagingErrorCode.UNREGISTERED)
+    pushClient.failFor(FirebaseToken("token4"), MessagingErrorCode.UNAVAILABLE)
+
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(subscriptionExists(bob, validSubscriptionId)).isTrue
+      softly.assertThat(subscriptionExists(bob, invalidSubscriptionId)).isFalse
+      softly.assertThat(subscriptionExists(bob, unregisteredSubscriptionId)).isFalse
+      softly.assertThat(subscriptionExists(bob, unavailableSubscriptionId)).isTrue
+    })
+  }
+
+  @Test
+  def invalidTokenOfADelegateeShouldBeRemovedFromTheDelegateeSubscriptions(): Unit = {
+    SMono.fromPublisher(delegationStore.addAuthorizedUser(bob, alice)).block()
+    subscribe(bob, "bobToken")
+    val aliceSubscriptionId = subscribe(alice, "aliceToken")
+    pushClient.failFor(FirebaseToken("aliceToken"), MessagingErrorCode.UNREGISTERED)
+
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+
+    assertThat(subscriptionExists(alice, aliceSubscriptionId)).isFalse
+  }
+
+  @Test
+  def firebasePushSettingChangesShouldBeTakenIntoAccount(): Unit = {
+    subscribe(bob, "token", Seq(EmailTypeName, SettingsTypeName))
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+
+    setFirebasePushEnabled(bob, "false")
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(SettingsTypeName -> UuidState(UUID.randomUUID()))))).block()
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+
+    assertThat(pushClient.calls).isEqualTo(1)
+  }
+
+  @Test
+  def burstOfStateChangesShouldBeCollapsedWhenDebouncing(): Unit = {
+    testee = new FirebasePushListener(subscriptionRepository, delegationStore, jmapSettingsRepository, pushClient,
+      FirebasePushListenerConfiguration(debounceWindow = Duration.ofMillis(200)))
+    subscribe(bob, "token", Seq(EmailTypeName, MailboxTypeName))
+
+    val lastEmailState = UuidState(UUID.randomUUID())
+    val mailboxState = UuidState(UUID.randomUUID())
+    (1 to 20).foreach(_ => SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block())
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(MailboxTypeName -> mailboxState)))).block()
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> lastEmailState)))).block()
+
+    await().atMost(10, TimeUnit.SECONDS).untilAsserted(() => assertThat(pushClient.calls).isEqualTo(1))
+    Thread.sleep(500)
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(pushClient.calls).isEqualTo(1)
+      softly.assertThat(pushClient.singlePushes.head.stateChangesMap())
+        .isEqualTo(java.util.Map.of(s"$bobAccountId:${EmailTypeName.asString}", lastEmailState.value.toString,
+          s"$bobAccountId:${MailboxTypeName.asString}", mailboxState.value.toString))
+    })
+  }
+
+  @Test
+  def stateChangesAfterTheDebounceWindowShouldBePushedAgain(): Unit = {
+    testee = new FirebasePushListener(subscriptionRepository, delegationStore, jmapSettingsRepository, pushClient,
+      FirebasePushListenerConfiguration(debounceWindow = Duration.ofMillis(100)))
+    subscribe(bob, "token")
+
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+    await().atMost(10, TimeUnit.SECONDS).untilAsserted(() => assertThat(pushClient.calls).isEqualTo(1))
+
+    SMono(testee.reactiveEvent(StateChangeEvent(EventId.random(), bob, Map(EmailTypeName -> UuidState(UUID.randomUUID()))))).block()
+    await().atMost(10, TimeUnit.SECONDS).untilAsserted(() => assertThat(pushClient.calls).isEqualTo(2))
+  }
+}
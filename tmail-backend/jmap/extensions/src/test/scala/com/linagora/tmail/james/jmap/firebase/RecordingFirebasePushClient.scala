@@ -0,0 +1,63 @@
+package com.linagora.tmail.james.jmap.firebase
+
+import java.util.concurrent.{ConcurrentHashMap, ConcurrentLinkedQueue}
+
+import com.google.firebase.messaging.{FirebaseMessaging, FirebaseMessagingException, MessagingErrorCode}
+import com.linagora.tmail.james.jmap.model.FirebaseToken
+import org.mockito.Mockito.{mock, when}
+import reactor.core.publisher.{Flux, Mono}
+
+import scala.jdk.CollectionConverters._
+
+/**
+ * FirebasePushClient recording the requests it receives instead of sending them to FCM.
+ */
+class RecordingFirebasePushClient extends FirebasePushClient(null.asInstanceOf[FirebaseMessaging]) {
+  private val pushRequests: ConcurrentLinkedQueue[FirebasePushRequest] = new ConcurrentLinkedQueue()
+  private val multicastPushRequests: ConcurrentLinkedQueue[FirebaseMulticastPushRequest] = new ConcurrentLinkedQueue()
+  private val failingTokens: ConcurrentHashMap[FirebaseToken, MessagingErrorCode] = new ConcurrentHashMap()
+
+  def failFor(token: FirebaseToken, errorCode: MessagingErrorCode): Unit = failingTokens.put(token, errorCode)
+
+  def singlePushes: Seq[FirebasePushRequest] = pushRequests.asScala.toSeq
+
+  def multicastPushes: Seq[FirebaseMulticastPushRequest] = multicastPushRequests.asScala.toSeq
+
+  /**
+   * The FCM calls performed, whatever their kind.
+   */
+  def calls: Int = pushRequests.size() + multicastPushRequests.size()
+
+  /**
+   * Tokens and payloads pushed, one entry per device.
+   */
+  def pushedTokens: Seq[String] =
+    singlePushes.map(_.token().value) ++ multicastPushes.flatMap(_.tokens().asScala.map(_.value))
+
+  def pushedPayloads: Seq[(String, java.util.Map[String, String], FirebasePushUrgency)] =
+    singlePushes.map(request => (request.token().value, request.stateChangesMap(), request.urgency())) ++
+      multicastPushes.flatMap(request => request.tokens().asScala.map(token => (token.value, request.stateChangesMap(), request.urgency())))
+
+  override def push(pushRequest: FirebasePushRequest): Mono[Void] = Mono.defer(() => {
+    pushRequests.add(pushRequest)
+    Option(failingTokens.get(pushRequest.token()))
+      .map(errorCode => Mono.error[Void](exception(errorCode)))
+      .getOrElse(Mono.empty[Void]())
+  })
+
+  override def pushMulticast(pushRequest: FirebaseMulticastPushRequest): Flux[FirebasePushFailure] = Flux.defer(() => {
+    multicastPushRequests.add(pushRequest)
+    Flux.fromIterable(pushRequest.tokens())
+      .filter(token => failingTokens.containsKey(token))
+      .map(token => new FirebasePushFailure(token, exception(failingTokens.get(token))))
+  })
+
+  override def validateToken(token: FirebaseToken): Mono[java.lang.Boolean] =
+    Mono.just(java.lang.Boolean.valueOf(!failingTokens.containsKey(token)))
+
+  private def exception(errorCode: MessagingErrorCode): FirebaseMessagingException = {
+    val exception: FirebaseMessagingException = mock(classOf[FirebaseMessagingException])
+    when(exception.getMessagingErrorCode).thenReturn(errorCode)
+    exception
+  }
+}
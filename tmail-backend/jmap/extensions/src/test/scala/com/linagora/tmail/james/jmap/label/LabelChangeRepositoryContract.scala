@@ -1,6 +1,6 @@
 package com.linagora.tmail.james.jmap.label
 
-import java.time.ZonedDateTime
+import java.time.{Duration, ZonedDateTime}
 import java.util.stream.IntStream
 
 import com.linagora.tmail.james.jmap.label.LabelChangeRepositoryContract.DATE
@@ -12,10 +12,11 @@ import org.apache.james.jmap.api.model.AccountId
 import org.apache.james.utils.UpdatableTickingClock
 import org.assertj.core.api.Assertions.{assertThat, assertThatCode, assertThatThrownBy}
 import org.assertj.core.api.SoftAssertions.assertSoftly
-import org.junit.jupiter.api.{BeforeEach, Test}
+import org.junit.jupiter.api.{BeforeEach, RepeatedTest, RepetitionInfo, Test}
 import reactor.core.scala.publisher.SMono
 
 import scala.jdk.CollectionConverters._
+import scala.util.Random
 
 object LabelChangeRepositoryContract {
   val ACCOUNT_ID: AccountId = AccountId.fromUsername(Username.of("bob"))
@@ -343,6 +344,40 @@ trait LabelChangeRepositoryContract {
       .isInstanceOf(classOf[ChangeNotFoundException])
   }
 
+  // Property: for any sequence of saved changes, any since state and any limit, the returned changes are the ordered
+  // fold of the changes following that state.
+  @RepeatedTest(5)
+  def getChangesShouldFoldTheChangesFollowingTheSinceState(repetitionInfo: RepetitionInfo): Unit = {
+    val random: Random = new Random(repetitionInfo.getCurrentRepetition)
+    val labelIds: Seq[LabelId] = (1 to 8).map(_ => LabelId.generate())
+    def randomLabelIds(): Set[LabelId] = labelIds.filter(_ => random.nextInt(4) == 0).toSet
+
+    val changes: Seq[LabelChange] = (1 to 20).map(_ => LabelChange(accountId = ACCOUNT_ID,
+      created = randomLabelIds(),
+      updated = randomLabelIds(),
+      destroyed = randomLabelIds(),
+      state = stateFactory.generate()))
+    changes.foreach(change => SMono(testee.save(change)).block())
+
+    assertSoftly(softly => (-1 until changes.size).foreach(sinceIndex => {
+      val limit: Int = 1 + random.nextInt(labelIds.size * 2)
+      val sinceState: State = if (sinceIndex < 0) State.INITIAL else changes(sinceIndex).state
+      val expected: LabelChanges = Some(changes.drop(sinceIndex + 1))
+        .filter(_.nonEmpty)
+        .getOrElse(Seq(LabelChange(accountId = ACCOUNT_ID, state = sinceState)))
+        .map(LabelChanges.from)
+        .foldLeft(LabelChanges.initial())((change1, change2) => LabelChanges.merge(limit, change1, change2))
+
+      val actual: LabelChanges = SMono(testee.getSinceState(ACCOUNT_ID, sinceState, Some(Limit.of(limit)))).block()
+
+      softly.assertThat(actual.created.asJava).isEqualTo(expected.created.asJava)
+      softly.assertThat(actual.updated.asJava).isEqualTo(expected.updated.asJava)
+      softly.assertThat(actual.destroyed.asJava).isEqualTo(expected.destroyed.asJava)
+      softly.assertThat(actual.hasMoreChanges).isEqualTo(expected.hasMoreChanges)
+      softly.assertThat(actual.newState).isEqualTo(expected.newState)
+    }))
+    assertThat(SMono(testee.getLatestState(ACCOUNT_ID)).block()).isEqualTo(changes.last.state)
+  }
 }
 
 class MemoryLabelChangeRepositoryTest extends LabelChangeRepositoryContract {
@@ -360,4 +395,62 @@ class MemoryLabelChangeRepositoryTest extends LabelChangeRepositoryContract {
     updatableTickingClock = new UpdatableTickingClock(DATE.toInstant)
     repository = MemoryLabelChangeRepository(updatableTickingClock)
   }
+
+  @Test
+  def labelChangesShouldExpireAfterTTL(): Unit = {
+    repository = MemoryLabelChangeRepository(updatableTickingClock, MemoryLabelChangesConfiguration(Duration.ofHours(1), 100))
+    val expiredChange: LabelChange = LabelChangeRepositoryContract.labelChangeFunc(stateFactory)
+    SMono(testee.save(expiredChange)).block()
+    setClock(DATE.plusMinutes(30))
+    val labelChange: LabelChange = LabelChangeRepositoryContract.labelChangeFunc(stateFactory)
+    SMono(testee.save(labelChange)).block()
+
+    setClock(DATE.plusMinutes(61))
+
+    assertSoftly(softly => {
+      softly.assertThatThrownBy(() => SMono(testee.getSinceState(LabelChangeRepositoryContract.ACCOUNT_ID, expiredChange.state)).block())
+        .isInstanceOf(classOf[ChangeNotFoundException])
+      softly.assertThat(SMono(testee.getSinceState(LabelChangeRepositoryContract.ACCOUNT_ID, State.INITIAL)).block().created.asJava)
+        .isEqualTo(labelChange.created.asJava)
+    })
+  }
+
+  @Test
+  def labelChangesShouldNotExpireWhenTTLIsZero(): Unit = {
+    repository = MemoryLabelChangeRepository(updatableTickingClock, MemoryLabelChangesConfiguration(Duration.ZERO, 100))
+    val labelChange: LabelChange = LabelChangeRepositoryContract.labelChangeFunc(stateFactory)
+    SMono(testee.save(labelChange)).block()
+
+    setClock(DATE.plusYears(10))
+
+    assertThat(SMono(testee.getLatestState(LabelChangeRepositoryContract.ACCOUNT_ID)).block())
+      .isEqualTo(labelChange.state)
+  }
+
+  @Test
+  def latestStateShouldBeInitialWhenAllChangesExpired(): Unit = {
+    repository = MemoryLabelChangeRepository(updatableTickingClock, MemoryLabelChangesConfiguration(Duration.ofHours(1), 100))
+    SMono(testee.save(LabelChangeRepositoryContract.labelChangeFunc(stateFactory))).block()
+
+    setClock(DATE.plusHours(2))
+
+    assertThat(SMono(testee.getLatestState(LabelChangeRepositoryContract.ACCOUNT_ID)).block())
+      .isEqualTo(State.INITIAL)
+  }
+
+  @Test
+  def oldestChangesShouldBeEvictedWhenTheChangeLogIsFull(): Unit = {
+    repository = MemoryLabelChangeRepository(updatableTickingClock, MemoryLabelChangesConfiguration(Duration.ofHours(1), 3))
+    val changes: Seq[LabelChange] = (1 to 40).map(_ => LabelChangeRepositoryContract.labelChangeFunc(stateFactory))
+    changes.foreach(change => SMono(testee.save(change)).block())
+
+    assertSoftly(softly => {
+      softly.assertThatThrownBy(() => SMono(testee.getSinceState(LabelChangeRepositoryContract.ACCOUNT_ID, changes(36).state)).block())
+        .isInstanceOf(classOf[ChangeNotFoundException])
+      softly.assertThat(SMono(testee.getSinceState(LabelChangeRepositoryContract.ACCOUNT_ID, changes(37).state)).block().created.asJava)
+        .isEqualTo((changes(38).created ++ changes(39).created).asJava)
+      softly.assertThat(SMono(testee.getSinceState(LabelChangeRepositoryContract.ACCOUNT_ID, State.INITIAL)).block().created.asJava)
+        .isEqualTo(changes.takeRight(3).flatMap(_.created).toSet.asJava)
+    })
+  }
 }
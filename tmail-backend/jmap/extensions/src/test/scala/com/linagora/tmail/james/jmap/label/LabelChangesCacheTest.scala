@@ -0,0 +1,131 @@
+package com.linagora.tmail.james.jmap.label
+
+import java.time.{Clock, Duration}
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import com.linagora.tmail.james.jmap.label.LabelChangeRepositoryContract.{ACCOUNT_ID, labelChangeFunc}
+import org.apache.james.jmap.api.change.{Limit, State}
+import org.apache.james.jmap.api.exception.ChangeNotFoundException
+import org.apache.james.jmap.api.model.AccountId
+import org.apache.james.util.concurrency.ConcurrentTestRunner
+import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
+import org.junit.jupiter.api.{BeforeEach, Test}
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.{clearInvocations, doAnswer, spy, times, verify}
+import reactor.core.scala.publisher.SMono
+
+import scala.jdk.CollectionConverters._
+
+class LabelChangesCacheTest {
+  var repository: MemoryLabelChangeRepository = _
+  var testee: LabelChangesCache = _
+
+  @BeforeEach
+  def setUp(): Unit = {
+    repository = spy(MemoryLabelChangeRepository(Clock.systemUTC()))
+    testee = new LabelChangesCache(repository)
+  }
+
+  private def populate(change: LabelChange): LabelChange = {
+    testee.save(change).block()
+    change
+  }
+
+  private def assertSameAsRepository(state: State, limit: Limit): Unit = {
+    val expected: LabelChanges = SMono(repository.getSinceState(ACCOUNT_ID, state, Some(limit))).block()
+    val actual: LabelChanges = testee.getSinceState(ACCOUNT_ID, state, Some(limit)).block()
+
+    assertThat(actual).isEqualTo(expected)
+  }
+
+  @Test
+  def getSinceStateShouldBeServedFromTheWindow(): Unit = {
+    val change1: LabelChange = populate(labelChangeFunc(State.Factory.DEFAULT))
+    populate(labelChangeFunc(State.Factory.DEFAULT))
+    populate(labelChangeFunc(State.Factory.DEFAULT))
+    clearInvocations(repository)
+
+    testee.getSinceState(ACCOUNT_ID, change1.state).block()
+
+    verify(repository, times(0)).getSinceState(any[AccountId], any[State], any[Option[Limit]])
+  }
+
+  @Test
+  def getSinceStateShouldMatchTheRepository(): Unit = {
+    val changes: Seq[LabelChange] = (1 to 10).map(_ => populate(labelChangeFunc(State.Factory.DEFAULT)))
+
+    (State.INITIAL +: changes.map(_.state)).foreach(state => {
+      assertSameAsRepository(state, Limit.of(3))
+      assertSameAsRepository(state, Limit.of(256))
+    })
+  }
+
+  @Test
+  def getSinceStateShouldFallbackToTheRepositoryWhenStatePredatesTheWindow(): Unit = {
+    val changes: Seq[LabelChange] = (1 to LabelChangesCache.MAX_CHANGES_PER_ACCOUNT + 2)
+      .map(_ => populate(labelChangeFunc(State.Factory.DEFAULT)))
+    clearInvocations(repository)
+
+    assertSameAsRepository(changes.head.state, Limit.of(256))
+    verify(repository, times(2)).getSinceState(any[AccountId], any[State], any[Option[Limit]])
+  }
+
+  @Test
+  def getSinceStateShouldFallbackToTheRepositoryWhenChangesWereWrittenElsewhere(): Unit = {
+    val change1: LabelChange = populate(labelChangeFunc(State.Factory.DEFAULT))
+    val remoteChange: LabelChange = labelChangeFunc(State.Factory.DEFAULT)
+    SMono(repository.save(remoteChange)).block()
+
+    assertThat(testee.getSinceState(ACCOUNT_ID, change1.state).block().created)
+      .isEqualTo(remoteChange.created)
+  }
+
+  @Test
+  def windowShouldBeResetWhenAChangeIsMissing(): Unit = {
+    val change1: LabelChange = populate(labelChangeFunc(State.Factory.DEFAULT))
+    val remoteChange: LabelChange = labelChangeFunc(State.Factory.DEFAULT)
+    SMono(repository.save(remoteChange)).block()
+    val change3: LabelChange = populate(labelChangeFunc(State.Factory.DEFAULT))
+
+    assertThat(testee.getSinceState(ACCOUNT_ID, change1.state).block().created)
+      .isEqualTo(remoteChange.created ++ change3.created)
+  }
+
+  @Test
+  def changesWrittenByAnotherNodeAfterReadingThePredecessorShouldNotBeDropped(): Unit = {
+    val otherNode: LabelChangesCache = new LabelChangesCache(repository)
+    val change1: LabelChange = populate(labelChangeFunc(State.Factory.DEFAULT))
+    val remoteChange: LabelChange = labelChangeFunc(State.Factory.DEFAULT)
+    val change3: LabelChange = labelChangeFunc(State.Factory.DEFAULT)
+    doAnswer(invocation => {
+      otherNode.save(remoteChange).block()
+      invocation.callRealMethod()
+    }).when(repository).save(change3)
+
+    populate(change3)
+
+    assertThat(testee.getSinceState(ACCOUNT_ID, change1.state).block().created)
+      .isEqualTo(remoteChange.created ++ change3.created)
+  }
+
+  @Test
+  def concurrentChangesShouldNotBeDropped(): Unit = {
+    val states: ConcurrentLinkedQueue[State] = new ConcurrentLinkedQueue()
+    ConcurrentTestRunner.builder
+      .operation((_: Int, _: Int) => states.add(populate(labelChangeFunc(State.Factory.DEFAULT)).state))
+      .threadCount(10)
+      .operationCount(20)
+      .runSuccessfullyWithin(Duration.ofMinutes(1))
+    states.add(populate(labelChangeFunc(State.Factory.DEFAULT)).state)
+
+    (State.INITIAL +: states.asScala.toSeq).foreach(state => assertSameAsRepository(state, Limit.of(256)))
+  }
+
+  @Test
+  def getSinceStateShouldFailWhenStateIsUnknown(): Unit = {
+    populate(labelChangeFunc(State.Factory.DEFAULT))
+
+    assertThatThrownBy(() => testee.getSinceState(ACCOUNT_ID, State.Factory.DEFAULT.generate()).block())
+      .isInstanceOf(classOf[ChangeNotFoundException])
+  }
+}
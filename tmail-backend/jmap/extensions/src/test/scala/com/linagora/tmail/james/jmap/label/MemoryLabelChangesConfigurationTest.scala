@@ -0,0 +1,77 @@
+package com.linagora.tmail.james.jmap.label
+
+import java.time.Duration
+
+import org.apache.commons.configuration2.PropertiesConfiguration
+import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
+import org.junit.jupiter.api.Test
+
+class MemoryLabelChangesConfigurationTest {
+  @Test
+  def fromShouldFallbackToDefaultValuesWhenEmptySuppliedConfiguration(): Unit =
+    assertThat(MemoryLabelChangesConfiguration.from(new PropertiesConfiguration()))
+      .isEqualTo(MemoryLabelChangesConfiguration.DEFAULT)
+
+  @Test
+  def fromShouldReturnValuesFromSuppliedConfiguration(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.maxChangesPerAccount", "1000")
+
+    assertThat(MemoryLabelChangesConfiguration.from(configuration).maxChangesPerAccount)
+      .isEqualTo(1000)
+  }
+
+  @Test
+  def fromShouldReadTheRetention(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.retention", "3 days")
+
+    assertThat(MemoryLabelChangesConfiguration.from(configuration).labelChangeTtl)
+      .isEqualTo(Duration.ofDays(3))
+  }
+
+  @Test
+  def fromShouldAcceptZeroRetention(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.retention", "0")
+
+    assertThat(MemoryLabelChangesConfiguration.from(configuration).labelChangeTtl)
+      .isEqualTo(Duration.ZERO)
+  }
+
+  @Test
+  def fromShouldThrowWhenMalformedRetention(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.retention", "three days")
+
+    assertThatThrownBy(() => MemoryLabelChangesConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldIgnoreTheCassandraTtl(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.ttl", "3 days")
+
+    assertThat(MemoryLabelChangesConfiguration.from(configuration).labelChangeTtl)
+      .isEqualTo(MemoryLabelChangesConfiguration.DEFAULT_TTL)
+  }
+
+  @Test
+  def fromShouldThrowWhenMalformedMaxChangesPerAccount(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.maxChangesPerAccount", "many")
+
+    assertThatThrownBy(() => MemoryLabelChangesConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldThrowWhenNonPositiveMaxChangesPerAccount(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("label.change.maxChangesPerAccount", "0")
+
+    assertThatThrownBy(() => MemoryLabelChangesConfiguration.from(configuration))
+      .isInstanceOf(classOf[IllegalArgumentException])
+  }
+}
@@ -0,0 +1,47 @@
+package com.linagora.tmail.james.jmap.method
+
+import com.linagora.tmail.james.jmap.model.CalendarEventParsed
+import org.apache.james.jmap.mail.BlobId
+import org.apache.james.metrics.api.NoopGaugeRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.awaitility.Awaitility
+import org.junit.jupiter.api.{BeforeEach, Test}
+
+class CalendarEventParsedCacheTest {
+  val BLOB_ID: BlobId = BlobId.of("blob1").get
+  val PARSED: ParsedCalendar = ParsedCalendar(List(CalendarEventParsed()), 1024)
+
+  var testee: CalendarEventParsedCache = _
+
+  @BeforeEach
+  def setUp(): Unit = {
+    testee = new CalendarEventParsedCache(new NoopGaugeRegistry)
+  }
+
+  @Test
+  def getShouldReturnEmptyByDefault(): Unit = {
+    assertThat(testee.get(BLOB_ID).isEmpty).isTrue
+  }
+
+  @Test
+  def getShouldReturnPutEntries(): Unit = {
+    testee.put(BLOB_ID, PARSED)
+
+    assertThat(testee.get(BLOB_ID).orNull).isEqualTo(PARSED)
+  }
+
+  @Test
+  def entriesShouldBeScopedToTheBlob(): Unit = {
+    testee.put(BLOB_ID, PARSED)
+
+    assertThat(testee.get(BlobId.of("blob2").get).isEmpty).isTrue
+  }
+
+  @Test
+  def calendarsBiggerThanTheCacheShouldNotBeKept(): Unit = {
+    testee.put(BLOB_ID, PARSED.copy(sourceSize = CalendarEventParsedCache.MAX_WEIGHT_IN_BYTES + 1))
+
+    Awaitility.await()
+      .untilAsserted(() => assertThat(testee.get(BLOB_ID).isEmpty).isTrue)
+  }
+}
@@ -0,0 +1,113 @@
+package com.linagora.tmail.james.jmap.method
+
+import java.io.InputStream
+import java.util
+
+import com.google.common.io.ByteStreams
+import com.linagora.tmail.encrypted.EncryptedEmailContentStore
+import org.apache.james.blob.api.BlobStore.StoragePolicy
+import org.apache.james.blob.api.{BlobStore, BucketName, HashBlobId}
+import org.apache.james.jmap.mail.BlobId
+import org.apache.james.jmap.routes.{Applicable, Blob}
+import org.apache.james.mailbox.MailboxSession
+import org.apache.james.mailbox.model.MessageId
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.{BeforeEach, Test}
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.{mock, never, verify, when}
+import reactor.core.publisher.Mono
+
+object EncryptedAttachmentBlobResolverTest {
+  // Far above the heap this test runs with (see the constrained-heap surefire execution): buffering it would fail
+  private val LARGE_BLOB_SIZE: Long = 512L * 1024 * 1024
+  private val BLOB_STORE_ID: org.apache.james.blob.api.BlobId = new HashBlobId.Factory().from("encrypted-attachment")
+  private val ENCRYPTED_ATTACHMENT_BLOB_ID: BlobId = BlobId.of("encryptedAttachment_1_0").get
+}
+
+/**
+ * Generates `size` bytes without ever holding them.
+ */
+class GeneratedInputStream(size: Long) extends InputStream {
+  private var position: Long = 0
+
+  override def read(): Int =
+    if (position >= size) {
+      -1
+    } else {
+      position += 1
+      'a'.toInt
+    }
+
+  override def read(bytes: Array[Byte], offset: Int, length: Int): Int =
+    if (position >= size) {
+      -1
+    } else {
+      val count: Int = Math.min(length.toLong, size - position).toInt
+      util.Arrays.fill(bytes, offset, offset + count, 'a'.toByte)
+      position += count
+      count
+    }
+}
+
+class EncryptedAttachmentBlobResolverTest {
+  import EncryptedAttachmentBlobResolverTest._
+
+  var blobStore: BlobStore = _
+  var testee: EncryptedAttachmentBlobResolver = _
+
+  @BeforeEach
+  def setUp(): Unit = {
+    val messageIdFactory: MessageId.Factory = mock(classOf[MessageId.Factory])
+    when(messageIdFactory.fromString(any())).thenReturn(mock(classOf[MessageId]))
+
+    val encryptedEmailContentStore: EncryptedEmailContentStore = mock(classOf[EncryptedEmailContentStore])
+    when(encryptedEmailContentStore.retrieveAttachmentContent(any(), any())).thenReturn(Mono.just(BLOB_STORE_ID))
+
+    blobStore = mock(classOf[BlobStore])
+    when(blobStore.getDefaultBucketName).thenReturn(BucketName.DEFAULT)
+    when(blobStore.read(BucketName.DEFAULT, BLOB_STORE_ID, StoragePolicy.LOW_COST))
+      .thenAnswer(_ => new GeneratedInputStream(LARGE_BLOB_SIZE))
+
+    testee = new EncryptedAttachmentBlobResolver(encryptedEmailContentStore, messageIdFactory, blobStore)
+  }
+
+  private def resolve(): Blob = testee.resolve(ENCRYPTED_ATTACHMENT_BLOB_ID, mock(classOf[MailboxSession])) match {
+    case Applicable(blob) => blob.block()
+    case _ => throw new AssertionError("Encrypted attachment blob ids should be resolved")
+  }
+
+  @Test
+  def resolveShouldNotReadTheBlobContent(): Unit = {
+    resolve()
+
+    verify(blobStore, never()).read(any(), any(), any[StoragePolicy]())
+    verify(blobStore, never()).readBytes(any(), any(), any[StoragePolicy]())
+  }
+
+  @Test
+  def largeBlobsShouldBeStreamed(): Unit = {
+    val blob: Blob = resolve()
+
+    val downloadedBytes: Long = ByteStreams.exhaust(blob.content)
+
+    assertThat(downloadedBytes).isEqualTo(LARGE_BLOB_SIZE)
+    verify(blobStore, never()).readBytes(any(), any(), any[StoragePolicy]())
+  }
+
+  @Test
+  def sizeShouldBeUnknown(): Unit = {
+    val blob: Blob = resolve()
+
+    assertThat(blob.size.isFailure).isTrue
+  }
+
+  @Test
+  def sizeShouldNotReadTheBlobContent(): Unit = {
+    val blob: Blob = resolve()
+
+    blob.size
+
+    verify(blobStore, never()).read(any(), any(), any[StoragePolicy]())
+    verify(blobStore, never()).readBytes(any(), any(), any[StoragePolicy]())
+  }
+}
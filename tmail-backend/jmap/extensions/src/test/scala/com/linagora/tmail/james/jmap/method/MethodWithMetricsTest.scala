@@ -0,0 +1,103 @@
+package com.linagora.tmail.james.jmap.method
+
+import com.linagora.tmail.james.jmap.method.CapabilityIdentifier.LINAGORA_ECHO
+import eu.timepit.refined.auto._
+import org.apache.james.core.Username
+import org.apache.james.jmap.core.CapabilityIdentifier.{CapabilityIdentifier, JMAP_CORE}
+import org.apache.james.jmap.core.Invocation.{Arguments, MethodCallId, MethodName}
+import org.apache.james.jmap.core.{ErrorCode, Invocation}
+import org.apache.james.jmap.method.{InvocationWithContext, Method}
+import org.apache.james.jmap.routes.ProcessingContext
+import org.apache.james.mailbox.{MailboxSession, MailboxSessionUtil}
+import org.apache.james.metrics.tests.RecordingMetricFactory
+import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
+import org.junit.jupiter.api.{BeforeEach, Test}
+import org.reactivestreams.Publisher
+import play.api.libs.json.Json
+import reactor.core.scala.publisher.{SFlux, SMono}
+
+class MethodWithMetricsTest {
+  val METHOD_NAME: MethodName = MethodName("Linagora/echo")
+  val METHOD_CALL_ID: MethodCallId = MethodCallId("c1")
+  val SESSION: MailboxSession = MailboxSessionUtil.create(Username.of("bob@domain.tld"))
+  val INVOCATION: InvocationWithContext = InvocationWithContext(
+    Invocation(METHOD_NAME, Arguments(Json.obj()), METHOD_CALL_ID),
+    ProcessingContext(Map.empty, Map.empty))
+
+  var metricFactory: RecordingMetricFactory = _
+
+  @BeforeEach
+  def setUp(): Unit = {
+    metricFactory = new RecordingMetricFactory()
+  }
+
+  private def testee(result: Publisher[InvocationWithContext]): MethodWithMetrics =
+    new MethodWithMetrics(new Method {
+      override val methodName: MethodName = METHOD_NAME
+      override val requiredCapabilities: Set[CapabilityIdentifier] = Set(JMAP_CORE, LINAGORA_ECHO)
+
+      override def process(capabilities: Set[CapabilityIdentifier], invocation: InvocationWithContext, mailboxSession: MailboxSession): Publisher[InvocationWithContext] =
+        result
+    }, metricFactory)
+
+  @Test
+  def processShouldReturnTheUnderlyingResult(): Unit = {
+    val result = SFlux(testee(SMono.just(INVOCATION)).process(Set(JMAP_CORE, LINAGORA_ECHO), INVOCATION, SESSION))
+      .collectSeq()
+      .block()
+
+    assertThat(result.head).isEqualTo(INVOCATION)
+  }
+
+  @Test
+  def processShouldTimeTheMethodAndItsCapabilities(): Unit = {
+    SFlux(testee(SMono.just(INVOCATION)).process(Set(JMAP_CORE, LINAGORA_ECHO), INVOCATION, SESSION))
+      .collectSeq()
+      .block()
+
+    assertThat(metricFactory.executionTimesFor("TMAIL-JMAP-METHOD-Linagora/echo")).hasSize(1)
+    assertThat(metricFactory.executionTimesFor("TMAIL-JMAP-CAPABILITY-com:linagora:params:jmap:echo")).hasSize(1)
+  }
+
+  @Test
+  def processShouldNotReportTheCoreCapability(): Unit = {
+    SFlux(testee(SMono.just(INVOCATION)).process(Set(JMAP_CORE, LINAGORA_ECHO), INVOCATION, SESSION))
+      .collectSeq()
+      .block()
+
+    assertThat(metricFactory.executionTimesFor("TMAIL-JMAP-CAPABILITY-" + JMAP_CORE.value)).isEmpty()
+  }
+
+  @Test
+  def processShouldNotCountErrorsOnSuccess(): Unit = {
+    SFlux(testee(SMono.just(INVOCATION)).process(Set(JMAP_CORE, LINAGORA_ECHO), INVOCATION, SESSION))
+      .collectSeq()
+      .block()
+
+    assertThat(metricFactory.countFor("TMAIL-JMAP-METHOD-ERROR-Linagora/echo")).isZero
+    assertThat(metricFactory.countFor("TMAIL-JMAP-CAPABILITY-ERROR-com:linagora:params:jmap:echo")).isZero
+  }
+
+  @Test
+  def processShouldCountErrorResponses(): Unit = {
+    val error = InvocationWithContext(Invocation.error(ErrorCode.ServerFail, "boom", METHOD_CALL_ID), INVOCATION.processingContext)
+
+    SFlux(testee(SMono.just(error)).process(Set(JMAP_CORE, LINAGORA_ECHO), INVOCATION, SESSION))
+      .collectSeq()
+      .block()
+
+    assertThat(metricFactory.countFor("TMAIL-JMAP-METHOD-ERROR-Linagora/echo")).isEqualTo(1)
+    assertThat(metricFactory.countFor("TMAIL-JMAP-CAPABILITY-ERROR-com:linagora:params:jmap:echo")).isEqualTo(1)
+  }
+
+  @Test
+  def processShouldCountFailures(): Unit = {
+    assertThatThrownBy(() => SFlux(testee(SMono.error(new RuntimeException("boom"))).process(Set(JMAP_CORE, LINAGORA_ECHO), INVOCATION, SESSION))
+        .collectSeq()
+        .block())
+      .isInstanceOf(classOf[RuntimeException])
+
+    assertThat(metricFactory.countFor("TMAIL-JMAP-METHOD-ERROR-Linagora/echo")).isEqualTo(1)
+    assertThat(metricFactory.executionTimesFor("TMAIL-JMAP-METHOD-Linagora/echo")).hasSize(1)
+  }
+}
@@ -0,0 +1,160 @@
+package com.linagora.tmail.james.jmap.settings
+
+import java.time.{Duration, Instant}
+import java.util.concurrent.atomic.AtomicReference
+
+import com.linagora.tmail.james.jmap.settings.JmapSettingsRepositoryContract.{ALICE, BOB, SettingsUpsertRequestPair}
+import org.apache.james.core.Username
+import org.apache.james.metrics.api.NoopGaugeRegistry
+import org.apache.james.utils.UpdatableTickingClock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.{BeforeEach, Test}
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.{clearInvocations, doAnswer, spy, times, verify}
+import org.reactivestreams.Publisher
+import reactor.core.scala.publisher.SMono
+
+class CachingJmapSettingsRepositoryTest extends JmapSettingsRepositoryContract {
+  val STALENESS: Duration = Duration.ofSeconds(10)
+
+  var underlying: MemoryJmapSettingsRepository = _
+  var clock: UpdatableTickingClock = _
+  var cachingRepository: CachingJmapSettingsRepository = _
+
+  @BeforeEach
+  def setUp(): Unit = {
+    underlying = spy(new MemoryJmapSettingsRepository)
+    clock = new UpdatableTickingClock(Instant.parse("2023-10-19T10:00:00Z"))
+    cachingRepository = new CachingJmapSettingsRepository(underlying,
+      JmapSettingsCacheConfiguration(enabled = true, staleness = STALENESS),
+      new NoopGaugeRegistry, clock)
+  }
+
+  override def testee: JmapSettingsRepository = cachingRepository
+
+  private def get(username: Username): Option[JmapSettings] =
+    SMono(cachingRepository.get(username)).blockOption()
+
+  @Test
+  def freshEntriesShouldBeServedFromTheCache(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(BOB)
+    clearInvocations(underlying)
+
+    get(BOB)
+    get(BOB)
+
+    verify(underlying, times(0)).get(any[Username])
+    verify(underlying, times(0)).getLatestState(any[Username])
+  }
+
+  @Test
+  def absentSettingsShouldBeCached(): Unit = {
+    get(BOB)
+    get(BOB)
+
+    verify(underlying, times(1)).get(BOB)
+  }
+
+  @Test
+  def localWritesShouldInvalidateTheCachedSettings(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(BOB)
+
+    val stateUpdate: SettingsStateUpdate = SMono(cachingRepository.reset(BOB, ("key1", "value2").asUpsertRequest)).block()
+
+    assertThat(get(BOB).map(_.state).orNull).isEqualTo(stateUpdate.newState)
+  }
+
+  @Test
+  def deleteShouldInvalidateTheCachedSettings(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(BOB)
+
+    SMono(cachingRepository.delete(BOB)).block()
+
+    assertThat(get(BOB).isEmpty).isTrue
+  }
+
+  @Test
+  def staleEntriesShouldOnlyReadTheStateWhenUnchanged(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(BOB)
+    clearInvocations(underlying)
+
+    clock.setInstant(clock.instant().plus(STALENESS))
+    get(BOB)
+
+    verify(underlying, times(1)).getLatestState(BOB)
+    verify(underlying, times(0)).get(any[Username])
+  }
+
+  @Test
+  def revalidatedEntriesShouldBeFreshAgain(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(BOB)
+    clock.setInstant(clock.instant().plus(STALENESS))
+    get(BOB)
+    clearInvocations(underlying)
+
+    get(BOB)
+
+    verify(underlying, times(0)).getLatestState(any[Username])
+  }
+
+  @Test
+  def writesDoneElsewhereShouldBeVisibleOnceStale(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(BOB)
+
+    val remoteUpdate: SettingsStateUpdate = SMono(underlying.reset(BOB, ("key1", "value2").asUpsertRequest)).block()
+
+    clock.setInstant(clock.instant().plus(STALENESS))
+    assertThat(get(BOB).map(_.state).orNull).isEqualTo(remoteUpdate.newState)
+  }
+
+  @Test
+  def settingsCreatedElsewhereShouldBeVisibleOnceStale(): Unit = {
+    get(BOB)
+
+    val remoteUpdate: SettingsStateUpdate = SMono(underlying.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+
+    clock.setInstant(clock.instant().plus(STALENESS))
+    assertThat(get(BOB).map(_.state).orNull).isEqualTo(remoteUpdate.newState)
+  }
+
+  @Test
+  def loadsConcurrentToALocalWriteShouldNotCacheWhatTheyRead(): Unit = {
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    val concurrentWrite: AtomicReference[SettingsStateUpdate] = new AtomicReference()
+    doAnswer(invocation => {
+      val settingsBeforeTheWrite: Option[JmapSettings] = SMono(invocation.callRealMethod().asInstanceOf[Publisher[JmapSettings]]).blockOption()
+      if (concurrentWrite.get() == null) {
+        concurrentWrite.set(SMono(cachingRepository.reset(BOB, ("key1", "value2").asUpsertRequest)).block())
+      }
+      SMono.justOrEmpty(settingsBeforeTheWrite)
+    }).when(underlying).get(BOB)
+
+    get(BOB)
+
+    assertThat(get(BOB).map(_.state).orNull).isEqualTo(concurrentWrite.get().newState)
+  }
+
+  @Test
+  def writesShouldOnlyInvalidateTheImpactedUser(): Unit = {
+    SMono(cachingRepository.reset(ALICE, ("key1", "value1").asUpsertRequest)).block()
+    get(ALICE)
+    clearInvocations(underlying)
+
+    SMono(cachingRepository.reset(BOB, ("key1", "value1").asUpsertRequest)).block()
+    get(ALICE)
+
+    verify(underlying, times(0)).get(ALICE)
+  }
+
+  @Test
+  def wrapShouldReturnTheUnderlyingRepositoryWhenDisabled(): Unit = {
+    assertThat(CachingJmapSettingsRepository.wrap(underlying, JmapSettingsCacheConfiguration.DISABLED, new NoopGaugeRegistry))
+      .isSameAs(underlying)
+  }
+}
@@ -0,0 +1,52 @@
+package com.linagora.tmail.james.jmap.settings
+
+import java.time.Duration
+
+import org.apache.commons.configuration2.PropertiesConfiguration
+import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
+import org.junit.jupiter.api.Test
+
+class JmapSettingsCacheConfigurationTest {
+  @Test
+  def fromShouldBeDisabledByDefault(): Unit =
+    assertThat(JmapSettingsCacheConfiguration.from(new PropertiesConfiguration()))
+      .isEqualTo(JmapSettingsCacheConfiguration.DISABLED)
+
+  @Test
+  def fromShouldReadTheCacheSettings(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("settings.cache.enabled", "true")
+    configuration.addProperty("settings.cache.staleness", "1m")
+    configuration.addProperty("settings.cache.maxSize", "100")
+
+    assertThat(JmapSettingsCacheConfiguration.from(configuration))
+      .isEqualTo(JmapSettingsCacheConfiguration(enabled = true, staleness = Duration.ofMinutes(1), maxSize = 100))
+  }
+
+  @Test
+  def fromShouldFailOnMalformedStaleness(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("settings.cache.staleness", "ten seconds")
+
+    assertThatThrownBy(() => JmapSettingsCacheConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldFailOnMalformedMaxSize(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("settings.cache.maxSize", "many")
+
+    assertThatThrownBy(() => JmapSettingsCacheConfiguration.from(configuration))
+      .isInstanceOf(classOf[RuntimeException])
+  }
+
+  @Test
+  def fromShouldFailOnNonPositiveMaxSize(): Unit = {
+    val configuration = new PropertiesConfiguration()
+    configuration.addProperty("settings.cache.maxSize", "0")
+
+    assertThatThrownBy(() => JmapSettingsCacheConfiguration.from(configuration))
+      .isInstanceOf(classOf[IllegalArgumentException])
+  }
+}
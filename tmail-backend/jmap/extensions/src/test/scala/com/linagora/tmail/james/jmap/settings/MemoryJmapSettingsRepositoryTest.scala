@@ -1,6 +1,17 @@
 package com.linagora.tmail.james.jmap.settings
 
-import org.junit.jupiter.api.BeforeEach
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import com.linagora.tmail.james.jmap.settings.JmapSettingsRepositoryContract.BOB
+import com.linagora.tmail.james.jmap.settings.JmapSettingsStateFactory.INITIAL
+import org.apache.james.jmap.core.UuidState
+import org.apache.james.util.concurrency.ConcurrentTestRunner
+import org.assertj.core.api.SoftAssertions
+import org.junit.jupiter.api.{BeforeEach, RepeatedTest}
+import reactor.core.scala.publisher.SMono
+
+import scala.jdk.CollectionConverters._
 
 class MemoryJmapSettingsRepositoryTest extends JmapSettingsRepositoryContract {
   var memoryJmapSettingsRepository: MemoryJmapSettingsRepository = _
@@ -11,4 +22,64 @@ class MemoryJmapSettingsRepositoryTest extends JmapSettingsRepositoryContract {
   }
 
   override def testee: MemoryJmapSettingsRepository = memoryJmapSettingsRepository
+
+  private def key(threadNumber: Int, step: Int): JmapSettingsKey = JmapSettingsKey.liftOrThrow(s"key$threadNumber-$step")
+
+  /**
+   * Updates are linearizable when their state transitions form a single chain starting from the initial state:
+   * every state is the old state of at most one update, and the latest state ends the chain.
+   */
+  @RepeatedTest(10)
+  def concurrentResetAndUpdatePartialShouldBeLinearizable(): Unit = {
+    val threadCount: Int = 10
+    val operationCount: Int = 50
+    val stateUpdates: ConcurrentLinkedQueue[SettingsStateUpdate] = new ConcurrentLinkedQueue()
+
+    ConcurrentTestRunner.builder()
+      .operation((threadNumber, step) => {
+        val stateUpdate: SettingsStateUpdate = if (step % 10 == 0) {
+          SMono(testee.reset(BOB, JmapSettingsUpsertRequest(Map(key(threadNumber, step) -> JmapSettingsValue("reset"))))).block()
+        } else {
+          SMono(testee.updatePartial(BOB, JmapSettingsPatch(JmapSettingsUpsertRequest(Map(key(threadNumber, step) -> JmapSettingsValue("patch"))),
+            Seq(key(threadNumber, step - 1))))).block()
+        }
+        stateUpdates.add(stateUpdate)
+      })
+      .threadCount(threadCount)
+      .operationCount(operationCount)
+      .runSuccessfullyWithin(Duration.ofMinutes(1))
+
+    val transitions: Map[UuidState, UuidState] = stateUpdates.asScala.map(update => update.oldState -> update.newState).toMap
+    val chain: Seq[UuidState] = LazyList.iterate(Option(INITIAL))(_.flatMap(transitions.get))
+      .takeWhile(_.isDefined)
+      .flatten
+      .toList
+    val latest: JmapSettings = SMono(testee.get(BOB)).block()
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(transitions.size).isEqualTo(threadCount * operationCount)
+      softly.assertThat(chain.size).isEqualTo(threadCount * operationCount + 1)
+      softly.assertThat(chain.last).isEqualTo(latest.state)
+    })
+  }
+
+  @RepeatedTest(10)
+  def readsShouldNeverObservePartiallyAppliedPatches(): Unit = {
+    val keys: Seq[JmapSettingsKey] = (0 until 10).map(i => JmapSettingsKey.liftOrThrow(s"key$i"))
+    SMono(testee.reset(BOB, JmapSettingsUpsertRequest(keys.map(_ -> JmapSettingsValue("0")).toMap))).block()
+    val observedValues: ConcurrentLinkedQueue[Set[JmapSettingsValue]] = new ConcurrentLinkedQueue()
+
+    ConcurrentTestRunner.builder()
+      .operation((threadNumber, step) => if (threadNumber % 2 == 0) {
+        SMono(testee.updatePartial(BOB, JmapSettingsPatch(JmapSettingsUpsertRequest(keys.map(_ -> JmapSettingsValue(s"$threadNumber-$step")).toMap), Seq()))).block()
+      } else {
+        observedValues.add(SMono(testee.get(BOB)).block().settings.values.toSet)
+      })
+      .threadCount(8)
+      .operationCount(100)
+      .runSuccessfullyWithin(Duration.ofMinutes(1))
+
+    SoftAssertions.assertSoftly(softly => observedValues.asScala
+      .foreach(values => softly.assertThat(values.size).isEqualTo(1)))
+  }
 }
@@ -1,12 +1,129 @@
 package com.linagora.tmail.james.jmap.ticket
 
-import org.junit.jupiter.api.BeforeEach
+import java.net.InetAddress
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{AtomicInteger, AtomicLong}
+
+import com.github.benmanes.caffeine.cache.Ticker
+import com.linagora.tmail.james.jmap.ticket.TicketStoreContract.initialDate
+import org.apache.james.core.Username
+import org.apache.james.jmap.core.UTCDate
+import org.apache.james.metrics.tests.RecordingMetricFactory
+import org.apache.james.util.concurrency.ConcurrentTestRunner
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.SoftAssertions
+import org.junit.jupiter.api.{BeforeEach, Test}
+
+import scala.jdk.CollectionConverters._
+import scala.jdk.OptionConverters._
+
+class FakeTicker extends Ticker {
+  private val nanos: AtomicLong = new AtomicLong()
+
+  def advance(duration: Duration): Unit = nanos.addAndGet(duration.toNanos)
+
+  override def read(): Long = nanos.get()
+}
 
 class MemoryTicketStoreTest extends TicketStoreContract {
   var testee: MemoryTicketStore = null;
+  var metricFactory: RecordingMetricFactory = null
+  var ticker: FakeTicker = null
 
   @BeforeEach
   def setUp(): Unit = {
-    testee = new MemoryTicketStore()
+    metricFactory = new RecordingMetricFactory()
+    ticker = new FakeTicker()
+    testee = new MemoryTicketStore(metricFactory, MemoryTicketStore.TTL, ticker)
+  }
+
+  private def ticket(): Ticket = Ticket(
+    clientAddress = InetAddress.getByName("127.0.0.1"),
+    validUntil = UTCDate(initialDate.plusMinutes(1)),
+    generatedOn = UTCDate(initialDate),
+    value = TicketValue.generate,
+    username = Username.of("bob"))
+
+  @Test
+  def ticketsShouldExpire(): Unit = {
+    val expiringTicket = ticket()
+    testee.persist(expiringTicket).block()
+
+    ticker.advance(MemoryTicketStore.TTL.plusSeconds(1))
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(testee.retrieve(expiringTicket.value).blockOption().toJava).isEmpty
+      softly.assertThat(testee.retrieveAndDelete(expiringTicket.value).blockOption().toJava).isEmpty
+    })
+  }
+
+  @Test
+  def ticketsShouldNotExpireBeforeTheirTimeToLive(): Unit = {
+    val validTicket = ticket()
+    testee.persist(validTicket).block()
+
+    ticker.advance(MemoryTicketStore.TTL.minusSeconds(1))
+
+    assertThat(testee.retrieve(validTicket.value).blockOption().toJava).contains(validTicket)
+  }
+
+  @Test
+  def metricsShouldCountIssuedConsumedAndExpiredTickets(): Unit = {
+    val consumedTicket = ticket()
+    testee.persist(consumedTicket).block()
+    testee.persist(ticket()).block()
+    testee.persist(ticket()).block()
+
+    testee.retrieveAndDelete(consumedTicket.value).block()
+    testee.retrieveAndDelete(consumedTicket.value).block()
+    ticker.advance(MemoryTicketStore.TTL.plusSeconds(1))
+    testee.cleanUp()
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(metricFactory.countFor(MemoryTicketStore.ISSUED_METRIC_NAME)).isEqualTo(3)
+      softly.assertThat(metricFactory.countFor(MemoryTicketStore.CONSUMED_METRIC_NAME)).isEqualTo(1)
+      softly.assertThat(metricFactory.countFor(MemoryTicketStore.EXPIRED_METRIC_NAME)).isEqualTo(2)
+    })
+  }
+
+  @Test
+  def concurrentlyPersistedTicketsShouldNotBeLost(): Unit = {
+    val persisted: ConcurrentHashMap[TicketValue, Ticket] = new ConcurrentHashMap()
+
+    ConcurrentTestRunner.builder
+      .operation((_: Int, _: Int) => {
+        val persistedTicket = ticket()
+        testee.persist(persistedTicket).block()
+        persisted.put(persistedTicket.value, persistedTicket)
+      })
+      .threadCount(20)
+      .operationCount(500)
+      .runSuccessfullyWithin(Duration.ofMinutes(1))
+
+    assertThat(persisted.values().asScala
+      .count(persistedTicket => testee.retrieve(persistedTicket.value).blockOption().contains(persistedTicket)))
+      .isEqualTo(20 * 500)
+  }
+
+  @Test
+  def ticketsShouldBeConsumedOnlyOnceUnderConcurrency(): Unit = {
+    val tickets: IndexedSeq[Ticket] = (0 until 500).map(_ => ticket())
+    tickets.foreach(persistedTicket => testee.persist(persistedTicket).block())
+    val consumptions: ConcurrentHashMap[TicketValue, AtomicInteger] = new ConcurrentHashMap()
+
+    ConcurrentTestRunner.builder
+      .operation((_: Int, step: Int) => testee.retrieveAndDelete(tickets(step).value)
+        .blockOption()
+        .foreach(consumedTicket => consumptions.computeIfAbsent(consumedTicket.value, _ => new AtomicInteger()).incrementAndGet()))
+      .threadCount(20)
+      .operationCount(tickets.size)
+      .runSuccessfullyWithin(Duration.ofMinutes(1))
+
+    SoftAssertions.assertSoftly(softly => {
+      softly.assertThat(consumptions.size()).isEqualTo(tickets.size)
+      softly.assertThat(consumptions.values().asScala.map(_.get()).toSet.asJava).containsOnly(1)
+      softly.assertThat(metricFactory.countFor(MemoryTicketStore.CONSUMED_METRIC_NAME)).isEqualTo(tickets.size)
+    })
   }
 }
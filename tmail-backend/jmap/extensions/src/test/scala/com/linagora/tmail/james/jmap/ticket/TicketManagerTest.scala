@@ -4,6 +4,7 @@ import java.net.InetAddress
 import java.time.ZonedDateTime
 
 import org.apache.james.core.Username
+import org.apache.james.metrics.tests.RecordingMetricFactory
 import org.apache.james.utils.UpdatableTickingClock
 import org.assertj.core.api.Assertions.{assertThat, assertThatThrownBy}
 import org.junit.jupiter.api.{BeforeEach, Test}
@@ -18,7 +19,7 @@ class TicketManagerTest {
   @BeforeEach
   def setUp(): Unit = {
     clock = new UpdatableTickingClock(initialDate.toInstant)
-    testee = new TicketManager(clock, new MemoryTicketStore())
+    testee = new TicketManager(clock, new MemoryTicketStore(new RecordingMetricFactory()))
   }
 
   @Test
@@ -59,4 +59,41 @@ trait TicketStoreContract {
     assertThatCode(() => testee().delete(TicketValue.generate))
       .doesNotThrowAnyException()
   }
+
+  @Test
+  def retrieveAndDeleteShouldReturnPersistedValue(): Unit = {
+    val ticket = Ticket(
+      clientAddress = InetAddress.getByName("127.0.0.1"),
+      validUntil = UTCDate(initialDate.plusMinutes(1)),
+      generatedOn = UTCDate(initialDate),
+      value = TicketValue.generate,
+      username = Username.of("bob"))
+
+    testee().persist(ticket).block()
+
+    assertThat(testee().retrieveAndDelete(ticket.value).blockOption())
+      .isEqualTo(Some(ticket))
+  }
+
+  @Test
+  def retrieveAndDeleteShouldConsumeTheTicket(): Unit = {
+    val ticket = Ticket(
+      clientAddress = InetAddress.getByName("127.0.0.1"),
+      validUntil = UTCDate(initialDate.plusMinutes(1)),
+      generatedOn = UTCDate(initialDate),
+      value = TicketValue.generate,
+      username = Username.of("bob"))
+
+    testee().persist(ticket).block()
+    testee().retrieveAndDelete(ticket.value).block()
+
+    assertThat(testee().retrieve(ticket.value).blockOption())
+      .isEqualTo(None)
+  }
+
+  @Test
+  def retrieveAndDeleteShouldReturnNoneByDefault(): Unit = {
+    assertThat(testee().retrieveAndDelete(TicketValue.generate).blockOption())
+      .isEqualTo(None)
+  }
 }
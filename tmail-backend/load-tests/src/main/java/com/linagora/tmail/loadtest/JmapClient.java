@@ -0,0 +1,134 @@
+package com.linagora.tmail.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Minimal JMAP client over the JDK HTTP client. Failed calls, method level errors and creations reported as
+ * `notCreated` raise an {@link IllegalStateException}.
+ */
+public class JmapClient {
+    public static final String ACCEPT_RFC8621 = "application/json; jmapVersion=rfc-8621";
+    public static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String ECHO_REQUEST = """
+        {
+          "@type": "Request",
+          "id": "req-1",
+          "using": ["urn:ietf:params:jmap:core"],
+          "methodCalls": [["Core/echo", {"arg1": "arg1data"}, "c1"]]
+        }""";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI httpUri;
+    private final URI webSocketUri;
+
+    public JmapClient(HttpClient httpClient, ObjectMapper objectMapper, int port) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.httpUri = URI.create("http://127.0.0.1:" + port);
+        this.webSocketUri = URI.create("ws://127.0.0.1:" + port);
+    }
+
+    public JsonNode session(String authorization) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(httpUri.resolve("/jmap/session"))
+            .header("Accept", ACCEPT_RFC8621)
+            .header("Authorization", authorization)
+            .timeout(TIMEOUT)
+            .GET()
+            .build();
+
+        return objectMapper.readTree(send(request));
+    }
+
+    public JsonNode call(String authorization, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(httpUri.resolve("/jmap"))
+            .header("Accept", ACCEPT_RFC8621)
+            .header("Content-Type", "application/json")
+            .header("Authorization", authorization)
+            .timeout(TIMEOUT)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+
+        JsonNode response = objectMapper.readTree(send(request));
+        checkMethodResponses(response);
+        return response;
+    }
+
+    public String generateTicket(String authorization) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(httpUri.resolve("/jmap/ws/ticket"))
+            .header("Accept", ACCEPT_RFC8621)
+            .header("Authorization", authorization)
+            .timeout(TIMEOUT)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+
+        return objectMapper.readTree(send(request)).get("value").asText();
+    }
+
+    /**
+     * Opens a web socket authenticated by the ticket, then waits for the answer to a `Core/echo` request.
+     */
+    public void webSocketEcho(String ticket) throws Exception {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        WebSocket webSocket = httpClient.newWebSocketBuilder()
+            .header("Accept", ACCEPT_RFC8621)
+            .connectTimeout(TIMEOUT)
+            .buildAsync(webSocketUri.resolve("/jmap/ws?ticket=" + ticket), new WebSocket.Listener() {
+                private final StringBuilder text = new StringBuilder();
+
+                @Override
+                public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                    text.append(data);
+                    if (last) {
+                        response.complete(text.toString());
+                    }
+                    webSocket.request(1);
+                    return null;
+                }
+
+                @Override
+                public void onError(WebSocket webSocket, Throwable error) {
+                    response.completeExceptionally(error);
+                }
+            })
+            .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        try {
+            webSocket.sendText(ECHO_REQUEST, true).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            checkMethodResponses(objectMapper.readTree(response.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)));
+        } finally {
+            webSocket.abort();
+        }
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.method() + " " + request.uri().getPath() + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private void checkMethodResponses(JsonNode response) {
+        for (JsonNode methodResponse : response.path("methodResponses")) {
+            String methodName = methodResponse.get(0).asText();
+            JsonNode arguments = methodResponse.get(1);
+            if (methodName.equals("error") || !arguments.path("notCreated").isEmpty()) {
+                throw new IllegalStateException("Method call failed: " + methodResponse);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.linagora.tmail.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every successful latency of a scenario so that percentiles are exact. A load test run records at most a few
+ * million samples.
+ */
+public class LatencyRecorder {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final LongAdder errors = new LongAdder();
+    private long[] latencies = new long[INITIAL_CAPACITY];
+    private int count = 0;
+
+    public synchronized void record(long latencyInNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[count++] = latencyInNanos;
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public synchronized long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    public long errorCount() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,180 @@
+package com.linagora.tmail.loadtest;
+
+import static org.apache.james.data.UsersRepositoryModuleChooser.Implementation.DEFAULT;
+
+import java.io.File;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.james.GuiceJamesServer;
+import org.apache.james.jmap.core.JmapRfc8621Configuration;
+import org.apache.james.jmap.draft.JmapGuiceProbe;
+import org.apache.james.utils.DataProbeImpl;
+import org.apache.james.utils.WebAdminGuiceProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.linagora.tmail.james.app.MemoryConfiguration;
+import com.linagora.tmail.james.app.MemoryServer;
+import com.linagora.tmail.james.common.LinagoraTicketAuthenticationContract;
+import com.linagora.tmail.loadtest.LoadTestSeeder.SeededData;
+import com.linagora.tmail.module.LinagoraTestJMAPServerModule;
+
+/**
+ * Boots a memory server in process, seeds it, then runs the {@link Scenario} mix in a closed loop: each of the
+ * `concurrency` workers issues its next request as soon as the previous one completes.
+ *
+ * Exits with a non zero status when a latency or error rate SLO is breached.
+ */
+public class LoadTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfiguration configuration = LoadTestConfiguration.from(System.getProperties());
+
+        List<String> breaches = new LoadTest(configuration).run();
+
+        // The server leaves non daemon threads behind
+        System.exit(breaches.isEmpty() ? 0 : 1);
+    }
+
+    private final LoadTestConfiguration configuration;
+    private final ObjectMapper objectMapper;
+
+    public LoadTest(LoadTestConfiguration configuration) {
+        this.configuration = configuration;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    public List<String> run() throws Exception {
+        File workingDirectory = Files.createTempDirectory("tmail-load-test").toFile();
+        GuiceJamesServer server = MemoryServer.createServer(MemoryConfiguration.builder()
+                .workingDirectory(workingDirectory)
+                .configurationFromClasspath()
+                .usersRepository(DEFAULT)
+                .build())
+            .overrideWith(new LinagoraTestJMAPServerModule())
+            .overrideWith(binder -> binder.bind(JmapRfc8621Configuration.class)
+                .toInstance(LinagoraTicketAuthenticationContract.jmapConfiguration()));
+
+        server.start();
+        try {
+            return run(server);
+        } finally {
+            server.stop();
+            FileUtils.deleteQuietly(workingDirectory);
+        }
+    }
+
+    private List<String> run(GuiceJamesServer server) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(JmapClient.TIMEOUT)
+            .build();
+        JmapClient jmapClient = new JmapClient(httpClient, objectMapper, server.getProbe(JmapGuiceProbe.class).getJmapPort().getValue());
+        WebAdminClient webAdminClient = new WebAdminClient(httpClient, server.getProbe(WebAdminGuiceProbe.class).getWebAdminPort().getValue());
+
+        SeededData data = new LoadTestSeeder(server.getProbe(DataProbeImpl.class), webAdminClient, jmapClient, configuration).seed();
+        ScenarioRunner runner = new ScenarioRunner(jmapClient, data);
+
+        LOGGER.info("Warming up for {} with {} workers", configuration.warmUp(), configuration.concurrency());
+        drive(runner, configuration.warmUp());
+
+        LOGGER.info("Measuring for {} with {} workers", configuration.duration(), configuration.concurrency());
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Map<Scenario, LatencyRecorder> recorders = drive(runner, configuration.duration());
+        Duration elapsed = stopwatch.elapsed();
+
+        List<ScenarioReport> reports = Arrays.stream(Scenario.values())
+            .map(scenario -> ScenarioReport.from(scenario, recorders.get(scenario), elapsed))
+            .collect(ImmutableList.toImmutableList());
+        List<String> breaches = reports.stream()
+            .flatMap(report -> report.sloBreaches(configuration))
+            .collect(ImmutableList.toImmutableList());
+
+        reports.forEach(report -> LOGGER.info(String.format("%-16s requests=%d errors=%d throughput=%.1f/s p50=%dms p95=%dms p99=%dms max=%dms",
+            report.scenario().propertyName(), report.requestCount(), report.errorCount(), report.throughput(),
+            report.p50().toMillis(), report.p95().toMillis(), report.p99().toMillis(), report.max().toMillis())));
+        breaches.forEach(breach -> LOGGER.error("SLO breached: {}", breach));
+        if (configuration.reportFile().isPresent()) {
+            writeReport(new File(configuration.reportFile().get()), reports, breaches);
+        }
+        return breaches;
+    }
+
+    private Map<Scenario, LatencyRecorder> drive(ScenarioRunner runner, Duration duration) throws InterruptedException {
+        Map<Scenario, LatencyRecorder> recorders = Arrays.stream(Scenario.values())
+            .collect(ImmutableMap.toImmutableMap(Function.identity(), any -> new LatencyRecorder()));
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(configuration.concurrency());
+        for (int i = 0; i < configuration.concurrency(); i++) {
+            executor.submit(() -> work(runner, recorders, deadline));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.plus(JmapClient.TIMEOUT).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        return recorders;
+    }
+
+    private void work(ScenarioRunner runner, Map<Scenario, LatencyRecorder> recorders, long deadline) {
+        Random random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            Scenario scenario = pickScenario(random);
+            LoadTestUser user = runner.pickUser(random);
+            long start = System.nanoTime();
+            try {
+                runner.run(scenario, user, random);
+                recorders.get(scenario).record(System.nanoTime() - start);
+            } catch (Exception e) {
+                recorders.get(scenario).recordError();
+                LOGGER.debug("{} failed for {}", scenario.propertyName(), user.username().asString(), e);
+            }
+        }
+    }
+
+    private Scenario pickScenario(Random random) {
+        int totalWeight = configuration.weights().values().stream().mapToInt(Integer::intValue).sum();
+        int drawn = random.nextInt(totalWeight);
+        for (Scenario scenario : Scenario.values()) {
+            drawn -= configuration.weights().get(scenario);
+            if (drawn < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Unreachable: weights sum up to " + totalWeight);
+    }
+
+    private void writeReport(File file, List<ScenarioReport> reports, List<String> breaches) throws Exception {
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, ImmutableMap.of(
+            "scenarios", reports.stream()
+                .map(report -> ImmutableMap.builder()
+                    .put("scenario", report.scenario().propertyName())
+                    .put("requests", report.requestCount())
+                    .put("errors", report.errorCount())
+                    .put("throughput", report.throughput())
+                    .put("p50Ms", report.p50().toMillis())
+                    .put("p95Ms", report.p95().toMillis())
+                    .put("p99Ms", report.p99().toMillis())
+                    .put("maxMs", report.max().toMillis())
+                    .build())
+                .collect(ImmutableList.toImmutableList()),
+            "sloBreaches", breaches));
+        LOGGER.info("Report written to {}", file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,68 @@
+package com.linagora.tmail.loadtest;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Function;
+
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+public record LoadTestConfiguration(int userCount,
+                                    int contactCount,
+                                    int labelCountPerUser,
+                                    int teamMailboxCount,
+                                    int concurrency,
+                                    Duration warmUp,
+                                    Duration duration,
+                                    Map<Scenario, Integer> weights,
+                                    Map<Scenario, Duration> p99Slos,
+                                    double maxErrorRate,
+                                    Optional<String> reportFile) {
+    public static final String PREFIX = "loadtest.";
+
+    public LoadTestConfiguration {
+        Preconditions.checkArgument(userCount >= 2, "'%susers' needs at least 2 users to exchange emails", PREFIX);
+        Preconditions.checkArgument(concurrency > 0, "'%sconcurrency' should be strictly positive", PREFIX);
+        Preconditions.checkArgument(weights.values().stream().allMatch(weight -> weight >= 0), "Scenario weights should be positive");
+        Preconditions.checkArgument(weights.values().stream().mapToInt(Integer::intValue).sum() > 0, "At least one scenario should have a strictly positive weight");
+        Preconditions.checkArgument(maxErrorRate >= 0 && maxErrorRate <= 1, "'%sslo.errorRate' should be between 0 and 1", PREFIX);
+    }
+
+    public static LoadTestConfiguration from(Properties properties) {
+        return new LoadTestConfiguration(
+            intValue(properties, "users", 100),
+            intValue(properties, "contacts", 1000),
+            intValue(properties, "labels", 20),
+            intValue(properties, "teamMailboxes", 10),
+            intValue(properties, "concurrency", 32),
+            durationValue(properties, "warmUp", Duration.ofSeconds(10)),
+            durationValue(properties, "duration", Duration.ofSeconds(60)),
+            perScenario(scenario -> intValue(properties, "weight." + scenario.propertyName(), scenario.defaultWeight())),
+            perScenario(scenario -> durationValue(properties, "slo." + scenario.propertyName() + ".p99", scenario.defaultP99())),
+            Double.parseDouble(properties.getProperty(PREFIX + "slo.errorRate", "0.01")),
+            Optional.ofNullable(properties.getProperty(PREFIX + "report")));
+    }
+
+    private static int intValue(Properties properties, String name, int defaultValue) {
+        return Optional.ofNullable(properties.getProperty(PREFIX + name))
+            .map(Integer::parseInt)
+            .orElse(defaultValue);
+    }
+
+    private static Duration durationValue(Properties properties, String name, Duration defaultValue) {
+        return Optional.ofNullable(properties.getProperty(PREFIX + name))
+            .map(value -> DurationParser.parse(value, ChronoUnit.MILLIS))
+            .orElse(defaultValue);
+    }
+
+    private static <T> Map<Scenario, T> perScenario(Function<Scenario, T> valueFunction) {
+        return Arrays.stream(Scenario.values())
+            .collect(ImmutableMap.toImmutableMap(Function.identity(), valueFunction));
+    }
+}
@@ -0,0 +1,118 @@
+package com.linagora.tmail.loadtest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.apache.james.core.Domain;
+import org.apache.james.core.MailAddress;
+import org.apache.james.core.Username;
+import org.apache.james.utils.DataProbeImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.lambdas.Throwing;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Creates the users, domain contacts, team mailboxes and labels the scenarios rely on.
+ */
+public class LoadTestSeeder {
+    public record SeededData(List<LoadTestUser> users, List<MailAddress> teamMailboxes, int contactCount) {
+
+    }
+
+    public static final Domain DOMAIN = Domain.of("domain.tld");
+    public static final String PASSWORD = "secret";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTestSeeder.class);
+    private static final int TEAM_MAILBOX_MEMBER_COUNT = 5;
+
+    private final DataProbeImpl dataProbe;
+    private final WebAdminClient webAdminClient;
+    private final JmapClient jmapClient;
+    private final LoadTestConfiguration configuration;
+
+    public LoadTestSeeder(DataProbeImpl dataProbe, WebAdminClient webAdminClient, JmapClient jmapClient, LoadTestConfiguration configuration) {
+        this.dataProbe = dataProbe;
+        this.webAdminClient = webAdminClient;
+        this.jmapClient = jmapClient;
+        this.configuration = configuration;
+    }
+
+    public SeededData seed() throws Exception {
+        dataProbe.addDomain(DOMAIN.asString());
+        List<Username> usernames = IntStream.range(0, configuration.userCount())
+            .mapToObj(i -> Username.fromLocalPartWithDomain("user" + i, DOMAIN))
+            .collect(ImmutableList.toImmutableList());
+        for (Username username : usernames) {
+            dataProbe.addUser(username.asString(), PASSWORD);
+        }
+
+        ImmutableList.Builder<MailAddress> teamMailboxes = ImmutableList.builder();
+        for (int i = 0; i < configuration.teamMailboxCount(); i++) {
+            teamMailboxes.add(createTeamMailbox(i, usernames));
+        }
+
+        for (int i = 0; i < configuration.contactCount(); i++) {
+            webAdminClient.post("/domains/" + DOMAIN.asString() + "/contacts", """
+                {"emailAddress": "contact%d@%s", "firstname": "Firstname%d", "surname": "Surname%d"}"""
+                .formatted(i, DOMAIN.asString(), i, i));
+        }
+
+        List<LoadTestUser> users = usernames.stream()
+            .map(Throwing.function(this::provision).sneakyThrow())
+            .collect(ImmutableList.toImmutableList());
+
+        LOGGER.info("Seeded {} users, {} team mailboxes, {} contacts and {} labels per user",
+            users.size(), configuration.teamMailboxCount(), configuration.contactCount(), configuration.labelCountPerUser());
+        return new SeededData(users, teamMailboxes.build(), configuration.contactCount());
+    }
+
+    private MailAddress createTeamMailbox(int index, List<Username> usernames) throws Exception {
+        String name = "team" + index;
+        webAdminClient.put("/domains/" + DOMAIN.asString() + "/team-mailboxes/" + name);
+        for (int i = 0; i < TEAM_MAILBOX_MEMBER_COUNT; i++) {
+            Username member = usernames.get((index * TEAM_MAILBOX_MEMBER_COUNT + i) % usernames.size());
+            webAdminClient.put("/domains/" + DOMAIN.asString() + "/team-mailboxes/" + name + "/members/" + member.asString());
+        }
+        return new MailAddress(name, DOMAIN);
+    }
+
+    /**
+     * Reads the account id from the session, then provisions the default mailboxes and creates the labels.
+     */
+    private LoadTestUser provision(Username username) throws Exception {
+        String authorization = LoadTestUser.basicAuthorization(username, PASSWORD);
+        String accountId = jmapClient.session(authorization)
+            .path("primaryAccounts")
+            .path("urn:ietf:params:jmap:core")
+            .asText();
+
+        JsonNode mailboxes = jmapClient.call(authorization, """
+            {
+              "using": ["urn:ietf:params:jmap:core", "urn:ietf:params:jmap:mail"],
+              "methodCalls": [["Mailbox/get", {"accountId": "%s", "ids": null, "properties": ["id", "role"]}, "c1"]]
+            }""".formatted(accountId));
+        String inboxId = StreamSupport.stream(mailboxes.at("/methodResponses/0/1/list").spliterator(), false)
+            .filter(mailbox -> mailbox.path("role").asText().equals("inbox"))
+            .map(mailbox -> mailbox.get("id").asText())
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No INBOX provisioned for " + username.asString()));
+
+        String labelCreations = IntStream.range(0, configuration.labelCountPerUser())
+            .mapToObj(i -> "\"L%d\": {\"displayName\": \"Label %d\", \"color\": \"#00ccdd\"}".formatted(i, i))
+            .collect(Collectors.joining(", "));
+        JsonNode labels = jmapClient.call(authorization, """
+            {
+              "using": ["urn:ietf:params:jmap:core", "com:linagora:params:jmap:labels"],
+              "methodCalls": [["Label/set", {"accountId": "%s", "create": {%s}}, "c1"]]
+            }""".formatted(accountId, labelCreations));
+        String labelState = labels.at("/methodResponses/0/1/newState").asText();
+
+        return new LoadTestUser(username, PASSWORD, accountId, inboxId, new AtomicReference<>(labelState));
+    }
+}
@@ -0,0 +1,25 @@
+package com.linagora.tmail.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.james.core.Username;
+
+/**
+ * A seeded user. Its label state is shared by the workers polling Label/changes on its behalf.
+ */
+public record LoadTestUser(Username username,
+                           String password,
+                           String accountId,
+                           String inboxId,
+                           AtomicReference<String> labelState) {
+    public static String basicAuthorization(Username username, String password) {
+        String credentials = username.asString() + ":" + password;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String authorization() {
+        return basicAuthorization(username, password);
+    }
+}
@@ -0,0 +1,32 @@
+package com.linagora.tmail.loadtest;
+
+import java.time.Duration;
+
+public enum Scenario {
+    AUTOCOMPLETE("autocomplete", 50, Duration.ofMillis(200)),
+    LABEL_CHANGES("labelChanges", 30, Duration.ofMillis(100)),
+    EMAIL_SEND("emailSend", 10, Duration.ofMillis(500)),
+    WEB_SOCKET_TICKET("webSocketTicket", 10, Duration.ofMillis(300));
+
+    private final String propertyName;
+    private final int defaultWeight;
+    private final Duration defaultP99;
+
+    Scenario(String propertyName, int defaultWeight, Duration defaultP99) {
+        this.propertyName = propertyName;
+        this.defaultWeight = defaultWeight;
+        this.defaultP99 = defaultP99;
+    }
+
+    public String propertyName() {
+        return propertyName;
+    }
+
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+
+    public Duration defaultP99() {
+        return defaultP99;
+    }
+}
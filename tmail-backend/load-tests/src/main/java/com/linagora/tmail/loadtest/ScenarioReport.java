@@ -0,0 +1,69 @@
+package com.linagora.tmail.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+public record ScenarioReport(Scenario scenario,
+                             long successCount,
+                             long errorCount,
+                             double throughput,
+                             Duration p50,
+                             Duration p95,
+                             Duration p99,
+                             Duration max) {
+    public static ScenarioReport from(Scenario scenario, LatencyRecorder recorder, Duration elapsed) {
+        long[] latencies = recorder.sortedLatencies();
+        long errorCount = recorder.errorCount();
+        double elapsedInSeconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+
+        return new ScenarioReport(scenario,
+            latencies.length,
+            errorCount,
+            (latencies.length + errorCount) / elapsedInSeconds,
+            percentile(latencies, 50),
+            percentile(latencies, 95),
+            percentile(latencies, 99),
+            percentile(latencies, 100));
+    }
+
+    /**
+     * Nearest-rank percentile.
+     */
+    static Duration percentile(long[] sortedLatencies, double percentile) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 100, "Percentile should be in ]0, 100]");
+
+        if (sortedLatencies.length == 0) {
+            return Duration.ZERO;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedLatencies.length);
+        return Duration.ofNanos(sortedLatencies[rank - 1]);
+    }
+
+    public long requestCount() {
+        return successCount + errorCount;
+    }
+
+    public double errorRate() {
+        if (requestCount() == 0) {
+            return 0;
+        }
+        return (double) errorCount / requestCount();
+    }
+
+    public Stream<String> sloBreaches(LoadTestConfiguration configuration) {
+        Duration p99Slo = configuration.p99Slos().get(scenario);
+
+        return Stream.of(
+                Optional.of(p99)
+                    .filter(value -> value.compareTo(p99Slo) > 0)
+                    .map(value -> String.format(Locale.US, "%s: p99 is %d ms, SLO is %d ms", scenario.propertyName(), value.toMillis(), p99Slo.toMillis())),
+                Optional.of(errorRate())
+                    .filter(value -> value > configuration.maxErrorRate())
+                    .map(value -> String.format(Locale.US, "%s: error rate is %.4f, SLO is %.4f", scenario.propertyName(), value, configuration.maxErrorRate())))
+            .flatMap(Optional::stream);
+    }
+}
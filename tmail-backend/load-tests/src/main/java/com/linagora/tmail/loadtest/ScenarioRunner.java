@@ -0,0 +1,100 @@
+package com.linagora.tmail.loadtest;
+
+import java.util.List;
+import java.util.Random;
+
+import org.apache.james.core.MailAddress;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.lambdas.Throwing;
+import com.google.common.collect.ImmutableList;
+import com.linagora.tmail.loadtest.LoadTestSeeder.SeededData;
+
+/**
+ * Issues the JMAP requests of each {@link Scenario} on behalf of a seeded user.
+ */
+public class ScenarioRunner {
+    private static final int AUTOCOMPLETE_LIMIT = 10;
+
+    private final JmapClient jmapClient;
+    private final SeededData data;
+    private final List<MailAddress> recipients;
+
+    public ScenarioRunner(JmapClient jmapClient, SeededData data) {
+        this.jmapClient = jmapClient;
+        this.data = data;
+        this.recipients = ImmutableList.<MailAddress>builder()
+            .addAll(data.users().stream()
+                .map(Throwing.function(user -> user.username().asMailAddress()))
+                .iterator())
+            .addAll(data.teamMailboxes())
+            .build();
+    }
+
+    public LoadTestUser pickUser(Random random) {
+        return data.users().get(random.nextInt(data.users().size()));
+    }
+
+    public void run(Scenario scenario, LoadTestUser user, Random random) throws Exception {
+        switch (scenario) {
+            case AUTOCOMPLETE -> autocomplete(user, random);
+            case LABEL_CHANGES -> pollLabelChanges(user);
+            case EMAIL_SEND -> sendEmail(user, random);
+            case WEB_SOCKET_TICKET -> authenticateWebSocket(user);
+        }
+    }
+
+    private void autocomplete(LoadTestUser user, Random random) throws Exception {
+        String text = "contact" + random.nextInt(Math.max(data.contactCount(), 1));
+
+        jmapClient.call(user.authorization(), """
+            {
+              "using": ["urn:ietf:params:jmap:core", "com:linagora:params:jmap:contact:autocomplete"],
+              "methodCalls": [["TMailContact/autocomplete", {"accountId": "%s", "filter": {"text": "%s"}, "limit": %d}, "c1"]]
+            }""".formatted(user.accountId(), text, AUTOCOMPLETE_LIMIT));
+    }
+
+    private void pollLabelChanges(LoadTestUser user) throws Exception {
+        JsonNode response = jmapClient.call(user.authorization(), """
+            {
+              "using": ["urn:ietf:params:jmap:core", "com:linagora:params:jmap:labels"],
+              "methodCalls": [["Label/changes", {"accountId": "%s", "sinceState": "%s", "maxChanges": 50}, "c1"]]
+            }""".formatted(user.accountId(), user.labelState().get()));
+
+        user.labelState().set(response.at("/methodResponses/0/1/newState").asText());
+    }
+
+    private void sendEmail(LoadTestUser user, Random random) throws Exception {
+        MailAddress sender = user.username().asMailAddress();
+        MailAddress recipient = recipients.get(random.nextInt(recipients.size()));
+        if (recipient.equals(sender)) {
+            recipient = recipients.get((recipients.indexOf(recipient) + 1) % recipients.size());
+        }
+
+        jmapClient.call(user.authorization(), """
+            {
+              "using": ["urn:ietf:params:jmap:core", "urn:ietf:params:jmap:mail", "urn:ietf:params:jmap:submission", "com:linagora:params:jmap:pgp"],
+              "methodCalls": [["Email/send", {
+                "accountId": "%s",
+                "create": {
+                  "K1": {
+                    "email/create": {
+                      "mailboxIds": {"%s": true},
+                      "subject": "Load test",
+                      "textBody": [{"partId": "a1", "type": "text/plain"}],
+                      "bodyValues": {"a1": {"value": "Load test message", "isTruncated": false, "isEncodingProblem": false}}
+                    },
+                    "emailSubmission/set": {
+                      "envelope": {"mailFrom": {"email": "%s"}, "rcptTo": [{"email": "%s"}]}
+                    }
+                  }
+                }
+              }, "c1"]]
+            }""".formatted(user.accountId(), user.inboxId(), sender.asString(), recipient.asString()));
+    }
+
+    private void authenticateWebSocket(LoadTestUser user) throws Exception {
+        String ticket = jmapClient.generateTicket(user.authorization());
+        jmapClient.webSocketEcho(ticket);
+    }
+}
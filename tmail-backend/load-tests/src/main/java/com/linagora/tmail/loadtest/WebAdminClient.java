@@ -0,0 +1,39 @@
+package com.linagora.tmail.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+public class WebAdminClient {
+    private final HttpClient httpClient;
+    private final URI baseUri;
+
+    public WebAdminClient(HttpClient httpClient, int port) {
+        this.httpClient = httpClient;
+        this.baseUri = URI.create("http://127.0.0.1:" + port);
+    }
+
+    public void put(String path) throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(JmapClient.TIMEOUT)
+            .PUT(HttpRequest.BodyPublishers.noBody())
+            .build());
+    }
+
+    public void post(String path, String body) throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(baseUri.resolve(path))
+            .header("Content-Type", "application/json")
+            .timeout(JmapClient.TIMEOUT)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build());
+    }
+
+    private void send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri().getPath() + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.linagora.tmail.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class LoadTestConfigurationTest {
+    @Test
+    void fromShouldUseDefaultsWhenNoProperties() {
+        LoadTestConfiguration configuration = LoadTestConfiguration.from(new Properties());
+
+        assertThat(configuration.userCount()).isEqualTo(100);
+        assertThat(configuration.concurrency()).isEqualTo(32);
+        assertThat(configuration.duration()).isEqualTo(Duration.ofSeconds(60));
+        assertThat(configuration.weights().get(Scenario.AUTOCOMPLETE)).isEqualTo(50);
+        assertThat(configuration.p99Slos().get(Scenario.EMAIL_SEND)).isEqualTo(Duration.ofMillis(500));
+        assertThat(configuration.maxErrorRate()).isEqualTo(0.01);
+        assertThat(configuration.reportFile()).isEmpty();
+    }
+
+    @Test
+    void fromShouldReadOverrides() {
+        Properties properties = new Properties();
+        properties.setProperty("loadtest.users", "10");
+        properties.setProperty("loadtest.duration", "5m");
+        properties.setProperty("loadtest.weight.webSocketTicket", "0");
+        properties.setProperty("loadtest.slo.autocomplete.p99", "50ms");
+        properties.setProperty("loadtest.slo.errorRate", "0");
+        properties.setProperty("loadtest.report", "target/load-test.json");
+
+        LoadTestConfiguration configuration = LoadTestConfiguration.from(properties);
+
+        assertThat(configuration.userCount()).isEqualTo(10);
+        assertThat(configuration.duration()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(configuration.weights().get(Scenario.WEB_SOCKET_TICKET)).isZero();
+        assertThat(configuration.p99Slos().get(Scenario.AUTOCOMPLETE)).isEqualTo(Duration.ofMillis(50));
+        assertThat(configuration.maxErrorRate()).isZero();
+        assertThat(configuration.reportFile()).contains("target/load-test.json");
+    }
+
+    @Test
+    void fromShouldRejectSingleUser() {
+        Properties properties = new Properties();
+        properties.setProperty("loadtest.users", "1");
+
+        assertThatThrownBy(() -> LoadTestConfiguration.from(properties))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldRejectScenarioMixWithoutWeight() {
+        Properties properties = new Properties();
+        properties.setProperty("loadtest.weight.autocomplete", "0");
+        properties.setProperty("loadtest.weight.labelChanges", "0");
+        properties.setProperty("loadtest.weight.emailSend", "0");
+        properties.setProperty("loadtest.weight.webSocketTicket", "0");
+
+        assertThatThrownBy(() -> LoadTestConfiguration.from(properties))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.linagora.tmail.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+class ScenarioReportTest {
+    private static final LoadTestConfiguration CONFIGURATION = LoadTestConfiguration.from(new Properties());
+
+    private static LatencyRecorder recorderOfMillis(long... latencies) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        LongStream.of(latencies)
+            .map(latency -> Duration.ofMillis(latency).toNanos())
+            .forEach(recorder::record);
+        return recorder;
+    }
+
+    @Test
+    void percentilesShouldUseNearestRank() {
+        LatencyRecorder recorder = recorderOfMillis(LongStream.rangeClosed(1, 100).map(i -> 101 - i).toArray());
+
+        ScenarioReport report = ScenarioReport.from(Scenario.AUTOCOMPLETE, recorder, Duration.ofSeconds(10));
+
+        assertThat(report.p50()).isEqualTo(Duration.ofMillis(50));
+        assertThat(report.p95()).isEqualTo(Duration.ofMillis(95));
+        assertThat(report.p99()).isEqualTo(Duration.ofMillis(99));
+        assertThat(report.max()).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void percentilesShouldBeZeroWhenNoRequestSucceeded() {
+        ScenarioReport report = ScenarioReport.from(Scenario.AUTOCOMPLETE, new LatencyRecorder(), Duration.ofSeconds(10));
+
+        assertThat(report.p99()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void throughputShouldCountErrors() {
+        LatencyRecorder recorder = recorderOfMillis(1, 2, 3);
+        recorder.recordError();
+
+        ScenarioReport report = ScenarioReport.from(Scenario.AUTOCOMPLETE, recorder, Duration.ofSeconds(2));
+
+        assertThat(report.throughput()).isEqualTo(2.0);
+    }
+
+    @Test
+    void sloBreachesShouldBeEmptyWhenWithinObjectives() {
+        ScenarioReport report = ScenarioReport.from(Scenario.AUTOCOMPLETE, recorderOfMillis(10, 20, 30), Duration.ofSeconds(1));
+
+        assertThat(report.sloBreaches(CONFIGURATION)).isEmpty();
+    }
+
+    @Test
+    void sloBreachesShouldReportSlowP99() {
+        ScenarioReport report = ScenarioReport.from(Scenario.LABEL_CHANGES, recorderOfMillis(10, 20, 300), Duration.ofSeconds(1));
+
+        assertThat(report.sloBreaches(CONFIGURATION))
+            .containsExactly("labelChanges: p99 is 300 ms, SLO is 100 ms");
+    }
+
+    @Test
+    void sloBreachesShouldReportErrorRate() {
+        LatencyRecorder recorder = recorderOfMillis(10, 20, 30);
+        recorder.recordError();
+
+        ScenarioReport report = ScenarioReport.from(Scenario.EMAIL_SEND, recorder, Duration.ofSeconds(1));
+
+        assertThat(report.sloBreaches(CONFIGURATION))
+            .containsExactly("emailSend: error rate is 0.2500, SLO is 0.0100");
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
+import org.apache.james.backends.es.DeleteByQueryConfiguration;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
@@ -35,6 +36,7 @@ public class ElasticSearchMailboxConfiguration {
         private Optional<WriteAliasName> writeAliasMailboxName;
         private Optional<IndexAttachments> indexAttachment;
         private Optional<IndexHeaders> indexHeaders;
+        private Optional<DeleteByQueryConfiguration> deleteByQueryConfiguration;
 
         Builder() {
             indexMailboxName = Optional.empty();
@@ -42,6 +44,7 @@ public class ElasticSearchMailboxConfiguration {
             writeAliasMailboxName = Optional.empty();
             indexAttachment = Optional.empty();
             indexHeaders = Optional.empty();
+            deleteByQueryConfiguration = Optional.empty();
         }
 
         Builder indexMailboxName(Optional<IndexName> indexMailboxName) {
@@ -70,13 +73,19 @@ public class ElasticSearchMailboxConfiguration {
             return this;
         }
 
+        Builder deleteByQueryConfiguration(DeleteByQueryConfiguration deleteByQueryConfiguration) {
+            this.deleteByQueryConfiguration = Optional.of(deleteByQueryConfiguration);
+            return this;
+        }
+
         public ElasticSearchMailboxConfiguration build() {
             return new ElasticSearchMailboxConfiguration(
                 indexMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_INDEX),
                 readAliasMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_READ_ALIAS),
                 writeAliasMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS),
                 indexAttachment.orElse(IndexAttachments.YES),
-                indexHeaders.orElse(IndexHeaders.YES));
+                indexHeaders.orElse(IndexHeaders.YES),
+                deleteByQueryConfiguration.orElse(DeleteByQueryConfiguration.DEFAULT));
         }
     }
 
@@ -104,6 +113,7 @@ public class ElasticSearchMailboxConfiguration {
             .writeAliasMailboxName(computeMailboxWriteAlias(configuration))
             .indexAttachment(provideIndexAttachments(configuration))
             .indexHeaders(provideIndexHeaders(configuration))
+            .deleteByQueryConfiguration(DeleteByQueryConfiguration.fromProperties(configuration))
             .build();
     }
 
@@ -148,15 +158,17 @@ public class ElasticSearchMailboxConfiguration {
     private final WriteAliasName writeAliasMailboxName;
     private final IndexAttachments indexAttachment;
     private final IndexHeaders indexHeaders;
+    private final DeleteByQueryConfiguration deleteByQueryConfiguration;
 
     private ElasticSearchMailboxConfiguration(IndexName indexMailboxName, ReadAliasName readAliasMailboxName,
                                               WriteAliasName writeAliasMailboxName, IndexAttachments indexAttachment,
-                                              IndexHeaders indexHeaders) {
+                                              IndexHeaders indexHeaders, DeleteByQueryConfiguration deleteByQueryConfiguration) {
         this.indexMailboxName = indexMailboxName;
         this.readAliasMailboxName = readAliasMailboxName;
         this.writeAliasMailboxName = writeAliasMailboxName;
         this.indexAttachment = indexAttachment;
         this.indexHeaders = indexHeaders;
+        this.deleteByQueryConfiguration = deleteByQueryConfiguration;
     }
 
 
@@ -180,6 +192,10 @@ public class ElasticSearchMailboxConfiguration {
         return indexHeaders;
     }
 
+    public DeleteByQueryConfiguration getDeleteByQueryConfiguration() {
+        return deleteByQueryConfiguration;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof ElasticSearchMailboxConfiguration that) {
@@ -187,13 +203,14 @@ public class ElasticSearchMailboxConfiguration {
                 && Objects.equals(this.indexHeaders, that.indexHeaders)
                 && Objects.equals(this.indexMailboxName, that.indexMailboxName)
                 && Objects.equals(this.readAliasMailboxName, that.readAliasMailboxName)
-                && Objects.equals(this.writeAliasMailboxName, that.writeAliasMailboxName);
+                && Objects.equals(this.writeAliasMailboxName, that.writeAliasMailboxName)
+                && Objects.equals(this.deleteByQueryConfiguration, that.deleteByQueryConfiguration);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(indexMailboxName, readAliasMailboxName, writeAliasMailboxName, indexAttachment, indexHeaders, writeAliasMailboxName);
+        return Objects.hash(indexMailboxName, readAliasMailboxName, writeAliasMailboxName, indexAttachment, indexHeaders, writeAliasMailboxName, deleteByQueryConfiguration);
     }
 }
@@ -20,8 +20,12 @@
 package org.apache.james.mailbox.elasticsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
 
 import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.james.backends.es.DeleteByQueryConfiguration;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
@@ -224,4 +228,39 @@ class ElasticSearchMailboxConfigurationTest {
             .isEqualTo(IndexAttachments.YES);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getDeleteByQueryConfigurationShouldReturnConfiguredValues() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.deleteByQuery.scrollSize", 1000);
+        configuration.addProperty("elasticsearch.deleteByQuery.bulkSize", 500);
+        configuration.addProperty("elasticsearch.deleteByQuery.maxRetries", 5);
+        configuration.addProperty("elasticsearch.deleteByQuery.minRetryBackoff", "1s");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getDeleteByQueryConfiguration())
+            .isEqualTo(new DeleteByQueryConfiguration(1000, 500, 5, Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void getDeleteByQueryConfigurationShouldReturnDefaultValueWhenMissing() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getDeleteByQueryConfiguration())
+            .isEqualTo(DeleteByQueryConfiguration.DEFAULT);
+    }
+
+    @Test
+    void fromPropertiesShouldRejectInvalidBulkSize() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+        configuration.addProperty("elasticsearch.deleteByQuery.bulkSize", 0);
+
+        assertThatThrownBy(() -> ElasticSearchMailboxConfiguration.fromProperties(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.james.quota.search.elasticsearch;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -26,6 +28,9 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.Preconditions;
 
 public class ElasticSearchQuotaConfiguration {
 
@@ -34,11 +39,13 @@ public class ElasticSearchQuotaConfiguration {
         private Optional<IndexName> indexQuotaRatioName;
         private Optional<ReadAliasName> readAliasQuotaRatioName;
         private Optional<WriteAliasName> writeAliasQuotaRatioName;
+        private Optional<Duration> coalescingWindow;
 
         public Builder() {
             indexQuotaRatioName = Optional.empty();
             readAliasQuotaRatioName = Optional.empty();
             writeAliasQuotaRatioName = Optional.empty();
+            coalescingWindow = Optional.empty();
         }
 
         public Builder indexQuotaRatioName(IndexName indexQuotaRatioName) {
@@ -68,12 +75,22 @@ public class ElasticSearchQuotaConfiguration {
             return this;
         }
 
+        public Builder coalescingWindow(Duration coalescingWindow) {
+            return coalescingWindow(Optional.of(coalescingWindow));
+        }
+
+        public Builder coalescingWindow(Optional<Duration> coalescingWindow) {
+            coalescingWindow.ifPresent(window -> Preconditions.checkArgument(!window.isNegative(), "'coalescingWindow' must not be negative"));
+            this.coalescingWindow = coalescingWindow;
+            return this;
+        }
 
         public ElasticSearchQuotaConfiguration build() {
             return new ElasticSearchQuotaConfiguration(
                 indexQuotaRatioName.orElse(QuotaRatioElasticSearchConstants.DEFAULT_QUOTA_RATIO_INDEX),
                 readAliasQuotaRatioName.orElse(QuotaRatioElasticSearchConstants.DEFAULT_QUOTA_RATIO_READ_ALIAS),
-                writeAliasQuotaRatioName.orElse(QuotaRatioElasticSearchConstants.DEFAULT_QUOTA_RATIO_WRITE_ALIAS));
+                writeAliasQuotaRatioName.orElse(QuotaRatioElasticSearchConstants.DEFAULT_QUOTA_RATIO_WRITE_ALIAS),
+                coalescingWindow.orElse(DEFAULT_COALESCING_WINDOW));
         }
     }
 
@@ -84,6 +101,8 @@ public class ElasticSearchQuotaConfiguration {
     public static final String ELASTICSEARCH_INDEX_QUOTA_RATIO_NAME = "elasticsearch.index.quota.ratio.name";
     public static final String ELASTICSEARCH_ALIAS_READ_QUOTA_RATIO_NAME = "elasticsearch.alias.read.quota.ratio.name";
     public static final String ELASTICSEARCH_ALIAS_WRITE_QUOTA_RATIO_NAME = "elasticsearch.alias.write.quota.ratio.name";
+    public static final String ELASTICSEARCH_QUOTA_RATIO_COALESCING_WINDOW = "elasticsearch.quota.ratio.coalescing.window";
+    public static final Duration DEFAULT_COALESCING_WINDOW = Duration.ofMillis(100);
 
     public static final ElasticSearchQuotaConfiguration DEFAULT_CONFIGURATION = builder().build();
 
@@ -92,6 +111,7 @@ public class ElasticSearchQuotaConfiguration {
             .indexQuotaRatioName(computeQuotaSearchIndexName(configuration))
             .readAliasQuotaRatioName(computeQuotaSearchReadAlias(configuration))
             .writeAliasQuotaRatioName(computeQuotaSearchWriteAlias(configuration))
+            .coalescingWindow(computeCoalescingWindow(configuration))
             .build();
     }
 
@@ -110,14 +130,22 @@ public class ElasticSearchQuotaConfiguration {
                 .map(ReadAliasName::new);
     }
 
+    public static Optional<Duration> computeCoalescingWindow(Configuration configuration) {
+        return Optional.ofNullable(configuration.getString(ELASTICSEARCH_QUOTA_RATIO_COALESCING_WINDOW))
+            .map(rawString -> DurationParser.parse(rawString, ChronoUnit.MILLIS));
+    }
+
     private final IndexName indexQuotaRatioName;
     private final ReadAliasName readAliasQuotaRatioName;
     private final WriteAliasName writeAliasQuotaRatioName;
+    private final Duration coalescingWindow;
 
-    private ElasticSearchQuotaConfiguration(IndexName indexQuotaRatioName, ReadAliasName readAliasQuotaRatioName, WriteAliasName writeAliasQuotaRatioName) {
+    private ElasticSearchQuotaConfiguration(IndexName indexQuotaRatioName, ReadAliasName readAliasQuotaRatioName, WriteAliasName writeAliasQuotaRatioName,
+                                            Duration coalescingWindow) {
         this.indexQuotaRatioName = indexQuotaRatioName;
         this.readAliasQuotaRatioName = readAliasQuotaRatioName;
         this.writeAliasQuotaRatioName = writeAliasQuotaRatioName;
+        this.coalescingWindow = coalescingWindow;
     }
 
     public IndexName getIndexQuotaRatioName() {
@@ -132,18 +160,23 @@ public class ElasticSearchQuotaConfiguration {
         return writeAliasQuotaRatioName;
     }
 
+    public Duration getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof ElasticSearchQuotaConfiguration that) {
             return Objects.equals(this.indexQuotaRatioName, that.indexQuotaRatioName)
                 && Objects.equals(this.readAliasQuotaRatioName, that.readAliasQuotaRatioName)
-                && Objects.equals(this.writeAliasQuotaRatioName, that.writeAliasQuotaRatioName);
+                && Objects.equals(this.writeAliasQuotaRatioName, that.writeAliasQuotaRatioName)
+                && Objects.equals(this.coalescingWindow, that.coalescingWindow);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(indexQuotaRatioName, readAliasQuotaRatioName);
+        return Objects.hash(indexQuotaRatioName, readAliasQuotaRatioName, coalescingWindow);
     }
 }
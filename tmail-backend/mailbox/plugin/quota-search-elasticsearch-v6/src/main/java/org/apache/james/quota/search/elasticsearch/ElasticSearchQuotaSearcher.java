@@ -22,27 +22,43 @@ package org.apache.james.quota.search.elasticsearch;
 import static org.apache.james.quota.search.elasticsearch.json.JsonMessageConstants.USER;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.james.backends.es.AliasName;
 import org.apache.james.backends.es.NodeMappingFactory;
 import org.apache.james.backends.es.ReactorElasticSearchClient;
 import org.apache.james.backends.es.ReadAliasName;
-import org.apache.james.backends.es.search.ScrolledSearch;
 import org.apache.james.core.Username;
 import org.apache.james.quota.search.QuotaQuery;
 import org.apache.james.quota.search.QuotaSearcher;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.RequestOptions;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
 
+import com.google.common.base.Preconditions;
+
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+/**
+ * Quota search relying on the ElasticSearch quota ratio index.
+ *
+ * Results are sorted by user, which is unique. Pages within the index result window are read with from/size. Results
+ * reaching past it are read from the offset with from/size, then with search_after on the user: no scroll context is
+ * kept open on the cluster.
+ *
+ * The offset itself can not exceed the result window ({@link #MAX_OFFSET}): reaching deeper would require a cursor on
+ * the last user of the previous page, which the quota search API can not carry, and thus reading and dropping every
+ * preceding result. Such queries are rejected rather than scanned.
+ */
 public class ElasticSearchQuotaSearcher implements QuotaSearcher {
-    private static final TimeValue TIMEOUT = TimeValue.timeValueMinutes(1);
+    public static final int PAGE_SIZE = 1000;
+    // Default value of the index.max_result_window index setting
+    public static final int MAX_RESULT_WINDOW = 10_000;
+    public static final int MAX_OFFSET = MAX_RESULT_WINDOW - 1;
 
     private final ReactorElasticSearchClient client;
     private final AliasName readAlias;
@@ -56,6 +72,8 @@ public class ElasticSearchQuotaSearcher implements QuotaSearcher {
 
     @Override
     public List<Username> search(QuotaQuery query) {
+        Preconditions.checkArgument(query.getOffset().getValue() <= MAX_OFFSET,
+            "Quota search offset can not exceed %s", MAX_OFFSET);
         try {
             return searchHits(query)
                 .map(SearchHit::getId)
@@ -68,11 +86,15 @@ public class ElasticSearchQuotaSearcher implements QuotaSearcher {
     }
 
     private Flux<SearchHit> searchHits(QuotaQuery query) {
-        if (query.getLimit().isLimited()) {
+        int offset = query.getOffset().getValue();
+        Optional<Integer> limit = query.getLimit().getValue();
+        if (limit.isPresent() && offset + limit.get() <= MAX_RESULT_WINDOW) {
             return executeSingleSearch(query);
-        } else {
-            return executeScrolledSearch(query);
         }
+
+        Flux<SearchHit> hits = searchFrom(query, offset);
+        return limit.map(value -> hits.take(value))
+            .orElse(hits);
     }
 
     private Flux<SearchHit> executeSingleSearch(QuotaQuery query) {
@@ -81,27 +103,55 @@ public class ElasticSearchQuotaSearcher implements QuotaSearcher {
         query.getLimit().getValue()
             .ifPresent(searchSourceBuilder::size);
 
+        return search(searchSourceBuilder)
+            .flatMapMany(Flux::fromArray);
+    }
+
+    private Flux<SearchHit> searchFrom(QuotaQuery query, int from) {
+        int firstPageSize = Math.min(PAGE_SIZE, MAX_RESULT_WINDOW - from);
+        return search(searchSourceBuilder(query)
+                .from(from)
+                .size(firstPageSize))
+            .flatMapMany(hits -> Flux.just(hits)
+                .concatWith(lastSortValues(hits, firstPageSize)
+                    .map(sortValues -> searchAfter(query, sortValues))
+                    .orElse(Flux.empty())))
+            .concatMap(Flux::fromArray);
+    }
+
+    private Flux<SearchHit[]> searchAfter(QuotaQuery query, Object[] sortValues) {
+        return searchPageAfter(query, sortValues)
+            .expand(hits -> lastSortValues(hits, PAGE_SIZE)
+                .map(nextSortValues -> searchPageAfter(query, nextSortValues))
+                .orElse(Mono.empty()));
+    }
+
+    private Mono<SearchHit[]> searchPageAfter(QuotaQuery query, Object[] sortValues) {
+        return search(searchSourceBuilder(query)
+            .size(PAGE_SIZE)
+            .searchAfter(sortValues));
+    }
+
+    private Optional<Object[]> lastSortValues(SearchHit[] hits, int pageSize) {
+        if (hits.length < pageSize) {
+            return Optional.empty();
+        }
+        return Optional.of(hits[hits.length - 1].getSortValues());
+    }
+
+    private Mono<SearchHit[]> search(SearchSourceBuilder searchSourceBuilder) {
         SearchRequest searchRequest = new SearchRequest(readAlias.getValue())
             .types(NodeMappingFactory.DEFAULT_MAPPING_NAME)
             .source(searchSourceBuilder);
 
         return client.search(searchRequest, RequestOptions.DEFAULT)
-            .flatMapMany(searchResponse -> Flux.fromArray(searchResponse.getHits().getHits()));
-    }
-
-    private Flux<SearchHit> executeScrolledSearch(QuotaQuery query) {
-        return new ScrolledSearch(client,
-            new SearchRequest(readAlias.getValue())
-                .types(NodeMappingFactory.DEFAULT_MAPPING_NAME)
-                .source(searchSourceBuilder(query))
-                .scroll(TIMEOUT))
-            .searchHits()
-            .skip(query.getOffset().getValue());
+            .map(searchResponse -> searchResponse.getHits().getHits());
     }
 
     private SearchSourceBuilder searchSourceBuilder(QuotaQuery query) {
         return new SearchSourceBuilder()
             .query(quotaQueryConverter.from(query))
+            .fetchSource(false)
             .sort(SortBuilders.fieldSort(USER).order(SortOrder.ASC));
     }
-}
\ No newline at end of file
+}
@@ -18,41 +18,102 @@
  ****************************************************************/
 package org.apache.james.quota.search.elasticsearch.events;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.james.backends.es.DocumentId;
 import org.apache.james.backends.es.ElasticSearchIndexer;
+import org.apache.james.backends.es.IndexedRepresentation;
 import org.apache.james.backends.es.RoutingKey;
 import org.apache.james.core.Username;
 import org.apache.james.events.Event;
 import org.apache.james.events.EventListener;
 import org.apache.james.events.Group;
 import org.apache.james.mailbox.events.MailboxEvents.QuotaUsageUpdatedEvent;
+import org.apache.james.quota.search.elasticsearch.ElasticSearchQuotaConfiguration;
 import org.apache.james.quota.search.elasticsearch.QuotaRatioElasticSearchConstants;
 import org.apache.james.quota.search.elasticsearch.json.QuotaRatioToElasticSearchJson;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.reactivestreams.Publisher;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+/**
+ * Indexes the quota ratio of users.
+ *
+ * Bulk operations trigger many quota updates for the same user in a short period of time. Events received within the
+ * coalescing window are grouped: only the latest ratio of each user is indexed, within a single bulk request. Events
+ * complete once their batch is indexed and fail if it fails, so that the event bus retries them.
+ */
 public class ElasticSearchQuotaMailboxListener implements EventListener.ReactiveGroupEventListener {
     public static class ElasticSearchQuotaMailboxListenerGroup extends Group {
 
     }
 
+    private static class PendingBatch {
+        private final Map<Username, QuotaUsageUpdatedEvent> latestEvents = new HashMap<>();
+        private final Sinks.Empty<Void> indexed = Sinks.empty();
+
+        void add(QuotaUsageUpdatedEvent event) {
+            latestEvents.merge(event.getUsername(), event, (previous, current) -> {
+                if (current.getInstant().isBefore(previous.getInstant())) {
+                    return previous;
+                }
+                return current;
+            });
+        }
+    }
+
     private static final Group GROUP = new ElasticSearchQuotaMailboxListenerGroup();
 
     private final ElasticSearchIndexer indexer;
     private final QuotaRatioToElasticSearchJson quotaRatioToElasticSearchJson;
     private final RoutingKey.Factory<Username> routingKeyFactory;
+    private final Duration coalescingWindow;
+    private final Scheduler scheduler;
+    private final Object lock;
+    private PendingBatch pendingBatch;
 
     @Inject
     public ElasticSearchQuotaMailboxListener(@Named(QuotaRatioElasticSearchConstants.InjectionNames.QUOTA_RATIO) ElasticSearchIndexer indexer,
+                                             QuotaRatioToElasticSearchJson quotaRatioToElasticSearchJson,
+                                             RoutingKey.Factory<Username> routingKeyFactory,
+                                             ElasticSearchQuotaConfiguration configuration) {
+        this(indexer, quotaRatioToElasticSearchJson, routingKeyFactory, configuration.getCoalescingWindow(), Schedulers.parallel());
+    }
+
+    public ElasticSearchQuotaMailboxListener(ElasticSearchIndexer indexer,
                                              QuotaRatioToElasticSearchJson quotaRatioToElasticSearchJson,
                                              RoutingKey.Factory<Username> routingKeyFactory) {
+        this(indexer, quotaRatioToElasticSearchJson, routingKeyFactory, Duration.ZERO, Schedulers.parallel());
+    }
+
+    @VisibleForTesting
+    ElasticSearchQuotaMailboxListener(ElasticSearchIndexer indexer,
+                                      QuotaRatioToElasticSearchJson quotaRatioToElasticSearchJson,
+                                      RoutingKey.Factory<Username> routingKeyFactory,
+                                      Duration coalescingWindow,
+                                      Scheduler scheduler) {
         this.indexer = indexer;
         this.quotaRatioToElasticSearchJson = quotaRatioToElasticSearchJson;
         this.routingKeyFactory = routingKeyFactory;
+        this.coalescingWindow = coalescingWindow;
+        this.scheduler = scheduler;
+        this.lock = new Object();
     }
 
     @Override
@@ -70,14 +131,74 @@ public class ElasticSearchQuotaMailboxListener implements EventListener.Reactive
         return handleEvent((QuotaUsageUpdatedEvent) event);
     }
 
+    @PreDestroy
+    public void dispose() {
+        flush().block();
+    }
+
     private Mono<Void> handleEvent(QuotaUsageUpdatedEvent event) {
-        Username user = event.getUsername();
-        DocumentId id = toDocumentId(user);
-        RoutingKey routingKey = routingKeyFactory.from(user);
+        if (coalescingWindow.isZero()) {
+            Username user = event.getUsername();
+
+            return Mono.fromCallable(() -> quotaRatioToElasticSearchJson.convertToJson(event))
+                .flatMap(json -> indexer.index(toDocumentId(user), json, routingKeyFactory.from(user)))
+                .then();
+        }
+        return coalesce(event);
+    }
+
+    private Mono<Void> coalesce(QuotaUsageUpdatedEvent event) {
+        return Mono.defer(() -> {
+            synchronized (lock) {
+                if (pendingBatch == null) {
+                    pendingBatch = new PendingBatch();
+                    Mono.delay(coalescingWindow, scheduler)
+                        .then(flush())
+                        .subscribe();
+                }
+                pendingBatch.add(event);
+                return pendingBatch.indexed.asMono();
+            }
+        });
+    }
+
+    @VisibleForTesting
+    Mono<Void> flush() {
+        return Mono.defer(() -> {
+            PendingBatch batch;
+            synchronized (lock) {
+                batch = pendingBatch;
+                pendingBatch = null;
+            }
+            return Optional.ofNullable(batch)
+                .map(this::index)
+                .orElse(Mono.empty());
+        });
+    }
+
+    private Mono<Void> index(PendingBatch batch) {
+        return Flux.fromIterable(batch.latestEvents.values())
+            .concatMap(event -> Mono.fromCallable(() -> asIndexedRepresentation(event)))
+            .collect(ImmutableList.toImmutableList())
+            .flatMap(indexer::index)
+            .flatMap(this::checkNoFailure)
+            .doOnSuccess(any -> batch.indexed.tryEmitEmpty())
+            .onErrorResume(e -> {
+                batch.indexed.tryEmitError(e);
+                return Mono.empty();
+            });
+    }
 
-        return Mono.fromCallable(() -> quotaRatioToElasticSearchJson.convertToJson(event))
-            .flatMap(json -> indexer.index(id, json, routingKey))
-            .then();
+    private Mono<Void> checkNoFailure(BulkResponse response) {
+        if (response.hasFailures()) {
+            return Mono.error(new RuntimeException("Failed indexing quota ratios: " + response.buildFailureMessage()));
+        }
+        return Mono.empty();
+    }
+
+    private IndexedRepresentation asIndexedRepresentation(QuotaUsageUpdatedEvent event) throws JsonProcessingException {
+        Username user = event.getUsername();
+        return new IndexedRepresentation(toDocumentId(user), quotaRatioToElasticSearchJson.convertToJson(event), routingKeyFactory.from(user));
     }
 
     private DocumentId toDocumentId(Username user) {
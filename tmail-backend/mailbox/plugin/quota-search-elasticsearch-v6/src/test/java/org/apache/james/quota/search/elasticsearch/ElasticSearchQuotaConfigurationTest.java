@@ -21,6 +21,8 @@ package org.apache.james.quota.search.elasticsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
@@ -100,4 +102,39 @@ class ElasticSearchQuotaConfigurationTest {
         assertThat(elasticSearchConfiguration.getIndexQuotaRatioName())
             .isEqualTo(QuotaRatioElasticSearchConstants.DEFAULT_QUOTA_RATIO_INDEX);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCoalescingWindowShouldReturnConfiguredValue() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.quota.ratio.coalescing.window", "2s");
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchQuotaConfiguration elasticSearchConfiguration = ElasticSearchQuotaConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getCoalescingWindow())
+            .isEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void getCoalescingWindowShouldDefaultToMilliseconds() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.quota.ratio.coalescing.window", "250");
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchQuotaConfiguration elasticSearchConfiguration = ElasticSearchQuotaConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getCoalescingWindow())
+            .isEqualTo(Duration.ofMillis(250));
+    }
+
+    @Test
+    void getCoalescingWindowShouldReturnDefaultValueWhenMissing() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.hosts", "127.0.0.1");
+
+        ElasticSearchQuotaConfiguration elasticSearchConfiguration = ElasticSearchQuotaConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getCoalescingWindow())
+            .isEqualTo(ElasticSearchQuotaConfiguration.DEFAULT_COALESCING_WINDOW);
+    }
+}
@@ -0,0 +1,204 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.quota.search.elasticsearch;
+
+import static org.apache.james.quota.search.elasticsearch.ElasticSearchQuotaSearcher.MAX_OFFSET;
+import static org.apache.james.quota.search.elasticsearch.ElasticSearchQuotaSearcher.MAX_RESULT_WINDOW;
+import static org.apache.james.quota.search.elasticsearch.ElasticSearchQuotaSearcher.PAGE_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.apache.james.backends.es.ReactorElasticSearchClient;
+import org.apache.james.core.Username;
+import org.apache.james.quota.search.Limit;
+import org.apache.james.quota.search.Offset;
+import org.apache.james.quota.search.QuotaQuery;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
+class ElasticSearchQuotaSearcherPaginationTest {
+    static final int DOCUMENT_COUNT = 50_000;
+    static final List<String> USERS = IntStream.range(0, DOCUMENT_COUNT)
+        .mapToObj(i -> String.format("user%05d@domain.tld", i))
+        .collect(ImmutableList.toImmutableList());
+
+    List<SearchRequest> requests;
+    ElasticSearchQuotaSearcher testee;
+
+    @BeforeEach
+    void setUp() {
+        requests = Collections.synchronizedList(new ArrayList<>());
+        ReactorElasticSearchClient client = mock(ReactorElasticSearchClient.class);
+        when(client.search(any(SearchRequest.class), any(RequestOptions.class)))
+            .thenAnswer(invocation -> {
+                SearchRequest request = invocation.getArgument(0);
+                requests.add(request);
+                return Mono.just(respond(request.source()));
+            });
+        testee = new ElasticSearchQuotaSearcher(client, QuotaRatioElasticSearchConstants.DEFAULT_QUOTA_RATIO_READ_ALIAS);
+    }
+
+    private SearchResponse respond(SearchSourceBuilder source) {
+        int start = Optional.ofNullable(source.searchAfter())
+            .map(searchAfter -> Collections.binarySearch(USERS, (String) searchAfter[0]) + 1)
+            .orElse(Math.max(source.from(), 0));
+        int end = Math.min(start + source.size(), DOCUMENT_COUNT);
+        SearchHit[] hits = USERS.subList(Math.min(start, end), end)
+            .stream()
+            .map(this::hit)
+            .toArray(SearchHit[]::new);
+
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getHits()).thenReturn(new SearchHits(hits, DOCUMENT_COUNT, 1f));
+        return response;
+    }
+
+    private SearchHit hit(String user) {
+        SearchHit hit = new SearchHit(0, user, new Text("_doc"), Collections.emptyMap());
+        hit.sortValues(new Object[] {user}, new DocValueFormat[] {DocValueFormat.RAW});
+        return hit;
+    }
+
+    private List<Username> users(int from, int to) {
+        return USERS.subList(from, to)
+            .stream()
+            .map(Username::of)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    @Test
+    void unlimitedSearchShouldPageWithSearchAfter() {
+        List<Username> result = testee.search(QuotaQuery.builder()
+            .withLimit(Limit.unlimited())
+            .build());
+
+        assertThat(result).isEqualTo(users(0, DOCUMENT_COUNT));
+        assertThat(requests).hasSize(DOCUMENT_COUNT / PAGE_SIZE + 1);
+        assertThat(requests).allSatisfy(request -> {
+            assertThat(request.scroll()).isNull();
+            assertThat(request.source().size()).isEqualTo(PAGE_SIZE);
+            assertThat(request.source().fetchSource().fetchSource()).isFalse();
+        });
+        assertThat(requests.get(0).source().from()).isZero();
+        assertThat(requests.get(0).source().searchAfter()).isNull();
+        IntStream.range(1, requests.size())
+            .forEach(i -> {
+                assertThat(requests.get(i).source().from()).isEqualTo(-1);
+                assertThat(requests.get(i).source().searchAfter())
+                    .containsExactly(USERS.get(i * PAGE_SIZE - 1));
+            });
+    }
+
+    @Test
+    void offsetsPastTheResultWindowShouldBeRejected() {
+        assertThatThrownBy(() -> testee.search(QuotaQuery.builder()
+                .withOffset(Offset.of(MAX_OFFSET + 1))
+                .withLimit(Limit.of(10))
+                .build()))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void pagesCrossingTheResultWindowShouldStayWithinIt() {
+        List<Username> result = testee.search(QuotaQuery.builder()
+            .withOffset(Offset.of(9_500))
+            .withLimit(Limit.of(1_000))
+            .build());
+
+        assertThat(result).isEqualTo(users(9_500, 10_500));
+        assertThat(requests)
+            .allSatisfy(request -> assertThat(Math.max(request.source().from(), 0) + request.source().size())
+                .isLessThanOrEqualTo(MAX_RESULT_WINDOW));
+    }
+
+    @Test
+    void pagesCrossingTheResultWindowShouldStartAtTheOffsetBeforeUsingSearchAfter() {
+        testee.search(QuotaQuery.builder()
+            .withOffset(Offset.of(9_500))
+            .withLimit(Limit.of(1_000))
+            .build());
+
+        assertThat(requests.get(0).source().from()).isEqualTo(9_500);
+        assertThat(requests.get(0).source().size()).isEqualTo(MAX_RESULT_WINDOW - 9_500);
+        assertThat(requests.get(0).source().searchAfter()).isNull();
+        assertThat(requests.get(1).source().from()).isEqualTo(-1);
+        assertThat(requests.get(1).source().searchAfter()).containsExactly(USERS.get(MAX_RESULT_WINDOW - 1));
+    }
+
+    @Test
+    void pagesWithinTheResultWindowShouldBeReadWithASingleRequest() {
+        List<Username> result = testee.search(QuotaQuery.builder()
+            .withOffset(Offset.of(5_000))
+            .withLimit(Limit.of(100))
+            .build());
+
+        assertThat(result).isEqualTo(users(5_000, 5_100));
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).source().from()).isEqualTo(5_000);
+        assertThat(requests.get(0).source().size()).isEqualTo(100);
+    }
+
+    @Test
+    void unlimitedSearchShouldHonorOffset() {
+        List<Username> result = testee.search(QuotaQuery.builder()
+            .withOffset(Offset.of(MAX_OFFSET))
+            .withLimit(Limit.unlimited())
+            .build());
+
+        assertThat(result).isEqualTo(users(MAX_OFFSET, DOCUMENT_COUNT));
+    }
+
+    @Test
+    void shallowPagesShouldBeReadWithASingleRequest() {
+        List<Username> result = testee.search(QuotaQuery.builder()
+            .withOffset(Offset.of(10))
+            .withLimit(Limit.of(20))
+            .build());
+
+        assertThat(result).isEqualTo(users(10, 30));
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).source().from()).isEqualTo(10);
+        assertThat(requests.get(0).source().size()).isEqualTo(20);
+        assertThat(requests.get(0).source().searchAfter()).isNull();
+    }
+}
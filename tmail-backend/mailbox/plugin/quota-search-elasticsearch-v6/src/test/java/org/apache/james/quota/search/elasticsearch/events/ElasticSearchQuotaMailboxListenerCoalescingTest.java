@@ -0,0 +1,223 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.quota.search.elasticsearch.events;
+
+import static org.apache.james.quota.search.QuotaSearchFixture.TestConstants.BOB_USERNAME;
+import static org.apache.james.quota.search.QuotaSearchFixture.TestConstants.NOW;
+import static org.apache.james.quota.search.QuotaSearchFixture.TestConstants.QUOTAROOT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.james.backends.es.DocumentId;
+import org.apache.james.backends.es.ElasticSearchIndexer;
+import org.apache.james.backends.es.IndexedRepresentation;
+import org.apache.james.core.Username;
+import org.apache.james.core.quota.QuotaCountLimit;
+import org.apache.james.core.quota.QuotaCountUsage;
+import org.apache.james.events.Event;
+import org.apache.james.mailbox.events.MailboxEvents.QuotaUsageUpdatedEvent;
+import org.apache.james.mailbox.model.Quota;
+import org.apache.james.mailbox.quota.QuotaFixture.Counts;
+import org.apache.james.mailbox.quota.QuotaFixture.Sizes;
+import org.apache.james.mailbox.store.event.EventFactory;
+import org.apache.james.quota.search.elasticsearch.UserRoutingKeyFactory;
+import org.apache.james.quota.search.elasticsearch.json.QuotaRatioToElasticSearchJson;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class ElasticSearchQuotaMailboxListenerCoalescingTest {
+    static final Event.EventId EVENT_ID = Event.EventId.of("6e0dd59d-660e-4d9b-b22f-0354479f47b4");
+    static final Username ALICE_USERNAME = Username.of("alice@domain.tld");
+    static final Duration WINDOW = Duration.ofSeconds(1);
+    static final BulkResponse SUCCESS = new BulkResponse(new BulkItemResponse[0], 1);
+
+    ElasticSearchIndexer indexer;
+    VirtualTimeScheduler scheduler;
+    QuotaRatioToElasticSearchJson json;
+    ElasticSearchQuotaMailboxListener testee;
+
+    @BeforeEach
+    void setUp() {
+        indexer = mock(ElasticSearchIndexer.class);
+        when(indexer.index(anyList())).thenReturn(Mono.just(SUCCESS));
+        scheduler = VirtualTimeScheduler.create();
+        json = new QuotaRatioToElasticSearchJson();
+        testee = new ElasticSearchQuotaMailboxListener(indexer, json, new UserRoutingKeyFactory(), WINDOW, scheduler);
+    }
+
+    private QuotaUsageUpdatedEvent event(Username username, Quota<QuotaCountLimit, QuotaCountUsage> count, Instant instant) {
+        return EventFactory.quotaUpdated()
+            .eventId(EVENT_ID)
+            .user(username)
+            .quotaRoot(QUOTAROOT)
+            .quotaCount(count)
+            .quotaSize(Sizes._55_PERCENT)
+            .instant(instant)
+            .build();
+    }
+
+    private QuotaUsageUpdatedEvent event(Username username, Quota<QuotaCountLimit, QuotaCountUsage> count) {
+        return event(username, count, NOW);
+    }
+
+    private CompletableFuture<Void> dispatch(QuotaUsageUpdatedEvent event) {
+        return Mono.from(testee.reactiveEvent(event)).toFuture();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<IndexedRepresentation> indexedDocuments() {
+        ArgumentCaptor<List<IndexedRepresentation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(indexer).index(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void eventsShouldNotBeIndexedBeforeTheEndOfTheWindow() {
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+
+        scheduler.advanceTimeBy(WINDOW.dividedBy(2));
+
+        assertThat(result).isNotDone();
+        verify(indexer, never()).index(anyList());
+    }
+
+    @Test
+    void eventsShouldCompleteOnceIndexed() {
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(result).isCompleted();
+    }
+
+    @Test
+    void eventsOfTheSameUserShouldBeCoalesced() throws Exception {
+        QuotaUsageUpdatedEvent latestEvent = event(BOB_USERNAME, Counts._52_PERCENT);
+        dispatch(event(BOB_USERNAME, Counts._32_PERCENT));
+        dispatch(latestEvent);
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(indexedDocuments())
+            .containsExactly(new IndexedRepresentation(DocumentId.fromString(BOB_USERNAME.asString()),
+                json.convertToJson(latestEvent),
+                new UserRoutingKeyFactory().from(BOB_USERNAME)));
+    }
+
+    @Test
+    void olderEventsShouldNotOverrideNewerOnes() throws Exception {
+        QuotaUsageUpdatedEvent latestEvent = event(BOB_USERNAME, Counts._52_PERCENT);
+        dispatch(latestEvent);
+        dispatch(event(BOB_USERNAME, Counts._32_PERCENT, NOW.minusSeconds(1)));
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(indexedDocuments())
+            .extracting(IndexedRepresentation::content)
+            .containsExactly(json.convertToJson(latestEvent));
+    }
+
+    @Test
+    void eventsOfSeveralUsersShouldBeIndexedInASingleBulk() {
+        dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+        dispatch(event(ALICE_USERNAME, Counts._32_PERCENT));
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(indexedDocuments())
+            .extracting(IndexedRepresentation::id)
+            .containsExactlyInAnyOrder(DocumentId.fromString(BOB_USERNAME.asString()),
+                DocumentId.fromString(ALICE_USERNAME.asString()));
+    }
+
+    @Test
+    void eventsShouldFailWhenIndexingFails() {
+        when(indexer.index(anyList())).thenReturn(Mono.error(new RuntimeException("boom")));
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(result).isCompletedExceptionally();
+    }
+
+    @Test
+    void eventsShouldFailWhenTheBulkReportsFailures() {
+        BulkResponse failedResponse = mock(BulkResponse.class);
+        when(failedResponse.hasFailures()).thenReturn(true);
+        when(failedResponse.buildFailureMessage()).thenReturn("failure");
+        when(indexer.index(anyList())).thenReturn(Mono.just(failedResponse));
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThatThrownBy(result::join).hasMessageContaining("failure");
+    }
+
+    @Test
+    void eventsAfterTheWindowShouldBeIndexedInANewBulk() {
+        dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+        scheduler.advanceTimeBy(WINDOW);
+
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._32_PERCENT));
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(result).isCompleted();
+        verify(indexer, times(2)).index(anyList());
+    }
+
+    @Test
+    void disposeShouldFlushPendingEvents() {
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+
+        testee.dispose();
+
+        assertThat(result).isCompleted();
+    }
+
+    @Test
+    void zeroWindowShouldIndexEventsImmediately() {
+        when(indexer.index(any(), any(), any())).thenReturn(Mono.empty());
+        testee = new ElasticSearchQuotaMailboxListener(indexer, json, new UserRoutingKeyFactory(), Duration.ZERO, scheduler);
+
+        CompletableFuture<Void> result = dispatch(event(BOB_USERNAME, Counts._52_PERCENT));
+
+        assertThat(result).isCompleted();
+        verify(indexer).index(any(), any(), any());
+        verify(indexer, never()).index(anyList());
+    }
+}
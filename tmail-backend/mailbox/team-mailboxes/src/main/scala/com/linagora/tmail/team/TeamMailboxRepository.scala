@@ -41,6 +41,15 @@ trait TeamMailboxRepository {
 
   def exists(teamMailbox: TeamMailbox): Publisher[Boolean]
 
+  /**
+   * @return the given team mailboxes that exist
+   */
+  def existsAll(teamMailboxes: Seq[TeamMailbox]): Publisher[TeamMailbox] =
+    SFlux.fromIterable(teamMailboxes.distinct)
+      .flatMap(teamMailbox => SMono.fromPublisher(exists(teamMailbox))
+        .filter(teamMailboxExists => teamMailboxExists)
+        .map(_ => teamMailbox), ReactorUtils.DEFAULT_CONCURRENCY)
+
 }
 
 object TeamMailboxRepositoryImpl {
@@ -226,4 +235,22 @@ class TeamMailboxRepositoryImpl @Inject()(mailboxManager: MailboxManager,
   def exists(teamMailbox: TeamMailbox): SMono[Boolean] =
     SMono.fromPublisher(mailboxManager.mailboxExists(teamMailbox.mailboxPath, createSession(teamMailbox)))
       .map(b => b)
+
+  /**
+   * Resolves the candidates with one mailbox search per domain rather than one lookup per team mailbox.
+   */
+  override def existsAll(teamMailboxes: Seq[TeamMailbox]): Publisher[TeamMailbox] =
+    teamMailboxes.distinct match {
+      case Seq() => SFlux.empty[TeamMailbox]
+      case Seq(teamMailbox) => exists(teamMailbox)
+        .filter(teamMailboxExists => teamMailboxExists)
+        .map(_ => teamMailbox)
+      case candidates => SFlux.fromIterable(candidates.groupBy(_.domain))
+        .flatMap({
+          case (domain, domainCandidates) =>
+            val candidateSet: Set[TeamMailbox] = domainCandidates.toSet
+            SFlux.fromPublisher(listTeamMailboxes(domain))
+              .filter(candidateSet.contains)
+        }, ReactorUtils.DEFAULT_CONCURRENCY)
+    }
 }
@@ -61,6 +61,54 @@ trait TeamMailboxRepositoryContract {
       .isTrue
   }
 
+  @Test
+  def existsAllShouldReturnEmptyByDefault(): Unit = {
+    assertThat(SFlux.fromPublisher(testee.existsAll(Seq(TEAM_MAILBOX_MARKETING, TEAM_MAILBOX_SALES))).collectSeq().block().asJava)
+      .isEmpty()
+  }
+
+  @Test
+  def existsAllShouldReturnEmptyWhenNoCandidates(): Unit = {
+    assertThat(SFlux.fromPublisher(testee.existsAll(Seq())).collectSeq().block().asJava)
+      .isEmpty()
+  }
+
+  @Test
+  def existsAllShouldReturnOnlyExistingTeamMailboxes(): Unit = {
+    SMono.fromPublisher(testee.createTeamMailbox(TEAM_MAILBOX_MARKETING)).block()
+
+    assertThat(SFlux.fromPublisher(testee.existsAll(Seq(TEAM_MAILBOX_MARKETING, TEAM_MAILBOX_SALES))).collectSeq().block().asJava)
+      .containsExactly(TEAM_MAILBOX_MARKETING)
+  }
+
+  @Test
+  def existsAllShouldReturnASingleExistingTeamMailbox(): Unit = {
+    SMono.fromPublisher(testee.createTeamMailbox(TEAM_MAILBOX_MARKETING)).block()
+
+    assertThat(SFlux.fromPublisher(testee.existsAll(Seq(TEAM_MAILBOX_MARKETING))).collectSeq().block().asJava)
+      .containsExactly(TEAM_MAILBOX_MARKETING)
+  }
+
+  @Test
+  def existsAllShouldNotReturnDuplicates(): Unit = {
+    SMono.fromPublisher(testee.createTeamMailbox(TEAM_MAILBOX_MARKETING)).block()
+
+    assertThat(SFlux.fromPublisher(testee.existsAll(Seq(TEAM_MAILBOX_MARKETING, TEAM_MAILBOX_MARKETING, TEAM_MAILBOX_SALES))).collectSeq().block().asJava)
+      .containsExactly(TEAM_MAILBOX_MARKETING)
+  }
+
+  @Test
+  def existsAllShouldResolveTeamMailboxesOfSeveralDomains(): Unit = {
+    val teamMailboxDomain2: TeamMailbox = TeamMailbox(DOMAIN_2, TeamMailboxName("marketing"))
+    SMono.fromPublisher(testee.createTeamMailbox(TEAM_MAILBOX_MARKETING)).block()
+    SMono.fromPublisher(testee.createTeamMailbox(TEAM_MAILBOX_SALES)).block()
+    SMono.fromPublisher(testee.createTeamMailbox(teamMailboxDomain2)).block()
+
+    assertThat(SFlux.fromPublisher(testee.existsAll(Seq(TEAM_MAILBOX_MARKETING, TEAM_MAILBOX_SALES, teamMailboxDomain2,
+      TeamMailbox(DOMAIN_2, TeamMailboxName("sale"))))).collectSeq().block().asJava)
+      .containsExactlyInAnyOrder(TEAM_MAILBOX_MARKETING, TEAM_MAILBOX_SALES, teamMailboxDomain2)
+  }
+
   @Test
   def existsShouldReturnFalseByDefault(): Unit = {
     assertThat(SMono.fromPublisher(testee.exists(TEAM_MAILBOX_MARKETING)).block())
@@ -13,6 +13,7 @@ import com.linagora.tmail.team.TeamMailboxRepository;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import scala.jdk.javaapi.CollectionConverters;
 import scala.jdk.javaapi.OptionConverters;
 
 public class TmailLocalResources implements LocalResources {
@@ -54,10 +55,15 @@ public class TmailLocalResources implements LocalResources {
             .filter(m -> !localUsersMailAddresses.contains(m))
             .toList();
 
-        List<MailAddress> teamMailboxesMailAddresses = Flux.fromIterable(mailAddressesLeft)
-            .<TeamMailbox>handle((mailAddress, sink) -> OptionConverters.toJava(TeamMailbox.asTeamMailbox(mailAddress)).ifPresent(sink::next))
-            .filterWhen(teamMailbox -> Mono.from(teamMailboxRepository.exists(teamMailbox))
-                .map(Boolean.TRUE::equals))
+        List<TeamMailbox> teamMailboxCandidates = mailAddressesLeft.stream()
+            .flatMap(mailAddress -> OptionConverters.toJava(TeamMailbox.asTeamMailbox(mailAddress)).stream())
+            .toList();
+
+        if (teamMailboxCandidates.isEmpty()) {
+            return localUsersMailAddresses;
+        }
+
+        List<MailAddress> teamMailboxesMailAddresses = Flux.from(teamMailboxRepository.existsAll(CollectionConverters.asScala(teamMailboxCandidates).toSeq()))
             .map(TeamMailbox::asMailAddress)
             .collectList()
             .block();
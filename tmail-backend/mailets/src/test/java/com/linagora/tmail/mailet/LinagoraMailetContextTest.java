@@ -151,4 +151,17 @@ public class LinagoraMailetContextTest implements JamesMailetContextContract {
         assertThat(testee.localRecipients(mailAddresses))
             .containsExactlyInAnyOrder(TEAM_MAILBOX.asMailAddress());
     }
+
+    @Test
+    void localRecipientsShouldReturnAllExistingTeamMailboxes() {
+        TeamMailbox teamMailbox2 = TeamMailbox.fromJava(DOMAIN_COM, "sales").get();
+        TeamMailbox unknownTeamMailbox = TeamMailbox.fromJava(DOMAIN_COM, "unknown").get();
+        Mono.from(teamMailboxRepository.createTeamMailbox(TEAM_MAILBOX)).block();
+        Mono.from(teamMailboxRepository.createTeamMailbox(teamMailbox2)).block();
+
+        ImmutableList<MailAddress> mailAddresses = ImmutableList.of(TEAM_MAILBOX.asMailAddress(), teamMailbox2.asMailAddress(),
+            unknownTeamMailbox.asMailAddress(), mailAddress);
+        assertThat(testee.localRecipients(mailAddresses))
+            .containsExactlyInAnyOrder(TEAM_MAILBOX.asMailAddress(), teamMailbox2.asMailAddress());
+    }
 }
@@ -0,0 +1,28 @@
+package com.linagora.tmail.webadmin;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.apache.james.mailbox.model.SearchQuery;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The date of a message, as used for expiration and archival, is its save date, or its internal date when it has none,
+ * which a single search criterion can not express. The search thus selects a superset of the messages older than a
+ * date, that callers check against the message metadata.
+ */
+public class SaveDateSearchQuery {
+    private static final Duration SEARCH_DATE_MARGIN = Duration.ofSeconds(1);
+
+    public static SearchQuery candidatesBefore(Instant date) {
+        Date searchDate = Date.from(date.plus(SEARCH_DATE_MARGIN));
+        return SearchQuery.of(SearchQuery.or(ImmutableList.of(
+            SearchQuery.saveDateBefore(searchDate, SearchQuery.DateResolution.Second),
+            SearchQuery.internalDateBefore(searchDate, SearchQuery.DateResolution.Second))));
+    }
+
+    private SaveDateSearchQuery() {
+    }
+}
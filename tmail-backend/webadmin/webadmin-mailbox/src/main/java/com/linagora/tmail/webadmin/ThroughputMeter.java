@@ -0,0 +1,41 @@
+package com.linagora.tmail.webadmin;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Rate of the items processed by a task, measured from the moment it starts running rather than from its submission,
+ * and frozen once it completes.
+ */
+public class ThroughputMeter {
+    private final Clock clock;
+    private volatile Optional<Instant> startedAt;
+    private volatile Optional<Instant> completedAt;
+
+    public ThroughputMeter(Clock clock) {
+        this.clock = clock;
+        this.startedAt = Optional.empty();
+        this.completedAt = Optional.empty();
+    }
+
+    public void start() {
+        startedAt = Optional.of(clock.instant());
+    }
+
+    public void complete() {
+        completedAt = Optional.of(clock.instant());
+    }
+
+    public double perSecond(long count) {
+        return startedAt.map(start -> {
+                long elapsedMillis = Duration.between(start, completedAt.orElseGet(clock::instant)).toMillis();
+                if (elapsedMillis <= 0) {
+                    return 0d;
+                }
+                return count * 1000.0 / elapsedMillis;
+            })
+            .orElse(0d);
+    }
+}
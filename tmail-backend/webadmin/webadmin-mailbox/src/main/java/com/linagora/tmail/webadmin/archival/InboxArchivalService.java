@@ -6,7 +6,9 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.Date;
+import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -15,9 +17,8 @@ import org.apache.james.mailbox.DefaultMailboxes;
 import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxExistsException;
-import org.apache.james.mailbox.exception.MailboxNotFoundException;
-import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.MessageRange;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
@@ -29,9 +30,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
-import com.github.fge.lambdas.functions.FunctionChainer;
 import com.linagora.tmail.james.jmap.settings.JmapSettings;
 import com.linagora.tmail.james.jmap.settings.JmapSettingsRepository;
+import com.linagora.tmail.webadmin.SaveDateSearchQuery;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -61,7 +62,7 @@ public class InboxArchivalService {
 
     public Mono<Task.Result> archiveInbox(InboxArchivalTask.Context context) {
         return Flux.from(usersRepository.listReactive())
-            .concatMap(username -> Mono.from(jmapSettingsRepository.get(username))
+            .flatMap(username -> Mono.from(jmapSettingsRepository.get(username))
                 .filter(JmapSettings::inboxArchivalEnable)
                 .flatMap(jmapSettings -> archiveInbox(username, jmapSettings, context))
                 .defaultIfEmpty(Task.Result.COMPLETED), LOW_CONCURRENCY)
@@ -79,10 +80,12 @@ public class InboxArchivalService {
         MailboxSession mailboxSession = mailboxManager.createSystemSession(username);
 
         return Mono.from(mailboxManager.getMailboxReactive(MailboxPath.inbox(username), mailboxSession))
-            .map(Throwing.function(MessageManager::getMailboxEntity))
-            .flatMapMany(getMailboxMessagesMetadata(mailboxSession))
-            .filter(messagesOlderThanArchiveDate(archiveDate))
-            .flatMap(mailboxMessage -> archiveMessage(mailboxMessage, mailboxSession, jmapSettings, context), 4)
+            .flatMapMany(inbox -> archivableMessages(inbox, archiveDate, mailboxSession))
+            .doOnNext(any -> context.increaseCandidateMessageCount(1))
+            .collect(Collectors.groupingBy(mailboxMessage -> archiveMailbox(mailboxMessage, mailboxSession, jmapSettings),
+                Collectors.mapping(MailboxMessage::getUid, Collectors.toList())))
+            .flatMapMany(uidsByArchiveMailbox -> Flux.fromIterable(uidsByArchiveMailbox.entrySet()))
+            .concatMap(entry -> moveMessages(entry.getValue(), mailboxSession, entry.getKey(), context))
             .then(Mono.fromCallable(() -> {
                 context.increaseSuccessfulUsers();
                 return Task.Result.COMPLETED;
@@ -95,69 +98,74 @@ public class InboxArchivalService {
             });
     }
 
-    private FunctionChainer<Mailbox, Flux<MailboxMessage>> getMailboxMessagesMetadata(MailboxSession mailboxSession) {
-        return Throwing.function(mailbox -> mapperFactory.getMessageMapper(mailboxSession)
-            .findInMailboxReactive(mailbox, MessageRange.all(), MessageMapper.FetchType.METADATA, UNLIMITED));
+    /**
+     * Candidates are selected by the search index, then checked against their metadata, see {@link SaveDateSearchQuery}.
+     */
+    private Flux<MailboxMessage> archivableMessages(MessageManager inbox, Date archiveDate, MailboxSession mailboxSession) {
+        return Flux.defer(Throwing.supplier(() -> inbox.search(SaveDateSearchQuery.candidatesBefore(archiveDate.toInstant()), mailboxSession)))
+            .collectSortedList()
+            .flatMapIterable(MessageRange::toRanges)
+            .concatMap(Throwing.function(range -> mapperFactory.getMessageMapper(mailboxSession)
+                .findInMailboxReactive(inbox.getMailboxEntity(), range, MessageMapper.FetchType.METADATA, UNLIMITED)))
+            .filter(messagesOlderThanArchiveDate(archiveDate));
     }
 
     private Predicate<MailboxMessage> messagesOlderThanArchiveDate(Date archiveDate) {
-        return mailboxMessage -> mailboxMessage.getSaveDate()
-            .orElse(mailboxMessage.getInternalDate())
-            .before(archiveDate);
+        return mailboxMessage -> archivalDate(mailboxMessage).before(archiveDate);
     }
 
-    private Mono<Void> archiveMessage(MailboxMessage mailboxMessage, MailboxSession mailboxSession, JmapSettings jmapSettings, InboxArchivalTask.Context context) {
-        return switch (jmapSettings.inboxArchivalFormat().toString()) {
-            case YEARLY_FORMAT -> yearlyArchive(mailboxMessage, mailboxSession, context);
-            case MONTHLY_FORMAT -> monthlyArchive(mailboxMessage, mailboxSession, context);
-            default -> singleArchive(mailboxMessage, mailboxSession, context);
-        };
-    }
-
-    private Mono<Void> singleArchive(MailboxMessage mailboxMessage, MailboxSession mailboxSession, InboxArchivalTask.Context context) {
-        return moveMessage(mailboxMessage, mailboxSession, MailboxPath.forUser(mailboxSession.getUser(), DefaultMailboxes.ARCHIVE), context);
+    private Date archivalDate(MailboxMessage mailboxMessage) {
+        return mailboxMessage.getSaveDate()
+            .orElse(mailboxMessage.getInternalDate());
     }
 
-    private Mono<Void> yearlyArchive(MailboxMessage mailboxMessage, MailboxSession mailboxSession, InboxArchivalTask.Context context) {
-        int savedYear = mailboxMessage.getSaveDate()
-            .orElse(mailboxMessage.getInternalDate())
+    private MailboxPath archiveMailbox(MailboxMessage mailboxMessage, MailboxSession mailboxSession, JmapSettings jmapSettings) {
+        LocalDate archivalDate = archivalDate(mailboxMessage)
             .toInstant()
             .atZone(ZoneId.of("UTC"))
-            .toLocalDate()
-            .getYear();
-        MailboxPath yearlyArchiveSubMailbox = MailboxPath.forUser(mailboxSession.getUser(), String.format("Archive.%d", savedYear));
+            .toLocalDate();
 
-        return moveMessage(mailboxMessage, mailboxSession, yearlyArchiveSubMailbox, context);
+        return switch (jmapSettings.inboxArchivalFormat().toString()) {
+            case YEARLY_FORMAT -> MailboxPath.forUser(mailboxSession.getUser(), String.format("Archive.%d", archivalDate.getYear()));
+            case MONTHLY_FORMAT -> MailboxPath.forUser(mailboxSession.getUser(),
+                String.format("Archive.%d.%d", archivalDate.getYear(), archivalDate.getMonth().getValue()));
+            default -> MailboxPath.forUser(mailboxSession.getUser(), DefaultMailboxes.ARCHIVE);
+        };
     }
 
-    private Mono<Void> monthlyArchive(MailboxMessage mailboxMessage, MailboxSession mailboxSession, InboxArchivalTask.Context context) {
-        LocalDate savedDate = mailboxMessage.getSaveDate()
-            .orElse(mailboxMessage.getInternalDate())
-            .toInstant()
-            .atZone(ZoneId.of("UTC"))
-            .toLocalDate();
-        MailboxPath monthlyArchiveSubMailbox = MailboxPath.forUser(mailboxSession.getUser(),
-            String.format("Archive.%d.%d", savedDate.getYear(), savedDate.getMonth().getValue()));
+    /**
+     * Archive mailboxes are resolved, and created if needed, once per user and target mailbox. Messages are then moved
+     * by ranges of contiguous UIDs.
+     */
+    private Mono<Void> moveMessages(List<MessageUid> uids, MailboxSession mailboxSession, MailboxPath archiveMailbox, InboxArchivalTask.Context context) {
+        MailboxPath inbox = MailboxPath.inbox(mailboxSession.getUser());
 
-        return moveMessage(mailboxMessage, mailboxSession, monthlyArchiveSubMailbox, context);
+        return createMailboxIfNeeded(mailboxSession, archiveMailbox)
+            .thenMany(Flux.fromIterable(MessageRange.toRanges(uids)))
+            .concatMap(range -> moveRange(range, inbox, archiveMailbox, mailboxSession, context))
+            .then();
     }
 
-    private Mono<Void> moveMessage(MailboxMessage mailboxMessage, MailboxSession mailboxSession, MailboxPath archiveMailbox, InboxArchivalTask.Context context) {
-        MailboxPath inbox = MailboxPath.inbox(mailboxSession.getUser());
-        return Mono.from(mailboxManager.moveMessagesReactive(MessageRange.one(mailboxMessage.getUid()), inbox, archiveMailbox, mailboxSession))
-            .onErrorResume(MailboxNotFoundException.class, e -> createMailbox(mailboxSession, archiveMailbox)
-                .then(Mono.from(mailboxManager.moveMessagesReactive(MessageRange.one(mailboxMessage.getUid()), inbox, archiveMailbox, mailboxSession))))
-            .then(Mono.fromRunnable(() -> context.increaseArchivedMessageCount(1)))
-            .doOnError(e -> {
-                LOGGER.error("Error when archiving messageId {} from mailbox {} to mailbox {}", mailboxMessage.getMessageId().serialize(), inbox.asString(), archiveMailbox.asString(), e);
-                context.increaseErrorMessageCount();
+    private Mono<Void> moveRange(MessageRange range, MailboxPath inbox, MailboxPath archiveMailbox,
+                                 MailboxSession mailboxSession, InboxArchivalTask.Context context) {
+        // Ranges are built out of contiguous UIDs
+        int messageCount = (int) (range.getUidTo().asLong() - range.getUidFrom().asLong() + 1);
+
+        return Mono.from(mailboxManager.moveMessagesReactive(range, inbox, archiveMailbox, mailboxSession))
+            .then(Mono.fromRunnable(() -> context.increaseArchivedMessageCount(messageCount)))
+            .onErrorResume(e -> {
+                LOGGER.error("Error when archiving messages {} from mailbox {} to mailbox {}", range, inbox.asString(), archiveMailbox.asString(), e);
+                context.increaseErrorMessageCount(messageCount);
+                return Mono.empty();
             })
             .then();
     }
 
-    private Mono<Void> createMailbox(MailboxSession mailboxSession, MailboxPath archiveMailbox) {
-        return Mono.from(mailboxManager.createMailboxReactive(archiveMailbox, MailboxManager.CreateOption.CREATE_SUBSCRIPTION, mailboxSession))
-            .onErrorResume(MailboxExistsException.class, e -> Mono.empty())
+    private Mono<Void> createMailboxIfNeeded(MailboxSession mailboxSession, MailboxPath archiveMailbox) {
+        return Mono.from(mailboxManager.mailboxExists(archiveMailbox, mailboxSession))
+            .filter(exists -> !exists)
+            .flatMap(any -> Mono.from(mailboxManager.createMailboxReactive(archiveMailbox, MailboxManager.CreateOption.CREATE_SUBSCRIPTION, mailboxSession))
+                .onErrorResume(MailboxExistsException.class, e -> Mono.empty()))
             .then();
     }
 }
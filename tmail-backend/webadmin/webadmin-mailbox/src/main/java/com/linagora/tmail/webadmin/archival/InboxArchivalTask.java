@@ -14,6 +14,7 @@ import org.apache.james.task.TaskType;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.linagora.tmail.webadmin.ThroughputMeter;
 
 public class InboxArchivalTask implements Task {
     public static final TaskType TASK_TYPE = TaskType.of("InboxArchivalTask");
@@ -21,19 +22,21 @@ public class InboxArchivalTask implements Task {
 
     public record AdditionalInformation(Instant timestamp, long archivedMessageCount, long errorMessageCount,
                                         long successfulUsersCount, long failedUsersCount,
-                                        Set<Username> failedUsers) implements TaskExecutionDetails.AdditionalInformation {
+                                        Set<Username> failedUsers, long candidateMessageCount,
+                                        double archivedMessagesPerSecond) implements TaskExecutionDetails.AdditionalInformation {
 
-        private static AdditionalInformation from(Context context) {
+        private static AdditionalInformation from(Context context, Clock clock) {
             Context.Snapshot snapshot = context.snapshot();
-            return new AdditionalInformation(Clock.systemUTC().instant(), snapshot.archivedMessageCount(), snapshot.errorMessageCount(),
-                snapshot.successfulUsersCount, snapshot.failedUsersCount, snapshot.failedUsers);
+            return new AdditionalInformation(clock.instant(), snapshot.archivedMessageCount(), snapshot.errorMessageCount(),
+                snapshot.successfulUsersCount, snapshot.failedUsersCount, snapshot.failedUsers, snapshot.candidateMessageCount(),
+                context.archivedMessagesPerSecond());
         }
     }
 
     public static class Context {
 
         public record Snapshot(long archivedMessageCount, long errorMessageCount, long successfulUsersCount,
-                               long failedUsersCount, Set<Username> failedUsers) {
+                               long failedUsersCount, Set<Username> failedUsers, long candidateMessageCount) {
 
             public static Builder builder() {
                 return new Builder();
@@ -45,6 +48,7 @@ public class InboxArchivalTask implements Task {
                 private Optional<Long> successfulUsersCount;
                 private Optional<Long> failedUsersCount;
                 private Optional<Set<Username>> failedUsers;
+                private Optional<Long> candidateMessageCount;
 
                 Builder() {
                     archivedMessageCount = Optional.empty();
@@ -52,6 +56,7 @@ public class InboxArchivalTask implements Task {
                     successfulUsersCount = Optional.empty();
                     failedUsersCount = Optional.empty();
                     failedUsers = Optional.empty();
+                    candidateMessageCount = Optional.empty();
                 }
 
                 public Snapshot build() {
@@ -59,7 +64,8 @@ public class InboxArchivalTask implements Task {
                         errorMessageCount.orElse(0L),
                         successfulUsersCount.orElse(0L),
                         failedUsersCount.orElse(0L),
-                        failedUsers.orElse(ImmutableSet.of()));
+                        failedUsers.orElse(ImmutableSet.of()),
+                        candidateMessageCount.orElse(0L));
                 }
 
                 public Builder archivedMessageCount(long archivedMessageCount) {
@@ -86,6 +92,11 @@ public class InboxArchivalTask implements Task {
                     this.failedUsers = Optional.of(failedUsers);
                     return this;
                 }
+
+                public Builder candidateMessageCount(long candidateMessageCount) {
+                    this.candidateMessageCount = Optional.of(candidateMessageCount);
+                    return this;
+                }
             }
         }
 
@@ -94,13 +105,29 @@ public class InboxArchivalTask implements Task {
         private final AtomicLong successfulUsersCount;
         private final AtomicLong failedUsersCount;
         private final Set<Username> failedUsers;
+        private final AtomicLong candidateMessageCount;
+        private final ThroughputMeter throughputMeter;
 
         public Context() {
+            this(Clock.systemUTC());
+        }
+
+        public Context(Clock clock) {
             this.archivedMessageCount = new AtomicLong();
             this.errorMessageCount = new AtomicLong();
             this.successfulUsersCount = new AtomicLong();
             this.failedUsersCount = new AtomicLong();
             this.failedUsers = ConcurrentHashMap.newKeySet();
+            this.candidateMessageCount = new AtomicLong();
+            this.throughputMeter = new ThroughputMeter(clock);
+        }
+
+        public void start() {
+            throughputMeter.start();
+        }
+
+        public void complete() {
+            throughputMeter.complete();
         }
 
         public void increaseArchivedMessageCount(int count) {
@@ -111,6 +138,14 @@ public class InboxArchivalTask implements Task {
             errorMessageCount.incrementAndGet();
         }
 
+        public void increaseErrorMessageCount(int count) {
+            errorMessageCount.addAndGet(count);
+        }
+
+        public void increaseCandidateMessageCount(int count) {
+            candidateMessageCount.addAndGet(count);
+        }
+
         public void increaseSuccessfulUsers() {
             successfulUsersCount.incrementAndGet();
         }
@@ -137,6 +172,10 @@ public class InboxArchivalTask implements Task {
             return failedUsers;
         }
 
+        public double archivedMessagesPerSecond() {
+            return throughputMeter.perSecond(archivedMessageCount.get());
+        }
+
         public Snapshot snapshot() {
             return Snapshot.builder()
                 .archivedMessageCount(archivedMessageCount.get())
@@ -144,22 +183,34 @@ public class InboxArchivalTask implements Task {
                 .successfulUsersCount(successfulUsersCount.get())
                 .failedUsersCount(failedUsersCount.get())
                 .failedUsers(failedUsers)
+                .candidateMessageCount(candidateMessageCount.get())
                 .build();
         }
     }
 
     private final InboxArchivalService inboxArchivalService;
+    private final Clock clock;
     private final Context context;
 
     public InboxArchivalTask(InboxArchivalService inboxArchivalService) {
+        this(inboxArchivalService, Clock.systemUTC());
+    }
+
+    public InboxArchivalTask(InboxArchivalService inboxArchivalService, Clock clock) {
         this.inboxArchivalService = inboxArchivalService;
-        this.context = new Context();
+        this.clock = clock;
+        this.context = new Context(clock);
     }
 
     @Override
     public Result run() {
-        return inboxArchivalService.archiveInbox(context)
-            .block();
+        context.start();
+        try {
+            return inboxArchivalService.archiveInbox(context)
+                .block();
+        } finally {
+            context.complete();
+        }
     }
 
     @Override
@@ -169,7 +220,7 @@ public class InboxArchivalTask implements Task {
 
     @Override
     public Optional<TaskExecutionDetails.AdditionalInformation> details() {
-        return Optional.of(AdditionalInformation.from(context));
+        return Optional.of(AdditionalInformation.from(context, clock));
     }
 
     @VisibleForTesting
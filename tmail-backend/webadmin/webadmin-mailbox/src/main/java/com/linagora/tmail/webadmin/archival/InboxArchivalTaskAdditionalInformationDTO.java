@@ -1,6 +1,7 @@
 package com.linagora.tmail.webadmin.archival;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -27,7 +28,9 @@ public class InboxArchivalTaskAdditionalInformationDTO implements AdditionalInfo
             dto.errorMessageCount,
             dto.getSuccessfulUsersCount(),
             dto.getFailedUsersCount(),
-            toSetUsername(dto.failedUsers));
+            toSetUsername(dto.failedUsers),
+            dto.candidateMessageCount.orElse(0L),
+            dto.archivedMessagesPerSecond.orElse(0d));
     }
 
     private static InboxArchivalTaskAdditionalInformationDTO toDto(InboxArchivalTask.AdditionalInformation domainObject, String type) {
@@ -37,7 +40,9 @@ public class InboxArchivalTaskAdditionalInformationDTO implements AdditionalInfo
             domainObject.failedUsersCount(),
             toSetString(domainObject.failedUsers()),
             domainObject.archivedMessageCount(),
-            domainObject.errorMessageCount());
+            domainObject.errorMessageCount(),
+            Optional.of(domainObject.candidateMessageCount()),
+            Optional.of(domainObject.archivedMessagesPerSecond()));
     }
 
     private static Set<Username> toSetUsername(Set<String> usernames) {
@@ -59,6 +64,8 @@ public class InboxArchivalTaskAdditionalInformationDTO implements AdditionalInfo
     private final Set<String> failedUsers;
     private final long archivedMessageCount;
     private final long errorMessageCount;
+    private final Optional<Long> candidateMessageCount;
+    private final Optional<Double> archivedMessagesPerSecond;
 
     public InboxArchivalTaskAdditionalInformationDTO(@JsonProperty("type") String type,
                                                      @JsonProperty("timestamp") Instant timestamp,
@@ -66,7 +73,9 @@ public class InboxArchivalTaskAdditionalInformationDTO implements AdditionalInfo
                                                      @JsonProperty("failedUsersCount") long failedUsersCount,
                                                      @JsonProperty("failedUsers") Set<String> failedUsers,
                                                      @JsonProperty("archivedMessageCount") long archivedMessageCount,
-                                                     @JsonProperty("errorMessageCount") long errorMessageCount) {
+                                                     @JsonProperty("errorMessageCount") long errorMessageCount,
+                                                     @JsonProperty("candidateMessageCount") Optional<Long> candidateMessageCount,
+                                                     @JsonProperty("archivedMessagesPerSecond") Optional<Double> archivedMessagesPerSecond) {
         this.type = type;
         this.timestamp = timestamp;
         this.successfulUsersCount = successfulUsersCount;
@@ -74,6 +83,8 @@ public class InboxArchivalTaskAdditionalInformationDTO implements AdditionalInfo
         this.failedUsers = failedUsers;
         this.archivedMessageCount = archivedMessageCount;
         this.errorMessageCount = errorMessageCount;
+        this.candidateMessageCount = candidateMessageCount;
+        this.archivedMessagesPerSecond = archivedMessagesPerSecond;
     }
 
     @Override
@@ -94,6 +105,14 @@ public class InboxArchivalTaskAdditionalInformationDTO implements AdditionalInfo
         return errorMessageCount;
     }
 
+    public Optional<Long> getCandidateMessageCount() {
+        return candidateMessageCount;
+    }
+
+    public Optional<Double> getArchivedMessagesPerSecond() {
+        return archivedMessagesPerSecond;
+    }
+
     public long getSuccessfulUsersCount() {
         return successfulUsersCount;
     }
@@ -1,11 +1,13 @@
 package com.linagora.tmail.webadmin.cleanup;
 
+import java.time.Clock;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.linagora.tmail.webadmin.ThroughputMeter;
 
 public class CleanupContext {
      record Snapshot(long processedUsersCount, long deletedMessagesCount, ImmutableList<String> failedUsers) {
@@ -39,11 +41,25 @@ public class CleanupContext {
     private final AtomicLong processedUsersCount;
     private final AtomicLong deletedMessagesCount;
     private final ConcurrentLinkedDeque<String> failedUsers;
+    private final ThroughputMeter throughputMeter;
 
     public CleanupContext() {
+        this(Clock.systemUTC());
+    }
+
+    public CleanupContext(Clock clock) {
         this.processedUsersCount = new AtomicLong();
         this.deletedMessagesCount = new AtomicLong();
         this.failedUsers = new ConcurrentLinkedDeque<>();
+        this.throughputMeter = new ThroughputMeter(clock);
+    }
+
+    public void start() {
+        throughputMeter.start();
+    }
+
+    public void complete() {
+        throughputMeter.complete();
     }
 
     public void incrementProcessed() {
@@ -58,6 +74,10 @@ public class CleanupContext {
         failedUsers.add(user);
     }
 
+    public double deletedMessagesPerSecond() {
+        return throughputMeter.perSecond(deletedMessagesCount.get());
+    }
+
     public Snapshot snapshot() {
         return new Snapshot(processedUsersCount.get(),
             deletedMessagesCount.get(),
@@ -23,15 +23,18 @@ import org.apache.james.util.ReactorUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableList;
 import com.linagora.tmail.james.jmap.settings.JmapSettings;
 import com.linagora.tmail.james.jmap.settings.JmapSettingsRepository;
+import com.linagora.tmail.webadmin.SaveDateSearchQuery;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CleanupService {
     private static final Logger LOGGER = LoggerFactory.getLogger(CleanupService.class);
+
     private final UsersRepository usersRepository;
     private final JmapSettingsRepository jmapSettingsRepository;
     private final SessionProvider sessionProvider;
@@ -53,7 +56,7 @@ public class CleanupService {
             .transform(ReactorUtils.<Username, Task.Result>throttle()
                 .elements(runningOptions.getUsersPerSecond())
                 .per(Duration.ofSeconds(1))
-                .forOperation(username -> cleanupForSingleUser(role, username, context)))
+                .forOperation(username -> cleanupForSingleUser(role, username, runningOptions, context)))
             .reduce(Task.Result.COMPLETED, Task::combine)
             .onErrorResume(e -> {
                 LOGGER.error("Error while accessing users from repository", e);
@@ -61,10 +64,10 @@ public class CleanupService {
             });
     }
 
-    private Mono<Task.Result> cleanupForSingleUser(Role role, Username username, CleanupContext context) {
+    private Mono<Task.Result> cleanupForSingleUser(Role role, Username username, RunningOptions runningOptions, CleanupContext context) {
         return Mono.from(jmapSettingsRepository.get(username))
             .filter(jmapSettings -> checkCleanupEnabled(role, jmapSettings))
-            .flatMap(jmapSettings -> cleanupForSingleUser(role, username, periodByRole(role, jmapSettings), context))
+            .flatMap(jmapSettings -> cleanupForSingleUser(role, username, periodByRole(role, jmapSettings), runningOptions, context))
             .defaultIfEmpty(Task.Result.COMPLETED)
             .onErrorResume(e -> {
                 LOGGER.error("Error while cleaning mailbox {} for user {}", role.serialize(), username, e);
@@ -85,13 +88,14 @@ public class CleanupService {
         return jmapSettings.spamCleanupPeriod();
     }
 
-    private Mono<Task.Result> cleanupForSingleUser(Role role, Username username, Period period, CleanupContext context) {
+    private Mono<Task.Result> cleanupForSingleUser(Role role, Username username, Period period, RunningOptions runningOptions, CleanupContext context) {
         return getMessageManagerForMailbox(role, username)
             .flatMap(messageManager ->
                 deleteExpiredMessages(getExpiredDate(period),
                     context,
                     messageManager,
-                    getMailboxSession(username)))
+                    getMailboxSession(username),
+                    runningOptions.getMessagesPerChunk()))
             .then(Mono.just(Task.Result.COMPLETED))
             .doOnNext(result -> {
                 LOGGER.info("Mailbox {} is cleaned for user {}", role.serialize(), username);
@@ -107,16 +111,23 @@ public class CleanupService {
         return Mono.from(systemMailboxesProvider.getMailboxByRole(role, username));
     }
 
-    private Mono<Void> deleteExpiredMessages(Instant expiredDate, CleanupContext context, MessageManager messageManager, MailboxSession mailboxSession) {
-        return Flux.from(messageManager.getMessagesReactive(MessageRange.all(), FetchGroup.MINIMAL, mailboxSession))
-            .filter(messageResult -> messageResult.getSaveDate().orElse(messageResult.getInternalDate()).toInstant().isBefore(expiredDate))
-            .map(MessageResult::getUid)
-            .collect(ImmutableList.toImmutableList())
-            .flatMap(messageUids -> messageManager.deleteReactive(messageUids, mailboxSession)
-                .doOnSuccess(unused -> {
-                    context.incrementDeletedMessagesCount(messageUids.size());
-                })
-            );
+    /**
+     * Candidates are selected by the search index and deleted chunk by chunk, so that memory usage does not depend on
+     * the mailbox size. They are checked against their metadata before deletion, see {@link SaveDateSearchQuery}.
+     */
+    private Mono<Void> deleteExpiredMessages(Instant expiredDate, CleanupContext context, MessageManager messageManager,
+                                             MailboxSession mailboxSession, int messagesPerChunk) {
+        return Flux.defer(Throwing.supplier(() -> messageManager.search(SaveDateSearchQuery.candidatesBefore(expiredDate), mailboxSession)))
+            .buffer(messagesPerChunk)
+            .concatMap(uids -> Flux.fromIterable(MessageRange.toRanges(ImmutableList.sortedCopyOf(uids)))
+                .concatMap(range -> messageManager.getMessagesReactive(range, FetchGroup.MINIMAL, mailboxSession))
+                .filter(messageResult -> messageResult.getSaveDate().orElse(messageResult.getInternalDate()).toInstant().isBefore(expiredDate))
+                .map(MessageResult::getUid)
+                .collect(ImmutableList.toImmutableList())
+                .filter(expiredUids -> !expiredUids.isEmpty())
+                .flatMap(expiredUids -> messageManager.deleteReactive(expiredUids, mailboxSession)
+                    .doOnSuccess(unused -> context.incrementDeletedMessagesCount(expiredUids.size()))))
+            .then();
     }
 
     private Instant getExpiredDate(Period period) {
@@ -13,17 +13,28 @@ public class CleanupSpamTask implements Task {
 
     private final CleanupService cleanupService;
     private final RunningOptions runningOptions;
+    private final Clock clock;
     private final CleanupContext context;
 
     public CleanupSpamTask(CleanupService cleanupService, RunningOptions runningOptions) {
+        this(cleanupService, runningOptions, Clock.systemUTC());
+    }
+
+    public CleanupSpamTask(CleanupService cleanupService, RunningOptions runningOptions, Clock clock) {
         this.cleanupService = cleanupService;
         this.runningOptions = runningOptions;
-        this.context =  new CleanupContext();
+        this.clock = clock;
+        this.context = new CleanupContext(clock);
     }
 
     @Override
     public Task.Result run() throws InterruptedException {
-        return cleanupService.cleanup(Role.SPAM, runningOptions, context).block();
+        context.start();
+        try {
+            return cleanupService.cleanup(Role.SPAM, runningOptions, context).block();
+        } finally {
+            context.complete();
+        }
     }
 
     @Override
@@ -38,10 +49,11 @@ public class CleanupSpamTask implements Task {
     @Override
     public Optional<TaskExecutionDetails.AdditionalInformation> details() {
         CleanupContext.Snapshot snapshot = context.snapshot();
-        return Optional.of(new CleanupSpamTaskDetails(Clock.systemUTC().instant(),
+        return Optional.of(new CleanupSpamTaskDetails(clock.instant(),
             snapshot.processedUsersCount(),
             snapshot.deletedMessagesCount(),
             snapshot.failedUsers(),
-            runningOptions));
+            runningOptions,
+            context.deletedMessagesPerSecond()));
     }
 }
@@ -15,7 +15,8 @@ public record CleanupSpamTaskAdditionalInformationDTO(@JsonProperty("type") Stri
                                                       @JsonProperty("deletedMessagesCount") long deletedMessagesCount,
                                                       @JsonProperty("failedUsers") ImmutableList<String> failedUsers,
                                                       @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions,
-                                                      @JsonProperty("timestamp") Instant timestamp) implements AdditionalInformationDTO {
+                                                      @JsonProperty("timestamp") Instant timestamp,
+                                                      @JsonProperty("deletedMessagesPerSecond") Optional<Double> deletedMessagesPerSecond) implements AdditionalInformationDTO {
     public static AdditionalInformationDTOModule<CleanupSpamTaskDetails, CleanupSpamTaskAdditionalInformationDTO> module() {
         return DTOModule.forDomainObject(CleanupSpamTaskDetails.class)
             .convertToDTO(CleanupSpamTaskAdditionalInformationDTO.class)
@@ -31,7 +32,8 @@ public record CleanupSpamTaskAdditionalInformationDTO(@JsonProperty("type") Stri
             details.deletedMessagesCount(),
             details.failedUsers(),
             Optional.of(RunningOptionsDTO.asDTO(details.runningOptions())),
-            details.timestamp());
+            details.timestamp(),
+            Optional.of(details.deletedMessagesPerSecond()));
     }
 
     private CleanupSpamTaskDetails toDomainObject() {
@@ -39,7 +41,8 @@ public record CleanupSpamTaskAdditionalInformationDTO(@JsonProperty("type") Stri
             processedUsersCount,
             deletedMessagesCount,
             failedUsers,
-            runningOptions.map(RunningOptionsDTO::asDomainObject).orElse(RunningOptions.DEFAULT));
+            runningOptions.map(RunningOptionsDTO::asDomainObject).orElse(RunningOptions.DEFAULT),
+            deletedMessagesPerSecond.orElse(0d));
     }
 
     @Override
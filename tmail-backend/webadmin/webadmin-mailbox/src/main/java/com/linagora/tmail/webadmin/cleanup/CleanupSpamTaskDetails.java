@@ -10,7 +10,8 @@ public record CleanupSpamTaskDetails(Instant instant,
                                      long processedUsersCount,
                                      long deletedMessagesCount,
                                      ImmutableList<String> failedUsers,
-                                     RunningOptions runningOptions) implements TaskExecutionDetails.AdditionalInformation {
+                                     RunningOptions runningOptions,
+                                     double deletedMessagesPerSecond) implements TaskExecutionDetails.AdditionalInformation {
     @Override
     public Instant timestamp() {
         return instant;
@@ -11,6 +11,7 @@ import spark.Request;
 
 public class CleanupSpamTaskRegistration extends TaskFromRequestRegistry.TaskRegistration {
     private static final String USERS_PER_SECOND_PARA = "usersPerSecond";
+    private static final String MESSAGES_PER_CHUNK_PARA = "messagesPerChunk";
     private static final TaskRegistrationKey CLEANUP_SPAM = TaskRegistrationKey.of("CleanupSpam");
 
     @Inject
@@ -19,16 +20,17 @@ public class CleanupSpamTaskRegistration extends TaskFromRequestRegistry.TaskReg
     }
 
     private static RunningOptions parseRunningOptions(Request request) {
-        return RunningOptions.of(intQueryParameter(request).orElse(RunningOptions.DEFAULT_USERS_PER_SECOND));
+        return RunningOptions.of(intQueryParameter(request, USERS_PER_SECOND_PARA).orElse(RunningOptions.DEFAULT_USERS_PER_SECOND),
+            intQueryParameter(request, MESSAGES_PER_CHUNK_PARA).orElse(RunningOptions.DEFAULT_MESSAGES_PER_CHUNK));
     }
 
-    private static Optional<Integer> intQueryParameter(Request request) {
+    private static Optional<Integer> intQueryParameter(Request request, String parameter) {
         try {
-            return Optional.ofNullable(request.queryParams(USERS_PER_SECOND_PARA))
+            return Optional.ofNullable(request.queryParams(parameter))
                 .map(Integer::parseInt);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException(String.format("Illegal value supplied for query parameter '%s', expecting a " +
-                "strictly positive optional integer", USERS_PER_SECOND_PARA), e);
+                "strictly positive optional integer", parameter), e);
         }
     }
 }
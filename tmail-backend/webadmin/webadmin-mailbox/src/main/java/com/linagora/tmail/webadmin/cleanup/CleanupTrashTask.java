@@ -13,17 +13,28 @@ public class CleanupTrashTask implements Task {
 
     private final CleanupService cleanupService;
     private final RunningOptions runningOptions;
+    private final Clock clock;
     private final CleanupContext context;
 
     public CleanupTrashTask(CleanupService cleanupService, RunningOptions runningOptions) {
+        this(cleanupService, runningOptions, Clock.systemUTC());
+    }
+
+    public CleanupTrashTask(CleanupService cleanupService, RunningOptions runningOptions, Clock clock) {
         this.cleanupService = cleanupService;
         this.runningOptions = runningOptions;
-        this.context = new CleanupContext();
+        this.clock = clock;
+        this.context = new CleanupContext(clock);
     }
 
     @Override
     public Result run() throws InterruptedException {
-        return cleanupService.cleanup(Role.TRASH, runningOptions, context).block();
+        context.start();
+        try {
+            return cleanupService.cleanup(Role.TRASH, runningOptions, context).block();
+        } finally {
+            context.complete();
+        }
     }
 
     @Override
@@ -38,10 +49,11 @@ public class CleanupTrashTask implements Task {
     @Override
     public Optional<TaskExecutionDetails.AdditionalInformation> details() {
         CleanupContext.Snapshot snapshot = context.snapshot();
-        return Optional.of(new CleanupTrashTaskDetails(Clock.systemUTC().instant(),
+        return Optional.of(new CleanupTrashTaskDetails(clock.instant(),
             snapshot.processedUsersCount(),
             snapshot.deletedMessagesCount(),
             snapshot.failedUsers(),
-            runningOptions));
+            runningOptions,
+            context.deletedMessagesPerSecond()));
     }
 }
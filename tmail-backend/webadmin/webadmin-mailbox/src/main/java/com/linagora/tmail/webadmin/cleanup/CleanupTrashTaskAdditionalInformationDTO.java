@@ -15,7 +15,8 @@ public record CleanupTrashTaskAdditionalInformationDTO(@JsonProperty("type") Str
                                                        @JsonProperty("deletedMessagesCount") long deletedMessagesCount,
                                                        @JsonProperty("failedUsers") ImmutableList<String> failedUsers,
                                                        @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions,
-                                                       @JsonProperty("timestamp") Instant timestamp) implements AdditionalInformationDTO {
+                                                       @JsonProperty("timestamp") Instant timestamp,
+                                                       @JsonProperty("deletedMessagesPerSecond") Optional<Double> deletedMessagesPerSecond) implements AdditionalInformationDTO {
 
     public static AdditionalInformationDTOModule<CleanupTrashTaskDetails, CleanupTrashTaskAdditionalInformationDTO> module() {
         return DTOModule.forDomainObject(CleanupTrashTaskDetails.class)
@@ -32,7 +33,8 @@ public record CleanupTrashTaskAdditionalInformationDTO(@JsonProperty("type") Str
             details.deletedMessagesCount(),
             details.failedUsers(),
             Optional.of(RunningOptionsDTO.asDTO(details.runningOptions())),
-            details.timestamp());
+            details.timestamp(),
+            Optional.of(details.deletedMessagesPerSecond()));
     }
 
     private CleanupTrashTaskDetails toDomainObject() {
@@ -40,7 +42,8 @@ public record CleanupTrashTaskAdditionalInformationDTO(@JsonProperty("type") Str
             processedUsersCount,
             deletedMessagesCount,
             failedUsers,
-            runningOptions.map(RunningOptionsDTO::asDomainObject).orElse(RunningOptions.DEFAULT));
+            runningOptions.map(RunningOptionsDTO::asDomainObject).orElse(RunningOptions.DEFAULT),
+            deletedMessagesPerSecond.orElse(0d));
     }
 
     @Override
@@ -4,21 +4,33 @@ import com.google.common.base.Preconditions;
 
 public class RunningOptions {
     public static final int DEFAULT_USERS_PER_SECOND = 1;
+    public static final int DEFAULT_MESSAGES_PER_CHUNK = 500;
     public static final RunningOptions DEFAULT = of(DEFAULT_USERS_PER_SECOND);
 
     public static RunningOptions of(int usersPerSecond) {
-        return new RunningOptions(usersPerSecond);
+        return of(usersPerSecond, DEFAULT_MESSAGES_PER_CHUNK);
+    }
+
+    public static RunningOptions of(int usersPerSecond, int messagesPerChunk) {
+        return new RunningOptions(usersPerSecond, messagesPerChunk);
     }
 
     private final int usersPerSecond;
+    private final int messagesPerChunk;
 
-    private RunningOptions(int usersPerSecond) {
+    private RunningOptions(int usersPerSecond, int messagesPerChunk) {
         Preconditions.checkArgument(usersPerSecond > 0, "'usersPerSecond' needs to be strictly positive");
+        Preconditions.checkArgument(messagesPerChunk > 0, "'messagesPerChunk' needs to be strictly positive");
 
         this.usersPerSecond = usersPerSecond;
+        this.messagesPerChunk = messagesPerChunk;
     }
 
     public int getUsersPerSecond() {
         return usersPerSecond;
     }
+
+    public int getMessagesPerChunk() {
+        return messagesPerChunk;
+    }
 }
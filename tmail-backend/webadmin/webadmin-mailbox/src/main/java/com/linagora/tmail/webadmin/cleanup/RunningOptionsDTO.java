@@ -4,14 +4,16 @@ import java.util.Optional;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public record RunningOptionsDTO(@JsonProperty("usersPerSecond") Optional<Integer> usersPerSecond) {
+public record RunningOptionsDTO(@JsonProperty("usersPerSecond") Optional<Integer> usersPerSecond,
+                                @JsonProperty("messagesPerChunk") Optional<Integer> messagesPerChunk) {
 
     public static RunningOptionsDTO asDTO(RunningOptions runningOptions) {
-        return new RunningOptionsDTO(Optional.of(runningOptions.getUsersPerSecond()));
+        return new RunningOptionsDTO(Optional.of(runningOptions.getUsersPerSecond()), Optional.of(runningOptions.getMessagesPerChunk()));
     }
 
     public RunningOptions asDomainObject() {
-        return RunningOptions.of(usersPerSecond.orElse(RunningOptions.DEFAULT_USERS_PER_SECOND));
+        return RunningOptions.of(usersPerSecond.orElse(RunningOptions.DEFAULT_USERS_PER_SECOND),
+            messagesPerChunk.orElse(RunningOptions.DEFAULT_MESSAGES_PER_CHUNK));
     }
 
 }
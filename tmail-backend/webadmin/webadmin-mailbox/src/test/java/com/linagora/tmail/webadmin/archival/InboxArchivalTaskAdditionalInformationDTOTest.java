@@ -1,10 +1,13 @@
 package com.linagora.tmail.webadmin.archival;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.time.Instant;
 import java.util.Set;
 
 import org.apache.james.JsonSerializationVerifier;
 import org.apache.james.core.Username;
+import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
 import org.apache.james.util.ClassLoaderUtils;
 import org.junit.jupiter.api.Test;
 
@@ -13,8 +16,17 @@ class InboxArchivalTaskAdditionalInformationDTOTest {
     void beanTest() throws Exception {
         JsonSerializationVerifier.dtoModule(InboxArchivalTaskAdditionalInformationDTO.SERIALIZATION_MODULE)
             .bean(new InboxArchivalTask.AdditionalInformation(Instant.parse("2007-12-03T10:15:30.00Z"), 4, 2,
-                1, 1, Set.of(Username.of("bob@domain.tld"))))
+                1, 1, Set.of(Username.of("bob@domain.tld")), 6, 0.5))
             .json(ClassLoaderUtils.getSystemResourceAsString("json/inboxArchivalTask.additionalInformation.json"))
             .verify();
     }
+
+    @Test
+    void additionalInformationWithoutThroughputShouldBeDeserializable() throws Exception {
+        JsonTaskAdditionalInformationSerializer serializer = JsonTaskAdditionalInformationSerializer.of(InboxArchivalTaskAdditionalInformationDTO.SERIALIZATION_MODULE);
+
+        assertThat(serializer.deserialize(ClassLoaderUtils.getSystemResourceAsString("json/inboxArchivalTask.additionalInformation.legacy.json")))
+            .isEqualTo(new InboxArchivalTask.AdditionalInformation(Instant.parse("2007-12-03T10:15:30.00Z"), 4, 2,
+                1, 1, Set.of(Username.of("bob@domain.tld")), 0, 0));
+    }
 }
@@ -1,6 +1,7 @@
 package com.linagora.tmail.webadmin.archival;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 
@@ -33,6 +34,8 @@ import com.linagora.tmail.james.jmap.settings.JmapSettingsRepository;
 import com.linagora.tmail.james.jmap.settings.JmapSettingsRepositoryJavaUtils;
 import com.linagora.tmail.james.jmap.settings.MemoryJmapSettingsRepository;
 
+import reactor.core.publisher.Mono;
+
 class InboxArchivalTaskTest {
     private static final Domain DOMAIN = Domain.of("domain.tld");
     private static final Username BOB = Username.fromLocalPartWithDomain("bob", DOMAIN);
@@ -370,6 +373,7 @@ class InboxArchivalTaskTest {
                 .successfulUsersCount(2)
                 .failedUsersCount(0)
                 .failedUsers(ImmutableSet.of())
+                .candidateMessageCount(2)
                 .build());
     }
 
@@ -393,9 +397,78 @@ class InboxArchivalTaskTest {
                 .successfulUsersCount(1)
                 .failedUsersCount(0)
                 .failedUsers(ImmutableSet.of())
+                .candidateMessageCount(1)
                 .build());
     }
 
+    @Test
+    void shouldOnlyArchiveOldMessagesWhenInterleavedWithRecentOnes() throws MailboxException {
+        setJmapSettings(BOB, Map.of("inbox.archival.enabled", "true",
+            "inbox.archival.format", "monthly"));
+
+        for (int i = 0; i < 30; i++) {
+            saveDateClock.setInstant(Instant.parse("2014-01-04T10:15:30.00Z"));
+            appendInboxMessage(BOB);
+            appendInboxMessage(BOB);
+            saveDateClock.setInstant(Instant.parse("2014-02-04T10:15:30.00Z"));
+            appendInboxMessage(BOB);
+            saveDateClock.setInstant(NOW.minusSeconds(HALF_MONTHS_IN_SECOND));
+            appendInboxMessage(BOB);
+        }
+
+        Task.Result result = task.run();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        assertMessagesCount(MailboxPath.inbox(BOB), 30L);
+        assertMessagesCount(MailboxPath.forUser(BOB, "Archive.2014.1"), 60L);
+        assertMessagesCount(MailboxPath.forUser(BOB, "Archive.2014.2"), 30L);
+        assertThat(task.snapshot())
+            .isEqualTo(InboxArchivalTask.Context.Snapshot.builder()
+                .archivedMessageCount(90)
+                .errorMessageCount(0)
+                .successfulUsersCount(1)
+                .failedUsersCount(0)
+                .failedUsers(ImmutableSet.of())
+                .candidateMessageCount(90)
+                .build());
+    }
+
+    @Test
+    void detailsShouldExposeTheArchivalThroughput() throws MailboxException {
+        setJmapSettings(BOB, Map.of("inbox.archival.enabled", "true"));
+
+        saveDateClock.setInstant(NOW.minusSeconds(TWO_YEARS_IN_SECOND));
+        appendInboxMessage(BOB);
+        appendInboxMessage(BOB);
+
+        task.run();
+
+        InboxArchivalTask.AdditionalInformation details = (InboxArchivalTask.AdditionalInformation) task.details().get();
+        assertThat(details.candidateMessageCount()).isEqualTo(2L);
+        assertThat(details.archivedMessagesPerSecond()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void archivedMessagesPerSecondShouldBeMeasuredFromTheRunToItsCompletion() {
+        UpdatableTickingClock taskClock = new UpdatableTickingClock(NOW);
+        InboxArchivalService service = mock(InboxArchivalService.class);
+        Mockito.when(service.archiveInbox(any())).thenAnswer(invocation -> {
+            InboxArchivalTask.Context context = invocation.getArgument(0);
+            taskClock.setInstant(taskClock.instant().plusSeconds(10));
+            context.increaseArchivedMessageCount(50);
+            return Mono.just(Task.Result.COMPLETED);
+        });
+        InboxArchivalTask testee = new InboxArchivalTask(service, taskClock);
+
+        // Neither the time spent waiting to run nor the time elapsed after the completion should be accounted for
+        taskClock.setInstant(NOW.plusSeconds(50));
+        testee.run();
+        taskClock.setInstant(taskClock.instant().plusSeconds(90));
+
+        InboxArchivalTask.AdditionalInformation details = (InboxArchivalTask.AdditionalInformation) testee.details().get();
+        assertThat(details.archivedMessagesPerSecond()).isCloseTo(5.0, within(0.01));
+    }
+
     private void setJmapSettings(Username username, Map<String, String> settings) {
         jmapSettingsRepositoryUtils.reset(username, settings);
     }
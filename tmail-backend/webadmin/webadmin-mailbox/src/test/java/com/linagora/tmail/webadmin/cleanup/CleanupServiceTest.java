@@ -49,6 +49,7 @@ public class CleanupServiceTest {
     private SessionProvider sessionProvider;
     private SystemMailboxesProvider systemMailboxesProvider;
     private UpdatableTickingClock clock;
+    private UpdatableTickingClock saveDateClock;
     private MailboxSession bobMailboxSession;
     private MessageManager bobMessageManager;
 
@@ -57,6 +58,7 @@ public class CleanupServiceTest {
         InMemoryIntegrationResources resources = InMemoryIntegrationResources.defaultResources();
         StoreMailboxManager storeMailboxManager = resources.getMailboxManager();
         sessionProvider = storeMailboxManager.getSessionProvider();
+        saveDateClock = (UpdatableTickingClock) storeMailboxManager.getClock();
         systemMailboxesProvider = new SystemMailboxesProviderImpl(storeMailboxManager);
         bobMailboxSession = sessionProvider.createSystemSession(BOB);
         DNSService dnsService = mock(DNSService.class);
@@ -282,4 +284,73 @@ public class CleanupServiceTest {
             .block())
             .hasSize(1);
     }
+
+    @Test
+    void cleanupShouldDeleteExpiredMessagesByChunks() throws Exception {
+        jmapSettingsRepositoryUtils.reset(BOB, Map.of("trash.cleanup.enabled", "true",
+            "trash.cleanup.period", "weekly"));
+
+        for (int i = 0; i < 5; i++) {
+            saveDateClock.setInstant(clock.instant().minus(10, ChronoUnit.DAYS));
+            appendTrashMessage();
+            appendTrashMessage();
+            saveDateClock.setInstant(clock.instant().minus(2, ChronoUnit.DAYS));
+            appendTrashMessage();
+        }
+
+        CleanupContext context = new CleanupContext();
+        assertThat(cleanupService.cleanup(Role.TRASH, RunningOptions.of(1, 3), context).block()).isEqualTo(Task.Result.COMPLETED);
+
+        assertThat(Flux.from(bobMessageManager.getMessagesReactive(MessageRange.all(), FetchGroup.MINIMAL, bobMailboxSession))
+            .collect(ImmutableList.toImmutableList())
+            .block())
+            .hasSize(5);
+        assertThat(context.snapshot().deletedMessagesCount()).isEqualTo(10);
+    }
+
+    @Test
+    void cleanupShouldRemoveMessageWhenSaveDateIsExpiredButInternalDateIsNot() throws Exception {
+        jmapSettingsRepositoryUtils.reset(BOB, Map.of("trash.cleanup.enabled", "true",
+            "trash.cleanup.period", "weekly"));
+
+        saveDateClock.setInstant(clock.instant().minus(10, ChronoUnit.DAYS));
+        bobMessageManager.appendMessage(new ByteArrayInputStream("Subject: test\r\n\r\ntestmail".getBytes()),
+            Date.from(clock.instant()),
+            bobMailboxSession,
+            false,
+            new Flags());
+
+        assertThat(cleanupService.cleanup(Role.TRASH, RunningOptions.DEFAULT, new CleanupContext()).block()).isEqualTo(Task.Result.COMPLETED);
+        assertThat(Flux.from(bobMessageManager.getMessagesReactive(MessageRange.all(), FetchGroup.MINIMAL, bobMailboxSession))
+            .collect(ImmutableList.toImmutableList())
+            .block())
+            .isEmpty();
+    }
+
+    @Test
+    void cleanupShouldKeepMessageWhenInternalDateIsExpiredButSaveDateIsNot() throws Exception {
+        jmapSettingsRepositoryUtils.reset(BOB, Map.of("trash.cleanup.enabled", "true",
+            "trash.cleanup.period", "weekly"));
+
+        saveDateClock.setInstant(clock.instant());
+        bobMessageManager.appendMessage(new ByteArrayInputStream("Subject: test\r\n\r\ntestmail".getBytes()),
+            Date.from(clock.instant().minus(10, ChronoUnit.DAYS)),
+            bobMailboxSession,
+            false,
+            new Flags());
+
+        assertThat(cleanupService.cleanup(Role.TRASH, RunningOptions.DEFAULT, new CleanupContext()).block()).isEqualTo(Task.Result.COMPLETED);
+        assertThat(Flux.from(bobMessageManager.getMessagesReactive(MessageRange.all(), FetchGroup.MINIMAL, bobMailboxSession))
+            .collect(ImmutableList.toImmutableList())
+            .block())
+            .hasSize(1);
+    }
+
+    private void appendTrashMessage() throws Exception {
+        bobMessageManager.appendMessage(new ByteArrayInputStream("Subject: test\r\n\r\ntestmail".getBytes()),
+            new Date(),
+            bobMailboxSession,
+            false,
+            new Flags());
+    }
 }
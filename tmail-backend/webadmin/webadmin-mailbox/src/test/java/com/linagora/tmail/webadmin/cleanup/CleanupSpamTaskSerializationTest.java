@@ -17,8 +17,9 @@ public class CleanupSpamTaskSerializationTest {
         "\"processedUsersCount\":12," +
         "\"deletedMessagesCount\":55," +
         "\"failedUsers\":[\"bob@localhost\"]," +
-        "\"runningOptions\":{\"usersPerSecond\":1}," +
-        "\"timestamp\":\"2018-11-13T12:00:55Z\"" +
+        "\"runningOptions\":{\"usersPerSecond\":1,\"messagesPerChunk\":500}," +
+        "\"timestamp\":\"2018-11-13T12:00:55Z\"," +
+        "\"deletedMessagesPerSecond\":2.5" +
         "}";
 
     CleanupService cleanupService = mock(CleanupService.class);
@@ -26,8 +27,8 @@ public class CleanupSpamTaskSerializationTest {
     @Test
     void taskShouldBeSerializable() throws Exception {
         JsonSerializationVerifier.dtoModule(CleanupSpamTaskDTO.module(cleanupService))
-            .bean(new CleanupSpamTask(cleanupService, RunningOptions.of(9)))
-            .json("{\"type\":\"cleanup-spam\",\"runningOptions\":{\"usersPerSecond\":9}}")
+            .bean(new CleanupSpamTask(cleanupService, RunningOptions.of(9, 100)))
+            .json("{\"type\":\"cleanup-spam\",\"runningOptions\":{\"usersPerSecond\":9,\"messagesPerChunk\":100}}")
             .verify();
     }
 
@@ -35,7 +36,7 @@ public class CleanupSpamTaskSerializationTest {
     void additionalInformationShouldBeSerializable() throws Exception {
         JsonSerializationVerifier.dtoModule(CleanupSpamTaskAdditionalInformationDTO.module())
             .bean(new CleanupSpamTaskDetails(TIMESTAMP, 12, 55,
-                ImmutableList.of("bob@localhost"), RunningOptions.DEFAULT))
+                ImmutableList.of("bob@localhost"), RunningOptions.DEFAULT, 2.5))
             .json(SERIALIZED_ADDITIONAL_INFORMATION)
             .verify();
     }
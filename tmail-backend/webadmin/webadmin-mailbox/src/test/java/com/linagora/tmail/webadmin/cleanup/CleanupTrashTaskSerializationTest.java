@@ -18,8 +18,9 @@ public class CleanupTrashTaskSerializationTest {
         "\"processedUsersCount\":12," +
         "\"deletedMessagesCount\":55," +
         "\"failedUsers\":[\"bob@localhost\"]," +
-        "\"runningOptions\":{\"usersPerSecond\":1}," +
-        "\"timestamp\":\"2018-11-13T12:00:55Z\"" +
+        "\"runningOptions\":{\"usersPerSecond\":1,\"messagesPerChunk\":500}," +
+        "\"timestamp\":\"2018-11-13T12:00:55Z\"," +
+        "\"deletedMessagesPerSecond\":2.5" +
         "}";
 
     CleanupService cleanupService = mock(CleanupService.class);
@@ -27,8 +28,8 @@ public class CleanupTrashTaskSerializationTest {
     @Test
     void taskShouldBeSerializable() throws Exception {
         JsonSerializationVerifier.dtoModule(CleanupTrashTaskDTO.module(cleanupService))
-            .bean(new CleanupTrashTask(cleanupService, RunningOptions.of(9)))
-            .json("{\"type\":\"cleanup-trash\",\"runningOptions\":{\"usersPerSecond\":9}}")
+            .bean(new CleanupTrashTask(cleanupService, RunningOptions.of(9, 100)))
+            .json("{\"type\":\"cleanup-trash\",\"runningOptions\":{\"usersPerSecond\":9,\"messagesPerChunk\":100}}")
             .verify();
     }
 
@@ -36,7 +37,7 @@ public class CleanupTrashTaskSerializationTest {
     void additionalInformationShouldBeSerializable() throws Exception {
         JsonSerializationVerifier.dtoModule(CleanupTrashTaskAdditionalInformationDTO.module())
             .bean(new CleanupTrashTaskDetails(TIMESTAMP, 12, 55,
-                ImmutableList.of("bob@localhost"), RunningOptions.DEFAULT))
+                ImmutableList.of("bob@localhost"), RunningOptions.DEFAULT, 2.5))
             .json(SERIALIZED_ADDITIONAL_INFORMATION)
             .verify();
     }
@@ -0,0 +1,65 @@
+package com.linagora.tmail.webadmin.cleanup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.apache.james.mailbox.Role;
+import org.apache.james.task.Task;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+
+class CleanupTrashTaskTest {
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private UpdatableTickingClock clock;
+    private CleanupTrashTask testee;
+
+    @BeforeEach
+    void setUp() {
+        clock = new UpdatableTickingClock(NOW);
+        CleanupService cleanupService = mock(CleanupService.class);
+        when(cleanupService.cleanup(eq(Role.TRASH), any(), any())).thenAnswer(invocation -> {
+            CleanupContext context = invocation.getArgument(2);
+            clock.setInstant(clock.instant().plusSeconds(10));
+            context.incrementDeletedMessagesCount(100);
+            return Mono.just(Task.Result.COMPLETED);
+        });
+        testee = new CleanupTrashTask(cleanupService, RunningOptions.DEFAULT, clock);
+    }
+
+    private double deletedMessagesPerSecond() {
+        return ((CleanupTrashTaskDetails) testee.details().get()).deletedMessagesPerSecond();
+    }
+
+    @Test
+    void deletedMessagesPerSecondShouldBeZeroBeforeRunning() {
+        assertThat(deletedMessagesPerSecond()).isZero();
+    }
+
+    @Test
+    void deletedMessagesPerSecondShouldNotAccountForTheTimeSpentWaitingToRun() throws Exception {
+        clock.setInstant(NOW.plusSeconds(50));
+
+        testee.run();
+
+        assertThat(deletedMessagesPerSecond()).isCloseTo(10.0, within(0.01));
+    }
+
+    @Test
+    void deletedMessagesPerSecondShouldBeFrozenOnceCompleted() throws Exception {
+        testee.run();
+
+        clock.setInstant(clock.instant().plusSeconds(90));
+
+        assertThat(deletedMessagesPerSecond()).isCloseTo(10.0, within(0.01));
+    }
+}